@@ -0,0 +1,117 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+/**
+ * Object filled by the {@link MapperBenchmark}, the nodes are chained to reach a given path depth.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public class BenchmarkNode
+{
+	private BenchmarkNode myChild;
+
+	private double myDoubleValue;
+
+	private int myIntValue;
+
+	private String myStringValue;
+
+	private String[] myValues;
+
+	/**
+	 * Create a chain of nodes.
+	 * 
+	 * @param depth
+	 *            count of nodes of the chain.
+	 * @return the first node.
+	 */
+	public static BenchmarkNode createChain(int depth)
+	{
+		BenchmarkNode _result = new BenchmarkNode();
+		for (int _level = 1; _level < depth; _level++)
+		{
+			BenchmarkNode _parent = new BenchmarkNode();
+			_parent.setChild(_result);
+			_result = _parent;
+		}
+		return _result;
+	}
+
+	public BenchmarkNode getChild()
+	{
+		return myChild;
+	}
+
+	public double getDoubleValue()
+	{
+		return myDoubleValue;
+	}
+
+	public int getIntValue()
+	{
+		return myIntValue;
+	}
+
+	public String getStringValue()
+	{
+		return myStringValue;
+	}
+
+	public String[] getValues()
+	{
+		return myValues;
+	}
+
+	public void setChild(BenchmarkNode child)
+	{
+		myChild = child;
+	}
+
+	public void setDoubleValue(double doubleValue)
+	{
+		myDoubleValue = doubleValue;
+	}
+
+	public void setIntValue(int intValue)
+	{
+		myIntValue = intValue;
+	}
+
+	public void setStringValue(String stringValue)
+	{
+		myStringValue = stringValue;
+	}
+
+	public void setValues(String[] values)
+	{
+		myValues = values;
+	}
+}
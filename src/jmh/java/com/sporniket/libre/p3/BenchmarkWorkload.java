@@ -0,0 +1,177 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.sporniket.libre.io.parser.properties.MultipleLinePropertyParsedEvent;
+
+/**
+ * Synthetic workloads of the benchmarks : directives having a given count of rules, and property names of which a part is matched
+ * by these rules.
+ * 
+ * <p>
+ * The rule <code>i</code> targets the properties <code>group&lt;i&gt;.item&lt;n&gt;</code> ; the property names are spread over
+ * twice as many groups as rules, so that about half of them are not matched (unless the rules end with a catch all).
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+abstract class BenchmarkWorkload
+{
+	/**
+	 * Kind of rules of the directives.
+	 */
+	enum RuleMix
+	{
+		/**
+		 * Only <code>if name is "group&lt;i&gt;.item&lt;i % 10&gt;"</code>.
+		 */
+		EXACT,
+
+		/**
+		 * Only <code>if name is like "group&lt;i&gt;\\.item[0-9]"</code>, evaluated as regular expressions.
+		 */
+		LIKE,
+
+		/**
+		 * Exact, like and prefix rules in turn, followed by an <code>else</code>.
+		 */
+		MIXED,
+
+		/**
+		 * Only <code>if name is like "group&lt;i&gt;\\..*"</code>, evaluated as prefixes.
+		 */
+		PREFIX
+	}
+
+	/**
+	 * Count of distinct items in each group.
+	 */
+	static final int ITEMS_PER_GROUP = 10;
+
+	/**
+	 * Kinds of rules used in turn by {@link RuleMix#MIXED}.
+	 */
+	private static final RuleMix[] MIXED_KINDS =
+	{
+			RuleMix.EXACT, RuleMix.LIKE, RuleMix.PREFIX
+	};
+
+	/**
+	 * Seed of the generation of property names, for reproducible workloads.
+	 */
+	private static final long SEED = 20160901L;
+
+	/**
+	 * Create a P3 setup with the given directives.
+	 * 
+	 * @param directives
+	 *            the directives, one statement by line.
+	 * @return the P3.
+	 */
+	static P3 createP3(String[] directives)
+	{
+		P3 _result = new P3();
+		_result.onMultipleLinePropertyParsed(new MultipleLinePropertyParsedEvent(P3.DEFAULT_PROPERTY_NAME_FOR_DIRECTIVES,
+				directives));
+		return _result;
+	}
+
+	/**
+	 * Create directives calling a {@link BenchmarkSink} for single and multiple line properties.
+	 * 
+	 * @param ruleCount
+	 *            count of rules for each kind of property.
+	 * @param mix
+	 *            kind of rules.
+	 * @return the directives, one statement by line.
+	 */
+	static String[] createDirectives(int ruleCount, RuleMix mix)
+	{
+		List<String> _result = new ArrayList<String>();
+		_result.add("define sink as new " + BenchmarkSink.class.getName());
+		createDirectives__on("singleLinePropertyParsed", "String", ruleCount, mix, _result);
+		createDirectives__on("multipleLinePropertyParsed", "String[]", ruleCount, mix, _result);
+		return _result.toArray(new String[_result.size()]);
+	}
+
+	/**
+	 * Create property names, randomly spread over twice as many groups as rules.
+	 * 
+	 * @param count
+	 *            count of names.
+	 * @param ruleCount
+	 *            count of rules.
+	 * @return the names.
+	 */
+	static String[] createNames(int count, int ruleCount)
+	{
+		Random _random = new Random(SEED);
+		String[] _result = new String[count];
+		for (int _index = 0; _index < count; _index++)
+		{
+			_result[_index] = "group" + _random.nextInt(2 * ruleCount) + ".item" + _random.nextInt(ITEMS_PER_GROUP);
+		}
+		return _result;
+	}
+
+	private static void createDirectives__on(String event, String valueType, int ruleCount, RuleMix mix, List<String> target)
+	{
+		target.add("on " + event + " with a String named name, a " + valueType + " named value");
+		for (int _rule = 0; _rule < ruleCount; _rule++)
+		{
+			RuleMix _kind = (RuleMix.MIXED == mix) ? MIXED_KINDS[_rule % MIXED_KINDS.length] : mix;
+			String _test;
+			switch (_kind)
+			{
+				case EXACT:
+					_test = "name is \"group" + _rule + ".item" + (_rule % ITEMS_PER_GROUP) + "\"";
+					break;
+				case LIKE:
+					_test = "name is like \"group" + _rule + "\\\\.item[0-9]\"";
+					break;
+				default:
+					_test = "name is like \"group" + _rule + "\\\\..*\"";
+					break;
+			}
+			target.add(((0 == _rule) ? "    if " : "    else if ") + _test);
+			target.add("        call consume from sink using name, value");
+		}
+		if (RuleMix.MIXED == mix)
+		{
+			target.add("    else");
+			target.add("        call consume from sink using name, value");
+		}
+		target.add("    endif");
+		target.add("endon");
+	}
+}
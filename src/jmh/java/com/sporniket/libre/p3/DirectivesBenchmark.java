@@ -0,0 +1,102 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Construction of a P3, compilation of directives, and execution of directives by a new P3, by count and kind of rules ; the cache
+ * of compiled directives is disabled.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class DirectivesBenchmark
+{
+	@Param(
+	{
+			"10", "100", "1000"
+	})
+	public int ruleCount;
+
+	@Param(
+	{
+			"EXACT", "LIKE", "PREFIX", "MIXED"
+	})
+	public String ruleMix;
+
+	private String[] myDirectives;
+
+	private String mySource;
+
+	@Benchmark
+	public void compileDirectives(Blackhole blackhole) throws DirectivesCompilationException
+	{
+		blackhole.consume(DirectivesCompiler.get().compile(mySource, false));
+	}
+
+	@Benchmark
+	public P3 createP3()
+	{
+		return new P3();
+	}
+
+	@Benchmark
+	public P3 executeDirectives()
+	{
+		return BenchmarkWorkload.createP3(myDirectives);
+	}
+
+	@Setup
+	public void setup()
+	{
+		P3.setCompiledDirectivesCacheCapacity(0);
+		myDirectives = BenchmarkWorkload.createDirectives(ruleCount, BenchmarkWorkload.RuleMix.valueOf(ruleMix));
+		mySource = String.join("\n", myDirectives);
+	}
+}
@@ -0,0 +1,127 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.sporniket.libre.io.parser.properties.MultipleLinePropertyParsedEvent;
+import com.sporniket.libre.io.parser.properties.SingleLinePropertyParsedEvent;
+
+/**
+ * Dispatch of a whole file of single or multiple line properties, by count of rules, kind of rules and size of the file ; the
+ * events are created beforehand, the time per property is the measured time divided by <code>propertyCount</code>.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class DispatchBenchmark
+{
+	private static final String[] MULTIPLE_LINE_VALUE =
+	{
+			"first line", "second line", "third line"
+	};
+
+	@Param(
+	{
+			"10000", "100000", "1000000"
+	})
+	public int propertyCount;
+
+	@Param(
+	{
+			"10", "100", "1000"
+	})
+	public int ruleCount;
+
+	@Param(
+	{
+			"EXACT", "LIKE", "PREFIX", "MIXED"
+	})
+	public String ruleMix;
+
+	private MultipleLinePropertyParsedEvent[] myMultipleLineProperties;
+
+	private P3 myProgram;
+
+	private SingleLinePropertyParsedEvent[] mySingleLineProperties;
+
+	@Benchmark
+	public void dispatchMultipleLineProperties(Blackhole blackhole)
+	{
+		for (MultipleLinePropertyParsedEvent _property : myMultipleLineProperties)
+		{
+			myProgram.onMultipleLinePropertyParsed(_property);
+		}
+		blackhole.consume(myProgram);
+	}
+
+	@Benchmark
+	public void dispatchSingleLineProperties(Blackhole blackhole)
+	{
+		for (SingleLinePropertyParsedEvent _property : mySingleLineProperties)
+		{
+			myProgram.onSingleLinePropertyParsed(_property);
+		}
+		blackhole.consume(myProgram);
+	}
+
+	@Setup
+	public void setup()
+	{
+		myProgram = BenchmarkWorkload.createP3(BenchmarkWorkload.createDirectives(ruleCount,
+				BenchmarkWorkload.RuleMix.valueOf(ruleMix)));
+		String[] _names = BenchmarkWorkload.createNames(propertyCount, ruleCount);
+		mySingleLineProperties = new SingleLinePropertyParsedEvent[_names.length];
+		myMultipleLineProperties = new MultipleLinePropertyParsedEvent[_names.length];
+		for (int _index = 0; _index < _names.length; _index++)
+		{
+			mySingleLineProperties[_index] = new SingleLinePropertyParsedEvent(_names[_index], String.valueOf(_index));
+			myMultipleLineProperties[_index] = new MultipleLinePropertyParsedEvent(_names[_index], MULTIPLE_LINE_VALUE);
+		}
+	}
+}
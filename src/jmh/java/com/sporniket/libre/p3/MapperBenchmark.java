@@ -0,0 +1,148 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sporniket.libre.p3.builtins.WrappedObjectMapperProcessor;
+
+/**
+ * Mapping of a property by a {@link WrappedObjectMapperProcessor}, by depth of the path and type of the value.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class MapperBenchmark
+{
+	/**
+	 * Mapper filling a chain of {@link BenchmarkNode}.
+	 */
+	public static class Mapper extends WrappedObjectMapperProcessor
+	{
+		private final BenchmarkNode myRoot;
+
+		public Mapper(int depth)
+		{
+			myRoot = BenchmarkNode.createChain(depth);
+		}
+
+		@Override
+		protected Object getObject()
+		{
+			return myRoot;
+		}
+	}
+
+	@Param(
+	{
+			"1", "4", "8"
+	})
+	public int depth;
+
+	@Param(
+	{
+			"STRING", "INT", "DOUBLE", "ARRAY"
+	})
+	public String valueType;
+
+	private Mapper myMapper;
+
+	private String myName;
+
+	private String myValue;
+
+	private String[] myValues;
+
+	@Benchmark
+	public void mapProperty() throws ReflectiveOperationException
+	{
+		if (null == myValues)
+		{
+			myMapper.process(myName, myValue);
+		}
+		else
+		{
+			myMapper.process(myName, myValues);
+		}
+	}
+
+	@Setup
+	public void setup()
+	{
+		myMapper = new Mapper(depth);
+		StringBuilder _name = new StringBuilder();
+		for (int _level = 1; _level < depth; _level++)
+		{
+			_name.append("child.");
+		}
+		switch (valueType)
+		{
+			case "STRING":
+				_name.append("stringValue");
+				myValue = "foo";
+				break;
+			case "INT":
+				_name.append("intValue");
+				myValue = "42";
+				break;
+			case "DOUBLE":
+				_name.append("doubleValue");
+				myValue = "3.14";
+				break;
+			case "ARRAY":
+				_name.append("values");
+				myValues = new String[]
+				{
+						"a", "b", "c"
+				};
+				break;
+			default:
+				throw new IllegalArgumentException(valueType);
+		}
+		myName = _name.toString();
+	}
+}
@@ -0,0 +1,117 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Each kind of {@link PropertyNameMatcher} in isolation, for a matched and an unmatched name, given as a <code>String</code> or as
+ * another <code>CharSequence</code>.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class MatcherBenchmark
+{
+	private static final String NAME__MATCHED = "group7.item3";
+
+	private static final String NAME__UNMATCHED = "group8.item3";
+
+	@Param(
+	{
+			"ANY", "EXACT", "LIKE", "PREFIX"
+	})
+	public String matcher;
+
+	@Param(
+	{
+			"true", "false"
+	})
+	public boolean matching;
+
+	private PropertyNameMatcher myMatcher;
+
+	private String myName;
+
+	private CharSequence myNameView;
+
+	@Benchmark
+	public boolean matchCharSequence()
+	{
+		return myMatcher.isMatching(myNameView);
+	}
+
+	@Benchmark
+	public boolean matchString()
+	{
+		return myMatcher.isMatching(myName);
+	}
+
+	@Setup
+	public void setup()
+	{
+		switch (matcher)
+		{
+			case "ANY":
+				myMatcher = new PropertyNameMatcherAny();
+				break;
+			case "EXACT":
+				myMatcher = new PropertyNameMatcherExactMatch(NAME__MATCHED);
+				break;
+			case "LIKE":
+				myMatcher = new PropertyNameMatcherLike("group7\\.item[0-9]");
+				break;
+			case "PREFIX":
+				myMatcher = new PropertyNameMatcherPrefix("group7\\..*");
+				break;
+			default:
+				throw new IllegalArgumentException(matcher);
+		}
+		myName = matching ? NAME__MATCHED : NAME__UNMATCHED;
+		myNameView = new StringBuilder(myName);
+	}
+}
@@ -0,0 +1,811 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.sporniket.libre.io.parser.properties.MultipleLinePropertyParsedEvent;
+import com.sporniket.libre.io.parser.properties.PropertiesParsingListener;
+import com.sporniket.libre.io.parser.properties.SingleLinePropertyParsedEvent;
+
+/**
+ * {@link PropertiesParsingListener} that hands the processing of the properties over to worker threads, so that the parsing and the
+ * processing overlap.
+ * 
+ * <p>
+ * The parsing thread selects the matching rule of each property using the rules of a {@link P3}, then queues the calls of the
+ * processors. Each worker has a bounded ring of calls, that it processes in batches ; the calls of the processors of a given holder
+ * always go to the same worker, thus a holder sees the properties in the parsing order, and is only called by one thread at a time.
+ * When the ring of a worker is full, the {@link BackpressurePolicy} applies.
+ * 
+ * <p>
+ * The property containing the directives is processed by the parsing thread, once every queued call has been processed, thus the
+ * rules it adds apply to the following properties, like with a P3. The generated dispatcher of the P3 is not used.
+ * 
+ * <p>
+ * A failure of a processor does not stop the workers, the first failure is thrown by the next call to {@link #flush()} or
+ * {@link #awaitQuiescence(long, TimeUnit)}. When a worker ends abnormally (e.g. interrupted), the queuing of a call and the
+ * barriers throw an {@link IllegalStateException} instead of waiting for it.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public class AsyncDispatcher implements PropertiesParsingListener, AutoCloseable
+{
+	/**
+	 * Bounded ring of calls of processors, with an overflow queue for {@link BackpressurePolicy#SPILL}.
+	 * 
+	 * <p>
+	 * When the overflow queue is not empty, the ring is full and the new calls go to the overflow queue, thus the order is kept.
+	 */
+	private static final class Lane
+	{
+		private long myCompletedCount;
+
+		/**
+		 * Cause of the abnormal end of the worker of the lane, the calls are not processed anymore.
+		 */
+		private Throwable myFailure;
+
+		private long myHead;
+
+		private final ReentrantLock myLock = new ReentrantLock();
+
+		private final int myMask;
+
+		private final String[] myNames;
+
+		private final Condition myNotEmpty = myLock.newCondition();
+
+		private final Condition myNotFull = myLock.newCondition();
+
+		private final ProcessorSpec[] myProcessors;
+
+		private final Condition myProgress = myLock.newCondition();
+
+		private final ArrayDeque<Object[]> mySpill = new ArrayDeque<Object[]>();
+
+		private boolean myStopped;
+
+		private long mySubmittedCount;
+
+		private long myTail;
+
+		private final Object[] myValues;
+
+		/**
+		 * Create a lane.
+		 * 
+		 * @param capacity
+		 *            size of the ring, a power of two.
+		 */
+		public Lane(int capacity)
+		{
+			myMask = capacity - 1;
+			myProcessors = new ProcessorSpec[capacity];
+			myNames = new String[capacity];
+			myValues = new Object[capacity];
+		}
+
+		/**
+		 * Wait until the given count of calls have been processed.
+		 * 
+		 * @param count
+		 *            the count of calls.
+		 * @param deadline
+		 *            the deadline, as a {@link System#nanoTime()}, or {@link Long#MAX_VALUE} to wait forever.
+		 * @return <code>false</code> if the deadline has been reached.
+		 * @throws InterruptedException
+		 *             when interrupted.
+		 * @throws IllegalStateException
+		 *             when the worker of the lane has ended abnormally.
+		 */
+		public boolean awaitCompletedCount(long count, long deadline) throws InterruptedException
+		{
+			myLock.lock();
+			try
+			{
+				checkNotFailed();
+				while (myCompletedCount < count)
+				{
+					if (Long.MAX_VALUE == deadline)
+					{
+						myProgress.await();
+					}
+					else if (myProgress.awaitNanos(deadline - System.nanoTime()) <= 0 && myCompletedCount < count)
+					{
+						return false;
+					}
+					checkNotFailed();
+				}
+				return true;
+			}
+			finally
+			{
+				myLock.unlock();
+			}
+		}
+
+		/**
+		 * Record the end of the processing of a batch.
+		 * 
+		 * @param count
+		 *            the size of the batch.
+		 */
+		public void complete(int count)
+		{
+			myLock.lock();
+			try
+			{
+				myCompletedCount += count;
+				myProgress.signalAll();
+			}
+			finally
+			{
+				myLock.unlock();
+			}
+		}
+
+		/**
+		 * Record the abnormal end of the worker of the lane, the waiting threads are woken up.
+		 * 
+		 * @param cause
+		 *            the cause, may be <code>null</code>.
+		 */
+		public void fail(Throwable cause)
+		{
+			myLock.lock();
+			try
+			{
+				myFailure = (null == cause) ? new IllegalStateException("worker stopped") : cause;
+				myProgress.signalAll();
+				myNotFull.signalAll();
+			}
+			finally
+			{
+				myLock.unlock();
+			}
+		}
+
+		public long getSubmittedCount()
+		{
+			myLock.lock();
+			try
+			{
+				return mySubmittedCount;
+			}
+			finally
+			{
+				myLock.unlock();
+			}
+		}
+
+		/**
+		 * Queue a call.
+		 * 
+		 * @param processor
+		 *            the processor.
+		 * @param name
+		 *            property name.
+		 * @param value
+		 *            property value.
+		 * @param backpressure
+		 *            what to do when the ring is full.
+		 * @return <code>false</code> when the call has been dropped.
+		 * @throws InterruptedException
+		 *             when interrupted while waiting for room.
+		 * @throws IllegalStateException
+		 *             when the lane is stopped, or when its worker has ended abnormally.
+		 */
+		public boolean put(ProcessorSpec processor, String name, Object value, BackpressurePolicy backpressure)
+				throws InterruptedException
+		{
+			myLock.lock();
+			try
+			{
+				if (myStopped)
+				{
+					throw new IllegalStateException("closed");
+				}
+				checkNotFailed();
+				if (!mySpill.isEmpty() || isFull())
+				{
+					switch (backpressure)
+					{
+						case DROP:
+							return false;
+						case SPILL:
+							mySpill.add(new Object[]
+							{
+									processor, name, value
+							});
+							mySubmittedCount++;
+							myNotEmpty.signal();
+							return true;
+						default:
+							while (isFull())
+							{
+								myNotFull.await();
+								checkNotFailed();
+							}
+					}
+				}
+				store(processor, name, value);
+				mySubmittedCount++;
+				myNotEmpty.signal();
+				return true;
+			}
+			finally
+			{
+				myLock.unlock();
+			}
+		}
+
+		/**
+		 * Stop the lane, the queued calls are still processed.
+		 */
+		public void stop()
+		{
+			myLock.lock();
+			try
+			{
+				myStopped = true;
+				myNotEmpty.signalAll();
+			}
+			finally
+			{
+				myLock.unlock();
+			}
+		}
+
+		/**
+		 * Take the next batch of calls, waiting for calls if needed.
+		 * 
+		 * @param processors
+		 *            receives the processors, its length is the maximum size of the batch.
+		 * @param names
+		 *            receives the property names.
+		 * @param values
+		 *            receives the property values.
+		 * @return the size of the batch, <code>0</code> when the lane is stopped and empty.
+		 * @throws InterruptedException
+		 *             when interrupted while waiting.
+		 */
+		public int take(ProcessorSpec[] processors, String[] names, Object[] values) throws InterruptedException
+		{
+			myLock.lock();
+			try
+			{
+				while (myHead == myTail && !myStopped)
+				{
+					myNotEmpty.await();
+				}
+				int _count = (int) Math.min(processors.length, myTail - myHead);
+				for (int _i = 0; _i < _count; _i++)
+				{
+					int _slot = (int) (myHead & myMask);
+					processors[_i] = myProcessors[_slot];
+					names[_i] = myNames[_slot];
+					values[_i] = myValues[_slot];
+					myProcessors[_slot] = null;
+					myNames[_slot] = null;
+					myValues[_slot] = null;
+					myHead++;
+				}
+				while (!mySpill.isEmpty() && !isFull())
+				{
+					Object[] _call = mySpill.poll();
+					store((ProcessorSpec) _call[0], (String) _call[1], _call[2]);
+				}
+				if (_count > 0)
+				{
+					myNotFull.signalAll();
+				}
+				return _count;
+			}
+			finally
+			{
+				myLock.unlock();
+			}
+		}
+
+		/**
+		 * Must be called with the lock held.
+		 */
+		private void checkNotFailed()
+		{
+			if (null != myFailure)
+			{
+				throw new IllegalStateException("worker stopped", myFailure);
+			}
+		}
+
+		private boolean isFull()
+		{
+			return myTail - myHead > myMask;
+		}
+
+		private void store(ProcessorSpec processor, String name, Object value)
+		{
+			int _slot = (int) (myTail & myMask);
+			myProcessors[_slot] = processor;
+			myNames[_slot] = name;
+			myValues[_slot] = value;
+			myTail++;
+		}
+	}
+
+	/**
+	 * Default maximum count of calls processed by a worker in a row.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 64;
+
+	private static final long DEADLINE__NONE = Long.MAX_VALUE;
+
+	private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+	private final BackpressurePolicy myBackpressure;
+
+	private volatile int myBatchSize = DEFAULT_BATCH_SIZE;
+
+	private final LongAdder myDroppedCount = new LongAdder();
+
+	/**
+	 * First failure of a processor since the last barrier.
+	 */
+	private final AtomicReference<Throwable> myFailure = new AtomicReference<Throwable>();
+
+	private final Lane[] myLanes;
+
+	private final P3 myProgram;
+
+	private final Thread[] myWorkers;
+
+	/**
+	 * Create a dispatcher with daemon worker threads.
+	 * 
+	 * @param program
+	 *            the configured P3.
+	 * @param capacity
+	 *            size of the ring of each worker, rounded up to a power of two.
+	 * @param workerCount
+	 *            count of workers.
+	 * @param backpressure
+	 *            what to do when the ring of a worker is full.
+	 */
+	public AsyncDispatcher(P3 program, int capacity, int workerCount, BackpressurePolicy backpressure)
+	{
+		this(program, capacity, workerCount, backpressure, AsyncDispatcher::createDaemonThread);
+	}
+
+	/**
+	 * Create a dispatcher.
+	 * 
+	 * @param program
+	 *            the configured P3.
+	 * @param capacity
+	 *            size of the ring of each worker, rounded up to a power of two.
+	 * @param workerCount
+	 *            count of workers.
+	 * @param backpressure
+	 *            what to do when the ring of a worker is full.
+	 * @param threadFactory
+	 *            the factory of the worker threads.
+	 */
+	public AsyncDispatcher(P3 program, int capacity, int workerCount, BackpressurePolicy backpressure, ThreadFactory threadFactory)
+	{
+		if (capacity < 1 || capacity > 1 << 30)
+		{
+			throw new IllegalArgumentException("capacity must be between 1 and 2^30 : " + capacity);
+		}
+		if (workerCount < 1)
+		{
+			throw new IllegalArgumentException("workerCount must be positive : " + workerCount);
+		}
+		myProgram = program;
+		myBackpressure = backpressure;
+		int _ringSize = Integer.highestOneBit(capacity);
+		if (_ringSize < capacity)
+		{
+			_ringSize <<= 1;
+		}
+		myLanes = new Lane[workerCount];
+		myWorkers = new Thread[workerCount];
+		for (int _i = 0; _i < workerCount; _i++)
+		{
+			final Lane _lane = new Lane(_ringSize);
+			myLanes[_i] = _lane;
+			myWorkers[_i] = threadFactory.newThread(() -> work(_lane));
+		}
+		for (Thread _worker : myWorkers)
+		{
+			_worker.start();
+		}
+	}
+
+	/**
+	 * Create a dispatcher for processors that do blocking work (e.g. reading files) : many workers, on virtual threads when the
+	 * platform supports them (Java 21 and later), or else on a bounded count of platform threads. The calls are queued using
+	 * {@link BackpressurePolicy#BLOCK}.
+	 * 
+	 * <p>
+	 * The order of the properties for each holder is kept ; the end of the processing is awaited using {@link #flush()} or
+	 * {@link #close()} at the end of the input.
+	 * 
+	 * @param program
+	 *            the configured P3.
+	 * @param capacity
+	 *            size of the ring of each worker, rounded up to a power of two.
+	 * @return the dispatcher.
+	 * @see #isUsingVirtualThreads()
+	 */
+	public static AsyncDispatcher createForBlockingProcessors(P3 program, int capacity)
+	{
+		return new AsyncDispatcher(program, capacity, WorkerThreads.getThreadCount(), BackpressurePolicy.BLOCK,
+				WorkerThreads.getThreadFactory());
+	}
+
+	/**
+	 * @return <code>true</code> when the dispatchers created by {@link #createForBlockingProcessors(P3, int)} use virtual threads.
+	 */
+	public static boolean isUsingVirtualThreads()
+	{
+		return WorkerThreads.isVirtual();
+	}
+
+	private static Thread createDaemonThread(Runnable task)
+	{
+		Thread _result = new Thread(task, "p3-dispatcher-" + THREAD_COUNT.incrementAndGet());
+		_result.setDaemon(true);
+		return _result;
+	}
+
+	/**
+	 * Wait until every queued call has been processed, including the calls queued meanwhile.
+	 * 
+	 * @param timeout
+	 *            the maximum time to wait.
+	 * @param unit
+	 *            the unit of the timeout.
+	 * @return <code>false</code> if the timeout elapsed before.
+	 * @throws InterruptedException
+	 *             when interrupted while waiting.
+	 * @throws RuntimeException
+	 *             the first failure of a processor since the last barrier, an {@link Error} being thrown as is ; or an
+	 *             {@link IllegalStateException} when a worker has ended abnormally.
+	 */
+	public boolean awaitQuiescence(long timeout, TimeUnit unit) throws InterruptedException
+	{
+		long _deadline = System.nanoTime() + unit.toNanos(timeout);
+		boolean _quiescent = false;
+		while (!_quiescent)
+		{
+			_quiescent = true;
+			for (Lane _lane : getLanes())
+			{
+				long _submittedCount = _lane.getSubmittedCount();
+				if (!_lane.awaitCompletedCount(_submittedCount, _deadline))
+				{
+					return false;
+				}
+				_quiescent = _quiescent && _submittedCount == _lane.getSubmittedCount();
+			}
+		}
+		throwFailure();
+		return true;
+	}
+
+	/**
+	 * Process the remaining calls, and stop the workers.
+	 * 
+	 * <p>
+	 * When interrupted while waiting for the workers, the interrupt status is restored and the workers finish on their own ; an
+	 * interruptible wait is done using {@link #flush()} or {@link #awaitQuiescence(long, TimeUnit)} before.
+	 */
+	@Override
+	public void close()
+	{
+		for (Lane _lane : getLanes())
+		{
+			_lane.stop();
+		}
+		try
+		{
+			for (Thread _worker : getWorkers())
+			{
+				_worker.join();
+			}
+		}
+		catch (InterruptedException _exception)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Wait until every call queued before this method is called has been processed.
+	 * 
+	 * <p>
+	 * The batches pending in batch processors (see {@link PropertyBatch}) are delivered afterwards by {@link P3#onEndOfInput()}.
+	 * 
+	 * @throws InterruptedException
+	 *             when interrupted while waiting.
+	 * @throws RuntimeException
+	 *             the first failure of a processor since the last barrier, an {@link Error} being thrown as is ; or an
+	 *             {@link IllegalStateException} when a worker has ended abnormally.
+	 */
+	public void flush() throws InterruptedException
+	{
+		awaitQueuedCalls();
+		throwFailure();
+	}
+
+	public BackpressurePolicy getBackpressure()
+	{
+		return myBackpressure;
+	}
+
+	public int getBatchSize()
+	{
+		return myBatchSize;
+	}
+
+	/**
+	 * @return the count of calls of processors dropped, see {@link BackpressurePolicy#DROP}.
+	 */
+	public long getDroppedCount()
+	{
+		return myDroppedCount.sum();
+	}
+
+	public P3 getProgram()
+	{
+		return myProgram;
+	}
+
+	@Override
+	public void onMultipleLinePropertyParsed(MultipleLinePropertyParsedEvent event)
+	{
+		RuleSpec _rule = getProgram().findMatchingRuleForMultipleLineProperty(event.getName());
+		getProgram().recordProperty(true, _rule);
+		submit(_rule, event.getName(), event.getValue());
+	}
+
+	@Override
+	public void onSingleLinePropertyParsed(SingleLinePropertyParsedEvent event)
+	{
+		RuleSpec _rule = getProgram().findMatchingRuleForSingleLineProperty(event.getName());
+		getProgram().recordProperty(false, _rule);
+		submit(_rule, event.getName(), event.getValue());
+	}
+
+	/**
+	 * Set the maximum count of calls processed by a worker in a row, between two accesses to its ring.
+	 * 
+	 * @param batchSize
+	 *            the size of the batches.
+	 * @see #DEFAULT_BATCH_SIZE
+	 */
+	public void setBatchSize(int batchSize)
+	{
+		if (batchSize < 1)
+		{
+			throw new IllegalArgumentException("batchSize must be positive : " + batchSize);
+		}
+		myBatchSize = batchSize;
+	}
+
+	private void awaitQueuedCalls() throws InterruptedException
+	{
+		long[] _submittedCounts = new long[getLanes().length];
+		for (int _i = 0; _i < _submittedCounts.length; _i++)
+		{
+			_submittedCounts[_i] = getLanes()[_i].getSubmittedCount();
+		}
+		for (int _i = 0; _i < _submittedCounts.length; _i++)
+		{
+			getLanes()[_i].awaitCompletedCount(_submittedCounts[_i], DEADLINE__NONE);
+		}
+	}
+
+	private LongAdder getDroppedCountAdder()
+	{
+		return myDroppedCount;
+	}
+
+	private AtomicReference<Throwable> getFailure()
+	{
+		return myFailure;
+	}
+
+	private Lane[] getLanes()
+	{
+		return myLanes;
+	}
+
+	private Thread[] getWorkers()
+	{
+		return myWorkers;
+	}
+
+	/**
+	 * @return <code>true</code> when the rule processes the directives.
+	 */
+	private boolean isProcessingDirectives(RuleSpec rule)
+	{
+		for (ProcessorSpec _processor : rule.getProcessors())
+		{
+			if (getProgram() == _processor.getProcessorHolderBinding())
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Queue the calls of the processors of a rule.
+	 * 
+	 * @param rule
+	 *            the matching rule, may be <code>null</code>.
+	 * @param name
+	 *            property name.
+	 * @param value
+	 *            property value.
+	 */
+	private void submit(RuleSpec rule, String name, Object value)
+	{
+		if (null == rule)
+		{
+			return;
+		}
+		try
+		{
+			if (isProcessingDirectives(rule))
+			{
+				awaitQueuedCalls();
+				for (ProcessorSpec _processor : rule.getProcessors())
+				{
+					_processor.process(name, value);
+				}
+				return;
+			}
+			for (ProcessorSpec _processor : rule.getProcessors())
+			{
+				Lane _lane = getLanes()[Math.floorMod(System.identityHashCode(_processor.getProcessorHolderBinding()),
+						getLanes().length)];
+				if (!_lane.put(_processor, name, value, getBackpressure()))
+				{
+					getDroppedCountAdder().increment();
+				}
+			}
+		}
+		catch (InterruptedException _exception)
+		{
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(_exception);
+		}
+	}
+
+	private void throwFailure()
+	{
+		Throwable _failure = getFailure().getAndSet(null);
+		if (_failure instanceof Error)
+		{
+			throw (Error) _failure;
+		}
+		if (_failure instanceof RuntimeException)
+		{
+			throw (RuntimeException) _failure;
+		}
+		if (null != _failure)
+		{
+			throw new RuntimeException(_failure);
+		}
+	}
+
+	/**
+	 * Process the calls of a lane, until the lane is stopped ; when the worker ends otherwise (e.g. interrupted), the lane is marked
+	 * as failed so that the submitters and the barriers do not wait forever.
+	 * 
+	 * @param lane
+	 *            the lane.
+	 */
+	private void work(Lane lane)
+	{
+		ProcessorSpec[] _processors = new ProcessorSpec[0];
+		String[] _names = new String[0];
+		Object[] _values = new Object[0];
+		boolean _drained = false;
+		Throwable _cause = null;
+		try
+		{
+			for (;;)
+			{
+				int _batchSize = getBatchSize();
+				if (_batchSize != _processors.length)
+				{
+					_processors = new ProcessorSpec[_batchSize];
+					_names = new String[_batchSize];
+					_values = new Object[_batchSize];
+				}
+				int _count = lane.take(_processors, _names, _values);
+				if (0 == _count)
+				{
+					_drained = true;
+					return;
+				}
+				try
+				{
+					for (int _i = 0; _i < _count; _i++)
+					{
+						try
+						{
+							getProgram().process(_processors[_i], _names[_i], _values[_i]);
+						}
+						catch (Throwable _exception)
+						{
+							getFailure().compareAndSet(null, _exception);
+						}
+						_processors[_i] = null;
+						_names[_i] = null;
+						_values[_i] = null;
+					}
+				}
+				finally
+				{
+					lane.complete(_count);
+				}
+			}
+		}
+		catch (InterruptedException _exception)
+		{
+			_cause = _exception;
+		}
+		catch (RuntimeException | Error _exception)
+		{
+			_cause = _exception;
+			throw _exception;
+		}
+		finally
+		{
+			if (!_drained)
+			{
+				lane.fail(_cause);
+			}
+		}
+	}
+}
@@ -0,0 +1,53 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+/**
+ * What an {@link AsyncDispatcher} does with a property when the queue of a worker is full.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public enum BackpressurePolicy
+{
+	/**
+	 * The parser waits until there is room in the queue.
+	 */
+	BLOCK,
+
+	/**
+	 * The call of the processor is dropped, and counted (see {@link AsyncDispatcher#getDroppedCount()}).
+	 */
+	DROP,
+
+	/**
+	 * The call of the processor is kept in an unbounded overflow queue, processed after the queue in order.
+	 */
+	SPILL;
+}
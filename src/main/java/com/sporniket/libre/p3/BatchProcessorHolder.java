@@ -0,0 +1,50 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+/**
+ * Processor holder notified of the start and the end of the input, typically a holder of batch processors (see
+ * {@link PropertyBatch}) : it may prepare a bulk operation at the start, and complete it at the end, once the last batches have
+ * been delivered.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public interface BatchProcessorHolder
+{
+	/**
+	 * Called by {@link P3#onEndOfInput()}, after the delivery of the pending batches.
+	 */
+	void onEndOfInput();
+
+	/**
+	 * Called by {@link P3#onStartOfInput()}.
+	 */
+	void onStartOfInput();
+}
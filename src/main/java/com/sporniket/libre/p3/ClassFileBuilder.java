@@ -0,0 +1,684 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal writer of class files, providing just what is needed by {@link GeneratedDispatcherFactory}.
+ * 
+ * <p>
+ * The class files are written in the version 49 format (Java 5), that does not require stack map frames : the generated code is
+ * checked by the type inferencing verifier.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+class ClassFileBuilder
+{
+	/**
+	 * Bytecode of a method, branches are given using {@link Label}.
+	 */
+	static class Code
+	{
+		private final ByteArrayOutputStream myBytes = new ByteArrayOutputStream();
+
+		private final ClassFileBuilder myClassFile;
+
+		private final List<Jump> myJumps = new ArrayList<Jump>();
+
+		private Code(ClassFileBuilder classFile)
+		{
+			myClassFile = classFile;
+		}
+
+		public Code aload(int local)
+		{
+			return op(OPCODE__ALOAD).u1(local);
+		}
+
+		public Code checkcast(String internalName)
+		{
+			return op(OPCODE__CHECKCAST).u2(getClassFile().classReference(internalName));
+		}
+
+		public Code getfield(String owner, String name, String descriptor)
+		{
+			return op(OPCODE__GETFIELD).u2(getClassFile().fieldReference(owner, name, descriptor));
+		}
+
+		public Code iload(int local)
+		{
+			return op(OPCODE__ILOAD).u1(local);
+		}
+
+		public Code invokeinterface(String owner, String name, String descriptor, int argumentsSize)
+		{
+			return op(OPCODE__INVOKEINTERFACE).u2(getClassFile().interfaceMethodReference(owner, name, descriptor))
+					.u1(argumentsSize + 1).u1(0);
+		}
+
+		public Code invokespecial(String owner, String name, String descriptor)
+		{
+			return op(OPCODE__INVOKESPECIAL).u2(getClassFile().methodReference(owner, name, descriptor));
+		}
+
+		public Code invokestatic(String owner, String name, String descriptor)
+		{
+			return op(OPCODE__INVOKESTATIC).u2(getClassFile().methodReference(owner, name, descriptor));
+		}
+
+		public Code invokevirtual(String owner, String name, String descriptor)
+		{
+			return op(OPCODE__INVOKEVIRTUAL).u2(getClassFile().methodReference(owner, name, descriptor));
+		}
+
+		public Code istore(int local)
+		{
+			return op(OPCODE__ISTORE).u1(local);
+		}
+
+		/**
+		 * Conditional or unconditional branch.
+		 * 
+		 * @param opcode
+		 *            the branch instruction, e.g. {@link ClassFileBuilder#OPCODE__GOTO}.
+		 * @param target
+		 *            where to go.
+		 * @return this.
+		 */
+		public Code jump(int opcode, Label target)
+		{
+			int _position = getBytes().size();
+			op(opcode);
+			getJumps().add(new Jump(target, _position, getBytes().size(), false));
+			return u2(0);
+		}
+
+		public Code ldc(String value)
+		{
+			int _index = getClassFile().stringConstant(value);
+			return (_index < 256) ? op(OPCODE__LDC).u1(_index) : op(OPCODE__LDC_W).u2(_index);
+		}
+
+		/**
+		 * Switch on sparse values.
+		 * 
+		 * @param defaultTarget
+		 *            where to go when no value matches.
+		 * @param keys
+		 *            the values, sorted in ascending order.
+		 * @param targets
+		 *            where to go for each value.
+		 * @return this.
+		 */
+		public Code lookupswitch(Label defaultTarget, int[] keys, Label[] targets)
+		{
+			int _position = getBytes().size();
+			op(OPCODE__LOOKUPSWITCH).align();
+			jumpWide(defaultTarget, _position).u4(keys.length);
+			for (int _index = 0; _index < keys.length; _index++)
+			{
+				u4(keys[_index]);
+				jumpWide(targets[_index], _position);
+			}
+			return this;
+		}
+
+		public Code mark(Label label)
+		{
+			label.myPosition = getBytes().size();
+			return this;
+		}
+
+		public Code op(int opcode)
+		{
+			return u1(opcode);
+		}
+
+		/**
+		 * Push an int constant, using the shortest instruction.
+		 * 
+		 * @param value
+		 *            the value.
+		 * @return this.
+		 */
+		public Code push(int value)
+		{
+			if (-1 <= value && value <= 5)
+			{
+				return op(OPCODE__ICONST_0 + value);
+			}
+			if (Byte.MIN_VALUE <= value && value <= Byte.MAX_VALUE)
+			{
+				return op(OPCODE__BIPUSH).u1(value);
+			}
+			if (Short.MIN_VALUE <= value && value <= Short.MAX_VALUE)
+			{
+				return op(OPCODE__SIPUSH).u2(value);
+			}
+			return op(OPCODE__LDC_W).u2(getClassFile().integerConstant(value));
+		}
+
+		public Code putfield(String owner, String name, String descriptor)
+		{
+			return op(OPCODE__PUTFIELD).u2(getClassFile().fieldReference(owner, name, descriptor));
+		}
+
+		/**
+		 * Switch on contiguous values.
+		 * 
+		 * @param low
+		 *            the first value.
+		 * @param defaultTarget
+		 *            where to go when the value is out of range.
+		 * @param targets
+		 *            where to go for each value, starting from <code>low</code>.
+		 * @return this.
+		 */
+		public Code tableswitch(int low, Label defaultTarget, Label[] targets)
+		{
+			int _position = getBytes().size();
+			op(OPCODE__TABLESWITCH).align();
+			jumpWide(defaultTarget, _position).u4(low).u4(low + targets.length - 1);
+			for (Label _target : targets)
+			{
+				jumpWide(_target, _position);
+			}
+			return this;
+		}
+
+		private Code align()
+		{
+			while (0 != getBytes().size() % 4)
+			{
+				u1(0);
+			}
+			return this;
+		}
+
+		private ByteArrayOutputStream getBytes()
+		{
+			return myBytes;
+		}
+
+		private ClassFileBuilder getClassFile()
+		{
+			return myClassFile;
+		}
+
+		private List<Jump> getJumps()
+		{
+			return myJumps;
+		}
+
+		private Code jumpWide(Label target, int instructionPosition)
+		{
+			getJumps().add(new Jump(target, instructionPosition, getBytes().size(), true));
+			return u4(0);
+		}
+
+		/**
+		 * Resolve the branches.
+		 * 
+		 * @return the bytecode.
+		 */
+		private byte[] toByteArray()
+		{
+			byte[] _result = getBytes().toByteArray();
+			for (Jump _jump : getJumps())
+			{
+				if (_jump.myTarget.myPosition < 0)
+				{
+					throw new IllegalStateException("Unmarked label");
+				}
+				int _offset = _jump.myTarget.myPosition - _jump.myInstructionPosition;
+				if (_jump.myWide)
+				{
+					_result[_jump.myPatchPosition] = (byte) (_offset >>> 24);
+					_result[_jump.myPatchPosition + 1] = (byte) (_offset >>> 16);
+					_result[_jump.myPatchPosition + 2] = (byte) (_offset >>> 8);
+					_result[_jump.myPatchPosition + 3] = (byte) _offset;
+				}
+				else
+				{
+					if (_offset < Short.MIN_VALUE || _offset > Short.MAX_VALUE)
+					{
+						throw new IllegalStateException("Branch too far : " + _offset);
+					}
+					_result[_jump.myPatchPosition] = (byte) (_offset >>> 8);
+					_result[_jump.myPatchPosition + 1] = (byte) _offset;
+				}
+			}
+			return _result;
+		}
+
+		private Code u1(int value)
+		{
+			getBytes().write(value);
+			return this;
+		}
+
+		private Code u2(int value)
+		{
+			return u1(value >>> 8).u1(value);
+		}
+
+		private Code u4(int value)
+		{
+			return u2(value >>> 16).u2(value);
+		}
+	}
+
+	/**
+	 * Position in the bytecode, marked once.
+	 */
+	static class Label
+	{
+		private int myPosition = -1;
+	}
+
+	/**
+	 * Branch to resolve.
+	 */
+	private static class Jump
+	{
+		private final int myInstructionPosition;
+
+		private final int myPatchPosition;
+
+		private final Label myTarget;
+
+		private final boolean myWide;
+
+		private Jump(Label target, int instructionPosition, int patchPosition, boolean wide)
+		{
+			myTarget = target;
+			myInstructionPosition = instructionPosition;
+			myPatchPosition = patchPosition;
+			myWide = wide;
+		}
+	}
+
+	public static final int ACCESS__FINAL = 0x0010;
+
+	public static final int ACCESS__PRIVATE = 0x0002;
+
+	public static final int ACCESS__PUBLIC = 0x0001;
+
+	public static final int ACCESS__SUPER = 0x0020;
+
+	public static final int OPCODE__AALOAD = 0x32;
+
+	public static final int OPCODE__ALOAD = 0x19;
+
+	public static final int OPCODE__BIPUSH = 0x10;
+
+	public static final int OPCODE__CHECKCAST = 0xc0;
+
+	public static final int OPCODE__GETFIELD = 0xb4;
+
+	public static final int OPCODE__GOTO = 0xa7;
+
+	public static final int OPCODE__ICONST_0 = 0x03;
+
+	public static final int OPCODE__IF_ICMPLE = 0xa4;
+
+	public static final int OPCODE__IFEQ = 0x99;
+
+	public static final int OPCODE__ILOAD = 0x15;
+
+	public static final int OPCODE__INVOKEINTERFACE = 0xb9;
+
+	public static final int OPCODE__INVOKESPECIAL = 0xb7;
+
+	public static final int OPCODE__INVOKESTATIC = 0xb8;
+
+	public static final int OPCODE__INVOKEVIRTUAL = 0xb6;
+
+	public static final int OPCODE__ISTORE = 0x36;
+
+	public static final int OPCODE__LDC = 0x12;
+
+	public static final int OPCODE__LDC_W = 0x13;
+
+	public static final int OPCODE__LOOKUPSWITCH = 0xab;
+
+	public static final int OPCODE__PUTFIELD = 0xb5;
+
+	public static final int OPCODE__RETURN = 0xb1;
+
+	public static final int OPCODE__SIPUSH = 0x11;
+
+	public static final int OPCODE__TABLESWITCH = 0xaa;
+
+	private static final int CONSTANT__CLASS = 7;
+
+	private static final int CONSTANT__FIELD_REFERENCE = 9;
+
+	private static final int CONSTANT__INTEGER = 3;
+
+	private static final int CONSTANT__INTERFACE_METHOD_REFERENCE = 11;
+
+	private static final int CONSTANT__METHOD_REFERENCE = 10;
+
+	private static final int CONSTANT__NAME_AND_TYPE = 12;
+
+	private static final int CONSTANT__STRING = 8;
+
+	private static final int CONSTANT__UTF8 = 1;
+
+	private static final int MAGIC = 0xCAFEBABE;
+
+	private static final int VERSION__MAJOR = 49;
+
+	private final Map<String, Integer> myConstantIndex = new HashMap<String, Integer>();
+
+	private final ByteArrayOutputStream myConstantPool = new ByteArrayOutputStream();
+
+	private int myConstantPoolCount = 1;
+
+	private int myFieldCount;
+
+	private final ByteArrayOutputStream myFields = new ByteArrayOutputStream();
+
+	private int myMethodCount;
+
+	private final ByteArrayOutputStream myMethods = new ByteArrayOutputStream();
+
+	/**
+	 * Add a field without attributes.
+	 * 
+	 * @param access
+	 *            access flags.
+	 * @param name
+	 *            field name.
+	 * @param descriptor
+	 *            field type descriptor.
+	 */
+	public void addField(int access, String name, String descriptor)
+	{
+		DataOutputStream _out = new DataOutputStream(getFields());
+		try
+		{
+			_out.writeShort(access);
+			_out.writeShort(utf8Constant(name));
+			_out.writeShort(utf8Constant(descriptor));
+			_out.writeShort(0);
+		}
+		catch (IOException _exception)
+		{
+			throw new IllegalStateException(_exception);
+		}
+		myFieldCount++;
+	}
+
+	/**
+	 * Add a method without exception handlers.
+	 * 
+	 * @param access
+	 *            access flags.
+	 * @param name
+	 *            method name.
+	 * @param descriptor
+	 *            method descriptor.
+	 * @param code
+	 *            the bytecode.
+	 * @param maxStack
+	 *            maximum depth of the operand stack.
+	 * @param maxLocals
+	 *            number of local variables, including the parameters.
+	 */
+	public void addMethod(int access, String name, String descriptor, Code code, int maxStack, int maxLocals)
+	{
+		byte[] _bytecode = code.toByteArray();
+		if (_bytecode.length > 0xFFFF)
+		{
+			throw new IllegalStateException("Method too large : " + name);
+		}
+		DataOutputStream _out = new DataOutputStream(getMethods());
+		try
+		{
+			_out.writeShort(access);
+			_out.writeShort(utf8Constant(name));
+			_out.writeShort(utf8Constant(descriptor));
+			_out.writeShort(1);
+			_out.writeShort(utf8Constant("Code"));
+			_out.writeInt(12 + _bytecode.length);
+			_out.writeShort(maxStack);
+			_out.writeShort(maxLocals);
+			_out.writeInt(_bytecode.length);
+			_out.write(_bytecode);
+			_out.writeShort(0);
+			_out.writeShort(0);
+		}
+		catch (IOException _exception)
+		{
+			throw new IllegalStateException(_exception);
+		}
+		myMethodCount++;
+	}
+
+	/**
+	 * Start the bytecode of a method.
+	 * 
+	 * @return the code to fill, and then to give to {@link #addMethod(int, String, String, Code, int, int)}.
+	 */
+	public Code newCode()
+	{
+		return new Code(this);
+	}
+
+	/**
+	 * Write the class file.
+	 * 
+	 * @param access
+	 *            class access flags.
+	 * @param name
+	 *            internal name of the class.
+	 * @param superName
+	 *            internal name of the super class.
+	 * @param interfaceNames
+	 *            internal names of the implemented interfaces.
+	 * @return the class file.
+	 */
+	public byte[] toByteArray(int access, String name, String superName, String... interfaceNames)
+	{
+		int _this = classReference(name);
+		int _super = classReference(superName);
+		int[] _interfaces = new int[interfaceNames.length];
+		for (int _index = 0; _index < interfaceNames.length; _index++)
+		{
+			_interfaces[_index] = classReference(interfaceNames[_index]);
+		}
+		if (myConstantPoolCount > 0xFFFF)
+		{
+			throw new IllegalStateException("Too many constants");
+		}
+
+		ByteArrayOutputStream _result = new ByteArrayOutputStream();
+		DataOutputStream _out = new DataOutputStream(_result);
+		try
+		{
+			_out.writeInt(MAGIC);
+			_out.writeShort(0);
+			_out.writeShort(VERSION__MAJOR);
+			_out.writeShort(myConstantPoolCount);
+			getConstantPool().writeTo(_out);
+			_out.writeShort(access);
+			_out.writeShort(_this);
+			_out.writeShort(_super);
+			_out.writeShort(_interfaces.length);
+			for (int _interface : _interfaces)
+			{
+				_out.writeShort(_interface);
+			}
+			_out.writeShort(myFieldCount);
+			getFields().writeTo(_out);
+			_out.writeShort(myMethodCount);
+			getMethods().writeTo(_out);
+			_out.writeShort(0);
+		}
+		catch (IOException _exception)
+		{
+			throw new IllegalStateException(_exception);
+		}
+		return _result.toByteArray();
+	}
+
+	private int classReference(String internalName)
+	{
+		return constant(CONSTANT__CLASS + ":" + internalName, CONSTANT__CLASS, utf8Constant(internalName));
+	}
+
+	/**
+	 * Find or create a constant referencing other constants.
+	 * 
+	 * @param key
+	 *            unique key of the constant.
+	 * @param tag
+	 *            constant type.
+	 * @param references
+	 *            indexes of the referenced constants.
+	 * @return the index of the constant.
+	 */
+	private int constant(String key, int tag, int... references)
+	{
+		Integer _index = getConstantIndex().get(key);
+		if (null != _index)
+		{
+			return _index;
+		}
+		getConstantPool().write(tag);
+		for (int _reference : references)
+		{
+			getConstantPool().write(_reference >>> 8);
+			getConstantPool().write(_reference);
+		}
+		return register(key);
+	}
+
+	private int fieldReference(String owner, String name, String descriptor)
+	{
+		return memberReference(CONSTANT__FIELD_REFERENCE, owner, name, descriptor);
+	}
+
+	private Map<String, Integer> getConstantIndex()
+	{
+		return myConstantIndex;
+	}
+
+	private ByteArrayOutputStream getConstantPool()
+	{
+		return myConstantPool;
+	}
+
+	private ByteArrayOutputStream getFields()
+	{
+		return myFields;
+	}
+
+	private ByteArrayOutputStream getMethods()
+	{
+		return myMethods;
+	}
+
+	private int integerConstant(int value)
+	{
+		String _key = CONSTANT__INTEGER + ":" + value;
+		Integer _index = getConstantIndex().get(_key);
+		if (null != _index)
+		{
+			return _index;
+		}
+		getConstantPool().write(CONSTANT__INTEGER);
+		getConstantPool().write(value >>> 24);
+		getConstantPool().write(value >>> 16);
+		getConstantPool().write(value >>> 8);
+		getConstantPool().write(value);
+		return register(_key);
+	}
+
+	private int interfaceMethodReference(String owner, String name, String descriptor)
+	{
+		return memberReference(CONSTANT__INTERFACE_METHOD_REFERENCE, owner, name, descriptor);
+	}
+
+	private int memberReference(int tag, String owner, String name, String descriptor)
+	{
+		int _owner = classReference(owner);
+		int _nameAndType = constant(CONSTANT__NAME_AND_TYPE + ":" + name + ":" + descriptor, CONSTANT__NAME_AND_TYPE,
+				utf8Constant(name), utf8Constant(descriptor));
+		return constant(tag + ":" + owner + ":" + name + ":" + descriptor, tag, _owner, _nameAndType);
+	}
+
+	private int methodReference(String owner, String name, String descriptor)
+	{
+		return memberReference(CONSTANT__METHOD_REFERENCE, owner, name, descriptor);
+	}
+
+	private int register(String key)
+	{
+		int _index = myConstantPoolCount++;
+		getConstantIndex().put(key, _index);
+		return _index;
+	}
+
+	private int stringConstant(String value)
+	{
+		return constant(CONSTANT__STRING + ":" + value, CONSTANT__STRING, utf8Constant(value));
+	}
+
+	private int utf8Constant(String value)
+	{
+		String _key = CONSTANT__UTF8 + ":" + value;
+		Integer _index = getConstantIndex().get(_key);
+		if (null != _index)
+		{
+			return _index;
+		}
+		getConstantPool().write(CONSTANT__UTF8);
+		try
+		{
+			// modified UTF-8, prefixed by the length, as required by the class file format
+			new DataOutputStream(getConstantPool()).writeUTF(value);
+		}
+		catch (IOException _exception)
+		{
+			throw new IllegalStateException(_exception);
+		}
+		return register(_key);
+	}
+}
@@ -0,0 +1,98 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Ahead of time compilation of directives, e.g. during the build, into a binary form that {@link P3} loads without parsing the
+ * directives, see {@link P3#executeCompiledDirectives(Path)}.
+ * 
+ * <p>
+ * The binary form records the version of its format and a hash of its source ; a binary form of another version is rejected when
+ * loaded, and {@link #isCompiledFrom(ByteBuffer, String)} tells whether a binary form is stale.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public final class CompiledDirectives
+{
+	private CompiledDirectives()
+	{
+		// static methods only
+	}
+
+	/**
+	 * Compile directives.
+	 * 
+	 * @param source
+	 *            the directives.
+	 * @return the binary form.
+	 * @throws DirectivesCompilationException
+	 *             when the source cannot be compiled.
+	 */
+	public static byte[] compile(String source) throws DirectivesCompilationException
+	{
+		return RuleProgramCodec.encode(DirectivesCompiler.get().compile(source, false));
+	}
+
+	/**
+	 * Compile directives into a file.
+	 * 
+	 * @param source
+	 *            the directives.
+	 * @param target
+	 *            the file to write, replaced if it exists.
+	 * @throws DirectivesCompilationException
+	 *             when the source cannot be compiled.
+	 * @throws IOException
+	 *             when the file cannot be written.
+	 */
+	public static void compile(String source, Path target) throws DirectivesCompilationException, IOException
+	{
+		Files.write(target, compile(source));
+	}
+
+	/**
+	 * Tells whether a binary form has been compiled from the given source, with the current version of the format.
+	 * 
+	 * @param compiled
+	 *            the binary form, read from its position, the position is not changed.
+	 * @param source
+	 *            the directives.
+	 * @return <code>true</code> when the binary form is up to date, <code>false</code> when it must be compiled again.
+	 */
+	public static boolean isCompiledFrom(ByteBuffer compiled, String source)
+	{
+		return RuleProgramCodec.isCompiledFrom(compiled, source);
+	}
+}
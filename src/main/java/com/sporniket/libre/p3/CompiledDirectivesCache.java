@@ -0,0 +1,136 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Thread safe bounded cache of compiled directives, keyed by their source ; the least recently used entry is evicted when the
+ * cache is full.
+ * 
+ * <p>
+ * The cached programs are immutable, they are shared by every {@link P3} compiling the same source. A cache with a capacity of
+ * zero is disabled.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+class CompiledDirectivesCache
+{
+	private int myCapacity;
+
+	private final Map<String, RuleProgram> myEntries;
+
+	/**
+	 * Create a cache.
+	 * 
+	 * @param capacity
+	 *            maximum number of cached sources, <code>0</code> to disable the cache.
+	 */
+	public CompiledDirectivesCache(int capacity)
+	{
+		checkCapacity(capacity);
+		myCapacity = capacity;
+		myEntries = new LinkedHashMap<String, RuleProgram>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, RuleProgram> eldest)
+			{
+				return size() > getCapacity();
+			}
+		};
+	}
+
+	/**
+	 * Find compiled directives.
+	 * 
+	 * @param source
+	 *            the source of the directives.
+	 * @return the program, or <code>null</code> if the source is not cached.
+	 */
+	public synchronized RuleProgram get(String source)
+	{
+		return getEntries().get(source);
+	}
+
+	public synchronized int getCapacity()
+	{
+		return myCapacity;
+	}
+
+	/**
+	 * Store compiled directives.
+	 * 
+	 * @param source
+	 *            the source of the directives.
+	 * @param program
+	 *            the program.
+	 * @return the program.
+	 */
+	public synchronized RuleProgram put(String source, RuleProgram program)
+	{
+		if (getCapacity() > 0)
+		{
+			getEntries().put(source, program);
+		}
+		return program;
+	}
+
+	/**
+	 * Change the capacity, the least recently used entries are evicted if needed.
+	 * 
+	 * @param capacity
+	 *            maximum number of cached sources, <code>0</code> to disable the cache.
+	 */
+	public synchronized void setCapacity(int capacity)
+	{
+		checkCapacity(capacity);
+		myCapacity = capacity;
+		while (getEntries().size() > capacity)
+		{
+			getEntries().remove(getEntries().keySet().iterator().next());
+		}
+	}
+
+	private void checkCapacity(int capacity)
+	{
+		if (capacity < 0)
+		{
+			throw new IllegalArgumentException("capacity must be positive or zero : " + capacity);
+		}
+	}
+
+	private Map<String, RuleProgram> getEntries()
+	{
+		return myEntries;
+	}
+}
@@ -0,0 +1,84 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+/**
+ * Immutable program of a {@link P3} : the rules with their matchers, the dispatch tables, the bindings of the processors and the
+ * settings, without the objects defined by the directives. It is created by {@link P3#compile()}.
+ * 
+ * <p>
+ * A program can be shared by several threads, each input is then processed by its own run context, see {@link #newContext()} :
+ * creating a run context only creates the objects defined by the directives and binds them to the rules, nothing is compiled again.
+ * 
+ * <pre>
+ * CompiledP3Program _program = _configuredP3.compile();
+ * // for each input, e.g. in several threads
+ * P3 _context = _program.newContext();
+ * // feed the context with the properties, then get the objects from the context
+ * </pre>
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public final class CompiledP3Program
+{
+	/**
+	 * P3 holding the rules, bound to objects that are never created ; it is never fed with properties.
+	 */
+	private final P3 myTemplate;
+
+	/**
+	 * Create a program.
+	 * 
+	 * @param template
+	 *            the P3 holding the rules, not shared.
+	 */
+	CompiledP3Program(P3 template)
+	{
+		myTemplate = template;
+	}
+
+	/**
+	 * Create a run context : a {@link P3} with the rules and settings of the program, and new instances of the objects defined by the
+	 * directives, created when the context is created or when first needed (see {@link P3#setInstantiatingLazily(boolean)}).
+	 * 
+	 * @return the run context, to feed with the properties of one input.
+	 * @throws ReflectiveOperationException
+	 *             when an object cannot be created.
+	 */
+	public P3 newContext() throws ReflectiveOperationException
+	{
+		return getTemplate().createContext();
+	}
+
+	private P3 getTemplate()
+	{
+		return myTemplate;
+	}
+}
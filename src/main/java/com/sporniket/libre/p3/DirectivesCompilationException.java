@@ -0,0 +1,111 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+/**
+ * Failure of the compilation of directives, with the location of the problem when known.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public class DirectivesCompilationException extends Exception
+{
+	/**
+	 * Value of the positions when the location of the problem is not known.
+	 */
+	public static final int POSITION__UNKNOWN = -1;
+
+	private static final long serialVersionUID = 1L;
+
+	private final int myEndPosition;
+
+	private final String mySource;
+
+	private final int myStartPosition;
+
+	private final String myToken;
+
+	/**
+	 * Create an exception.
+	 * 
+	 * @param message
+	 *            description of the problem.
+	 * @param source
+	 *            the directives.
+	 * @param token
+	 *            the offending token, <code>null</code> if not known.
+	 * @param startPosition
+	 *            start of the offending token, as reported by the lexer.
+	 * @param endPosition
+	 *            end of the offending token, as reported by the lexer.
+	 * @param cause
+	 *            the underlying exception, if any.
+	 */
+	public DirectivesCompilationException(String message, String source, String token, int startPosition, int endPosition,
+			Throwable cause)
+	{
+		super(message, cause);
+		mySource = source;
+		myToken = token;
+		myStartPosition = startPosition;
+		myEndPosition = endPosition;
+	}
+
+	/**
+	 * @return end of the offending token, as reported by the lexer, or {@link #POSITION__UNKNOWN}.
+	 */
+	public int getEndPosition()
+	{
+		return myEndPosition;
+	}
+
+	/**
+	 * @return the directives that failed to compile.
+	 */
+	public String getSource()
+	{
+		return mySource;
+	}
+
+	/**
+	 * @return start of the offending token, as reported by the lexer, or {@link #POSITION__UNKNOWN}.
+	 */
+	public int getStartPosition()
+	{
+		return myStartPosition;
+	}
+
+	/**
+	 * @return the offending token, or <code>null</code> if not known.
+	 */
+	public String getToken()
+	{
+		return myToken;
+	}
+}
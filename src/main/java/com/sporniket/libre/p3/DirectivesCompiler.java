@@ -0,0 +1,333 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import java_cup.runtime.ComplexSymbolFactory;
+import java_cup.runtime.Symbol;
+
+import com.sporniket.scripting.sslpoi.core.InitialisationMode;
+import com.sporniket.scripting.sslpoi.mass.PartialExpression;
+import com.sporniket.scripting.sslpoi.mass.PartialExpressionLiteralString;
+import com.sporniket.scripting.sslpoi.mass.PartialIdentifier;
+import com.sporniket.scripting.sslpoi.mass.Statement;
+import com.sporniket.scripting.sslpoi.mass.StatementAlternative;
+import com.sporniket.scripting.sslpoi.mass.StatementCall;
+import com.sporniket.scripting.sslpoi.mass.StatementDefineAs;
+import com.sporniket.scripting.sslpoi.mass.StatementFromNode;
+import com.sporniket.scripting.sslpoi.mass.StatementIf;
+import com.sporniket.scripting.sslpoi.mass.StatementOn;
+import com.sporniket.scripting.sslpoi.vess.AnalyzerLexical;
+import com.sporniket.scripting.sslpoi.vess.AnalyzerSyntaxic;
+import com.sporniket.scripting.sslpoi.vess.VessNode;
+
+/**
+ * Compiler of directives into a {@link RuleProgram}, the lexer and the parser are created once and reset for each source ; the
+ * source is released once parsed.
+ * 
+ * <p>
+ * Only the supported statements are kept : the definitions of new objects, and the rules of the <code>on</code> statements for
+ * the known events, having a literal test ; the other statements are ignored.
+ * 
+ * <p>
+ * A compiler is <strong>not</strong> thread safe, each thread is expected to use its own compiler (see {@link #get()}). Syntax
+ * errors are reported as {@link DirectivesCompilationException} instead of being printed ; the tracing of the parser is only
+ * enabled on demand.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+class DirectivesCompiler
+{
+	/**
+	 * Parser reporting the first syntax error as a {@link DirectivesCompilationException}.
+	 */
+	private static class DiagnosingParser extends AnalyzerSyntaxic
+	{
+		private String mySource;
+
+		private Symbol mySyntaxError;
+
+		public DiagnosingParser(AnalyzerLexical lexer, ComplexSymbolFactory symbolFactory)
+		{
+			super(lexer, symbolFactory);
+		}
+
+		/**
+		 * Forget the last source, once parsed.
+		 */
+		public void clear()
+		{
+			mySource = null;
+			mySyntaxError = null;
+		}
+
+		@Override
+		public void report_error(String message, Object info)
+		{
+			// reported by unrecovered_syntax_error
+		}
+
+		/**
+		 * Start parsing a new source.
+		 * 
+		 * @param source
+		 *            the directives.
+		 */
+		public void reset(String source)
+		{
+			mySource = source;
+			mySyntaxError = null;
+		}
+
+		@Override
+		public void syntax_error(Symbol token)
+		{
+			if (null == mySyntaxError)
+			{
+				mySyntaxError = token;
+			}
+		}
+
+		@Override
+		public void unrecovered_syntax_error(Symbol token) throws DirectivesCompilationException
+		{
+			done_parsing();
+			Symbol _error = (null != mySyntaxError) ? mySyntaxError : token;
+			if (null == _error)
+			{
+				throw new DirectivesCompilationException("Syntax error", mySource, null,
+						DirectivesCompilationException.POSITION__UNKNOWN, DirectivesCompilationException.POSITION__UNKNOWN, null);
+			}
+			String _token = (null == _error.value) ? null : String.valueOf(_error.value);
+			throw new DirectivesCompilationException("Syntax error on '" + _token + "' at " + _error.left, mySource, _token,
+					_error.left, _error.right, null);
+		}
+	}
+
+	private static final String EVENT__ON_MULTIPLE_LINE_PROPERTY_PARSED = "multipleLinePropertyParsed";
+
+	private static final String EVENT__ON_SINGLE_LINE_PROPERTY_PARSED = "singleLinePropertyParsed";
+
+	private static final ThreadLocal<DirectivesCompiler> COMPILERS = ThreadLocal.withInitial(DirectivesCompiler::new);
+
+	private final AnalyzerLexical myLexer;
+
+	private final DiagnosingParser myParser;
+
+	private DirectivesCompiler()
+	{
+		final ComplexSymbolFactory _symbolFactory = new ComplexSymbolFactory();
+		myLexer = new AnalyzerLexical(null);
+		myLexer.setSymbolFactory(_symbolFactory);
+		myParser = new DiagnosingParser(myLexer, _symbolFactory);
+	}
+
+	/**
+	 * Get the compiler of the current thread.
+	 * 
+	 * @return the compiler.
+	 */
+	public static DirectivesCompiler get()
+	{
+		return COMPILERS.get();
+	}
+
+	/**
+	 * Compile directives.
+	 * 
+	 * @param source
+	 *            the directives.
+	 * @param tracing
+	 *            <code>true</code> to use the tracing of the parser.
+	 * @return the program.
+	 * @throws DirectivesCompilationException
+	 *             when the source cannot be compiled.
+	 */
+	public RuleProgram compile(String source, boolean tracing) throws DirectivesCompilationException
+	{
+		List<Statement> _directives = parse(source, tracing);
+		List<RuleProgram.Instruction> _instructions = new ArrayList<RuleProgram.Instruction>(_directives.size());
+		for (Statement _directive : _directives)
+		{
+			if (_directive instanceof StatementDefineAs)
+			{
+				compile__process((StatementDefineAs) _directive, _instructions);
+			}
+			else if (_directive instanceof StatementOn)
+			{
+				compile__process((StatementOn) _directive, _instructions);
+			}
+		}
+		return new RuleProgram(_instructions, _directives.isEmpty(), RuleProgram.computeSourceHash(source));
+	}
+
+	private void compile__process(StatementDefineAs directive, List<RuleProgram.Instruction> target)
+	{
+		PartialIdentifier _identifier = directive.getIdentifier();
+		if (InitialisationMode.NEW == directive.getInitialisationMode() && !_identifier.isArray())
+		{
+			target.add(new RuleProgram.Definition(_identifier.getIdentifier(), _identifier.getClassName()));
+		}
+	}
+
+	private void compile__process(StatementOn directive, List<RuleProgram.Instruction> target)
+	{
+		RuleProgram.Event _event = null;
+		switch (directive.getEventName())
+		{
+			case EVENT__ON_SINGLE_LINE_PROPERTY_PARSED:
+				_event = RuleProgram.Event.SINGLE_LINE_PROPERTY;
+				break;
+			case EVENT__ON_MULTIPLE_LINE_PROPERTY_PARSED:
+				_event = RuleProgram.Event.MULTIPLE_LINE_PROPERTY;
+				break;
+		}
+		if (null != _event)
+		{
+			for (Statement _statement : directive.getStatements())
+			{
+				if (_statement instanceof StatementIf)
+				{
+					compile__processRuleset((StatementIf) _statement, _event, target);
+				}
+			}
+		}
+	}
+
+	private void compile__processRuleset(StatementIf directive, RuleProgram.Event event, List<RuleProgram.Instruction> target)
+	{
+		for (StatementAlternative _alternative : directive.getAlternatives())
+		{
+			if (null == _alternative.getTest())
+			{
+				target.add(new RuleProgram.Rule(event, RuleProgram.MatcherKind.ANY, null,
+						compile__processRuleset__listCalls(_alternative.getStatements())));
+			}
+			else
+			{
+				PartialExpression _rightExpression = _alternative.getTest().getRightExpression();
+				if (!(_rightExpression instanceof PartialExpressionLiteralString))
+				{
+					continue;
+				}
+				String _pattern = ((PartialExpressionLiteralString) _rightExpression).getValue();
+				RuleProgram.MatcherKind _kind = null;
+				switch (_alternative.getTest().getOperator())
+				{
+					case IS:
+						_kind = RuleProgram.MatcherKind.EXACT;
+						break;
+					case IS_LIKE:
+						_kind = PropertyNameMatcherPrefix.isSupported(_pattern) ? RuleProgram.MatcherKind.PREFIX
+								: RuleProgram.MatcherKind.LIKE;
+						break;
+				}
+				if (null != _kind)
+				{
+					target.add(new RuleProgram.Rule(event, _kind, _pattern,
+							compile__processRuleset__listCalls(_alternative.getStatements())));
+				}
+			}
+		}
+	}
+
+	private List<RuleProgram.Call> compile__processRuleset__listCalls(List<Statement> directives)
+	{
+		List<RuleProgram.Call> _calls = new ArrayList<RuleProgram.Call>(directives.size());
+		for (Statement _directive : directives)
+		{
+			if (_directive instanceof StatementCall)
+			{
+				List<String> _methodAccessor = ((StatementCall) _directive).getMethodAccessor();
+				if (_methodAccessor.size() == 2)
+				{
+					_calls.add(new RuleProgram.Call(_methodAccessor.get(0), _methodAccessor.get(1)));
+				}
+			}
+		}
+		return _calls;
+	}
+
+	private AnalyzerLexical getLexer()
+	{
+		return myLexer;
+	}
+
+	private DiagnosingParser getParser()
+	{
+		return myParser;
+	}
+
+	/**
+	 * Parse directives.
+	 * 
+	 * @param source
+	 *            the directives.
+	 * @param tracing
+	 *            <code>true</code> to use the tracing of the parser.
+	 * @return the statements.
+	 * @throws DirectivesCompilationException
+	 *             when the source cannot be parsed.
+	 */
+	private List<Statement> parse(String source, boolean tracing) throws DirectivesCompilationException
+	{
+		getLexer().yyreset(new StringReader(source));
+		getParser().reset(source);
+		try
+		{
+			Symbol _symbol = tracing ? getParser().debug_parse() : getParser().parse();
+			Object _value = (null == _symbol) ? null : _symbol.value;
+			if (_value instanceof VessNode)
+			{
+				return new ArrayList<Statement>(StatementFromNode.convertNodeList((VessNode) _value));
+			}
+			throw new DirectivesCompilationException("No node found", source, null, DirectivesCompilationException.POSITION__UNKNOWN,
+					DirectivesCompilationException.POSITION__UNKNOWN, null);
+		}
+		catch (DirectivesCompilationException _exception)
+		{
+			throw _exception;
+		}
+		catch (Exception _exception)
+		{
+			throw new DirectivesCompilationException(String.valueOf(_exception.getMessage()), source, null,
+					DirectivesCompilationException.POSITION__UNKNOWN, DirectivesCompilationException.POSITION__UNKNOWN, _exception);
+		}
+		finally
+		{
+			// the compiler lives as long as its thread, it must not keep the source
+			getLexer().yyreset(new StringReader(""));
+			getParser().clear();
+		}
+	}
+}
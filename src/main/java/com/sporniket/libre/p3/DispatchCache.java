@@ -0,0 +1,155 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of the rule selected by a {@link DispatchTable} for a property name, including the absence of matching rule ; the
+ * least recently used entry is evicted when the cache is full.
+ * 
+ * <p>
+ * A cache with a capacity of zero is disabled, the rules are always evaluated.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+class DispatchCache
+{
+	/**
+	 * Cached value for the absence of matching rule.
+	 */
+	private static final RuleSpec NO_MATCH = new RuleSpec(null);
+
+	private final int myCapacity;
+
+	private final Map<String, RuleSpec> myEntries;
+
+	private long myEvictionCount;
+
+	private long myHitCount;
+
+	private long myMissCount;
+
+	/**
+	 * Create a cache.
+	 * 
+	 * @param capacity
+	 *            maximum number of cached property names, <code>0</code> to disable the cache.
+	 */
+	public DispatchCache(int capacity)
+	{
+		if (capacity < 0)
+		{
+			throw new IllegalArgumentException("capacity must be positive or zero : " + capacity);
+		}
+		myCapacity = capacity;
+		myEntries = new LinkedHashMap<String, RuleSpec>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, RuleSpec> eldest)
+			{
+				boolean _evicting = size() > getCapacity();
+				if (_evicting)
+				{
+					myEvictionCount++;
+				}
+				return _evicting;
+			}
+		};
+	}
+
+	/**
+	 * Forget every cached property name, to be done when the rules of the dispatch table change ; counters are kept.
+	 */
+	public void clear()
+	{
+		getEntries().clear();
+	}
+
+	/**
+	 * Find the first rule matching the given property name, using the cache if possible.
+	 * 
+	 * @param table
+	 *            the dispatch table to use when the property name is not cached.
+	 * @param propertyName
+	 *            the property name.
+	 * @return the first matching rule, or <code>null</code> if there is none.
+	 */
+	public RuleSpec findMatchingRule(DispatchTable table, String propertyName)
+	{
+		if (0 == getCapacity())
+		{
+			return table.findMatchingRule(propertyName);
+		}
+		RuleSpec _result = getEntries().get(propertyName);
+		if (null != _result)
+		{
+			myHitCount++;
+			return (NO_MATCH == _result) ? null : _result;
+		}
+		myMissCount++;
+		_result = table.findMatchingRule(propertyName);
+		getEntries().put(propertyName, (null == _result) ? NO_MATCH : _result);
+		return _result;
+	}
+
+	public int getCapacity()
+	{
+		return myCapacity;
+	}
+
+	public long getEvictionCount()
+	{
+		return myEvictionCount;
+	}
+
+	public long getHitCount()
+	{
+		return myHitCount;
+	}
+
+	public long getMissCount()
+	{
+		return myMissCount;
+	}
+
+	public int getSize()
+	{
+		return getEntries().size();
+	}
+
+	private Map<String, RuleSpec> getEntries()
+	{
+		return myEntries;
+	}
+}
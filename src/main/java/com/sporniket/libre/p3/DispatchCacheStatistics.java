@@ -0,0 +1,105 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+/**
+ * Snapshot of the counters of the dispatch caches of a {@link P3} (see {@link P3#setDispatchCacheCapacity(int)}), to help sizing
+ * them ; the counters of the cache for single line properties and of the cache for multiple line properties are added.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public final class DispatchCacheStatistics
+{
+	private final int myCapacity;
+
+	private final long myEvictionCount;
+
+	private final long myHitCount;
+
+	private final long myMissCount;
+
+	private final int mySize;
+
+	DispatchCacheStatistics(int capacity, int size, long hitCount, long missCount, long evictionCount)
+	{
+		myCapacity = capacity;
+		mySize = size;
+		myHitCount = hitCount;
+		myMissCount = missCount;
+		myEvictionCount = evictionCount;
+	}
+
+	/**
+	 * @return the maximum number of cached property names, for each kind of event.
+	 */
+	public int getCapacity()
+	{
+		return myCapacity;
+	}
+
+	/**
+	 * @return the number of cached property names dropped to make room for new ones.
+	 */
+	public long getEvictionCount()
+	{
+		return myEvictionCount;
+	}
+
+	/**
+	 * @return the number of property names found in the cache.
+	 */
+	public long getHitCount()
+	{
+		return myHitCount;
+	}
+
+	/**
+	 * @return the number of property names not found in the cache.
+	 */
+	public long getMissCount()
+	{
+		return myMissCount;
+	}
+
+	/**
+	 * @return the number of cached property names.
+	 */
+	public int getSize()
+	{
+		return mySize;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "DispatchCacheStatistics [capacity=" + getCapacity() + ", size=" + getSize() + ", hits=" + getHitCount() + ", misses="
+				+ getMissCount() + ", evictions=" + getEvictionCount() + "]";
+	}
+}
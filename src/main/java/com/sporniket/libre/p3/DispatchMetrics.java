@@ -0,0 +1,148 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Snapshot of the metrics of a {@link P3} (see {@link P3#setCollectingMetrics(boolean)}), to find which rules absorb the traffic
+ * and which processors are slow.
+ * 
+ * <p>
+ * The rules are named after the event and their position, e.g. <code>singleLinePropertyParsed[2] is like "foo\..*"</code>, and the
+ * processors after the identifier of their holder, e.g. <code>foo.process</code>.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public class DispatchMetrics
+{
+	private final long myDirectivesCompilationCount;
+
+	private final LatencyStatistics myDirectivesCompilationLatency;
+
+	private final long myMultipleLinePropertyCount;
+
+	private final long myProcessorInvocationCount;
+
+	private final Map<String, LatencyStatistics> myProcessorLatencies;
+
+	private final Map<String, Long> myRuleHitCounts;
+
+	private final long mySingleLinePropertyCount;
+
+	private final long myUnmatchedPropertyCount;
+
+	DispatchMetrics(long singleLinePropertyCount, long multipleLinePropertyCount, long unmatchedPropertyCount,
+			long processorInvocationCount, long directivesCompilationCount, LatencyStatistics directivesCompilationLatency,
+			Map<String, Long> ruleHitCounts, Map<String, LatencyStatistics> processorLatencies)
+	{
+		mySingleLinePropertyCount = singleLinePropertyCount;
+		myMultipleLinePropertyCount = multipleLinePropertyCount;
+		myUnmatchedPropertyCount = unmatchedPropertyCount;
+		myProcessorInvocationCount = processorInvocationCount;
+		myDirectivesCompilationCount = directivesCompilationCount;
+		myDirectivesCompilationLatency = directivesCompilationLatency;
+		myRuleHitCounts = Collections.unmodifiableMap(ruleHitCounts);
+		myProcessorLatencies = Collections.unmodifiableMap(processorLatencies);
+	}
+
+	/**
+	 * @return the number of compilations of directives, the directives found in the cache are not compiled.
+	 */
+	public long getDirectivesCompilationCount()
+	{
+		return myDirectivesCompilationCount;
+	}
+
+	/**
+	 * @return the durations of the compilations of directives, <code>null</code> unless recording latencies.
+	 */
+	public LatencyStatistics getDirectivesCompilationLatency()
+	{
+		return myDirectivesCompilationLatency;
+	}
+
+	/**
+	 * @return the number of multiple line properties received.
+	 */
+	public long getMultipleLinePropertyCount()
+	{
+		return myMultipleLinePropertyCount;
+	}
+
+	/**
+	 * @return the number of calls of processors.
+	 */
+	public long getProcessorInvocationCount()
+	{
+		return myProcessorInvocationCount;
+	}
+
+	/**
+	 * @return the durations of the calls, by processor ; empty unless recording latencies.
+	 */
+	public Map<String, LatencyStatistics> getProcessorLatencies()
+	{
+		return myProcessorLatencies;
+	}
+
+	/**
+	 * @return the number of properties matched, by rule in declaration order.
+	 */
+	public Map<String, Long> getRuleHitCounts()
+	{
+		return myRuleHitCounts;
+	}
+
+	/**
+	 * @return the number of single line properties received.
+	 */
+	public long getSingleLinePropertyCount()
+	{
+		return mySingleLinePropertyCount;
+	}
+
+	/**
+	 * @return the number of properties matched by no rule.
+	 */
+	public long getUnmatchedPropertyCount()
+	{
+		return myUnmatchedPropertyCount;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "DispatchMetrics [singleLineProperties=" + getSingleLinePropertyCount() + ", multipleLineProperties="
+				+ getMultipleLinePropertyCount() + ", unmatched=" + getUnmatchedPropertyCount() + ", processorInvocations="
+				+ getProcessorInvocationCount() + ", directivesCompilations=" + getDirectivesCompilationCount() + "]";
+	}
+}
@@ -0,0 +1,129 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import java.util.Map;
+
+/**
+ * Implementation of {@link DispatchMetricsMXBean}, each attribute is read from a new snapshot of the metrics.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+class DispatchMetricsBean implements DispatchMetricsMXBean
+{
+	private final P3 myProgram;
+
+	public DispatchMetricsBean(P3 program)
+	{
+		myProgram = program;
+	}
+
+	@Override
+	public long getDirectivesCompilationCount()
+	{
+		return getMetrics().getDirectivesCompilationCount();
+	}
+
+	@Override
+	public LatencyStatistics getDirectivesCompilationLatency()
+	{
+		return getMetrics().getDirectivesCompilationLatency();
+	}
+
+	@Override
+	public long getMultipleLinePropertyCount()
+	{
+		return getMetrics().getMultipleLinePropertyCount();
+	}
+
+	@Override
+	public long getProcessorInvocationCount()
+	{
+		return getMetrics().getProcessorInvocationCount();
+	}
+
+	@Override
+	public Map<String, LatencyStatistics> getProcessorLatencies()
+	{
+		return getMetrics().getProcessorLatencies();
+	}
+
+	@Override
+	public Map<String, Long> getRuleHitCounts()
+	{
+		return getMetrics().getRuleHitCounts();
+	}
+
+	@Override
+	public long getSingleLinePropertyCount()
+	{
+		return getMetrics().getSingleLinePropertyCount();
+	}
+
+	@Override
+	public long getUnmatchedPropertyCount()
+	{
+		return getMetrics().getUnmatchedPropertyCount();
+	}
+
+	@Override
+	public boolean isCollectingMetrics()
+	{
+		return getProgram().isCollectingMetrics();
+	}
+
+	@Override
+	public boolean isRecordingLatencies()
+	{
+		return getProgram().isRecordingLatencies();
+	}
+
+	@Override
+	public void setCollectingMetrics(boolean collectingMetrics)
+	{
+		getProgram().setCollectingMetrics(collectingMetrics);
+	}
+
+	@Override
+	public void setRecordingLatencies(boolean recordingLatencies)
+	{
+		getProgram().setRecordingLatencies(recordingLatencies);
+	}
+
+	private DispatchMetrics getMetrics()
+	{
+		return getProgram().getMetrics();
+	}
+
+	private P3 getProgram()
+	{
+		return myProgram;
+	}
+}
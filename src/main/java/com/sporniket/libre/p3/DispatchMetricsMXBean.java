@@ -0,0 +1,65 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import java.util.Map;
+
+/**
+ * Management interface of the metrics of a {@link P3}, see {@link P3#registerMetricsMBean(String)} ; the attributes are those of
+ * {@link DispatchMetrics}, and the collection of metrics can be switched on and off.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public interface DispatchMetricsMXBean
+{
+	long getDirectivesCompilationCount();
+
+	LatencyStatistics getDirectivesCompilationLatency();
+
+	long getMultipleLinePropertyCount();
+
+	long getProcessorInvocationCount();
+
+	Map<String, LatencyStatistics> getProcessorLatencies();
+
+	Map<String, Long> getRuleHitCounts();
+
+	long getSingleLinePropertyCount();
+
+	long getUnmatchedPropertyCount();
+
+	boolean isCollectingMetrics();
+
+	boolean isRecordingLatencies();
+
+	void setCollectingMetrics(boolean collectingMetrics);
+
+	void setRecordingLatencies(boolean recordingLatencies);
+}
@@ -0,0 +1,297 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable state of the dispatch of a {@link P3} : the objects defined by the directives, the rules and their compiled forms.
+ * 
+ * <p>
+ * A snapshot is never changed once created, thus it can be read by several threads without locking once published. Adding rules
+ * is done by copying the current snapshot into a {@link Builder}, and then by publishing the built snapshot. A snapshot bound to
+ * other processor holders, e.g. for a fork of a P3, shares the compiled forms of the rules, see
+ * {@link #withProcessorHolders(Map, Map)}.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+final class DispatchSnapshot
+{
+	/**
+	 * Copy of a snapshot to be changed.
+	 */
+	static final class Builder
+	{
+		private final Map<String, Object> myContext;
+
+		private final List<RuleSpec> myRuleSpecsForMultipleLineProperty;
+
+		private final List<RuleSpec> myRuleSpecsForSingleLineProperty;
+
+		/**
+		 * Create an empty builder.
+		 */
+		public Builder()
+		{
+			myContext = new HashMap<String, Object>();
+			myRuleSpecsForSingleLineProperty = new ArrayList<RuleSpec>();
+			myRuleSpecsForMultipleLineProperty = new ArrayList<RuleSpec>();
+		}
+
+		/**
+		 * Create a builder starting from a copy of the given snapshot.
+		 * 
+		 * @param base
+		 *            the snapshot to copy.
+		 */
+		public Builder(DispatchSnapshot base)
+		{
+			myContext = new HashMap<String, Object>(base.getContext());
+			myRuleSpecsForSingleLineProperty = new ArrayList<RuleSpec>(base.getRuleSpecsForSingleLineProperty());
+			myRuleSpecsForMultipleLineProperty = new ArrayList<RuleSpec>(base.getRuleSpecsForMultipleLineProperty());
+		}
+
+		/**
+		 * Create the snapshot, compiling the rules.
+		 * 
+		 * @param generatingDispatcher
+		 *            <code>true</code> to generate the code of the dispatch.
+		 * @return the snapshot.
+		 */
+		public DispatchSnapshot build(boolean generatingDispatcher)
+		{
+			return new DispatchSnapshot(this, generatingDispatcher);
+		}
+
+		public Map<String, Object> getContext()
+		{
+			return myContext;
+		}
+
+		public List<RuleSpec> getRuleSpecsForMultipleLineProperty()
+		{
+			return myRuleSpecsForMultipleLineProperty;
+		}
+
+		public List<RuleSpec> getRuleSpecsForSingleLineProperty()
+		{
+			return myRuleSpecsForSingleLineProperty;
+		}
+	}
+
+	private final Map<String, Object> myContext;
+
+	private final DispatchTable myDispatchTableForMultipleLineProperty;
+
+	private final DispatchTable myDispatchTableForSingleLineProperty;
+
+	/**
+	 * Generated form of {@link #myDispatchTableForMultipleLineProperty}, <code>null</code> when not generated.
+	 */
+	private final GeneratedDispatcher myGeneratedDispatcherForMultipleLineProperty;
+
+	/**
+	 * Generated form of {@link #myDispatchTableForSingleLineProperty}, <code>null</code> when not generated.
+	 */
+	private final GeneratedDispatcher myGeneratedDispatcherForSingleLineProperty;
+
+	/**
+	 * Template of {@link #myGeneratedDispatcherForMultipleLineProperty}, <code>null</code> when not generated.
+	 */
+	private final GeneratedDispatcherFactory.Template myGeneratedDispatcherTemplateForMultipleLineProperty;
+
+	/**
+	 * Template of {@link #myGeneratedDispatcherForSingleLineProperty}, <code>null</code> when not generated.
+	 */
+	private final GeneratedDispatcherFactory.Template myGeneratedDispatcherTemplateForSingleLineProperty;
+
+	private final List<RuleSpec> myRuleSpecsForMultipleLineProperty;
+
+	private final List<RuleSpec> myRuleSpecsForSingleLineProperty;
+
+	/**
+	 * <code>true</code> when every processor of {@link #myRuleSpecsForMultipleLineProperty} is thread safe.
+	 */
+	private final boolean myThreadSafeForMultipleLineProperty;
+
+	/**
+	 * <code>true</code> when every processor of {@link #myRuleSpecsForSingleLineProperty} is thread safe.
+	 */
+	private final boolean myThreadSafeForSingleLineProperty;
+
+	private DispatchSnapshot(Builder builder, boolean generatingDispatcher)
+	{
+		myContext = Collections.unmodifiableMap(new HashMap<String, Object>(builder.getContext()));
+		myRuleSpecsForSingleLineProperty = Collections
+				.unmodifiableList(new ArrayList<RuleSpec>(builder.getRuleSpecsForSingleLineProperty()));
+		myRuleSpecsForMultipleLineProperty = Collections
+				.unmodifiableList(new ArrayList<RuleSpec>(builder.getRuleSpecsForMultipleLineProperty()));
+		myDispatchTableForSingleLineProperty = new DispatchTable(myRuleSpecsForSingleLineProperty);
+		myDispatchTableForMultipleLineProperty = new DispatchTable(myRuleSpecsForMultipleLineProperty);
+		myGeneratedDispatcherTemplateForSingleLineProperty = generatingDispatcher ? GeneratedDispatcherFactory
+				.createTemplate(myRuleSpecsForSingleLineProperty) : null;
+		myGeneratedDispatcherTemplateForMultipleLineProperty = generatingDispatcher ? GeneratedDispatcherFactory
+				.createTemplate(myRuleSpecsForMultipleLineProperty) : null;
+		myGeneratedDispatcherForSingleLineProperty = newDispatcher(myGeneratedDispatcherTemplateForSingleLineProperty);
+		myGeneratedDispatcherForMultipleLineProperty = newDispatcher(myGeneratedDispatcherTemplateForMultipleLineProperty);
+		myThreadSafeForSingleLineProperty = isThreadSafe(myRuleSpecsForSingleLineProperty);
+		myThreadSafeForMultipleLineProperty = isThreadSafe(myRuleSpecsForMultipleLineProperty);
+	}
+
+	/**
+	 * Bind a snapshot to other processor holders, see {@link #withProcessorHolders(Map, Map)}.
+	 */
+	private DispatchSnapshot(DispatchSnapshot base, Map<String, Object> context, Map<Object, Object> holders)
+	{
+		myContext = Collections.unmodifiableMap(new HashMap<String, Object>(context));
+		myRuleSpecsForSingleLineProperty = bindRules(base.getRuleSpecsForSingleLineProperty(), holders);
+		myRuleSpecsForMultipleLineProperty = bindRules(base.getRuleSpecsForMultipleLineProperty(), holders);
+		myDispatchTableForSingleLineProperty = base.getDispatchTableForSingleLineProperty().withRules(
+				myRuleSpecsForSingleLineProperty);
+		myDispatchTableForMultipleLineProperty = base.getDispatchTableForMultipleLineProperty().withRules(
+				myRuleSpecsForMultipleLineProperty);
+		myGeneratedDispatcherTemplateForSingleLineProperty = withProcessorHolders(
+				base.myGeneratedDispatcherTemplateForSingleLineProperty, holders);
+		myGeneratedDispatcherTemplateForMultipleLineProperty = withProcessorHolders(
+				base.myGeneratedDispatcherTemplateForMultipleLineProperty, holders);
+		myGeneratedDispatcherForSingleLineProperty = newDispatcher(myGeneratedDispatcherTemplateForSingleLineProperty);
+		myGeneratedDispatcherForMultipleLineProperty = newDispatcher(myGeneratedDispatcherTemplateForMultipleLineProperty);
+		myThreadSafeForSingleLineProperty = isThreadSafe(myRuleSpecsForSingleLineProperty);
+		myThreadSafeForMultipleLineProperty = isThreadSafe(myRuleSpecsForMultipleLineProperty);
+	}
+
+	private static List<RuleSpec> bindRules(List<RuleSpec> rules, Map<Object, Object> holders)
+	{
+		List<RuleSpec> _result = new ArrayList<RuleSpec>(rules.size());
+		for (RuleSpec _rule : rules)
+		{
+			List<ProcessorSpec> _processors = new ArrayList<ProcessorSpec>(_rule.getProcessors().size());
+			for (ProcessorSpec _processor : _rule.getProcessors())
+			{
+				_processors.add(_processor.withProcessorHolder(holders.get(_processor.getProcessorHolderBinding())));
+			}
+			_result.add(new RuleSpec(_rule.getMatcher(), _processors));
+		}
+		return Collections.unmodifiableList(_result);
+	}
+
+	private static boolean isThreadSafe(List<RuleSpec> rules)
+	{
+		for (RuleSpec _rule : rules)
+		{
+			for (ProcessorSpec _processor : _rule.getProcessors())
+			{
+				if (!_processor.isThreadSafe())
+				{
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private static GeneratedDispatcher newDispatcher(GeneratedDispatcherFactory.Template template)
+	{
+		return (null == template) ? null : template.newDispatcher();
+	}
+
+	private static GeneratedDispatcherFactory.Template withProcessorHolders(GeneratedDispatcherFactory.Template template,
+			Map<Object, Object> holders)
+	{
+		return (null == template) ? null : template.withProcessorHolders(holders);
+	}
+
+	/**
+	 * @return the objects defined by the directives, unmodifiable.
+	 */
+	public Map<String, Object> getContext()
+	{
+		return myContext;
+	}
+
+	public DispatchTable getDispatchTableForMultipleLineProperty()
+	{
+		return myDispatchTableForMultipleLineProperty;
+	}
+
+	public DispatchTable getDispatchTableForSingleLineProperty()
+	{
+		return myDispatchTableForSingleLineProperty;
+	}
+
+	public GeneratedDispatcher getGeneratedDispatcherForMultipleLineProperty()
+	{
+		return myGeneratedDispatcherForMultipleLineProperty;
+	}
+
+	public GeneratedDispatcher getGeneratedDispatcherForSingleLineProperty()
+	{
+		return myGeneratedDispatcherForSingleLineProperty;
+	}
+
+	public List<RuleSpec> getRuleSpecsForMultipleLineProperty()
+	{
+		return myRuleSpecsForMultipleLineProperty;
+	}
+
+	public List<RuleSpec> getRuleSpecsForSingleLineProperty()
+	{
+		return myRuleSpecsForSingleLineProperty;
+	}
+
+	public boolean isThreadSafeForMultipleLineProperty()
+	{
+		return myThreadSafeForMultipleLineProperty;
+	}
+
+	public boolean isThreadSafeForSingleLineProperty()
+	{
+		return myThreadSafeForSingleLineProperty;
+	}
+
+	/**
+	 * Create the same snapshot bound to other processor holders : the rules are copied, the compiled forms of the rules (dispatch
+	 * tables and generated classes) are shared.
+	 * 
+	 * @param context
+	 *            the objects defined by the directives, in place of the objects of this snapshot.
+	 * @param holders
+	 *            the replacement of each processor holder (or {@link LazyProcessorHolder}) of the rules of this snapshot.
+	 * @return the new snapshot.
+	 */
+	public DispatchSnapshot withProcessorHolders(Map<String, Object> context, Map<Object, Object> holders)
+	{
+		return new DispatchSnapshot(this, context, holders);
+	}
+}
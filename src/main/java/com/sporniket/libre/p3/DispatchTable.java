@@ -0,0 +1,298 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled form of a list of {@link RuleSpec}, for finding the first rule matching a property name.
+ * 
+ * <p>
+ * Rules using a {@link PropertyNameMatcherExactMatch} are indexed by name, so that they are found in constant time ; rules using a
+ * {@link PropertyNameMatcherPrefix} are stored in a {@link PropertyNameSegmentTrie}, and rules using a {@link PropertyNameMatcherLike}
+ * are combined into a {@link PropertyNameAutomaton} when possible, so that they are all evaluated in one scan of the property name.
+ * The other rules are evaluated in their declaration order, until the best rule found so far (if
+ * any) is reached. Thus, the result is the same as evaluating each rule in order until the first match.
+ * 
+ * <p>
+ * The property name may be any {@link CharSequence}, e.g. a view over the buffer of a reader, the search does not create any
+ * object.
+ * 
+ * <p>
+ * Rules declared after a rule using a {@link PropertyNameMatcherAny} can never be selected, they are discarded.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+class DispatchTable
+{
+	/**
+	 * Open addressing hash table from names to rule positions, that can be searched with any {@link CharSequence}.
+	 */
+	private static class ExactMatchIndex
+	{
+		private final int[] myHashes;
+
+		private final int myMask;
+
+		private final String[] myNames;
+
+		private final int[] myRules;
+
+		public ExactMatchIndex(Map<String, Integer> rules)
+		{
+			int _capacity = Integer.highestOneBit(Math.max(2, rules.size() * 2 - 1)) << 1;
+			myHashes = new int[_capacity];
+			myMask = _capacity - 1;
+			myNames = new String[_capacity];
+			myRules = new int[_capacity];
+			for (Map.Entry<String, Integer> _rule : rules.entrySet())
+			{
+				int _hash = _rule.getKey().hashCode();
+				int _slot = _hash & myMask;
+				while (null != myNames[_slot])
+				{
+					_slot = (_slot + 1) & myMask;
+				}
+				myHashes[_slot] = _hash;
+				myNames[_slot] = _rule.getKey();
+				myRules[_slot] = _rule.getValue();
+			}
+		}
+
+		/**
+		 * Compute the hash of a name, like {@link String#hashCode()}.
+		 */
+		private static int hash(CharSequence name)
+		{
+			if (name instanceof String)
+			{
+				return name.hashCode();
+			}
+			int _result = 0;
+			for (int _index = 0; _index < name.length(); _index++)
+			{
+				_result = 31 * _result + name.charAt(_index);
+			}
+			return _result;
+		}
+
+		/**
+		 * Find the position of the first rule using an exact match of the given name.
+		 * 
+		 * @param name
+		 *            the property name.
+		 * @return the position, or <code>noMatch</code> if there is none.
+		 */
+		public int get(CharSequence name, int noMatch)
+		{
+			int _hash = hash(name);
+			for (int _slot = _hash & myMask; null != myNames[_slot]; _slot = (_slot + 1) & myMask)
+			{
+				if (_hash == myHashes[_slot] && myNames[_slot].contentEquals(name))
+				{
+					return myRules[_slot];
+				}
+			}
+			return noMatch;
+		}
+	}
+
+	/**
+	 * Automaton for the rules using a pattern, <code>null</code> if there is none.
+	 */
+	private final PropertyNameAutomaton myAutomaton;
+
+	/**
+	 * Index of the rules using an exact match, the value is the position of the first rule declared for the name.
+	 */
+	private final ExactMatchIndex myExactMatchIndex;
+
+	/**
+	 * Trie for the rules using a literal prefix, <code>null</code> if there is none.
+	 */
+	private final PropertyNameSegmentTrie myPrefixTrie;
+
+	/**
+	 * Position of the rules that are not indexed, in declaration order.
+	 */
+	private final int[] myOrderedRules;
+
+	/**
+	 * The rules, in declaration order.
+	 */
+	private final RuleSpec[] myRules;
+
+	/**
+	 * Compile the given list of rules.
+	 * 
+	 * @param rules
+	 *            the rules, in declaration order.
+	 */
+	public DispatchTable(List<RuleSpec> rules)
+	{
+		myRules = rules.toArray(new RuleSpec[rules.size()]);
+		Map<String, Integer> _exactMatchIndex = new HashMap<String, Integer>();
+		List<Integer> _orderedRules = new ArrayList<Integer>();
+		PropertyNameAutomaton.Builder _automaton = new PropertyNameAutomaton.Builder();
+		PropertyNameSegmentTrie _prefixTrie = new PropertyNameSegmentTrie();
+		for (int _index = 0; _index < myRules.length; _index++)
+		{
+			PropertyNameMatcher _matcher = myRules[_index].getMatcher();
+			if (_matcher instanceof PropertyNameMatcherExactMatch)
+			{
+				String _name = ((PropertyNameMatcherExactMatch) _matcher).getName();
+				if (!_exactMatchIndex.containsKey(_name))
+				{
+					_exactMatchIndex.put(_name, _index);
+				}
+			}
+			else if (_matcher instanceof PropertyNameMatcherPrefix)
+			{
+				_prefixTrie.add((PropertyNameMatcherPrefix) _matcher, _index);
+			}
+			else if (_matcher instanceof PropertyNameMatcherLike
+					&& _automaton.add(((PropertyNameMatcherLike) _matcher).getPattern().pattern(), _index))
+			{
+				// evaluated by the automaton
+			}
+			else
+			{
+				_orderedRules.add(_index);
+				if (_matcher instanceof PropertyNameMatcherAny)
+				{
+					// catch all, next rules are unreachable
+					break;
+				}
+			}
+		}
+		myExactMatchIndex = new ExactMatchIndex(_exactMatchIndex);
+		myAutomaton = _automaton.isEmpty() ? null : _automaton.build();
+		myPrefixTrie = _prefixTrie.isEmpty() ? null : _prefixTrie;
+		myOrderedRules = new int[_orderedRules.size()];
+		for (int _index = 0; _index < myOrderedRules.length; _index++)
+		{
+			myOrderedRules[_index] = _orderedRules.get(_index);
+		}
+	}
+
+	/**
+	 * Share the compiled form of another table.
+	 */
+	private DispatchTable(DispatchTable compiled, List<RuleSpec> rules)
+	{
+		myRules = rules.toArray(new RuleSpec[rules.size()]);
+		myExactMatchIndex = compiled.getExactMatchIndex();
+		myAutomaton = compiled.getAutomaton();
+		myPrefixTrie = compiled.getPrefixTrie();
+		myOrderedRules = compiled.getOrderedRules();
+	}
+
+	/**
+	 * Find the first rule matching the given property name.
+	 * 
+	 * @param propertyName
+	 *            the property name.
+	 * @return the first matching rule, or <code>null</code> if there is none.
+	 */
+	public RuleSpec findMatchingRule(CharSequence propertyName)
+	{
+		int _bestRule = getExactMatchIndex().get(propertyName, getRules().length);
+		if (null != getPrefixTrie())
+		{
+			int _matchedRule = getPrefixTrie().findFirstMatchingRule(propertyName);
+			if (PropertyNameSegmentTrie.NO_MATCH != _matchedRule && _matchedRule < _bestRule)
+			{
+				_bestRule = _matchedRule;
+			}
+		}
+		if (null != getAutomaton())
+		{
+			int _matchedRule = getAutomaton().findFirstMatchingRule(propertyName);
+			if (PropertyNameAutomaton.NO_MATCH != _matchedRule && _matchedRule < _bestRule)
+			{
+				_bestRule = _matchedRule;
+			}
+		}
+		for (int _index : getOrderedRules())
+		{
+			if (_index > _bestRule)
+			{
+				break;
+			}
+			RuleSpec _rule = getRules()[_index];
+			if (_rule.getMatcher().isMatching(propertyName))
+			{
+				return _rule;
+			}
+		}
+		return (_bestRule < getRules().length) ? getRules()[_bestRule] : null;
+	}
+
+	/**
+	 * Create a table of other rules having the same matchers in the same order, e.g. rules bound to other processor holders ; the
+	 * compiled form of this table is shared.
+	 * 
+	 * @param rules
+	 *            the rules, in declaration order.
+	 * @return the table of the given rules.
+	 */
+	public DispatchTable withRules(List<RuleSpec> rules)
+	{
+		return new DispatchTable(this, rules);
+	}
+
+	private PropertyNameAutomaton getAutomaton()
+	{
+		return myAutomaton;
+	}
+
+	private ExactMatchIndex getExactMatchIndex()
+	{
+		return myExactMatchIndex;
+	}
+
+	private int[] getOrderedRules()
+	{
+		return myOrderedRules;
+	}
+
+	private PropertyNameSegmentTrie getPrefixTrie()
+	{
+		return myPrefixTrie;
+	}
+
+	private RuleSpec[] getRules()
+	{
+		return myRules;
+	}
+}
@@ -0,0 +1,137 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+/**
+ * Events of the JDK Flight Recorder emitted by {@link P3} : the execution of directives, the dispatch of properties and the calls of
+ * processors.
+ * 
+ * <p>
+ * This version does nothing, each <code>begin</code> method returns <code>null</code> so that the caller skips the matching
+ * <code>commit</code> method ; the multi-release part of the artifact provides a version emitting the events, for Java 11 and
+ * later.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+final class FlightRecorderEvents
+{
+	private FlightRecorderEvents()
+	{
+		// static methods only
+	}
+
+	/**
+	 * @return an event to commit with {@link #commitDirectivesExecution(Object, long, RuleProgram, boolean, long)}, or
+	 *         <code>null</code> when the event is not recorded.
+	 */
+	public static Object beginDirectivesExecution()
+	{
+		return null;
+	}
+
+	/**
+	 * @return an event to commit with {@link #commitDispatch(Object, boolean, String, RuleSpec)}, or <code>null</code> when the event
+	 *         is not recorded.
+	 */
+	public static Object beginDispatch()
+	{
+		return null;
+	}
+
+	/**
+	 * @return an event to commit with {@link #commitProcessorInvocation(Object, ProcessorSpec, String)}, or <code>null</code> when
+	 *         the event is not recorded.
+	 */
+	public static Object beginProcessorInvocation()
+	{
+		return null;
+	}
+
+	/**
+	 * Commit the event of the execution of directives.
+	 * 
+	 * @param event
+	 *            the event returned by {@link #beginDirectivesExecution()}.
+	 * @param sourceSize
+	 *            the size of the source, in characters for directives, in bytes for compiled directives.
+	 * @param program
+	 *            the program of the directives.
+	 * @param executed
+	 *            <code>false</code> when the directives have been ignored, see {@link P3#isAllowingOverride()}.
+	 * @param compilationDuration
+	 *            the duration of the compilation, or of the decoding of compiled directives, in nanoseconds.
+	 */
+	public static void commitDirectivesExecution(Object event, long sourceSize, RuleProgram program, boolean executed,
+			long compilationDuration)
+	{
+		// no event
+	}
+
+	/**
+	 * Commit the event of the dispatch of a property, when it lasted longer than the threshold of the recording.
+	 * 
+	 * @param event
+	 *            the event returned by {@link #beginDispatch()}.
+	 * @param multipleLine
+	 *            <code>true</code> for a multiple line property.
+	 * @param name
+	 *            the name of the property.
+	 * @param rule
+	 *            the matching rule, <code>null</code> if there is none.
+	 */
+	public static void commitDispatch(Object event, boolean multipleLine, String name, RuleSpec rule)
+	{
+		// no event
+	}
+
+	/**
+	 * Commit the event of the call of a processor, when it lasted longer than the threshold of the recording.
+	 * 
+	 * @param event
+	 *            the event returned by {@link #beginProcessorInvocation()}.
+	 * @param processor
+	 *            the processor.
+	 * @param name
+	 *            the name of the processed property.
+	 */
+	public static void commitProcessorInvocation(Object event, ProcessorSpec processor, String name)
+	{
+		// no event
+	}
+
+	/**
+	 * @return <code>true</code> when the dispatch of properties or the calls of processors are recorded, the generated dispatcher must
+	 *         not be used.
+	 */
+	public static boolean isRecordingDispatch()
+	{
+		return false;
+	}
+}
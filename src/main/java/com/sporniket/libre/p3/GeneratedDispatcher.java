@@ -0,0 +1,52 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+/**
+ * Dispatcher generated by {@link GeneratedDispatcherFactory} for a given list of rules : the first matching rule is selected and
+ * its processors are called, like with a {@link DispatchTable} ; the code is specialised for the rules, to be inlined by the
+ * compiler.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+interface GeneratedDispatcher
+{
+	/**
+	 * Call the processors of the first rule matching the property name, if any.
+	 * 
+	 * @param name
+	 *            property name.
+	 * @param value
+	 *            property value, a <code>String</code> or a <code>String[]</code> depending on the processors.
+	 * @throws Throwable
+	 *             anything thrown by a processor, as is.
+	 */
+	void dispatch(String name, Object value) throws Throwable;
+}
@@ -0,0 +1,507 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generate a {@link GeneratedDispatcher} for a list of rules.
+ * 
+ * <p>
+ * The generated <code>dispatch</code> method is the equivalent of :
+ * 
+ * <pre>
+ * int _rule = RULE_COUNT;
+ * switch (name.hashCode())
+ * {
+ * 	// for each exact match, the first declared rule wins
+ * 	case 0x1234:
+ * 		if (name.equals("foo")) _rule = 0;
+ * 		break;
+ * }
+ * // then each other rule, in declaration order, as long as it comes before the selected rule
+ * if (_rule &gt; 1 &amp;&amp; name.startsWith("bar.") &amp;&amp; PropertyNameMatcherPrefix.isMatchingAny(name, 4)) _rule = 1;
+ * else if (_rule &gt; 2 &amp;&amp; myPattern2.matcher(name).matches()) _rule = 2;
+ * else if (_rule &gt; 3) _rule = 3; // else
+ * switch (_rule)
+ * {
+ * 	case 0:
+ * 		myInvoker0.process(myHolder0, name, value);
+ * 		myInvoker1.process(myHolder1, name, value);
+ * 		return;
+ * 	// ...
+ * }
+ * </pre>
+ * 
+ * <p>
+ * Each processor has its own call site, that only sees one implementation of {@link ProcessorInvoker}. The holders are given
+ * through {@link LazyProcessorHolder#resolve(Object)}, e.g. <code>LazyProcessorHolder.resolve(myHolder1)</code>, so that the same
+ * class serves holders created eagerly or lazily ; a {@link Template} creates other dispatchers of the same class for other
+ * holders, e.g. for each fork of a P3.
+ * 
+ * <p>
+ * The class is defined in the package of P3, as a hidden class when available (Java 15 and later) so that it can be unloaded, or
+ * else using {@link MethodHandles.Lookup}<code>.defineClass</code> (Java 9 and later). When none is available, or when a processor
+ * has no {@link ProcessorInvoker}, there is no generated dispatcher and the caller is expected to keep using a {@link DispatchTable}.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+final class GeneratedDispatcherFactory
+{
+	/**
+	 * Generated class of a list of rules, with the values of its fields.
+	 */
+	static final class Template
+	{
+		private final Object[] myArguments;
+
+		private final Constructor<?> myConstructor;
+
+		private Template(Constructor<?> constructor, Object[] arguments)
+		{
+			myConstructor = constructor;
+			myArguments = arguments;
+		}
+
+		/**
+		 * Create a dispatcher of the rules of the template.
+		 * 
+		 * @return the dispatcher, or <code>null</code> if it cannot be created.
+		 */
+		public GeneratedDispatcher newDispatcher()
+		{
+			try
+			{
+				return (GeneratedDispatcher) getConstructor().newInstance((Object) getArguments());
+			}
+			catch (Exception | LinkageError _exception)
+			{
+				return null;
+			}
+		}
+
+		/**
+		 * Create a template of the same class, for the rules bound to other processor holders.
+		 * 
+		 * @param holders
+		 *            the replacement of each processor holder (or {@link LazyProcessorHolder}) of the rules of this template, a
+		 *            missing holder is kept.
+		 * @return the template.
+		 */
+		public Template withProcessorHolders(Map<Object, Object> holders)
+		{
+			Object[] _arguments = getArguments().clone();
+			for (int _index = 0; _index < _arguments.length; _index++)
+			{
+				Object _holder = holders.get(_arguments[_index]);
+				if (null != _holder)
+				{
+					_arguments[_index] = _holder;
+				}
+			}
+			return new Template(getConstructor(), _arguments);
+		}
+
+		private Object[] getArguments()
+		{
+			return myArguments;
+		}
+
+		private Constructor<?> getConstructor()
+		{
+			return myConstructor;
+		}
+	}
+
+	private static final String CLASS_NAME__BASE = GeneratedDispatcher.class.getName().replace('.', '/') + "$$Impl";
+
+	private static final String CLASS_NAME__DISPATCHER = GeneratedDispatcher.class.getName().replace('.', '/');
+
+	private static final String CLASS_NAME__INVOKER = ProcessorInvoker.class.getName().replace('.', '/');
+
+	private static final String CLASS_NAME__LAZY_HOLDER = LazyProcessorHolder.class.getName().replace('.', '/');
+
+	private static final String CLASS_NAME__MATCHER = PropertyNameMatcher.class.getName().replace('.', '/');
+
+	private static final String CLASS_NAME__MATCHER_PREFIX = PropertyNameMatcherPrefix.class.getName().replace('.', '/');
+
+	private static final String CLASS_NAME__OBJECT = "java/lang/Object";
+
+	private static final String CLASS_NAME__PATTERN = "java/util/regex/Pattern";
+
+	private static final String CLASS_NAME__STRING = "java/lang/String";
+
+	private static final AtomicLong CLASS_SERIAL = new AtomicLong();
+
+	private static final Method DEFINE_CLASS = findMethod("defineClass", byte[].class);
+
+	private static final Method DEFINE_HIDDEN_CLASS = findDefineHiddenClass();
+
+	private static final String DESCRIPTOR__CONSTRUCTOR = "([Ljava/lang/Object;)V";
+
+	private static final String DESCRIPTOR__DISPATCH = "(Ljava/lang/String;Ljava/lang/Object;)V";
+
+	private static final String DESCRIPTOR__INVOKER = "L" + CLASS_NAME__INVOKER + ";";
+
+	private static final String DESCRIPTOR__MATCHER = "L" + CLASS_NAME__MATCHER + ";";
+
+	private static final String DESCRIPTOR__OBJECT = "Ljava/lang/Object;";
+
+	private static final String DESCRIPTOR__PATTERN = "L" + CLASS_NAME__PATTERN + ";";
+
+	private static final String DESCRIPTOR__PROCESS = "(Ljava/lang/Object;Ljava/lang/String;Ljava/lang/Object;)V";
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+	private static final int LOCAL__NAME = 1;
+
+	/**
+	 * Local variable of the dispatch method holding the selected rule.
+	 */
+	private static final int LOCAL__RULE = 3;
+
+	private static final int LOCAL__THIS = 0;
+
+	private static final int LOCAL__VALUE = 2;
+
+	/**
+	 * Create a dispatcher.
+	 * 
+	 * @param rules
+	 *            the rules, in declaration order.
+	 * @return the dispatcher, or <code>null</code> if it cannot be generated.
+	 */
+	public static GeneratedDispatcher create(List<RuleSpec> rules)
+	{
+		Template _template = createTemplate(rules);
+		return (null == _template) ? null : _template.newDispatcher();
+	}
+
+	/**
+	 * Create the generated class of a list of rules.
+	 * 
+	 * @param rules
+	 *            the rules, in declaration order.
+	 * @return the template of the dispatchers, or <code>null</code> if it cannot be generated.
+	 */
+	public static Template createTemplate(List<RuleSpec> rules)
+	{
+		if (null == DEFINE_HIDDEN_CLASS && null == DEFINE_CLASS)
+		{
+			return null;
+		}
+		for (RuleSpec _rule : rules)
+		{
+			for (ProcessorSpec _processor : _rule.getProcessors())
+			{
+				if (null == _processor.getInvoker())
+				{
+					return null;
+				}
+			}
+		}
+
+		String _className = CLASS_NAME__BASE + CLASS_SERIAL.incrementAndGet();
+		List<Object> _arguments = new ArrayList<Object>();
+		byte[] _classFile;
+		try
+		{
+			_classFile = generate(_className, rules, _arguments);
+		}
+		catch (IllegalStateException _exception)
+		{
+			// too many rules for a single method, or the like
+			return null;
+		}
+		try
+		{
+			Class<?> _class = define(_classFile);
+			return new Template(_class.getConstructor(Object[].class), _arguments.toArray());
+		}
+		catch (Exception | LinkageError _exception)
+		{
+			return null;
+		}
+	}
+
+	private static Class<?> define(byte[] classFile) throws Exception
+	{
+		if (null != DEFINE_HIDDEN_CLASS)
+		{
+			Object _options = Array.newInstance(DEFINE_HIDDEN_CLASS.getParameterTypes()[2].getComponentType(), 0);
+			MethodHandles.Lookup _lookup = (MethodHandles.Lookup) DEFINE_HIDDEN_CLASS.invoke(LOOKUP, classFile, true, _options);
+			return _lookup.lookupClass();
+		}
+		return (Class<?>) DEFINE_CLASS.invoke(LOOKUP, (Object) classFile);
+	}
+
+	private static Method findDefineHiddenClass()
+	{
+		try
+		{
+			Class<?> _options = Class.forName(MethodHandles.Lookup.class.getName() + "$ClassOption");
+			return findMethod("defineHiddenClass", byte[].class, boolean.class, Array.newInstance(_options, 0).getClass());
+		}
+		catch (ClassNotFoundException _exception)
+		{
+			return null;
+		}
+	}
+
+	private static Method findMethod(String name, Class<?>... parameterTypes)
+	{
+		try
+		{
+			return MethodHandles.Lookup.class.getMethod(name, parameterTypes);
+		}
+		catch (NoSuchMethodException _exception)
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * Generate the class file.
+	 * 
+	 * @param className
+	 *            internal name of the class.
+	 * @param rules
+	 *            the rules, in declaration order.
+	 * @param arguments
+	 *            filled with the values of the fields, to give to the constructor.
+	 * @return the class file.
+	 */
+	private static byte[] generate(String className, List<RuleSpec> rules, List<Object> arguments)
+	{
+		ClassFileBuilder _classFile = new ClassFileBuilder();
+		List<String> _fieldNames = new ArrayList<String>();
+		List<String> _fieldTypes = new ArrayList<String>();
+		ClassFileBuilder.Code _dispatch = _classFile.newCode();
+		ClassFileBuilder.Label _selected = new ClassFileBuilder.Label();
+
+		// default : no rule
+		_dispatch.push(rules.size()).istore(LOCAL__RULE);
+
+		// exact matches, a literal prefix without wildcard is an exact match
+		Map<String, Integer> _exactMatches = new HashMap<String, Integer>();
+		for (int _index = 0; _index < rules.size(); _index++)
+		{
+			String _name = getExactName(rules.get(_index).getMatcher());
+			if (null != _name && !_exactMatches.containsKey(_name))
+			{
+				_exactMatches.put(_name, _index);
+			}
+		}
+		generate__exactMatches(_dispatch, _exactMatches);
+
+		// other rules
+		for (int _index = 0; _index < rules.size(); _index++)
+		{
+			PropertyNameMatcher _matcher = rules.get(_index).getMatcher();
+			if (null != getExactName(_matcher))
+			{
+				continue;
+			}
+			_dispatch.iload(LOCAL__RULE).push(_index).jump(ClassFileBuilder.OPCODE__IF_ICMPLE, _selected);
+			ClassFileBuilder.Label _next = new ClassFileBuilder.Label();
+			if (_matcher instanceof PropertyNameMatcherPrefix)
+			{
+				String _prefix = ((PropertyNameMatcherPrefix) _matcher).getPrefix();
+				_dispatch.aload(LOCAL__NAME).ldc(_prefix)
+						.invokevirtual(CLASS_NAME__STRING, "startsWith", "(Ljava/lang/String;)Z")
+						.jump(ClassFileBuilder.OPCODE__IFEQ, _next);
+				_dispatch.aload(LOCAL__NAME).push(_prefix.length())
+						.invokestatic(CLASS_NAME__MATCHER_PREFIX, "isMatchingAny", "(Ljava/lang/CharSequence;I)Z")
+						.jump(ClassFileBuilder.OPCODE__IFEQ, _next);
+			}
+			else if (_matcher instanceof PropertyNameMatcherLike)
+			{
+				String _field = generate__addField(_fieldNames, _fieldTypes, arguments, DESCRIPTOR__PATTERN,
+						((PropertyNameMatcherLike) _matcher).getPattern());
+				_dispatch.aload(LOCAL__THIS).getfield(className, _field, DESCRIPTOR__PATTERN).aload(LOCAL__NAME)
+						.invokevirtual(CLASS_NAME__PATTERN, "matcher", "(Ljava/lang/CharSequence;)Ljava/util/regex/Matcher;")
+						.invokevirtual("java/util/regex/Matcher", "matches", "()Z").jump(ClassFileBuilder.OPCODE__IFEQ, _next);
+			}
+			else if (!(_matcher instanceof PropertyNameMatcherAny))
+			{
+				String _field = generate__addField(_fieldNames, _fieldTypes, arguments, DESCRIPTOR__MATCHER, _matcher);
+				_dispatch.aload(LOCAL__THIS).getfield(className, _field, DESCRIPTOR__MATCHER).aload(LOCAL__NAME)
+						.invokeinterface(CLASS_NAME__MATCHER, "isMatching", "(Ljava/lang/CharSequence;)Z", 1)
+						.jump(ClassFileBuilder.OPCODE__IFEQ, _next);
+			}
+			_dispatch.push(_index).istore(LOCAL__RULE).jump(ClassFileBuilder.OPCODE__GOTO, _selected);
+			_dispatch.mark(_next);
+			if (_matcher instanceof PropertyNameMatcherAny)
+			{
+				// catch all, next rules are unreachable
+				break;
+			}
+		}
+
+		// call the processors of the selected rule
+		_dispatch.mark(_selected);
+		ClassFileBuilder.Label _none = new ClassFileBuilder.Label();
+		if (!rules.isEmpty())
+		{
+			ClassFileBuilder.Label[] _cases = new ClassFileBuilder.Label[rules.size()];
+			for (int _index = 0; _index < _cases.length; _index++)
+			{
+				_cases[_index] = new ClassFileBuilder.Label();
+			}
+			_dispatch.iload(LOCAL__RULE).tableswitch(0, _none, _cases);
+			for (int _index = 0; _index < _cases.length; _index++)
+			{
+				_dispatch.mark(_cases[_index]);
+				for (ProcessorSpec _processor : rules.get(_index).getProcessors())
+				{
+					String _invoker = generate__addField(_fieldNames, _fieldTypes, arguments, DESCRIPTOR__INVOKER,
+							_processor.getInvoker());
+					Object _binding = _processor.getProcessorHolderBinding();
+					_dispatch.aload(LOCAL__THIS).getfield(className, _invoker, DESCRIPTOR__INVOKER);
+					String _holder = generate__addField(_fieldNames, _fieldTypes, arguments, DESCRIPTOR__OBJECT, _binding);
+					_dispatch.aload(LOCAL__THIS).getfield(className, _holder, DESCRIPTOR__OBJECT)
+							.invokestatic(CLASS_NAME__LAZY_HOLDER, "resolve", "(" + DESCRIPTOR__OBJECT + ")" + DESCRIPTOR__OBJECT);
+					_dispatch.aload(LOCAL__NAME).aload(LOCAL__VALUE).invokeinterface(CLASS_NAME__INVOKER, "process",
+							DESCRIPTOR__PROCESS, 3);
+				}
+				_dispatch.op(ClassFileBuilder.OPCODE__RETURN);
+			}
+		}
+		_dispatch.mark(_none).op(ClassFileBuilder.OPCODE__RETURN);
+
+		// fields, and the constructor that sets them
+		ClassFileBuilder.Code _constructor = _classFile.newCode();
+		_constructor.aload(LOCAL__THIS).invokespecial(CLASS_NAME__OBJECT, "<init>", "()V");
+		for (int _index = 0; _index < _fieldNames.size(); _index++)
+		{
+			String _type = _fieldTypes.get(_index);
+			_classFile.addField(ClassFileBuilder.ACCESS__PRIVATE | ClassFileBuilder.ACCESS__FINAL, _fieldNames.get(_index), _type);
+			_constructor.aload(LOCAL__THIS).aload(1).push(_index).op(ClassFileBuilder.OPCODE__AALOAD);
+			if (!DESCRIPTOR__OBJECT.equals(_type))
+			{
+				_constructor.checkcast(_type.substring(1, _type.length() - 1));
+			}
+			_constructor.putfield(className, _fieldNames.get(_index), _type);
+		}
+		_constructor.op(ClassFileBuilder.OPCODE__RETURN);
+
+		_classFile.addMethod(ClassFileBuilder.ACCESS__PUBLIC, "<init>", DESCRIPTOR__CONSTRUCTOR, _constructor, 4, 2);
+		_classFile.addMethod(ClassFileBuilder.ACCESS__PUBLIC, "dispatch", DESCRIPTOR__DISPATCH, _dispatch, 4, 4);
+		return _classFile.toByteArray(ClassFileBuilder.ACCESS__FINAL | ClassFileBuilder.ACCESS__SUPER, className, CLASS_NAME__OBJECT,
+				CLASS_NAME__DISPATCHER);
+	}
+
+	private static String generate__addField(List<String> names, List<String> types, List<Object> values, String type, Object value)
+	{
+		String _name = "myField" + names.size();
+		names.add(_name);
+		types.add(type);
+		values.add(value);
+		return _name;
+	}
+
+	/**
+	 * Generate the string switch on the exact matches, the selected rule is stored when found.
+	 */
+	private static void generate__exactMatches(ClassFileBuilder.Code dispatch, Map<String, Integer> exactMatches)
+	{
+		if (exactMatches.isEmpty())
+		{
+			return;
+		}
+		TreeMap<Integer, List<String>> _buckets = new TreeMap<Integer, List<String>>();
+		for (String _name : exactMatches.keySet())
+		{
+			List<String> _bucket = _buckets.get(_name.hashCode());
+			if (null == _bucket)
+			{
+				_bucket = new ArrayList<String>(1);
+				_buckets.put(_name.hashCode(), _bucket);
+			}
+			_bucket.add(_name);
+		}
+		int[] _keys = new int[_buckets.size()];
+		ClassFileBuilder.Label[] _targets = new ClassFileBuilder.Label[_buckets.size()];
+		int _position = 0;
+		for (Integer _hash : _buckets.keySet())
+		{
+			_keys[_position] = _hash;
+			_targets[_position] = new ClassFileBuilder.Label();
+			_position++;
+		}
+		ClassFileBuilder.Label _end = new ClassFileBuilder.Label();
+		dispatch.aload(LOCAL__NAME).invokevirtual(CLASS_NAME__STRING, "hashCode", "()I").lookupswitch(_end, _keys, _targets);
+		_position = 0;
+		for (List<String> _bucket : _buckets.values())
+		{
+			dispatch.mark(_targets[_position++]);
+			for (String _name : _bucket)
+			{
+				ClassFileBuilder.Label _next = new ClassFileBuilder.Label();
+				dispatch.aload(LOCAL__NAME).ldc(_name).invokevirtual(CLASS_NAME__STRING, "equals", "(Ljava/lang/Object;)Z")
+						.jump(ClassFileBuilder.OPCODE__IFEQ, _next);
+				dispatch.push(exactMatches.get(_name)).istore(LOCAL__RULE).jump(ClassFileBuilder.OPCODE__GOTO, _end);
+				dispatch.mark(_next);
+			}
+			dispatch.jump(ClassFileBuilder.OPCODE__GOTO, _end);
+		}
+		dispatch.mark(_end);
+	}
+
+	/**
+	 * @return the name matched by the given matcher if it is an exact match, or else <code>null</code>.
+	 */
+	private static String getExactName(PropertyNameMatcher matcher)
+	{
+		if (matcher instanceof PropertyNameMatcherExactMatch)
+		{
+			return ((PropertyNameMatcherExactMatch) matcher).getName();
+		}
+		if (matcher instanceof PropertyNameMatcherPrefix && !((PropertyNameMatcherPrefix) matcher).isOpenEnded())
+		{
+			return ((PropertyNameMatcherPrefix) matcher).getPrefix();
+		}
+		return null;
+	}
+
+	private GeneratedDispatcherFactory()
+	{
+		// utility class
+	}
+}
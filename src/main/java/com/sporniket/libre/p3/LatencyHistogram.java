@@ -0,0 +1,161 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread safe histogram of durations in nanoseconds, with a bounded relative error like an HDR histogram : the values are counted
+ * in buckets growing exponentially, each power of two being divided into {@value #SUB_BUCKET_COUNT} linear sub-buckets, so that a
+ * value is known within 12.5%.
+ * 
+ * <p>
+ * Recording a value does not allocate, it is a few atomic additions.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+class LatencyHistogram
+{
+	private static final int SUB_BUCKET_BITS = 3;
+
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+	/**
+	 * The values below {@link #SUB_BUCKET_COUNT} have their own bucket, then each magnitude up to 62 has its sub-buckets.
+	 */
+	private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+	private final AtomicLongArray myCounts = new AtomicLongArray(BUCKET_COUNT);
+
+	private final LongAccumulator myMax = new LongAccumulator(Math::max, 0L);
+
+	private final LongAdder myTotal = new LongAdder();
+
+	/**
+	 * Summarize the durations recorded by several histograms, e.g. the histograms of the same processor called by several rules.
+	 * 
+	 * @param histograms
+	 *            the histograms.
+	 * @return the statistics.
+	 */
+	static LatencyStatistics summarize(Collection<LatencyHistogram> histograms)
+	{
+		long[] _counts = new long[BUCKET_COUNT];
+		long _count = 0;
+		long _total = 0;
+		long _max = 0;
+		for (LatencyHistogram _histogram : histograms)
+		{
+			for (int _index = 0; _index < BUCKET_COUNT; _index++)
+			{
+				long _bucketCount = _histogram.myCounts.get(_index);
+				_counts[_index] += _bucketCount;
+				_count += _bucketCount;
+			}
+			_total += _histogram.myTotal.sum();
+			_max = Math.max(_max, _histogram.myMax.get());
+		}
+		return new LatencyStatistics(_count, (0 == _count) ? 0 : _total / _count, summarize__percentile(_counts, _count, 0.5, _max),
+				summarize__percentile(_counts, _count, 0.9, _max), summarize__percentile(_counts, _count, 0.99, _max), _max);
+	}
+
+	/**
+	 * Compute the bucket of a value.
+	 */
+	private static int getBucket(long value)
+	{
+		if (value < SUB_BUCKET_COUNT)
+		{
+			return (int) value;
+		}
+		int _magnitude = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+		int _subBucket = (int) (value >>> (_magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+		return (_magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + _subBucket;
+	}
+
+	/**
+	 * Compute the lowest value of a bucket.
+	 */
+	private static long getLowestValue(int bucket)
+	{
+		if (bucket < SUB_BUCKET_COUNT)
+		{
+			return bucket;
+		}
+		int _magnitude = bucket / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+		long _subBucket = bucket % SUB_BUCKET_COUNT;
+		return (SUB_BUCKET_COUNT + _subBucket) << (_magnitude - SUB_BUCKET_BITS);
+	}
+
+	/**
+	 * Find the highest value of the bucket reached by the given fraction of the values.
+	 */
+	private static long summarize__percentile(long[] counts, long count, double fraction, long max)
+	{
+		long _rank = (long) Math.ceil(fraction * count);
+		long _cumulatedCount = 0;
+		for (int _index = 0; _index < BUCKET_COUNT; _index++)
+		{
+			_cumulatedCount += counts[_index];
+			if (_cumulatedCount >= _rank && _cumulatedCount > 0)
+			{
+				long _highestValue = (_index + 1 < BUCKET_COUNT) ? getLowestValue(_index + 1) - 1 : Long.MAX_VALUE;
+				return Math.min(_highestValue, max);
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Record a duration.
+	 * 
+	 * @param duration
+	 *            the duration in nanoseconds, a negative duration is recorded as zero.
+	 */
+	public void record(long duration)
+	{
+		long _value = Math.max(0L, duration);
+		myCounts.incrementAndGet(getBucket(_value));
+		myTotal.add(_value);
+		myMax.accumulate(_value);
+	}
+
+	/**
+	 * @return the statistics of the recorded durations.
+	 */
+	public LatencyStatistics summarize()
+	{
+		return summarize(Collections.singletonList(this));
+	}
+}
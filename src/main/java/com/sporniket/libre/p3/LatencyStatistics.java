@@ -0,0 +1,116 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+/**
+ * Snapshot of the statistics of durations, in nanoseconds ; the percentiles are known within 12.5%.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ * @see P3#getMetrics()
+ */
+public class LatencyStatistics
+{
+	private final long myCount;
+
+	private final long myMax;
+
+	private final long myMean;
+
+	private final long myMedian;
+
+	private final long myPercentile90;
+
+	private final long myPercentile99;
+
+	LatencyStatistics(long count, long mean, long median, long percentile90, long percentile99, long max)
+	{
+		myCount = count;
+		myMean = mean;
+		myMedian = median;
+		myPercentile90 = percentile90;
+		myPercentile99 = percentile99;
+		myMax = max;
+	}
+
+	/**
+	 * @return the number of recorded durations.
+	 */
+	public long getCount()
+	{
+		return myCount;
+	}
+
+	/**
+	 * @return the longest duration.
+	 */
+	public long getMax()
+	{
+		return myMax;
+	}
+
+	/**
+	 * @return the average duration.
+	 */
+	public long getMean()
+	{
+		return myMean;
+	}
+
+	/**
+	 * @return the duration that half of the durations do not exceed.
+	 */
+	public long getMedian()
+	{
+		return myMedian;
+	}
+
+	/**
+	 * @return the duration that 90% of the durations do not exceed.
+	 */
+	public long getPercentile90()
+	{
+		return myPercentile90;
+	}
+
+	/**
+	 * @return the duration that 99% of the durations do not exceed.
+	 */
+	public long getPercentile99()
+	{
+		return myPercentile99;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "LatencyStatistics [count=" + getCount() + ", mean=" + getMean() + ", median=" + getMedian() + ", p90="
+				+ getPercentile90() + ", p99=" + getPercentile99() + ", max=" + getMax() + "]";
+	}
+}
@@ -0,0 +1,152 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+/**
+ * Object defined by the directives and created when first needed, see {@link P3#setInstantiatingLazily(boolean)} : on the first
+ * call of one of its processors, or when first retrieved from the P3.
+ * 
+ * <p>
+ * The constructor without parameters is checked when the directives are executed, so that a missing class or constructor is still
+ * reported at that time. The object is created once, even when several threads need it at the same time.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+final class LazyProcessorHolder
+{
+	/**
+	 * The created object, <code>null</code> until created.
+	 */
+	private volatile Object myInstance;
+
+	private final Class<?> myType;
+
+	/**
+	 * Create a lazy holder of an instance of the given class.
+	 * 
+	 * @param type
+	 *            the class of the object.
+	 * @throws ReflectiveOperationException
+	 *             when the class has no accessible constructor without parameters.
+	 */
+	public LazyProcessorHolder(Class<?> type) throws ReflectiveOperationException
+	{
+		ProcessorHolderFactory.checkConstructor(type);
+		myType = type;
+	}
+
+	/**
+	 * Create another lazy holder of an already checked class.
+	 */
+	private LazyProcessorHolder(LazyProcessorHolder original)
+	{
+		myType = original.getType();
+	}
+
+	/**
+	 * Get the class of a processor holder, without creating it.
+	 * 
+	 * @param holder
+	 *            a processor holder, or a lazy holder.
+	 * @return the class of the processor holder.
+	 */
+	public static Class<?> getTypeOf(Object holder)
+	{
+		return (holder instanceof LazyProcessorHolder) ? ((LazyProcessorHolder) holder).getType() : holder.getClass();
+	}
+
+	/**
+	 * Get the object, when the given holder is a lazy holder.
+	 * 
+	 * @param holder
+	 *            a processor holder, or a lazy holder.
+	 * @return the processor holder, created if needed.
+	 */
+	public static Object resolve(Object holder)
+	{
+		return (holder instanceof LazyProcessorHolder) ? ((LazyProcessorHolder) holder).get() : holder;
+	}
+
+	/**
+	 * @return another lazy holder of the same class, nothing is created.
+	 */
+	public LazyProcessorHolder fork()
+	{
+		return new LazyProcessorHolder(this);
+	}
+
+	/**
+	 * Get the object, created if needed.
+	 * 
+	 * @return the object.
+	 * @throws RuntimeException
+	 *             when the object cannot be created, the cause is the failure of the constructor.
+	 */
+	public Object get()
+	{
+		Object _result = myInstance;
+		if (null == _result)
+		{
+			synchronized (this)
+			{
+				_result = myInstance;
+				if (null == _result)
+				{
+					try
+					{
+						_result = ProcessorHolderFactory.newInstance(getType());
+					}
+					catch (ReflectiveOperationException _exception)
+					{
+						throw new RuntimeException(_exception);
+					}
+					myInstance = _result;
+				}
+			}
+		}
+		return _result;
+	}
+
+	/**
+	 * @return the object if already created, <code>null</code> otherwise.
+	 */
+	public Object getIfCreated()
+	{
+		return myInstance;
+	}
+
+	/**
+	 * @return the class of the object.
+	 */
+	public Class<?> getType()
+	{
+		return myType;
+	}
+}
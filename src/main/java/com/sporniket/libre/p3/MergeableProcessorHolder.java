@@ -0,0 +1,50 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+/**
+ * Processor holder that can take in the results of another holder of the same class, used to combine the results of the forks of
+ * a {@link P3} (see {@link ParallelLoader}).
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @param <T>
+ *            the class of the holder.
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public interface MergeableProcessorHolder<T extends MergeableProcessorHolder<T>>
+{
+	/**
+	 * Take in the results of another holder, the holders are always merged in the same order, thus a value found by several holders
+	 * may be chosen consistently (e.g. the last one wins).
+	 * 
+	 * @param other
+	 *            the other holder, that must not be used afterwards.
+	 */
+	void merge(T other);
+}
@@ -0,0 +1,211 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread safe collector of the metrics of a {@link P3}, using striped counters ; a P3 that does not collect metrics has no
+ * collector, so that the dispatch only checks a field.
+ * 
+ * <p>
+ * The hits are counted by rule and the durations are recorded by processor, a rule or a processor being identified by its
+ * specification.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+class MetricsCollector
+{
+	private final LongAdder myDirectivesCompilationCount = new LongAdder();
+
+	/**
+	 * Durations of the compilations of directives, <code>null</code> unless recording latencies.
+	 */
+	private final LatencyHistogram myDirectivesCompilationLatency;
+
+	private final LongAdder myMultipleLinePropertyCount = new LongAdder();
+
+	private final LongAdder myProcessorInvocationCount = new LongAdder();
+
+	private final ConcurrentMap<ProcessorSpec, LatencyHistogram> myProcessorLatencies =
+			new ConcurrentHashMap<ProcessorSpec, LatencyHistogram>();
+
+	private final boolean myRecordingLatencies;
+
+	private final ConcurrentMap<RuleSpec, LongAdder> myRuleHitCounts = new ConcurrentHashMap<RuleSpec, LongAdder>();
+
+	private final LongAdder mySingleLinePropertyCount = new LongAdder();
+
+	private final LongAdder myUnmatchedPropertyCount = new LongAdder();
+
+	/**
+	 * Create a collector.
+	 * 
+	 * @param recordingLatencies
+	 *            <code>true</code> to record the durations of the processors and of the compilations of directives.
+	 */
+	public MetricsCollector(boolean recordingLatencies)
+	{
+		myRecordingLatencies = recordingLatencies;
+		myDirectivesCompilationLatency = recordingLatencies ? new LatencyHistogram() : null;
+	}
+
+	public long getDirectivesCompilationCount()
+	{
+		return myDirectivesCompilationCount.sum();
+	}
+
+	/**
+	 * @return the durations of the compilations of directives, <code>null</code> unless recording latencies.
+	 */
+	public LatencyHistogram getDirectivesCompilationLatency()
+	{
+		return myDirectivesCompilationLatency;
+	}
+
+	public long getMultipleLinePropertyCount()
+	{
+		return myMultipleLinePropertyCount.sum();
+	}
+
+	public long getProcessorInvocationCount()
+	{
+		return myProcessorInvocationCount.sum();
+	}
+
+	/**
+	 * @param processor
+	 *            a processor.
+	 * @return the durations of the calls of the processor, <code>null</code> if it has not been called or unless recording
+	 *         latencies.
+	 */
+	public LatencyHistogram getProcessorLatency(ProcessorSpec processor)
+	{
+		return myProcessorLatencies.get(processor);
+	}
+
+	/**
+	 * @param rule
+	 *            a rule.
+	 * @return the number of properties matched by the rule.
+	 */
+	public long getRuleHitCount(RuleSpec rule)
+	{
+		LongAdder _count = myRuleHitCounts.get(rule);
+		return (null == _count) ? 0 : _count.sum();
+	}
+
+	public long getSingleLinePropertyCount()
+	{
+		return mySingleLinePropertyCount.sum();
+	}
+
+	public long getUnmatchedPropertyCount()
+	{
+		return myUnmatchedPropertyCount.sum();
+	}
+
+	public boolean isRecordingLatencies()
+	{
+		return myRecordingLatencies;
+	}
+
+	/**
+	 * Record a compilation of directives.
+	 * 
+	 * @param start
+	 *            the value of {@link #startTimer()} before the compilation.
+	 */
+	public void recordDirectivesCompilation(long start)
+	{
+		myDirectivesCompilationCount.increment();
+		if (isRecordingLatencies())
+		{
+			getDirectivesCompilationLatency().record(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Record a call of a processor.
+	 * 
+	 * @param processor
+	 *            the processor.
+	 * @param start
+	 *            the value of {@link #startTimer()} before the call.
+	 */
+	public void recordProcessorInvocation(ProcessorSpec processor, long start)
+	{
+		myProcessorInvocationCount.increment();
+		if (isRecordingLatencies())
+		{
+			long _duration = System.nanoTime() - start;
+			LatencyHistogram _histogram = myProcessorLatencies.get(processor);
+			if (null == _histogram)
+			{
+				_histogram = myProcessorLatencies.computeIfAbsent(processor, _key -> new LatencyHistogram());
+			}
+			_histogram.record(_duration);
+		}
+	}
+
+	/**
+	 * Record a received property.
+	 * 
+	 * @param multipleLine
+	 *            <code>true</code> for a multiple line property.
+	 * @param rule
+	 *            the matching rule, <code>null</code> if there is none.
+	 */
+	public void recordProperty(boolean multipleLine, RuleSpec rule)
+	{
+		(multipleLine ? myMultipleLinePropertyCount : mySingleLinePropertyCount).increment();
+		if (null == rule)
+		{
+			myUnmatchedPropertyCount.increment();
+			return;
+		}
+		LongAdder _count = myRuleHitCounts.get(rule);
+		if (null == _count)
+		{
+			_count = myRuleHitCounts.computeIfAbsent(rule, _key -> new LongAdder());
+		}
+		_count.increment();
+	}
+
+	/**
+	 * @return the start of a duration to record, <code>0</code> unless recording latencies.
+	 */
+	public long startTimer()
+	{
+		return isRecordingLatencies() ? System.nanoTime() : 0L;
+	}
+}
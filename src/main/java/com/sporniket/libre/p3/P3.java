@@ -3,40 +3,35 @@
  */
 package com.sporniket.libre.p3;
 
-import java.io.Reader;
-import java.io.StringReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
-import java_cup.runtime.ComplexSymbolFactory;
-import java_cup.runtime.ComplexSymbolFactory.ComplexSymbol;
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 import com.sporniket.libre.io.parser.properties.MultipleLinePropertyParsedEvent;
 import com.sporniket.libre.io.parser.properties.PropertiesParsingListener;
 import com.sporniket.libre.io.parser.properties.SingleLinePropertyParsedEvent;
-import com.sporniket.scripting.sslpoi.core.InitialisationMode;
-import com.sporniket.scripting.sslpoi.core.SslpoiException;
-import com.sporniket.scripting.sslpoi.mass.PartialExpression;
-import com.sporniket.scripting.sslpoi.mass.PartialExpressionLiteralString;
-import com.sporniket.scripting.sslpoi.mass.PartialExpressionLogical;
-import com.sporniket.scripting.sslpoi.mass.PartialIdentifier;
-import com.sporniket.scripting.sslpoi.mass.Statement;
-import com.sporniket.scripting.sslpoi.mass.StatementAlternative;
-import com.sporniket.scripting.sslpoi.mass.StatementCall;
-import com.sporniket.scripting.sslpoi.mass.StatementDefineAs;
-import com.sporniket.scripting.sslpoi.mass.StatementFromNode;
-import com.sporniket.scripting.sslpoi.mass.StatementIf;
-import com.sporniket.scripting.sslpoi.mass.StatementOn;
-import com.sporniket.scripting.sslpoi.vess.AnalyzerLexical;
-import com.sporniket.scripting.sslpoi.vess.AnalyzerSyntaxic;
-import com.sporniket.scripting.sslpoi.vess.VessNode;
 
 /**
  * P3 (Programmable Property Processor) is a {@link PropertiesParsingListener} that will dispatch received
@@ -109,7 +104,14 @@ import com.sporniket.scripting.sslpoi.vess.VessNode;
  * 
  * <p>
  * P3 is a <strong>read-only</strong> {@link Map}, objects created in the directives are accessible using the identifier as a key,
- * e.g <code>_p3.get("foo")</code>.
+ * e.g <code>_p3.get("foo")</code>. Those objects may be created only when first needed, see {@link #setInstantiatingLazily(boolean)}.
+ * 
+ * <p>
+ * The dispatch may be monitored, see {@link #setCollectingMetrics(boolean)} and {@link #registerMetricsMBean(String)}.
+ * 
+ * <p>
+ * Directives may also be compiled ahead of time by {@link CompiledDirectives}, and then loaded without being parsed, using
+ * {@link #executeCompiledDirectives(Path)}.
  * 
  * <p>
  * &copy; Copyright 2016 David Sporn
@@ -142,188 +144,49 @@ import com.sporniket.scripting.sslpoi.vess.VessNode;
 public class P3 implements PropertiesParsingListener, Map<String, Object>
 {
 	/**
-	 * A <em>processor</em> is an object's method accepting the property name and the property value (a <code>String</code> or a
-	 * <code>String[]</code>) .
-	 * 
-	 * The object owning the method is the processor holder.
-	 * 
-	 * 
-	 * <p>
-	 * &copy; Copyright 2016 David Sporn
-	 * </p>
-	 * <hr>
-	 * 
-	 * <p>
-	 * This file is part of <i>P3, the Programmable Properties Processor</i>.
-	 * 
-	 * <p>
-	 * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms
-	 * of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your
-	 * option) any later version.
-	 * 
-	 * <p>
-	 * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
-	 * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
-	 * for more details.
-	 * 
-	 * <p>
-	 * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties
-	 * Processor</i>. If not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
-	 * 
-	 * <hr>
-	 * 
-	 * @author David SPORN
-	 * @version 5
-	 * @since 1
+	 * Kind of copy of a P3, telling how the objects defined by the directives are copied.
 	 */
-	private static class ProcessorSpec
+	private static enum ForkKind
 	{
-		public final Method myProcessor;
-
-		public final Object myProcessorHolder;
-
-		public ProcessorSpec(Object processorHolder, Method processor)
-		{
-			myProcessorHolder = processorHolder;
-			myProcessor = processor;
-		}
-
-		public Method getProcessor()
-		{
-			return myProcessor;
-		}
-
-		public Object getProcessorHolder()
-		{
-			return myProcessorHolder;
-		}
+		/**
+		 * A run context of a {@link CompiledP3Program} : new objects, created eagerly or lazily depending on the settings.
+		 */
+		CONTEXT,
 
 		/**
-		 * Call the processor on a single line property.
-		 * 
-		 * @param name
-		 *            value name.
-		 * @param value
-		 *            value.
+		 * A fork, see {@link P3#fork()} : new objects, created lazily when the original ones are.
 		 */
-		public void process(String name, String value)
-		{
-			try
-			{
-				getProcessor().invoke(getProcessorHolder(), name, value);
-			}
-			catch (IllegalAccessException _exception)
-			{
-				throw new RuntimeException(_exception);
-			}
-			catch (IllegalArgumentException _exception)
-			{
-				throw new RuntimeException(_exception);
-			}
-			catch (InvocationTargetException _exception)
-			{
-				throw new RuntimeException(_exception);
-			}
-		}
+		FORK,
 
 		/**
-		 * Call the processor on a multiple line property.
-		 * 
-		 * @param name
-		 *            value name.
-		 * @param value
-		 *            value.
+		 * The template of a {@link CompiledP3Program} : no objects, only their classes.
 		 */
-		public void process(String name, String[] value)
-		{
-			try
-			{
-				getProcessor().invoke(getProcessorHolder(), name, value);
-			}
-			catch (IllegalAccessException _exception)
-			{
-				throw new RuntimeException(_exception);
-			}
-			catch (IllegalArgumentException _exception)
-			{
-				throw new RuntimeException(_exception);
-			}
-			catch (InvocationTargetException _exception)
-			{
-				throw new RuntimeException(_exception);
-			}
-		}
+		PROGRAM;
 	}
 
 	/**
-	 * A processing rule is a list of {@link ProcessorSpec} restricted by a {@link PropertyNameMatcher}.
-	 * 
-	 * <p>
-	 * &copy; Copyright 2016 David Sporn
-	 * </p>
-	 * <hr>
-	 * 
-	 * <p>
-	 * This file is part of <i>P3, the Programmable Properties Processor</i>.
-	 * 
-	 * <p>
-	 * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms
-	 * of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your
-	 * option) any later version.
-	 * 
-	 * <p>
-	 * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
-	 * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
-	 * for more details.
-	 * 
-	 * <p>
-	 * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties
-	 * Processor</i>. If not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
-	 * 
-	 * <hr>
-	 * 
-	 * @author David SPORN
-	 * @version 5
-	 * @since 1
+	 * Default count of properties delivered at once to a batch processor.
 	 */
-	private static class RuleSpec
-	{
-		private final PropertyNameMatcher myMatcher;
-
-		private final List<ProcessorSpec> myProcessors;
-
-		public RuleSpec(PropertyNameMatcher matcher, List<ProcessorSpec> processors)
-		{
-			myMatcher = matcher;
-			myProcessors = new ArrayList<P3.ProcessorSpec>(processors);
-		}
+	public static final int DEFAULT_BATCH_SIZE = 256;
 
-		public RuleSpec(PropertyNameMatcher matcher, ProcessorSpec... processors)
-		{
-			myMatcher = matcher;
-			myProcessors = new ArrayList<P3.ProcessorSpec>(processors.length);
-			for (ProcessorSpec _processor : processors)
-			{
-				myProcessors.add(_processor);
-			}
-		}
+	/**
+	 * Default capacity of the cache of compiled directives shared by every P3.
+	 */
+	public static final int DEFAULT_COMPILED_DIRECTIVES_CACHE_CAPACITY = 32;
 
-		public PropertyNameMatcher getMatcher()
-		{
-			return myMatcher;
-		}
+	public static final String DEFAULT_PROPERTY_NAME_FOR_DIRECTIVES = "__DIRECTIVES__";
 
-		public List<ProcessorSpec> getProcessors()
-		{
-			return myProcessors;
-		}
-	}
+	/**
+	 * Compiled directives, shared by every P3.
+	 */
+	private static final CompiledDirectivesCache COMPILED_DIRECTIVES_CACHE = new CompiledDirectivesCache(
+			DEFAULT_COMPILED_DIRECTIVES_CACHE_CAPACITY);
 
-	public static final String DEFAULT_PROPERTY_NAME_FOR_DIRECTIVES = "__DIRECTIVES__";
+	private static final String LABEL__MULTIPLE_LINE_PROPERTY = "multipleLinePropertyParsed";
 
-	private static final String EVENT__ON_MULTIPLE_LINE_PROPERTY_PARSED = "multipleLinePropertyParsed";
+	private static final String LABEL__SINGLE_LINE_PROPERTY = "singleLinePropertyParsed";
 
-	private static final String EVENT__ON_SINGLE_LINE_PROPERTY_PARSED = "singleLinePropertyParsed";
+	private static final String MBEAN_DOMAIN = "com.sporniket.libre.p3";
 
 	private static final String METHOD_NAME__DIRECTIVES_PROCESSOR = "executeProgram";
 
@@ -331,27 +194,68 @@ public class P3 implements PropertiesParsingListener, Map<String, Object>
 	 * Internal flag, <code>true</code> when the parsing of directives occurred once, prevent the parsing of new directives unless
 	 * #isAllowingOverride is <code>true</code>.
 	 */
-	private boolean myAllowedOverrideRequired = false;
+	private volatile boolean myAllowedOverrideRequired = false;
 
 	/**
 	 * Manually set to <code>true</code> to allow several parsing of the directive, thus allowing adding rulesets.
 	 */
-	private boolean myAllowingOverride = false;
+	private volatile boolean myAllowingOverride = false;
+
+	/**
+	 * Count of properties delivered at once to a batch processor.
+	 */
+	private volatile int myBatchSize = DEFAULT_BATCH_SIZE;
+
+	/**
+	 * Set to <code>true</code> when this P3 is shared by several parsing threads.
+	 */
+	private volatile boolean myConcurrentDispatch = false;
+
+	/**
+	 * Cache of the rules selected from the dispatch table for multiple line properties.
+	 */
+	private volatile DispatchCache myDispatchCacheForMultipleLineProperty = new DispatchCache(0);
+
+	/**
+	 * Cache of the rules selected from the dispatch table for single line properties.
+	 */
+	private volatile DispatchCache myDispatchCacheForSingleLineProperty = new DispatchCache(0);
 
 	/**
-	 * Map for storing objects declared in the directives.
+	 * Set to <code>true</code> to generate the code of the dispatch.
 	 */
-	private final Map<String, Object> myContext = new HashMap<String, Object>();
+	private volatile boolean myGeneratingDispatcher = false;
 
 	/**
-	 * Rule specifications for processing multiple line properties.
+	 * Executor creating the objects defined by the directives at the same time, <code>null</code> to create them one after the
+	 * other.
 	 */
-	private final List<RuleSpec> myProcessorRuleSpecsForMultipleLineProperty = new ArrayList<P3.RuleSpec>();
+	private volatile Executor myInstantiationExecutor;
 
 	/**
-	 * Rule specifications for processing single line properties.
+	 * Set to <code>true</code> to create the objects defined by the directives when first needed.
 	 */
-	private final List<RuleSpec> myProcessorRuleSpecsForSingleLineProperty = new ArrayList<P3.RuleSpec>();
+	private volatile boolean myInstantiatingLazily = false;
+
+	/**
+	 * Collector of the metrics, <code>null</code> when the metrics are not collected.
+	 */
+	private volatile MetricsCollector myMetricsCollector;
+
+	/**
+	 * Current state of the dispatch, replaced as a whole when it changes.
+	 */
+	private volatile DispatchSnapshot mySnapshot;
+
+	/**
+	 * Set to <code>true</code> to trace the parsing of the directives.
+	 */
+	private volatile boolean myTracingDirectivesParser = false;
+
+	/**
+	 * Lock of the changes of the dispatch, the dispatch itself is not locked.
+	 */
+	private final Object myUpdateLock = new Object();
 
 	/**
 	 * Create a P3 looking for directives from the property {@link #DEFAULT_PROPERTY_NAME_FOR_DIRECTIVES}.
@@ -370,22 +274,27 @@ public class P3 implements PropertiesParsingListener, Map<String, Object>
 	public P3(String directivesName)
 	{
 		PropertyNameMatcherExactMatch _matcher = new PropertyNameMatcherExactMatch(directivesName);
+		DispatchSnapshot.Builder _initialState = new DispatchSnapshot.Builder();
 
 		try
 		{
 			Method _processorSingleLineProperty = this.getClass().getDeclaredMethod(METHOD_NAME__DIRECTIVES_PROCESSOR,
 					String.class, String.class);
 			_processorSingleLineProperty.setAccessible(true);
-			ProcessorSpec _processorSpecSingleLineProperty = new ProcessorSpec(this, _processorSingleLineProperty);
+			ProcessorSpec _processorSpecSingleLineProperty = new ProcessorSpec(this, _processorSingleLineProperty,
+					ProcessorInvokerFactory.create(_processorSingleLineProperty), true);
 			RuleSpec _ruleSpecSingleLineProperty = new RuleSpec(_matcher, _processorSpecSingleLineProperty);
-			getProcessorRuleSpecsForSingleLineProperty().add(_ruleSpecSingleLineProperty);
+			_initialState.getRuleSpecsForSingleLineProperty().add(_ruleSpecSingleLineProperty);
 
 			Method _processorMultipleLineProperty = this.getClass().getDeclaredMethod(METHOD_NAME__DIRECTIVES_PROCESSOR,
 					String.class, String[].class);
 			_processorMultipleLineProperty.setAccessible(true);
-			ProcessorSpec _processorSpecMultipleLineProperty = new ProcessorSpec(this, _processorMultipleLineProperty);
+			ProcessorSpec _processorSpecMultipleLineProperty = new ProcessorSpec(this, _processorMultipleLineProperty,
+					ProcessorInvokerFactory.create(_processorMultipleLineProperty), true);
 			RuleSpec _ruleSpecMultipleLineProperty = new RuleSpec(_matcher, _processorSpecMultipleLineProperty);
-			getProcessorRuleSpecsForMultipleLineProperty().add(_ruleSpecMultipleLineProperty);
+			_initialState.getRuleSpecsForMultipleLineProperty().add(_ruleSpecMultipleLineProperty);
+
+			publish(_initialState.build(isGeneratingDispatcher()));
 		}
 		catch (NoSuchMethodException | SecurityException _exception)
 		{
@@ -393,12 +302,75 @@ public class P3 implements PropertiesParsingListener, Map<String, Object>
 		}
 	}
 
+	/**
+	 * Create a copy of a P3 sharing the rules, see {@link #fork()} and {@link #compile()}.
+	 * 
+	 * @param original
+	 *            the P3 to copy.
+	 * @param kind
+	 *            the kind of copy.
+	 * @throws ReflectiveOperationException
+	 *             when an object cannot be created.
+	 */
+	private P3(P3 original, ForkKind kind) throws ReflectiveOperationException
+	{
+		myAllowedOverrideRequired = original.isAllowedOverrideRequired();
+		myAllowingOverride = original.isAllowingOverride();
+		myConcurrentDispatch = original.isConcurrentDispatch();
+		myGeneratingDispatcher = original.isGeneratingDispatcher();
+		myInstantiatingLazily = original.isInstantiatingLazily();
+		myInstantiationExecutor = original.getInstantiationExecutor();
+		myTracingDirectivesParser = original.isTracingDirectivesParser();
+		myBatchSize = original.getBatchSize();
+		myMetricsCollector = original.isCollectingMetrics() ? new MetricsCollector(original.isRecordingLatencies()) : null;
+		setDispatchCacheCapacity(original.getDispatchCacheForSingleLineProperty().getCapacity());
+
+		DispatchSnapshot _originalState = original.getSnapshot();
+		Map<Object, Object> _forkedHolders = new IdentityHashMap<Object, Object>();
+		_forkedHolders.put(original, this);
+		Map<String, Object> _context = new HashMap<String, Object>();
+		for (Map.Entry<String, Object> _entry : _originalState.getContext().entrySet())
+		{
+			_context.put(_entry.getKey(), fork__holder(_entry.getValue(), _forkedHolders, kind));
+		}
+		fork__holders(_originalState.getRuleSpecsForSingleLineProperty(), _forkedHolders, kind);
+		fork__holders(_originalState.getRuleSpecsForMultipleLineProperty(), _forkedHolders, kind);
+		publish(_originalState.withProcessorHolders(_context, _forkedHolders));
+	}
+
+	/**
+	 * Set the capacity of the cache of compiled directives, that is shared by every P3 : when several P3 are fed with the same
+	 * directives, the directives are parsed once, and only the definitions and rules are executed by each P3.
+	 * 
+	 * @param capacity
+	 *            maximum number of directive sources to remember, <code>0</code> to disable the cache.
+	 * @see #DEFAULT_COMPILED_DIRECTIVES_CACHE_CAPACITY
+	 */
+	public static void setCompiledDirectivesCacheCapacity(int capacity)
+	{
+		COMPILED_DIRECTIVES_CACHE.setCapacity(capacity);
+	}
+
 	@Override
 	public void clear()
 	{
 		// Silently ignore
 	}
 
+	/**
+	 * Compile the current rules and settings of this P3 into an immutable program, that creates run contexts for processing
+	 * independent inputs, see {@link CompiledP3Program#newContext()}. Unlike {@link #fork()}, the program does not create the
+	 * objects defined by the directives, and it is not changed when this P3 is.
+	 * 
+	 * @return the program.
+	 * @throws ReflectiveOperationException
+	 *             when the class of an object defined by the directives has no accessible constructor without parameters.
+	 */
+	public CompiledP3Program compile() throws ReflectiveOperationException
+	{
+		return new CompiledP3Program(new P3(this, ForkKind.PROGRAM));
+	}
+
 	@Override
 	public boolean containsKey(Object key)
 	{
@@ -408,19 +380,153 @@ public class P3 implements PropertiesParsingListener, Map<String, Object>
 	@Override
 	public boolean containsValue(Object value)
 	{
-		return getContext().containsValue(value);
+		return getCreatedContext().containsValue(value);
 	}
 
 	@Override
 	public Set<Map.Entry<String, Object>> entrySet()
 	{
-		return new HashSet<Map.Entry<String, Object>>(getContext().entrySet());
+		return new HashSet<Map.Entry<String, Object>>(getCreatedContext().entrySet());
+	}
+
+	/**
+	 * Execute directives compiled ahead of time by {@link CompiledDirectives}, like directives found in the properties : the
+	 * directives are executed once, unless {@link #isAllowingOverride()} is <code>true</code>.
+	 * 
+	 * @param compiled
+	 *            the binary form, read from its position.
+	 * @throws IllegalArgumentException
+	 *             when the binary form is not valid, or of another version.
+	 * @throws ReflectiveOperationException
+	 *             when an object cannot be created, or a processor cannot be found.
+	 */
+	public void executeCompiledDirectives(ByteBuffer compiled) throws ReflectiveOperationException
+	{
+		Object _event = FlightRecorderEvents.beginDirectivesExecution();
+		if (null == _event)
+		{
+			executeProgram(RuleProgramCodec.decode(compiled));
+			return;
+		}
+		int _size = compiled.remaining();
+		long _start = System.nanoTime();
+		RuleProgram _program = RuleProgramCodec.decode(compiled);
+		long _decodingDuration = System.nanoTime() - _start;
+		FlightRecorderEvents.commitDirectivesExecution(_event, _size, _program, executeProgram(_program), _decodingDuration);
+	}
+
+	/**
+	 * Execute directives compiled ahead of time into a file by {@link CompiledDirectives}, the file is mapped into memory.
+	 * 
+	 * @param compiled
+	 *            the file of the binary form.
+	 * @throws IOException
+	 *             when the file cannot be read.
+	 * @throws IllegalArgumentException
+	 *             when the binary form is not valid, or of another version.
+	 * @throws ReflectiveOperationException
+	 *             when an object cannot be created, or a processor cannot be found.
+	 * @see #executeCompiledDirectives(ByteBuffer)
+	 */
+	public void executeCompiledDirectives(Path compiled) throws IOException, ReflectiveOperationException
+	{
+		try (FileChannel _channel = FileChannel.open(compiled, StandardOpenOption.READ))
+		{
+			executeCompiledDirectives(_channel.map(FileChannel.MapMode.READ_ONLY, 0, _channel.size()));
+		}
+	}
+
+	/**
+	 * Create a fork of this P3 : the same rules and settings, with new instances of the objects defined by the directives, created
+	 * using their constructor without parameters. Processing properties with the fork does not change this P3.
+	 * 
+	 * <p>
+	 * Forking is cheaper than executing the directives again : the directives are not compiled again, the processors are not looked
+	 * up again, and their invokers, the dispatch tables and the generated dispatchers are shared.
+	 * 
+	 * @return the fork.
+	 * @throws ReflectiveOperationException
+	 *             when an object cannot be created.
+	 * @see ParallelLoader
+	 * @see #compile()
+	 */
+	public P3 fork() throws ReflectiveOperationException
+	{
+		return new P3(this, ForkKind.FORK);
 	}
 
 	@Override
 	public Object get(Object key)
 	{
-		return getContext().get(key);
+		return LazyProcessorHolder.resolve(getContext().get(key));
+	}
+
+	public int getBatchSize()
+	{
+		return myBatchSize;
+	}
+
+	/**
+	 * Get the counters of the dispatch caches.
+	 * 
+	 * @return a snapshot of the counters.
+	 * @see #setDispatchCacheCapacity(int)
+	 */
+	public DispatchCacheStatistics getDispatchCacheStatistics()
+	{
+		DispatchCache _single = getDispatchCacheForSingleLineProperty();
+		DispatchCache _multiple = getDispatchCacheForMultipleLineProperty();
+		return new DispatchCacheStatistics(_single.getCapacity(), _single.getSize() + _multiple.getSize(),
+				_single.getHitCount() + _multiple.getHitCount(), _single.getMissCount() + _multiple.getMissCount(),
+				_single.getEvictionCount() + _multiple.getEvictionCount());
+	}
+
+	/**
+	 * @return the executor creating the objects defined by the directives, <code>null</code> when they are created one after the
+	 *         other.
+	 * @see #setInstantiationExecutor(Executor)
+	 */
+	public Executor getInstantiationExecutor()
+	{
+		return myInstantiationExecutor;
+	}
+
+	/**
+	 * Get the metrics collected since they have been switched on, see {@link #setCollectingMetrics(boolean)} and
+	 * {@link #setRecordingLatencies(boolean)}.
+	 * 
+	 * @return a snapshot of the metrics, only zeros when the metrics are not collected.
+	 */
+	public DispatchMetrics getMetrics()
+	{
+		MetricsCollector _metrics = getMetricsCollector();
+		if (null == _metrics)
+		{
+			return new DispatchMetrics(0, 0, 0, 0, 0, null, new LinkedHashMap<String, Long>(),
+					new LinkedHashMap<String, LatencyStatistics>());
+		}
+		DispatchSnapshot _snapshot = getSnapshot();
+		Map<String, Long> _ruleHitCounts = new LinkedHashMap<String, Long>();
+		Map<String, List<LatencyHistogram>> _processorLatencies = new TreeMap<String, List<LatencyHistogram>>();
+		Map<Object, String> _identifiers = new IdentityHashMap<Object, String>();
+		for (Map.Entry<String, Object> _entry : _snapshot.getContext().entrySet())
+		{
+			_identifiers.put(_entry.getValue(), _entry.getKey());
+		}
+		getMetrics__collect(_metrics, LABEL__SINGLE_LINE_PROPERTY, _snapshot.getRuleSpecsForSingleLineProperty(), _identifiers,
+				_ruleHitCounts, _processorLatencies);
+		getMetrics__collect(_metrics, LABEL__MULTIPLE_LINE_PROPERTY, _snapshot.getRuleSpecsForMultipleLineProperty(),
+				_identifiers, _ruleHitCounts, _processorLatencies);
+		Map<String, LatencyStatistics> _processorStatistics = new LinkedHashMap<String, LatencyStatistics>();
+		for (Map.Entry<String, List<LatencyHistogram>> _entry : _processorLatencies.entrySet())
+		{
+			_processorStatistics.put(_entry.getKey(), LatencyHistogram.summarize(_entry.getValue()));
+		}
+		LatencyHistogram _compilationLatency = _metrics.getDirectivesCompilationLatency();
+		return new DispatchMetrics(_metrics.getSingleLinePropertyCount(), _metrics.getMultipleLinePropertyCount(),
+				_metrics.getUnmatchedPropertyCount(), _metrics.getProcessorInvocationCount(),
+				_metrics.getDirectivesCompilationCount(), (null == _compilationLatency) ? null : _compilationLatency.summarize(),
+				_ruleHitCounts, _processorStatistics);
 	}
 
 	public boolean isAllowingOverride()
@@ -428,18 +534,74 @@ public class P3 implements PropertiesParsingListener, Map<String, Object>
 		return myAllowingOverride;
 	}
 
+	/**
+	 * @return <code>true</code> when the metrics of the dispatch are collected.
+	 */
+	public boolean isCollectingMetrics()
+	{
+		return null != getMetricsCollector();
+	}
+
+	public boolean isConcurrentDispatch()
+	{
+		return myConcurrentDispatch;
+	}
+
 	@Override
 	public boolean isEmpty()
 	{
 		return getContext().isEmpty();
 	}
 
+	public boolean isGeneratingDispatcher()
+	{
+		return myGeneratingDispatcher;
+	}
+
+	/**
+	 * @return <code>true</code> when the objects defined by the directives are created when first needed.
+	 */
+	public boolean isInstantiatingLazily()
+	{
+		return myInstantiatingLazily;
+	}
+
+	/**
+	 * @return <code>true</code> when the durations of the processors and of the compilations of directives are recorded.
+	 */
+	public boolean isRecordingLatencies()
+	{
+		MetricsCollector _metrics = getMetricsCollector();
+		return null != _metrics && _metrics.isRecordingLatencies();
+	}
+
+	public boolean isTracingDirectivesParser()
+	{
+		return myTracingDirectivesParser;
+	}
+
 	@Override
 	public Set<String> keySet()
 	{
 		return getContext().keySet();
 	}
 
+	/**
+	 * Notify the end of the input : the pending batches are delivered to the batch processors, in the order of the rules, then the
+	 * objects defined by the directives that are {@link BatchProcessorHolder} are notified, in the order of their identifiers ; an
+	 * object that is not created yet is not notified.
+	 */
+	public void onEndOfInput()
+	{
+		DispatchSnapshot _snapshot = getSnapshot();
+		onEndOfInput__flushBatches(_snapshot.getRuleSpecsForSingleLineProperty());
+		onEndOfInput__flushBatches(_snapshot.getRuleSpecsForMultipleLineProperty());
+		for (BatchProcessorHolder _holder : listBatchProcessorHolders(_snapshot, false))
+		{
+			_holder.onEndOfInput();
+		}
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -450,17 +612,7 @@ public class P3 implements PropertiesParsingListener, Map<String, Object>
 	@Override
 	public void onMultipleLinePropertyParsed(MultipleLinePropertyParsedEvent event)
 	{
-		for (RuleSpec _rule : getProcessorRuleSpecsForMultipleLineProperty())
-		{
-			if (_rule.getMatcher().isMatching(event.getName()))
-			{
-				for (ProcessorSpec _processor : _rule.getProcessors())
-				{
-					_processor.process(event.getName(), event.getValue());
-				}
-				break;
-			}
-		}
+		dispatchMultipleLineProperty(event.getName(), event.getValue());
 	}
 
 	/*
@@ -473,16 +625,19 @@ public class P3 implements PropertiesParsingListener, Map<String, Object>
 	@Override
 	public void onSingleLinePropertyParsed(SingleLinePropertyParsedEvent event)
 	{
-		for (RuleSpec _rule : getProcessorRuleSpecsForSingleLineProperty())
+		dispatchSingleLineProperty(event.getName(), event.getValue());
+	}
+
+	/**
+	 * Notify the start of the input to the objects defined by the directives that are {@link BatchProcessorHolder}, in the order of
+	 * their identifiers ; such an object that is not created yet (see {@link #setInstantiatingLazily(boolean)}) is created now, so
+	 * that it is notified of both the start and the end of the input.
+	 */
+	public void onStartOfInput()
+	{
+		for (BatchProcessorHolder _holder : listBatchProcessorHolders(getSnapshot(), true))
 		{
-			if (_rule.getMatcher().isMatching(event.getName()))
-			{
-				for (ProcessorSpec _processor : _rule.getProcessors())
-				{
-					_processor.process(event.getName(), event.getValue());
-				}
-				break;
-			}
+			_holder.onStartOfInput();
 		}
 	}
 
@@ -499,6 +654,23 @@ public class P3 implements PropertiesParsingListener, Map<String, Object>
 		// Silently ignore
 	}
 
+	/**
+	 * Register a {@link DispatchMetricsMXBean} of this P3 into the platform MBean server, the name of the MBean is
+	 * <code>com.sporniket.libre.p3:type=P3,name=&lt;name&gt;</code>.
+	 * 
+	 * @param name
+	 *            the name of this P3, e.g. the name of the configuration that it processes.
+	 * @return the name of the registered MBean, to unregister it.
+	 * @throws JMException
+	 *             when the MBean cannot be registered, e.g. when the name is already used.
+	 */
+	public ObjectName registerMetricsMBean(String name) throws JMException
+	{
+		ObjectName _name = new ObjectName(MBEAN_DOMAIN + ":type=P3,name=" + ObjectName.quote(name));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(new DispatchMetricsBean(this), _name);
+		return _name;
+	}
+
 	@Override
 	public Object remove(Object key)
 	{
@@ -511,44 +683,525 @@ public class P3 implements PropertiesParsingListener, Map<String, Object>
 		myAllowingOverride = allowingOverride;
 	}
 
-	@Override
-	public int size()
-	{
-		return getContext().size();
-	}
-
-	@Override
-	public Collection<Object> values()
+	/**
+	 * Set the count of properties delivered at once to a batch processor (see {@link PropertyBatch}) ; the pending properties are
+	 * delivered by {@link #onEndOfInput()} anyway.
+	 * 
+	 * @param batchSize
+	 *            the size of the batches.
+	 * @see #DEFAULT_BATCH_SIZE
+	 */
+	public void setBatchSize(int batchSize)
 	{
-		return getContext().values();
+		if (batchSize < 1)
+		{
+			throw new IllegalArgumentException("batchSize must be positive : " + batchSize);
+		}
+		myBatchSize = batchSize;
 	}
 
 	/**
-	 * The processor for extracting directives.
+	 * Set whether the metrics of the dispatch are collected : the properties received, the hits of each rule, the unmatched
+	 * properties, the calls of processors and the compilations of directives ; the metrics are reset when switched on. While
+	 * collecting metrics, the generated dispatcher is not used.
 	 * 
-	 * @param name
-	 *            property name, unused.
-	 * @param source
-	 *            the directives.
-	 * @throws Exception
-	 *             when there is a problem.
+	 * @param collectingMetrics
+	 *            <code>true</code> to collect the metrics.
+	 * @see #getMetrics()
+	 * @see #setRecordingLatencies(boolean)
 	 */
-	@SuppressWarnings("PMD.UnusedFormalParameter")
-	private void executeProgram(String name, String source) throws Exception
+	public void setCollectingMetrics(boolean collectingMetrics)
 	{
-		List<Statement> _directives = executeProgram__compile(source);
-		boolean _canProceed = !isAllowedOverrideRequired() || isAllowingOverride();
-		if (_canProceed && !_directives.isEmpty())
+		if (collectingMetrics != isCollectingMetrics())
 		{
-			executeProgram__parseDirectives(_directives);
-			setAllowedOverrideRequired(true);
+			myMetricsCollector = collectingMetrics ? new MetricsCollector(false) : null;
 		}
 	}
 
 	/**
-	 * The processor for extracting directives.
+	 * Set whether this P3 is shared by several parsing threads ; disabled by default.
 	 * 
-	 * @param name
+	 * <p>
+	 * The dispatch never locks : the rules are kept in an immutable snapshot, that is replaced as a whole when directives add rules.
+	 * When enabled, the dispatch caches are not used, and the processors of a holder that is not a
+	 * {@link ThreadSafeProcessorHolder} are called one thread at a time, by synchronizing on the holder ; the generated dispatcher
+	 * is only used when every processor is thread safe.
+	 * 
+	 * @param concurrentDispatch
+	 *            <code>true</code> when this P3 is shared by several parsing threads.
+	 * @see #setGeneratingDispatcher(boolean)
+	 */
+	public void setConcurrentDispatch(boolean concurrentDispatch)
+	{
+		myConcurrentDispatch = concurrentDispatch;
+	}
+
+	/**
+	 * Set the capacity of the dispatch caches, that remember the rule selected for the most recently used property names (including
+	 * the absence of rule), one cache for single line properties and one cache for multiple line properties.
+	 * 
+	 * <p>
+	 * The caches are disabled by default (capacity of zero) ; they are useful when the same property names are processed again and
+	 * again. Setting the capacity resets the caches and their counters.
+	 * 
+	 * @param capacity
+	 *            maximum number of property names to remember for each kind of event, <code>0</code> to disable the caches.
+	 */
+	public void setDispatchCacheCapacity(int capacity)
+	{
+		myDispatchCacheForSingleLineProperty = new DispatchCache(capacity);
+		myDispatchCacheForMultipleLineProperty = new DispatchCache(capacity);
+	}
+
+	/**
+	 * Set whether the dispatch of properties to the processors is done by code generated for the rules, instead of interpreting
+	 * them ; the code is generated each time rules are added.
+	 * 
+	 * <p>
+	 * The code generation is disabled by default, it is worth it when there are a lot of properties to process. When the code
+	 * generation is not supported by the running platform (before Java 9), the rules are still interpreted. When enabled, the
+	 * dispatch caches are not used.
+	 * 
+	 * @param generatingDispatcher
+	 *            <code>true</code> to generate the code of the dispatch.
+	 */
+	public void setGeneratingDispatcher(boolean generatingDispatcher)
+	{
+		synchronized (getUpdateLock())
+		{
+			myGeneratingDispatcher = generatingDispatcher;
+			publish(new DispatchSnapshot.Builder(getSnapshot()).build(generatingDispatcher));
+		}
+	}
+
+	/**
+	 * Set whether the objects defined by the directives executed afterwards are created only when first needed : on the first call
+	 * of one of their processors, or when retrieved with {@link #get(Object)}. The classes, their constructor and the processors
+	 * are still checked when executing the directives. Retrieving all the objects at once, e.g. with {@link #values()}, creates
+	 * them.
+	 * 
+	 * <p>
+	 * Disabled by default, it is worth it when the objects are expensive to create, and the properties only use some of them.
+	 * 
+	 * @param instantiatingLazily
+	 *            <code>true</code> to create the objects when first needed.
+	 */
+	public void setInstantiatingLazily(boolean instantiatingLazily)
+	{
+		myInstantiatingLazily = instantiatingLazily;
+	}
+
+	/**
+	 * Set the executor creating the objects defined by the directives executed afterwards : all the objects of the directives are
+	 * created at the same time, then the rules are added once the objects are created. When several objects cannot be created, the
+	 * failure of the first one in the order of the directives is reported.
+	 * 
+	 * <p>
+	 * Without executor (the default), the objects are created one after the other ; it is worth it when several objects are
+	 * expensive to create. The objects created lazily (see {@link #setInstantiatingLazily(boolean)}) are not concerned.
+	 * 
+	 * @param instantiationExecutor
+	 *            the executor, it is not shut down by P3 ; <code>null</code> to create the objects one after the other.
+	 */
+	public void setInstantiationExecutor(Executor instantiationExecutor)
+	{
+		myInstantiationExecutor = instantiationExecutor;
+	}
+
+	/**
+	 * Set whether the durations of the calls of each processor and of the compilations of directives are recorded into histograms ;
+	 * recording the durations implies collecting the metrics, that are reset.
+	 * 
+	 * @param recordingLatencies
+	 *            <code>true</code> to record the durations.
+	 * @see #setCollectingMetrics(boolean)
+	 */
+	public void setRecordingLatencies(boolean recordingLatencies)
+	{
+		if (recordingLatencies != isRecordingLatencies())
+		{
+			myMetricsCollector = (recordingLatencies || isCollectingMetrics()) ? new MetricsCollector(recordingLatencies) : null;
+		}
+	}
+
+	/**
+	 * Set whether the parsing of the directives is traced by the parser, for diagnosing problems ; disabled by default. Syntax errors
+	 * are always reported as {@link DirectivesCompilationException}, wrapped as the cause of the exception thrown when processing
+	 * the directives property.
+	 * 
+	 * <p>
+	 * Directives found in the cache of compiled directives are not parsed again, thus not traced.
+	 * 
+	 * @param tracingDirectivesParser
+	 *            <code>true</code> to trace the parsing.
+	 * @see #setCompiledDirectivesCacheCapacity(int)
+	 */
+	public void setTracingDirectivesParser(boolean tracingDirectivesParser)
+	{
+		myTracingDirectivesParser = tracingDirectivesParser;
+	}
+
+	@Override
+	public int size()
+	{
+		return getContext().size();
+	}
+
+	@Override
+	public Collection<Object> values()
+	{
+		return getCreatedContext().values();
+	}
+
+	/**
+	 * Create a run context of the program of which this P3 is the template, see {@link CompiledP3Program#newContext()}.
+	 * 
+	 * @return the run context.
+	 * @throws ReflectiveOperationException
+	 *             when an object cannot be created.
+	 */
+	P3 createContext() throws ReflectiveOperationException
+	{
+		return new P3(this, ForkKind.CONTEXT);
+	}
+
+	/**
+	 * Dispatch a property to the rule already found for it, e.g. by a reader that skips the properties matched by no rule, thus the
+	 * property is not matched again.
+	 * 
+	 * @param rule
+	 *            the matching rule, found by {@link #findMatchingRuleForSingleLineProperty(CharSequence)} or
+	 *            {@link #findMatchingRuleForMultipleLineProperty(CharSequence)}.
+	 * @param multipleLine
+	 *            <code>true</code> for a multiple line property.
+	 * @param name
+	 *            property name.
+	 * @param value
+	 *            property value.
+	 */
+	void dispatchMatchedProperty(RuleSpec rule, boolean multipleLine, String name, Object value)
+	{
+		MetricsCollector _metrics = getMetricsCollector();
+		Object _event = FlightRecorderEvents.beginDispatch();
+		if (null != _metrics)
+		{
+			_metrics.recordProperty(multipleLine, rule);
+		}
+		dispatch(rule, name, value, isConcurrentDispatch());
+		if (null != _event)
+		{
+			FlightRecorderEvents.commitDispatch(_event, multipleLine, name, rule);
+		}
+	}
+
+	/**
+	 * Dispatch a multiple line property without requiring an event, see
+	 * {@link #onMultipleLinePropertyParsed(MultipleLinePropertyParsedEvent)}.
+	 * 
+	 * @param name
+	 *            property name.
+	 * @param value
+	 *            property value.
+	 */
+	void dispatchMultipleLineProperty(String name, String[] value)
+	{
+		DispatchSnapshot _snapshot = getSnapshot();
+		boolean _concurrent = isConcurrentDispatch();
+		MetricsCollector _metrics = getMetricsCollector();
+		Object _event = FlightRecorderEvents.beginDispatch();
+		GeneratedDispatcher _dispatcher = _snapshot.getGeneratedDispatcherForMultipleLineProperty();
+		if (null != _dispatcher && null == _metrics && !FlightRecorderEvents.isRecordingDispatch()
+				&& (!_concurrent || _snapshot.isThreadSafeForMultipleLineProperty()))
+		{
+			dispatch(_dispatcher, name, value);
+		}
+		else
+		{
+			DispatchTable _table = _snapshot.getDispatchTableForMultipleLineProperty();
+			RuleSpec _rule = _concurrent ? _table.findMatchingRule(name)
+					: getDispatchCacheForMultipleLineProperty().findMatchingRule(_table, name);
+			if (null != _metrics)
+			{
+				_metrics.recordProperty(true, _rule);
+			}
+			if (null != _rule)
+			{
+				dispatch(_rule, name, value, _concurrent);
+			}
+			if (null != _event)
+			{
+				FlightRecorderEvents.commitDispatch(_event, true, name, _rule);
+			}
+		}
+	}
+
+	/**
+	 * Dispatch a single line property without requiring an event, see
+	 * {@link #onSingleLinePropertyParsed(SingleLinePropertyParsedEvent)}.
+	 * 
+	 * @param name
+	 *            property name.
+	 * @param value
+	 *            property value.
+	 */
+	void dispatchSingleLineProperty(String name, String value)
+	{
+		DispatchSnapshot _snapshot = getSnapshot();
+		boolean _concurrent = isConcurrentDispatch();
+		MetricsCollector _metrics = getMetricsCollector();
+		Object _event = FlightRecorderEvents.beginDispatch();
+		GeneratedDispatcher _dispatcher = _snapshot.getGeneratedDispatcherForSingleLineProperty();
+		if (null != _dispatcher && null == _metrics && !FlightRecorderEvents.isRecordingDispatch()
+				&& (!_concurrent || _snapshot.isThreadSafeForSingleLineProperty()))
+		{
+			dispatch(_dispatcher, name, value);
+		}
+		else
+		{
+			DispatchTable _table = _snapshot.getDispatchTableForSingleLineProperty();
+			RuleSpec _rule = _concurrent ? _table.findMatchingRule(name)
+					: getDispatchCacheForSingleLineProperty().findMatchingRule(_table, name);
+			if (null != _metrics)
+			{
+				_metrics.recordProperty(false, _rule);
+			}
+			if (null != _rule)
+			{
+				dispatch(_rule, name, value, _concurrent);
+			}
+			if (null != _event)
+			{
+				FlightRecorderEvents.commitDispatch(_event, false, name, _rule);
+			}
+		}
+	}
+
+	/**
+	 * Find the first rule matching the name of a multiple line property, without using the generated dispatcher ; the dispatch cache is
+	 * only used for a <code>String</code> name, any other name is matched without creating any object.
+	 * 
+	 * @param name
+	 *            property name, e.g. a view over the buffer of a reader.
+	 * @return the first matching rule, or <code>null</code> if there is none.
+	 */
+	RuleSpec findMatchingRuleForMultipleLineProperty(CharSequence name)
+	{
+		DispatchTable _table = getSnapshot().getDispatchTableForMultipleLineProperty();
+		if (isConcurrentDispatch() || !(name instanceof String))
+		{
+			return _table.findMatchingRule(name);
+		}
+		return getDispatchCacheForMultipleLineProperty().findMatchingRule(_table, (String) name);
+	}
+
+	/**
+	 * Find the first rule matching the name of a single line property, without using the generated dispatcher ; the dispatch cache is
+	 * only used for a <code>String</code> name, any other name is matched without creating any object.
+	 * 
+	 * @param name
+	 *            property name, e.g. a view over the buffer of a reader.
+	 * @return the first matching rule, or <code>null</code> if there is none.
+	 */
+	RuleSpec findMatchingRuleForSingleLineProperty(CharSequence name)
+	{
+		DispatchTable _table = getSnapshot().getDispatchTableForSingleLineProperty();
+		if (isConcurrentDispatch() || !(name instanceof String))
+		{
+			return _table.findMatchingRule(name);
+		}
+		return getDispatchCacheForSingleLineProperty().findMatchingRule(_table, (String) name);
+	}
+
+	/**
+	 * Get an object defined by the directives, only if it has been created.
+	 * 
+	 * @param identifier
+	 *            the identifier of the object.
+	 * @return the object, <code>null</code> when there is none, or when it is not created yet.
+	 * @see #setInstantiatingLazily(boolean)
+	 */
+	Object getIfCreated(String identifier)
+	{
+		Object _result = getContext().get(identifier);
+		return (_result instanceof LazyProcessorHolder) ? ((LazyProcessorHolder) _result).getIfCreated() : _result;
+	}
+
+	/**
+	 * Call a processor, or append the property to its pending batch for a batch processor.
+	 * 
+	 * @param processor
+	 *            the processor.
+	 * @param name
+	 *            property name.
+	 * @param value
+	 *            property value.
+	 */
+	void process(ProcessorSpec processor, String name, Object value)
+	{
+		MetricsCollector _metrics = getMetricsCollector();
+		Object _event = FlightRecorderEvents.beginProcessorInvocation();
+		if (null == _metrics && null == _event)
+		{
+			process__call(processor, name, value);
+			return;
+		}
+		long _start = (null == _metrics) ? 0L : _metrics.startTimer();
+		try
+		{
+			process__call(processor, name, value);
+		}
+		finally
+		{
+			if (null != _metrics)
+			{
+				_metrics.recordProcessorInvocation(processor, _start);
+			}
+			if (null != _event)
+			{
+				FlightRecorderEvents.commitProcessorInvocation(_event, processor, name);
+			}
+		}
+	}
+
+	/**
+	 * Record a property for the metrics, when it is not dispatched by {@link #dispatchSingleLineProperty(String, String)} or
+	 * {@link #dispatchMultipleLineProperty(String, String[])}.
+	 * 
+	 * @param multipleLine
+	 *            <code>true</code> for a multiple line property.
+	 * @param rule
+	 *            the matching rule, <code>null</code> if there is none.
+	 */
+	void recordProperty(boolean multipleLine, RuleSpec rule)
+	{
+		MetricsCollector _metrics = getMetricsCollector();
+		if (null != _metrics)
+		{
+			_metrics.recordProperty(multipleLine, rule);
+		}
+	}
+
+	/**
+	 * Call a processor, or append the property to its pending batch for a batch processor.
+	 */
+	private void process__call(ProcessorSpec processor, String name, Object value)
+	{
+		if (processor.isBatch())
+		{
+			processor.addToBatch(name, value, getBatchSize());
+		}
+		else
+		{
+			processor.process(name, value);
+		}
+	}
+
+	/**
+	 * Call the processors using the generated code, failures are reported like with {@link ProcessorSpec}.
+	 * 
+	 * @param dispatcher
+	 *            the generated dispatcher.
+	 * @param name
+	 *            property name.
+	 * @param value
+	 *            property value.
+	 */
+	private void dispatch(GeneratedDispatcher dispatcher, String name, Object value)
+	{
+		try
+		{
+			dispatcher.dispatch(name, value);
+		}
+		catch (Throwable _exception)
+		{
+			throw new RuntimeException(new InvocationTargetException(_exception));
+		}
+	}
+
+	/**
+	 * Call the processors of a rule.
+	 * 
+	 * @param rule
+	 *            the matching rule.
+	 * @param name
+	 *            property name.
+	 * @param value
+	 *            property value.
+	 * @param concurrent
+	 *            <code>true</code> to serialize the calls of processors that are not thread safe.
+	 */
+	private void dispatch(RuleSpec rule, String name, Object value, boolean concurrent)
+	{
+		for (ProcessorSpec _processor : rule.getProcessors())
+		{
+			if (concurrent && !_processor.isThreadSafe())
+			{
+				synchronized (_processor.getProcessorHolder())
+				{
+					process(_processor, name, value);
+				}
+			}
+			else
+			{
+				process(_processor, name, value);
+			}
+		}
+	}
+
+	/**
+	 * Execute a program, once unless {@link #isAllowingOverride()} is <code>true</code>.
+	 * 
+	 * @param program
+	 *            the program.
+	 * @return <code>true</code> when the program has been executed.
+	 * @throws ReflectiveOperationException
+	 *             when an object cannot be created, or a processor cannot be found.
+	 */
+	private boolean executeProgram(RuleProgram program) throws ReflectiveOperationException
+	{
+		synchronized (getUpdateLock())
+		{
+			boolean _canProceed = !isAllowedOverrideRequired() || isAllowingOverride();
+			if (_canProceed && !program.isEmpty())
+			{
+				executeProgram__parseDirectives(program);
+				setAllowedOverrideRequired(true);
+				return true;
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * The processor for extracting directives.
+	 * 
+	 * @param name
+	 *            property name, unused.
+	 * @param source
+	 *            the directives.
+	 * @throws Exception
+	 *             when there is a problem.
+	 */
+	@SuppressWarnings("PMD.UnusedFormalParameter")
+	private void executeProgram(String name, String source) throws Exception
+	{
+		Object _event = FlightRecorderEvents.beginDirectivesExecution();
+		if (null == _event)
+		{
+			executeProgram(executeProgram__compile(source));
+			return;
+		}
+		long _start = System.nanoTime();
+		RuleProgram _program = executeProgram__compile(source);
+		long _compilationDuration = System.nanoTime() - _start;
+		FlightRecorderEvents.commitDirectivesExecution(_event, source.length(), _program, executeProgram(_program),
+				_compilationDuration);
+	}
+
+	/**
+	 * The processor for extracting directives.
+	 * 
+	 * @param name
 	 *            property name, unused.
 	 * @param source
 	 *            the directives.
@@ -562,21 +1215,21 @@ public class P3 implements PropertiesParsingListener, Map<String, Object>
 		executeProgram(name, _singleStringSource);
 	}
 
-	private List<Statement> executeProgram__compile(String source) throws Exception, SslpoiException
-	{
-		AnalyzerSyntaxic _parser = executeProgram__createParser();
-		VessNode _parsed = executeProgram__parseSource(source, _parser);
-		List<Statement> _directives = new ArrayList<Statement>(StatementFromNode.convertNodeList(_parsed));
-		return _directives;
-	}
-
-	private AnalyzerSyntaxic executeProgram__createParser()
+	private RuleProgram executeProgram__compile(String source) throws DirectivesCompilationException
 	{
-		final ComplexSymbolFactory _symbolFactory = new ComplexSymbolFactory();
-		final AnalyzerLexical _lexer = new AnalyzerLexical(null);
-		_lexer.setSymbolFactory(_symbolFactory);
-		AnalyzerSyntaxic _parser = new AnalyzerSyntaxic(_lexer, _symbolFactory);
-		return _parser;
+		RuleProgram _program = COMPILED_DIRECTIVES_CACHE.get(source);
+		if (null == _program)
+		{
+			MetricsCollector _metrics = getMetricsCollector();
+			long _start = (null == _metrics) ? 0L : _metrics.startTimer();
+			RuleProgram _compiled = DirectivesCompiler.get().compile(source, isTracingDirectivesParser());
+			if (null != _metrics)
+			{
+				_metrics.recordDirectivesCompilation(_start);
+			}
+			_program = COMPILED_DIRECTIVES_CACHE.put(source, _compiled);
+		}
+		return _program;
 	}
 
 	private String executeProgram__makeSingleStringSource(String[] source)
@@ -593,180 +1246,339 @@ public class P3 implements PropertiesParsingListener, Map<String, Object>
 		return _result.toString();
 	}
 
-	private void executeProgram__parseDirectives(List<Statement> directives) throws ClassNotFoundException, InstantiationException,
-			IllegalAccessException, Exception
+	/**
+	 * Apply the instructions on a copy of the current state, that is then published.
+	 */
+	private void executeProgram__parseDirectives(RuleProgram program) throws ReflectiveOperationException
 	{
-		// Scan the statement list and apply valid statement. Unvalid or unknown statement will be ignored.
-		for (Statement _directive : directives)
+		DispatchSnapshot.Builder _nextState = new DispatchSnapshot.Builder(getSnapshot());
+		Map<RuleProgram.Definition, Future<Object>> _instances = new IdentityHashMap<RuleProgram.Definition, Future<Object>>();
+		try
 		{
-			if (_directive instanceof StatementDefineAs)
+			executeProgram__parseDirectives__startInstantiations(program, _instances);
+			for (RuleProgram.Instruction _instruction : program.getInstructions())
 			{
-				executeProgram__parseDirectives__process((StatementDefineAs) _directive);
+				if (_instruction instanceof RuleProgram.Definition)
+				{
+					executeProgram__parseDirectives__process((RuleProgram.Definition) _instruction, _instances.get(_instruction),
+							_nextState);
+				}
+				else if (_instruction instanceof RuleProgram.Rule)
+				{
+					executeProgram__parseDirectives__process((RuleProgram.Rule) _instruction, _nextState);
+				}
 			}
-			else if (_directive instanceof StatementOn)
+		}
+		finally
+		{
+			// after a failure, e.g. a creation rejected by the executor, the objects not created yet are not needed anymore
+			for (Future<Object> _instance : _instances.values())
 			{
-				executeProgram__parseDirectives__process((StatementOn) _directive);
+				_instance.cancel(true);
 			}
+			// rules may have been added, even partially
+			publish(_nextState.build(isGeneratingDispatcher()));
 		}
 	}
 
-	private void executeProgram__parseDirectives__process(StatementDefineAs directive) throws ClassNotFoundException,
-			InstantiationException, IllegalAccessException
+	/**
+	 * Wait for an object created by the executor, see {@link #setInstantiationExecutor(Executor)}.
+	 */
+	private Object executeProgram__parseDirectives__awaitInstance(Future<Object> instance) throws ReflectiveOperationException
 	{
-		PartialIdentifier _identifier = directive.getIdentifier();
-		if (InitialisationMode.NEW == directive.getInitialisationMode() && !_identifier.isArray())
+		try
 		{
-			Class<?> _class = Class.forName(_identifier.getClassName());
-			getContext().put(_identifier.getIdentifier(), _class.newInstance());
+			return instance.get();
+		}
+		catch (InterruptedException _exception)
+		{
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(_exception);
+		}
+		catch (ExecutionException _exception)
+		{
+			Throwable _cause = _exception.getCause();
+			if (_cause instanceof ReflectiveOperationException)
+			{
+				throw (ReflectiveOperationException) _cause;
+			}
+			if (_cause instanceof RuntimeException)
+			{
+				throw (RuntimeException) _cause;
+			}
+			if (_cause instanceof Error)
+			{
+				throw (Error) _cause;
+			}
+			throw new InvocationTargetException(_cause);
 		}
 	}
 
-	private void executeProgram__parseDirectives__process(StatementOn directive) throws Exception
+	/**
+	 * Bind an object to its identifier.
+	 * 
+	 * @param directive
+	 *            the definition.
+	 * @param instance
+	 *            the object being created by the executor, <code>null</code> to create it now or lazily.
+	 * @param target
+	 *            the next state.
+	 */
+	private void executeProgram__parseDirectives__process(RuleProgram.Definition directive, Future<Object> instance,
+			DispatchSnapshot.Builder target) throws ReflectiveOperationException
 	{
-		List<RuleSpec> _target = null;
-		Class<?> _valueType = null;
-		switch (directive.getEventName())
+		Object _holder;
+		if (null != instance)
 		{
-			case EVENT__ON_SINGLE_LINE_PROPERTY_PARSED:
-				_target = getProcessorRuleSpecsForSingleLineProperty();
-				_valueType = String.class;
-				break;
-			case EVENT__ON_MULTIPLE_LINE_PROPERTY_PARSED:
-				_target = getProcessorRuleSpecsForMultipleLineProperty();
-				_valueType = String[].class;
-				break;
+			_holder = executeProgram__parseDirectives__awaitInstance(instance);
 		}
-		if (null != _target)
+		else
 		{
-			for (Statement _statement : directive.getStatements())
-			{
-				if (_statement instanceof StatementIf)
-				{
-					executeProgram__parseDirectives__processRuleset((StatementIf) _statement, _target, _valueType);
-				}
-			}
+			Class<?> _class = Class.forName(directive.getClassName());
+			_holder = isInstantiatingLazily() ? new LazyProcessorHolder(_class) : ProcessorHolderFactory.newInstance(_class);
+		}
+		target.getContext().put(directive.getIdentifier(), _holder);
+	}
+
+	private void executeProgram__parseDirectives__process(RuleProgram.Rule directive, DispatchSnapshot.Builder target)
+			throws NoSuchMethodException
+	{
+		List<RuleSpec> _target;
+		Class<?> _valueType;
+		if (RuleProgram.Event.SINGLE_LINE_PROPERTY == directive.getEvent())
+		{
+			_target = target.getRuleSpecsForSingleLineProperty();
+			_valueType = String.class;
+		}
+		else
+		{
+			_target = target.getRuleSpecsForMultipleLineProperty();
+			_valueType = String[].class;
 		}
+		PropertyNameMatcher _matcher = executeProgram__parseDirectives__processRuleset__createMatcher(directive);
+		List<ProcessorSpec> _processors = new ArrayList<ProcessorSpec>(directive.getCalls().size());
+		for (RuleProgram.Call _call : directive.getCalls())
+		{
+			executeProgram__parseDirectives__processRuleset__addProcessor(_call, _valueType, target.getContext(), _processors);
+		}
+		_target.add(new RuleSpec(_matcher, _processors));
 	}
 
-	private void executeProgram__parseDirectives__processRuleset(StatementIf directive, List<RuleSpec> target, Class<?> valueType)
-			throws Exception
+	private void executeProgram__parseDirectives__processRuleset__addProcessor(RuleProgram.Call directive, Class<?> valueType,
+			Map<String, Object> context, List<ProcessorSpec> target) throws NoSuchMethodException
 	{
-		for (StatementAlternative _alternative : directive.getAlternatives())
+		String _holderName = directive.getHolderName();
+		if (context.containsKey(_holderName))
 		{
-			if (null == _alternative.getTest())
+			Object _holder = context.get(_holderName);
+			Class<?> _holderType = LazyProcessorHolder.getTypeOf(_holder);
+			try
 			{
-				executeProgram__parseDirectives__processRuleset__else(_alternative, valueType, target);
+				Method _processor = _holderType.getMethod(directive.getMethodName(), String.class, valueType);
+				target.add(new ProcessorSpec(_holder, _processor, ProcessorInvokerFactory.create(_processor)));
 			}
-			else
+			catch (NoSuchMethodException _exception)
 			{
-				switch (_alternative.getTest().getOperator())
-				{
-					case IS:
-						executeProgram__parseDirectives__processRuleset__matchExact(_alternative, valueType, target);
-						break;
-					case IS_LIKE:
-						executeProgram__parseDirectives__processRuleset__matchPattern(_alternative, valueType, target);
-						break;
-				}
+				Method _processor = executeProgram__parseDirectives__processRuleset__findBatchProcessor(_holderType, directive,
+						_exception);
+				target.add(new ProcessorSpec(_holder, _processor, null, ThreadSafeProcessorHolder.class.isAssignableFrom(_holderType),
+						true));
 			}
 		}
 	}
 
-	private void executeProgram__parseDirectives__processRuleset__addProcessor(StatementCall directive, Class<?> valueType,
-			List<ProcessorSpec> target) throws NoSuchMethodException
+	/**
+	 * Find a batch processor, accepting a {@link PropertyBatch}.
+	 * 
+	 * @param holder
+	 *            the processor holder.
+	 * @param directive
+	 *            the call of the processor.
+	 * @param notFound
+	 *            the failure to find a processor of a single property, thrown if there is no batch processor either.
+	 * @return the batch processor.
+	 * @throws NoSuchMethodException
+	 *             when there is no batch processor.
+	 */
+	private Method executeProgram__parseDirectives__processRuleset__findBatchProcessor(Class<?> holderType,
+			RuleProgram.Call directive, NoSuchMethodException notFound) throws NoSuchMethodException
 	{
-		List<String> _methodAccessor = directive.getMethodAccessor();
-		if (_methodAccessor.size() == 2)
+		try
 		{
-			String _holderName = _methodAccessor.get(0);
-			if (getContext().containsKey(_holderName))
-			{
-				Object _holder = getContext().get(_holderName);
-				Method _processor = _holder.getClass().getMethod(_methodAccessor.get(1), String.class, valueType);
-				target.add(new ProcessorSpec(_holder, _processor));
-			}
+			return holderType.getMethod(directive.getMethodName(), PropertyBatch.class);
+		}
+		catch (NoSuchMethodException _exception)
+		{
+			throw notFound;
+		}
+	}
+
+	private PropertyNameMatcher executeProgram__parseDirectives__processRuleset__createMatcher(RuleProgram.Rule directive)
+	{
+		switch (directive.getMatcherKind())
+		{
+			case EXACT:
+				return new PropertyNameMatcherExactMatch(directive.getPattern());
+			case PREFIX:
+				return new PropertyNameMatcherPrefix(directive.getPattern());
+			case LIKE:
+				return new PropertyNameMatcherLike(directive.getPattern());
+			default:
+				return new PropertyNameMatcherAny();
 		}
 	}
 
-	private List<ProcessorSpec> executeProgram__parseDirectives__processRuleset__listProcessors(List<Statement> directives,
-			Class<?> valueType) throws NoSuchMethodException
+	/**
+	 * Start the creation of the objects of the definitions by the executor, see {@link #setInstantiationExecutor(Executor)}.
+	 * 
+	 * @param instances
+	 *            filled with the object being created for each definition, before its submission ; left empty when there is no
+	 *            executor, or when the objects are created lazily.
+	 */
+	private void executeProgram__parseDirectives__startInstantiations(RuleProgram program,
+			Map<RuleProgram.Definition, Future<Object>> instances)
 	{
-		List<ProcessorSpec> _processors = new ArrayList<P3.ProcessorSpec>(directives.size());
-		for (Statement _directive : directives)
+		Executor _executor = getInstantiationExecutor();
+		if (null == _executor || isInstantiatingLazily())
+		{
+			return;
+		}
+		for (RuleProgram.Instruction _instruction : program.getInstructions())
 		{
-			if (_directive instanceof StatementCall)
+			if (_instruction instanceof RuleProgram.Definition)
 			{
-				executeProgram__parseDirectives__processRuleset__addProcessor((StatementCall) _directive, valueType, _processors);
+				final String _className = ((RuleProgram.Definition) _instruction).getClassName();
+				FutureTask<Object> _instance = new FutureTask<Object>(
+						() -> ProcessorHolderFactory.newInstance(Class.forName(_className)));
+				instances.put((RuleProgram.Definition) _instruction, _instance);
+				_executor.execute(_instance);
 			}
 		}
-		return _processors;
 	}
 
-	private void executeProgram__parseDirectives__processRuleset__else(StatementAlternative rule, Class<?> valueType,
-			List<RuleSpec> target) throws NoSuchMethodException
+	/**
+	 * Get the copy of a processor holder, created on first use.
+	 * 
+	 * @param holder
+	 *            the original holder, or its {@link LazyProcessorHolder}.
+	 * @param forkedHolders
+	 *            the copies already created, by original holder.
+	 * @param kind
+	 *            the kind of copy.
+	 * @return the copy.
+	 * @throws ReflectiveOperationException
+	 *             when the copy cannot be created.
+	 */
+	private Object fork__holder(Object holder, Map<Object, Object> forkedHolders, ForkKind kind) throws ReflectiveOperationException
 	{
-		List<ProcessorSpec> _processors = executeProgram__parseDirectives__processRuleset__listProcessors(rule.getStatements(),
-				valueType);
-		target.add(new RuleSpec(new PropertyNameMatcherAny(), _processors));
+		Object _result = forkedHolders.get(holder);
+		if (null == _result)
+		{
+			boolean _lazy = holder instanceof LazyProcessorHolder;
+			switch (kind)
+			{
+				case CONTEXT:
+					// the holders of the template are lazy holders that are never created
+					_result = isInstantiatingLazily() ? ((LazyProcessorHolder) holder).fork() : ProcessorHolderFactory
+							.newInstance(((LazyProcessorHolder) holder).getType());
+					break;
+				case PROGRAM:
+					_result = _lazy ? ((LazyProcessorHolder) holder).fork() : new LazyProcessorHolder(holder.getClass());
+					break;
+				default:
+					_result = _lazy ? ((LazyProcessorHolder) holder).fork() : ProcessorHolderFactory.newInstance(holder.getClass());
+					break;
+			}
+			forkedHolders.put(holder, _result);
+		}
+		return _result;
 	}
 
-	private void executeProgram__parseDirectives__processRuleset__matchExact(StatementAlternative rule, Class<?> valueType,
-			List<RuleSpec> target) throws NoSuchMethodException
+	/**
+	 * Copy the processor holders of rules that are not in the context anymore, e.g. after the redefinition of an identifier.
+	 */
+	private void fork__holders(List<RuleSpec> rules, Map<Object, Object> forkedHolders, ForkKind kind)
+			throws ReflectiveOperationException
 	{
-		PartialExpressionLogical _test = rule.getTest();
-		PartialExpression _rightExpression = _test.getRightExpression();
-		if (_rightExpression instanceof PartialExpressionLiteralString)
+		for (RuleSpec _rule : rules)
 		{
-			PartialExpressionLiteralString _nameToMatch = (PartialExpressionLiteralString) _rightExpression;
-			PropertyNameMatcher _matcher = new PropertyNameMatcherExactMatch(_nameToMatch.getValue());
-			List<ProcessorSpec> _processors = executeProgram__parseDirectives__processRuleset__listProcessors(rule.getStatements(),
-					valueType);
-			target.add(new RuleSpec(_matcher, _processors));
+			for (ProcessorSpec _processor : _rule.getProcessors())
+			{
+				fork__holder(_processor.getProcessorHolderBinding(), forkedHolders, kind);
+			}
 		}
 	}
 
-	private void executeProgram__parseDirectives__processRuleset__matchPattern(StatementAlternative rule, Class<?> valueType,
-			List<RuleSpec> target) throws NoSuchMethodException
+	private void getMetrics__collect(MetricsCollector metrics, String event, List<RuleSpec> rules, Map<Object, String> identifiers,
+			Map<String, Long> ruleHitCounts, Map<String, List<LatencyHistogram>> processorLatencies)
 	{
-		PartialExpressionLogical _test = rule.getTest();
-		PartialExpression _rightExpression = _test.getRightExpression();
-		if (_rightExpression instanceof PartialExpressionLiteralString)
+		for (int _index = 0; _index < rules.size(); _index++)
 		{
-			PartialExpressionLiteralString _nameToMatch = (PartialExpressionLiteralString) _rightExpression;
-			PropertyNameMatcher _matcher = new PropertyNameMatcherLike(_nameToMatch.getValue());
-			List<ProcessorSpec> _processors = executeProgram__parseDirectives__processRuleset__listProcessors(rule.getStatements(),
-					valueType);
-			target.add(new RuleSpec(_matcher, _processors));
+			RuleSpec _rule = rules.get(_index);
+			ruleHitCounts.put(event + "[" + _index + "] " + _rule.getMatcher(), metrics.getRuleHitCount(_rule));
+			for (ProcessorSpec _processor : _rule.getProcessors())
+			{
+				LatencyHistogram _latency = metrics.getProcessorLatency(_processor);
+				if (null != _latency)
+				{
+					Object _binding = _processor.getProcessorHolderBinding();
+					String _holder = (this == _binding) ? "p3" : identifiers.get(_binding);
+					String _label = _holder + "." + _processor.getProcessor().getName();
+					if (!processorLatencies.containsKey(_label))
+					{
+						processorLatencies.put(_label, new ArrayList<LatencyHistogram>());
+					}
+					processorLatencies.get(_label).add(_latency);
+				}
+			}
 		}
 	}
 
-	private VessNode executeProgram__parseSource(String source, AnalyzerSyntaxic parser) throws Exception
+	/**
+	 * @return the objects defined by the directives, unmodifiable ; an object created lazily is represented by its
+	 *         {@link LazyProcessorHolder}.
+	 */
+	private Map<String, Object> getContext()
+	{
+		return getSnapshot().getContext();
+	}
+
+	/**
+	 * @return the objects defined by the directives, the objects created lazily are created if needed.
+	 */
+	private Map<String, Object> getCreatedContext()
 	{
-		Reader _statementReader = new StringReader(source);
-		((AnalyzerLexical) parser.getScanner()).yyreset(_statementReader);
-		final ComplexSymbol _symbol = (ComplexSymbol) parser.debug_parse();
-		Object _value = _symbol.value;
-		if (_value instanceof VessNode)
+		Map<String, Object> _result = new HashMap<String, Object>();
+		for (Map.Entry<String, Object> _entry : getContext().entrySet())
 		{
-			VessNode _node = (VessNode) _value;
-			return _node;
+			_result.put(_entry.getKey(), LazyProcessorHolder.resolve(_entry.getValue()));
 		}
-		throw new IllegalStateException("No node found for '" + source + "'");
+		return _result;
 	}
 
-	private Map<String, Object> getContext()
+	private DispatchCache getDispatchCacheForMultipleLineProperty()
+	{
+		return myDispatchCacheForMultipleLineProperty;
+	}
+
+	private DispatchCache getDispatchCacheForSingleLineProperty()
 	{
-		return myContext;
+		return myDispatchCacheForSingleLineProperty;
 	}
 
-	private List<RuleSpec> getProcessorRuleSpecsForMultipleLineProperty()
+	private MetricsCollector getMetricsCollector()
 	{
-		return myProcessorRuleSpecsForMultipleLineProperty;
+		return myMetricsCollector;
 	}
 
-	private List<RuleSpec> getProcessorRuleSpecsForSingleLineProperty()
+	private DispatchSnapshot getSnapshot()
 	{
-		return myProcessorRuleSpecsForSingleLineProperty;
+		return mySnapshot;
+	}
+
+	private Object getUpdateLock()
+	{
+		return myUpdateLock;
 	}
 
 	private boolean isAllowedOverrideRequired()
@@ -774,6 +1586,73 @@ public class P3 implements PropertiesParsingListener, Map<String, Object>
 		return myAllowedOverrideRequired;
 	}
 
+	/**
+	 * List the objects defined by the directives that are {@link BatchProcessorHolder}, in the order of their identifiers.
+	 * 
+	 * @param snapshot
+	 *            the rules and objects.
+	 * @param creating
+	 *            <code>true</code> to create the objects that are not created yet, otherwise they are skipped.
+	 * @return the objects.
+	 */
+	private List<BatchProcessorHolder> listBatchProcessorHolders(DispatchSnapshot snapshot, boolean creating)
+	{
+		List<BatchProcessorHolder> _result = new ArrayList<BatchProcessorHolder>();
+		for (Object _binding : new TreeMap<String, Object>(snapshot.getContext()).values())
+		{
+			Object _holder = _binding;
+			if (_binding instanceof LazyProcessorHolder)
+			{
+				LazyProcessorHolder _lazyHolder = (LazyProcessorHolder) _binding;
+				_holder = (creating && BatchProcessorHolder.class.isAssignableFrom(_lazyHolder.getType())) ? _lazyHolder.get()
+						: _lazyHolder.getIfCreated();
+			}
+			if (_holder instanceof BatchProcessorHolder)
+			{
+				_result.add((BatchProcessorHolder) _holder);
+			}
+		}
+		return _result;
+	}
+
+	private void onEndOfInput__flushBatches(List<RuleSpec> rules)
+	{
+		for (RuleSpec _rule : rules)
+		{
+			for (ProcessorSpec _processor : _rule.getProcessors())
+			{
+				if (!_processor.isBatch())
+				{
+					continue;
+				}
+				if (isConcurrentDispatch() && !_processor.isThreadSafe())
+				{
+					synchronized (_processor.getProcessorHolder())
+					{
+						_processor.flushBatch();
+					}
+				}
+				else
+				{
+					_processor.flushBatch();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Replace the state of the dispatch and invalidate the dispatch caches, to be done each time rules are added.
+	 * 
+	 * @param snapshot
+	 *            the new state.
+	 */
+	private void publish(DispatchSnapshot snapshot)
+	{
+		mySnapshot = snapshot;
+		getDispatchCacheForSingleLineProperty().clear();
+		getDispatchCacheForMultipleLineProperty().clear();
+	}
+
 	private void setAllowedOverrideRequired(boolean allowedOverrideRequired)
 	{
 		myAllowedOverrideRequired = allowedOverrideRequired;
@@ -0,0 +1,183 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Loader of many sources of properties (e.g. files) at the same time, using a configured {@link P3}.
+ * 
+ * <p>
+ * Each source is processed by its own fork of the P3 (see {@link P3#fork()}), thus by its own instances of the objects defined by
+ * the directives. When every source has been processed, the results are combined into another fork : for each object defined by
+ * the directives that is a {@link MergeableProcessorHolder}, the objects of the same identifier in the forks are merged in the
+ * order of the sources, whatever the order of completion. Objects defined by directives found in the sources themselves are not
+ * merged.
+ * 
+ * <p>
+ * The configured P3 is not changed, it can be used for several loadings.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public class ParallelLoader
+{
+	private final ExecutorService myExecutor;
+
+	private final P3 myProgram;
+
+	/**
+	 * Create a loader using the common fork-join pool.
+	 * 
+	 * @param program
+	 *            the configured P3.
+	 */
+	public ParallelLoader(P3 program)
+	{
+		this(program, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Create a loader.
+	 * 
+	 * @param program
+	 *            the configured P3.
+	 * @param executor
+	 *            the executor running the processing of each source, it is not shut down by the loader.
+	 */
+	public ParallelLoader(P3 program, ExecutorService executor)
+	{
+		myProgram = program;
+		myExecutor = executor;
+	}
+
+	/**
+	 * Process every source, and combine the results.
+	 * 
+	 * @param sources
+	 *            the sources of properties.
+	 * @param feeder
+	 *            the parser of the sources.
+	 * @return a fork of the configured P3, with the merged results.
+	 * @throws ExecutionException
+	 *             when a source cannot be processed, the failure of the first source in order is reported and the processing of the
+	 *             remaining sources is cancelled.
+	 * @throws InterruptedException
+	 *             when interrupted while waiting for the processing of the sources.
+	 */
+	public <S> P3 load(List<? extends S> sources, final PropertiesFeeder<? super S> feeder) throws ExecutionException,
+			InterruptedException
+	{
+		List<Future<P3>> _forks = new ArrayList<Future<P3>>(sources.size());
+		try
+		{
+			for (final S _source : sources)
+			{
+				_forks.add(getExecutor().submit(() -> {
+					P3 _fork = getProgram().fork();
+					_fork.onStartOfInput();
+					feeder.feed(_source, _fork);
+					_fork.onEndOfInput();
+					return _fork;
+				}));
+			}
+			P3 _result = fork();
+			for (Future<P3> _fork : _forks)
+			{
+				merge(_result, _fork.get());
+			}
+			return _result;
+		}
+		finally
+		{
+			for (Future<P3> _fork : _forks)
+			{
+				_fork.cancel(true);
+			}
+		}
+	}
+
+	private P3 fork() throws ExecutionException
+	{
+		try
+		{
+			return getProgram().fork();
+		}
+		catch (ReflectiveOperationException _exception)
+		{
+			throw new ExecutionException(_exception);
+		}
+	}
+
+	private ExecutorService getExecutor()
+	{
+		return myExecutor;
+	}
+
+	private P3 getProgram()
+	{
+		return myProgram;
+	}
+
+	/**
+	 * Merge the objects of a fork into the result.
+	 * 
+	 * @param target
+	 *            the result.
+	 * @param fork
+	 *            the fork of a source.
+	 */
+	@SuppressWarnings(
+	{
+			"unchecked", "rawtypes"
+	})
+	private void merge(P3 target, P3 fork)
+	{
+		for (String _identifier : new TreeSet<String>(target.keySet()))
+		{
+			// an object that the fork did not need is not created just to be merged
+			Object _other = fork.getIfCreated(_identifier);
+			if (null == _other)
+			{
+				continue;
+			}
+			Object _holder = target.get(_identifier);
+			if (_holder instanceof MergeableProcessorHolder && _holder.getClass() == _other.getClass())
+			{
+				((MergeableProcessorHolder) _holder).merge((MergeableProcessorHolder) _other);
+			}
+		}
+	}
+}
@@ -0,0 +1,123 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Factory of the objects defined by the directives, using their constructor without parameters.
+ * 
+ * <p>
+ * The constructor of each class is looked up once, and kept as a method handle for the next instances (e.g. for each fork of a P3),
+ * instead of being looked up by each call of <code>Class.newInstance()</code>.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+final class ProcessorHolderFactory
+{
+	/**
+	 * For each class, the handle of its constructor, or the failure of the lookup.
+	 */
+	private static final ClassValue<Object> CONSTRUCTORS = new ClassValue<Object>()
+	{
+		@Override
+		protected Object computeValue(Class<?> type)
+		{
+			try
+			{
+				return LOOKUP.findConstructor(type, TYPE__CONSTRUCTOR).asType(TYPE__FACTORY);
+			}
+			catch (ReflectiveOperationException _exception)
+			{
+				return _exception;
+			}
+		}
+	};
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+	private static final MethodType TYPE__CONSTRUCTOR = MethodType.methodType(void.class);
+
+	private static final MethodType TYPE__FACTORY = MethodType.methodType(Object.class);
+
+	private ProcessorHolderFactory()
+	{
+		// static methods only
+	}
+
+	/**
+	 * Check that objects of a class can be created.
+	 * 
+	 * @param type
+	 *            the class.
+	 * @throws ReflectiveOperationException
+	 *             when the class has no accessible constructor without parameters.
+	 */
+	public static void checkConstructor(Class<?> type) throws ReflectiveOperationException
+	{
+		getConstructor(type);
+	}
+
+	/**
+	 * Create an object.
+	 * 
+	 * @param type
+	 *            the class of the object.
+	 * @return the new object.
+	 * @throws ReflectiveOperationException
+	 *             when the class has no accessible constructor without parameters, or when the constructor fails (then it is an
+	 *             {@link InvocationTargetException}).
+	 */
+	public static Object newInstance(Class<?> type) throws ReflectiveOperationException
+	{
+		MethodHandle _constructor = getConstructor(type);
+		try
+		{
+			return (Object) _constructor.invokeExact();
+		}
+		catch (Throwable _exception)
+		{
+			throw new InvocationTargetException(_exception);
+		}
+	}
+
+	private static MethodHandle getConstructor(Class<?> type) throws ReflectiveOperationException
+	{
+		Object _result = CONSTRUCTORS.get(type);
+		if (_result instanceof ReflectiveOperationException)
+		{
+			throw (ReflectiveOperationException) _result;
+		}
+		return (MethodHandle) _result;
+	}
+}
@@ -0,0 +1,55 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+/**
+ * Direct invocation of a processor method, created once by {@link ProcessorInvokerFactory} when the directives are executed.
+ * 
+ * <p>
+ * The processor holder is given at each invocation, so that the same invoker can be shared by several holders of the same class.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+interface ProcessorInvoker
+{
+	/**
+	 * Call the processor.
+	 * 
+	 * @param processorHolder
+	 *            the object owning the processor.
+	 * @param name
+	 *            property name.
+	 * @param value
+	 *            property value, a <code>String</code> or a <code>String[]</code> depending on the processor.
+	 * @throws Throwable
+	 *             anything thrown by the processor, as is.
+	 */
+	void process(Object processorHolder, String name, Object value) throws Throwable;
+}
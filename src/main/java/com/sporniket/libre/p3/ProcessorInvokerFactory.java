@@ -0,0 +1,138 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Create {@link ProcessorInvoker} for processor methods.
+ * 
+ * <p>
+ * The preferred invoker is generated by {@link LambdaMetafactory}, so that the call is as direct as a hand written lambda ; when it
+ * is not possible (e.g. the processor class is not visible from the class loader of P3, or the method is static), the invoker
+ * uses a {@link MethodHandle}. When the processor method is not accessible to P3, there is no invoker and the caller is expected to
+ * keep using {@link Method#invoke(Object, Object...)}.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+final class ProcessorInvokerFactory
+{
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+	private static final String METHOD_NAME__PROCESS = "process";
+
+	private static final MethodType TYPE__FACTORY = MethodType.methodType(ProcessorInvoker.class);
+
+	private static final MethodType TYPE__PROCESS = MethodType.methodType(void.class, Object.class, String.class, Object.class);
+
+	/**
+	 * Create an invoker.
+	 * 
+	 * @param processor
+	 *            the processor method, accepting a <code>String</code> and a <code>String</code> or <code>String[]</code>.
+	 * @return the invoker, or <code>null</code> if the method is not accessible.
+	 */
+	public static ProcessorInvoker create(Method processor)
+	{
+		MethodHandle _handle;
+		try
+		{
+			_handle = LOOKUP.unreflect(processor);
+		}
+		catch (IllegalAccessException _exception)
+		{
+			return null;
+		}
+
+		if (Modifier.isStatic(processor.getModifiers()))
+		{
+			// the processor holder is ignored
+			return createFromHandle(MethodHandles.dropArguments(_handle, 0, Object.class));
+		}
+
+		if (isVisible(processor.getDeclaringClass()) && isVisible(processor.getReturnType()))
+		{
+			try
+			{
+				MethodType _instantiatedType = MethodType.methodType(void.class, processor.getDeclaringClass(),
+						processor.getParameterTypes());
+				return (ProcessorInvoker) LambdaMetafactory.metafactory(LOOKUP, METHOD_NAME__PROCESS, TYPE__FACTORY, TYPE__PROCESS,
+						_handle, _instantiatedType).getTarget().invoke();
+			}
+			catch (Throwable _exception)
+			{
+				// fall back to the method handle
+			}
+		}
+		return createFromHandle(_handle);
+	}
+
+	private static ProcessorInvoker createFromHandle(MethodHandle handle)
+	{
+		final MethodHandle _handle = handle.asType(TYPE__PROCESS);
+		return (processorHolder, name, value) -> {
+			_handle.invokeExact(processorHolder, name, value);
+		};
+	}
+
+	/**
+	 * Tells whether the given type can be referenced from the generated code, that lives in the class loader of P3.
+	 */
+	private static boolean isVisible(Class<?> type)
+	{
+		Class<?> _type = type;
+		while (_type.isArray())
+		{
+			_type = _type.getComponentType();
+		}
+		if (_type.isPrimitive())
+		{
+			return true;
+		}
+		try
+		{
+			return _type == Class.forName(_type.getName(), false, ProcessorInvokerFactory.class.getClassLoader());
+		}
+		catch (ClassNotFoundException _exception)
+		{
+			return false;
+		}
+	}
+
+	private ProcessorInvokerFactory()
+	{
+		// utility class
+	}
+}
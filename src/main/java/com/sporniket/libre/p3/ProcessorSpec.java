@@ -0,0 +1,297 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * A <em>processor</em> is an object's method accepting the property name and the property value (a <code>String</code> or a
+ * <code>String[]</code>) .
+ * 
+ * The object owning the method is the processor holder.
+ * 
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties
+ * Processor</i>. If not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 5
+ * @since 1
+ */
+class ProcessorSpec
+{
+	/**
+	 * Pending properties of a batch processor, <code>null</code> for a processor of a single property.
+	 */
+	private final PropertyBatchBuffer myBatch;
+
+	/**
+	 * Direct invoker of the processor, <code>null</code> when the processor is not accessible, then reflection is used.
+	 */
+	private final ProcessorInvoker myInvoker;
+
+	public final Method myProcessor;
+
+	/**
+	 * The object owning the processor, or a {@link LazyProcessorHolder} of it.
+	 */
+	public final Object myProcessorHolder;
+
+	/**
+	 * <code>true</code> when the processor can be called by several threads at the same time.
+	 */
+	private final boolean myThreadSafe;
+
+	/**
+	 * Create a processor specification, the processor is thread safe when the holder is a {@link ThreadSafeProcessorHolder}.
+	 * 
+	 * @param processorHolder
+	 *            the object owning the processor.
+	 * @param processor
+	 *            the processor.
+	 * @param invoker
+	 *            the direct invoker, <code>null</code> to use reflection.
+	 */
+	public ProcessorSpec(Object processorHolder, Method processor, ProcessorInvoker invoker)
+	{
+		this(processorHolder, processor, invoker, ThreadSafeProcessorHolder.class.isAssignableFrom(LazyProcessorHolder
+				.getTypeOf(processorHolder)));
+	}
+
+	/**
+	 * Create a processor specification.
+	 * 
+	 * @param processorHolder
+	 *            the object owning the processor.
+	 * @param processor
+	 *            the processor.
+	 * @param invoker
+	 *            the direct invoker, <code>null</code> to use reflection.
+	 * @param threadSafe
+	 *            <code>true</code> when the processor can be called by several threads at the same time.
+	 */
+	public ProcessorSpec(Object processorHolder, Method processor, ProcessorInvoker invoker, boolean threadSafe)
+	{
+		this(processorHolder, processor, invoker, threadSafe, false);
+	}
+
+	/**
+	 * Create a processor specification.
+	 * 
+	 * @param processorHolder
+	 *            the object owning the processor.
+	 * @param processor
+	 *            the processor.
+	 * @param invoker
+	 *            the direct invoker, <code>null</code> to use reflection.
+	 * @param threadSafe
+	 *            <code>true</code> when the processor can be called by several threads at the same time.
+	 * @param batch
+	 *            <code>true</code> when the processor accepts a {@link PropertyBatch}, then there is no invoker.
+	 */
+	public ProcessorSpec(Object processorHolder, Method processor, ProcessorInvoker invoker, boolean threadSafe, boolean batch)
+	{
+		myProcessorHolder = processorHolder;
+		myProcessor = processor;
+		myInvoker = batch ? null : invoker;
+		myThreadSafe = threadSafe;
+		myBatch = batch ? new PropertyBatchBuffer() : null;
+	}
+
+	/**
+	 * Append a property to the pending batch of a batch processor, the batch is delivered when it is full.
+	 * 
+	 * @param name
+	 *            property name.
+	 * @param value
+	 *            property value.
+	 * @param batchSize
+	 *            the size of a full batch.
+	 */
+	public void addToBatch(String name, Object value, int batchSize)
+	{
+		synchronized (getBatch())
+		{
+			getBatch().add(name, value);
+			if (getBatch().size() >= batchSize)
+			{
+				flushBatch();
+			}
+		}
+	}
+
+	/**
+	 * Deliver the pending batch of a batch processor, if not empty.
+	 */
+	public void flushBatch()
+	{
+		synchronized (getBatch())
+		{
+			if (0 == getBatch().size())
+			{
+				return;
+			}
+			try
+			{
+				getProcessor().invoke(getProcessorHolder(), getBatch());
+			}
+			catch (IllegalAccessException _exception)
+			{
+				throw new RuntimeException(_exception);
+			}
+			catch (InvocationTargetException _exception)
+			{
+				throw new RuntimeException(_exception);
+			}
+			finally
+			{
+				getBatch().clear();
+			}
+		}
+	}
+
+	public ProcessorInvoker getInvoker()
+	{
+		return myInvoker;
+	}
+
+	public Method getProcessor()
+	{
+		return myProcessor;
+	}
+
+	/**
+	 * @return the object owning the processor, created if needed.
+	 */
+	public Object getProcessorHolder()
+	{
+		return LazyProcessorHolder.resolve(myProcessorHolder);
+	}
+
+	/**
+	 * @return the object owning the processor, or its {@link LazyProcessorHolder} when not created eagerly ; nothing is created.
+	 */
+	public Object getProcessorHolderBinding()
+	{
+		return myProcessorHolder;
+	}
+
+	/**
+	 * @return <code>true</code> when the processor accepts a {@link PropertyBatch}.
+	 */
+	public boolean isBatch()
+	{
+		return null != getBatch();
+	}
+
+	public boolean isThreadSafe()
+	{
+		return myThreadSafe;
+	}
+
+	/**
+	 * Call the processor on a single line property.
+	 * 
+	 * @param name
+	 *            value name.
+	 * @param value
+	 *            value.
+	 */
+	public void process(String name, String value)
+	{
+		process(name, (Object) value);
+	}
+
+	/**
+	 * Call the processor on a multiple line property.
+	 * 
+	 * @param name
+	 *            value name.
+	 * @param value
+	 *            value.
+	 */
+	public void process(String name, String[] value)
+	{
+		process(name, (Object) value);
+	}
+
+	/**
+	 * Create the same processor specification for another holder of the same class.
+	 * 
+	 * @param processorHolder
+	 *            the other holder.
+	 * @return the processor specification.
+	 */
+	public ProcessorSpec withProcessorHolder(Object processorHolder)
+	{
+		return new ProcessorSpec(processorHolder, getProcessor(), getInvoker(), isThreadSafe(), isBatch());
+	}
+
+	/**
+	 * Call the processor, failures are reported the same way whatever the invocation mean.
+	 * 
+	 * @param name
+	 *            value name.
+	 * @param value
+	 *            value, a <code>String</code> or a <code>String[]</code> depending on the processor.
+	 */
+	void process(String name, Object value)
+	{
+		if (null != getInvoker())
+		{
+			try
+			{
+				getInvoker().process(getProcessorHolder(), name, value);
+			}
+			catch (Throwable _exception)
+			{
+				throw new RuntimeException(new InvocationTargetException(_exception));
+			}
+			return;
+		}
+		try
+		{
+			getProcessor().invoke(getProcessorHolder(), name, value);
+		}
+		catch (IllegalAccessException _exception)
+		{
+			throw new RuntimeException(_exception);
+		}
+		catch (IllegalArgumentException _exception)
+		{
+			throw new RuntimeException(_exception);
+		}
+		catch (InvocationTargetException _exception)
+		{
+			throw new RuntimeException(_exception);
+		}
+	}
+
+	private PropertyBatchBuffer getBatch()
+	{
+		return myBatch;
+	}
+}
@@ -0,0 +1,54 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import com.sporniket.libre.io.parser.properties.PropertiesParsingListener;
+
+/**
+ * Parser of a source of properties (e.g. a file), that sends the parsed properties to a listener.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @param <S>
+ *            the type of source.
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public interface PropertiesFeeder<S>
+{
+	/**
+	 * Parse a source, calling the listener for each property.
+	 * 
+	 * @param source
+	 *            the source of properties.
+	 * @param listener
+	 *            the listener, e.g. a {@link P3}.
+	 * @throws Exception
+	 *             when there is a problem.
+	 */
+	void feed(S source, PropertiesParsingListener listener) throws Exception;
+}
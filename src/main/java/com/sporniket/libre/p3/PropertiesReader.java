@@ -0,0 +1,741 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.sporniket.libre.io.parser.properties.MultipleLinePropertyParsedEvent;
+import com.sporniket.libre.io.parser.properties.PropertiesParsingListener;
+import com.sporniket.libre.io.parser.properties.SingleLinePropertyParsedEvent;
+
+/**
+ * Reader of properties files through a {@link FileChannel}, the large files are memory mapped ; when the listener is a {@link P3},
+ * the names and values are dispatched directly, without creating events ; and the names are matched against the rules before
+ * creating any string, an ignored property is skipped without allocation.
+ * 
+ * <p>
+ * The syntax is the one of <code>java.util.Properties</code> : comment lines starting with <code>#</code> or <code>!</code>, name
+ * and value separated by <code>=</code>, <code>:</code> or whitespaces, lines continued by a trailing <code>\</code>, escaped
+ * characters (<code>\t</code>, <code>\n</code>, <code>\r</code>, <code>\f</code>, <code>&#92;uXXXX</code>). A multiple line property
+ * is written as a here document, the value is the sequence of lines until the end marker, taken as is :
+ * 
+ * <pre>
+ * __DIRECTIVES__=&lt;&lt;&lt;END
+ * define foo as new com.foo.Foo
+ * END
+ * </pre>
+ * 
+ * <p>
+ * ISO-8859-1 and UTF-8 are decoded on the fly, other charsets are decoded at once before reading. A reader is <strong>not</strong>
+ * thread safe, each thread is expected to use its own reader.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public class PropertiesReader
+{
+	/**
+	 * Reusable view over a part of a character array.
+	 */
+	private static class CharArrayView implements CharSequence
+	{
+		private char[] myArray;
+
+		private int myLength;
+
+		private int myOffset;
+
+		@Override
+		public char charAt(int index)
+		{
+			return myArray[myOffset + index];
+		}
+
+		@Override
+		public int length()
+		{
+			return myLength;
+		}
+
+		/**
+		 * Change the viewed part.
+		 * 
+		 * @param array
+		 *            the array.
+		 * @param offset
+		 *            start of the part.
+		 * @param length
+		 *            length of the part.
+		 * @return this view.
+		 */
+		public CharArrayView reset(char[] array, int offset, int length)
+		{
+			myArray = array;
+			myOffset = offset;
+			myLength = length;
+			return this;
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end)
+		{
+			return new String(myArray, myOffset + start, end - start);
+		}
+
+		@Override
+		public String toString()
+		{
+			return new String(myArray, myOffset, myLength);
+		}
+	}
+
+	/**
+	 * Way of decoding the input.
+	 */
+	private static enum Decoding
+	{
+		GENERIC,
+		ISO_8859_1,
+		UTF_8
+	}
+
+	/**
+	 * Default size from which a file is memory mapped instead of being read into the heap.
+	 */
+	public static final int DEFAULT_MAPPING_THRESHOLD = 1 << 20;
+
+	private static final int END_OF_INPUT = -1;
+
+	private static final String HERE_DOCUMENT_START = "<<<";
+
+	private static final int INITIAL_LINE_CAPACITY = 256;
+
+	private static final int NO_PENDING_CHAR = -1;
+
+	private final Charset myCharset;
+
+	private CharBuffer myDecodedInput;
+
+	private final Decoding myDecoding;
+
+	private ByteBuffer myInput;
+
+	private char[] myLine = new char[INITIAL_LINE_CAPACITY];
+
+	private int myLineLength;
+
+	private final List<String> myLines = new ArrayList<String>();
+
+	private final PropertiesParsingListener myListener;
+
+	private int myMappingThreshold = DEFAULT_MAPPING_THRESHOLD;
+
+	/**
+	 * Rule of a {@link P3} matching the current property, found by {@link #isDispatched(CharSequence, boolean)}, so that the
+	 * property is not matched again when dispatched.
+	 */
+	private RuleSpec myMatchingRule;
+
+	private int myPendingChar = NO_PENDING_CHAR;
+
+	/**
+	 * Set to <code>true</code> when the last physical line has been ended by a carriage return.
+	 */
+	private boolean mySkippingLineFeed;
+
+	private char[] myToken = new char[INITIAL_LINE_CAPACITY];
+
+	private final CharArrayView myView = new CharArrayView();
+
+	/**
+	 * Create a reader of ISO-8859-1 files, the encoding of <code>java.util.Properties</code>.
+	 * 
+	 * @param listener
+	 *            the listener of the properties, typically a {@link P3}.
+	 */
+	public PropertiesReader(PropertiesParsingListener listener)
+	{
+		this(listener, StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * Create a reader.
+	 * 
+	 * @param listener
+	 *            the listener of the properties, typically a {@link P3}.
+	 * @param charset
+	 *            the encoding of the files.
+	 */
+	public PropertiesReader(PropertiesParsingListener listener, Charset charset)
+	{
+		myListener = listener;
+		myCharset = charset;
+		myDecoding = StandardCharsets.ISO_8859_1.equals(charset) ? Decoding.ISO_8859_1
+				: StandardCharsets.UTF_8.equals(charset) ? Decoding.UTF_8 : Decoding.GENERIC;
+	}
+
+	/**
+	 * Get a feeder of a {@link ParallelLoader} reading files.
+	 * 
+	 * @param charset
+	 *            the encoding of the files.
+	 * @return the feeder.
+	 */
+	public static PropertiesFeeder<Path> feeder(final Charset charset)
+	{
+		return (source, listener) -> new PropertiesReader(listener, charset).read(source);
+	}
+
+	public Charset getCharset()
+	{
+		return myCharset;
+	}
+
+	public PropertiesParsingListener getListener()
+	{
+		return myListener;
+	}
+
+	public int getMappingThreshold()
+	{
+		return myMappingThreshold;
+	}
+
+	/**
+	 * Read the properties of a buffer, from its position to its limit ; the position of the buffer is not changed.
+	 * 
+	 * @param input
+	 *            the content of a properties file.
+	 * @throws CharacterCodingException
+	 *             when the input cannot be decoded.
+	 */
+	public void read(ByteBuffer input) throws CharacterCodingException
+	{
+		myInput = input.duplicate();
+		myPendingChar = NO_PENDING_CHAR;
+		mySkippingLineFeed = false;
+		try
+		{
+			if (Decoding.GENERIC == myDecoding)
+			{
+				myDecodedInput = getCharset().newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+						.onUnmappableCharacter(CodingErrorAction.REPLACE).decode(myInput);
+			}
+			else if (Decoding.UTF_8 == myDecoding)
+			{
+				read__skipByteOrderMark();
+			}
+			read__properties();
+		}
+		finally
+		{
+			myInput = null;
+			myDecodedInput = null;
+			myLines.clear();
+			myMatchingRule = null;
+		}
+	}
+
+	/**
+	 * Read the properties of a file, that is memory mapped from {@link #getMappingThreshold()}.
+	 * 
+	 * @param file
+	 *            the properties file.
+	 * @throws IOException
+	 *             when the file cannot be read.
+	 */
+	public void read(Path file) throws IOException
+	{
+		try (FileChannel _channel = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			long _size = _channel.size();
+			if (_size > Integer.MAX_VALUE)
+			{
+				throw new IOException("File too large : " + file);
+			}
+			ByteBuffer _input;
+			if (_size >= getMappingThreshold())
+			{
+				_input = _channel.map(MapMode.READ_ONLY, 0, _size);
+			}
+			else
+			{
+				_input = ByteBuffer.allocate((int) _size);
+				while (_input.hasRemaining() && _channel.read(_input) >= 0)
+				{
+					// read until the end of the file
+				}
+				_input.flip();
+			}
+			read(_input);
+		}
+	}
+
+	/**
+	 * Set the size from which a file is memory mapped instead of being read into the heap.
+	 * 
+	 * @param mappingThreshold
+	 *            the size in bytes.
+	 * @see #DEFAULT_MAPPING_THRESHOLD
+	 */
+	public void setMappingThreshold(int mappingThreshold)
+	{
+		if (mappingThreshold < 0)
+		{
+			throw new IllegalArgumentException("mappingThreshold must be positive or zero : " + mappingThreshold);
+		}
+		myMappingThreshold = mappingThreshold;
+	}
+
+	private void appendToLine(char value)
+	{
+		if (myLineLength == myLine.length)
+		{
+			char[] _line = new char[myLine.length * 2];
+			System.arraycopy(myLine, 0, _line, 0, myLineLength);
+			myLine = _line;
+		}
+		myLine[myLineLength++] = value;
+	}
+
+	private void dispatch(String name, String value)
+	{
+		if (getListener() instanceof P3)
+		{
+			((P3) getListener()).dispatchMatchedProperty(myMatchingRule, false, name, value);
+		}
+		else
+		{
+			getListener().onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent(name, value));
+		}
+	}
+
+	private void dispatch(String name, String[] value)
+	{
+		if (getListener() instanceof P3)
+		{
+			((P3) getListener()).dispatchMatchedProperty(myMatchingRule, true, name, value);
+		}
+		else
+		{
+			getListener().onMultipleLinePropertyParsed(new MultipleLinePropertyParsedEvent(name, value));
+		}
+	}
+
+	/**
+	 * @return <code>true</code> when the current line ends with an odd count of backslashes.
+	 */
+	private boolean isContinued()
+	{
+		int _count = 0;
+		for (int _i = myLineLength - 1; _i >= 0 && '\\' == myLine[_i]; _i--)
+		{
+			_count++;
+		}
+		return 1 == (_count & 1);
+	}
+
+	/**
+	 * Tells whether a property would be processed, the properties that no rule of a {@link P3} match are skipped ; the matching rule
+	 * is kept for the dispatch.
+	 * 
+	 * @param name
+	 *            property name.
+	 * @param multipleLine
+	 *            <code>true</code> for a multiple line property.
+	 * @return <code>false</code> when the property can be skipped.
+	 */
+	private boolean isDispatched(CharSequence name, boolean multipleLine)
+	{
+		if (!(getListener() instanceof P3))
+		{
+			return true;
+		}
+		P3 _program = (P3) getListener();
+		myMatchingRule = multipleLine ? _program.findMatchingRuleForMultipleLineProperty(name) : _program
+				.findMatchingRuleForSingleLineProperty(name);
+		if (null == myMatchingRule)
+		{
+			_program.recordProperty(multipleLine, null);
+			return false;
+		}
+		return true;
+	}
+
+	private boolean isHereDocumentStart(int from)
+	{
+		return myLineLength - from >= HERE_DOCUMENT_START.length() && '<' == myLine[from] && '<' == myLine[from + 1]
+				&& '<' == myLine[from + 2];
+	}
+
+	/**
+	 * @return <code>true</code> when the current line, without the surrounding whitespaces, is the given marker.
+	 */
+	private boolean isLine(String marker)
+	{
+		int _from = skipWhitespaces(0);
+		int _to = myLineLength;
+		while (_to > _from && isWhitespace(myLine[_to - 1]))
+		{
+			_to--;
+		}
+		if (_to - _from != marker.length())
+		{
+			return false;
+		}
+		for (int _i = _from; _i < _to; _i++)
+		{
+			if (myLine[_i] != marker.charAt(_i - _from))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean isSeparator(char value)
+	{
+		return '=' == value || ':' == value;
+	}
+
+	private boolean isWhitespace(char value)
+	{
+		return ' ' == value || '\t' == value || '\f' == value;
+	}
+
+	/**
+	 * Read the next character of the input.
+	 * 
+	 * @return the character, or {@link #END_OF_INPUT}.
+	 */
+	private int readChar()
+	{
+		switch (myDecoding)
+		{
+			case ISO_8859_1:
+				return myInput.hasRemaining() ? myInput.get() & 0xFF : END_OF_INPUT;
+			case UTF_8:
+				return readChar__utf8();
+			default:
+				return myDecodedInput.hasRemaining() ? myDecodedInput.get() : END_OF_INPUT;
+		}
+	}
+
+	/**
+	 * Decode the next character of an UTF-8 input, a malformed sequence is replaced by <code>U+FFFD</code> ; like the decoder of the
+	 * JDK, the overlong sequences, the encoded surrogates and the code points above <code>U+10FFFF</code> are malformed.
+	 * 
+	 * @return the character, or {@link #END_OF_INPUT}.
+	 */
+	private int readChar__utf8()
+	{
+		if (NO_PENDING_CHAR != myPendingChar)
+		{
+			int _result = myPendingChar;
+			myPendingChar = NO_PENDING_CHAR;
+			return _result;
+		}
+		if (!myInput.hasRemaining())
+		{
+			return END_OF_INPUT;
+		}
+		int _byte = myInput.get();
+		if (_byte >= 0)
+		{
+			return _byte;
+		}
+		int _codePoint;
+		int _following;
+		int _minimum;
+		if (0xC0 == (_byte & 0xE0))
+		{
+			_codePoint = _byte & 0x1F;
+			_following = 1;
+			_minimum = 0x80;
+		}
+		else if (0xE0 == (_byte & 0xF0))
+		{
+			_codePoint = _byte & 0x0F;
+			_following = 2;
+			_minimum = 0x800;
+		}
+		else if (0xF0 == (_byte & 0xF8))
+		{
+			_codePoint = _byte & 0x07;
+			_following = 3;
+			_minimum = Character.MIN_SUPPLEMENTARY_CODE_POINT;
+		}
+		else
+		{
+			return 0xFFFD;
+		}
+		for (int _i = 0; _i < _following; _i++)
+		{
+			if (!myInput.hasRemaining() || 0x80 != (myInput.get(myInput.position()) & 0xC0))
+			{
+				return 0xFFFD;
+			}
+			_codePoint = (_codePoint << 6) | (myInput.get() & 0x3F);
+		}
+		if (_codePoint < _minimum || (_codePoint >= Character.MIN_SURROGATE && _codePoint <= Character.MAX_SURROGATE)
+				|| _codePoint > Character.MAX_CODE_POINT)
+		{
+			return 0xFFFD;
+		}
+		if (Character.isSupplementaryCodePoint(_codePoint))
+		{
+			myPendingChar = Character.lowSurrogate(_codePoint);
+			return Character.highSurrogate(_codePoint);
+		}
+		return _codePoint;
+	}
+
+	/**
+	 * Read a physical line, without its terminator (<code>\n</code>, <code>\r</code> or <code>\r\n</code>).
+	 * 
+	 * @param appending
+	 *            <code>true</code> to append the line to the current line.
+	 * @return <code>false</code> at the end of the input.
+	 */
+	private boolean readLine(boolean appending)
+	{
+		if (!appending)
+		{
+			myLineLength = 0;
+		}
+		int _char = readChar();
+		if (mySkippingLineFeed && '\n' == _char)
+		{
+			_char = readChar();
+		}
+		mySkippingLineFeed = false;
+		if (END_OF_INPUT == _char)
+		{
+			return false;
+		}
+		while (END_OF_INPUT != _char && '\n' != _char && '\r' != _char)
+		{
+			appendToLine((char) _char);
+			_char = readChar();
+		}
+		mySkippingLineFeed = '\r' == _char;
+		return true;
+	}
+
+	private void read__properties()
+	{
+		while (readLine(false))
+		{
+			int _start = skipWhitespaces(0);
+			if (_start == myLineLength || '#' == myLine[_start] || '!' == myLine[_start])
+			{
+				continue;
+			}
+			read__properties__joinContinuedLines();
+
+			int _position = _start;
+			while (_position < myLineLength && !isWhitespace(myLine[_position]) && !isSeparator(myLine[_position]))
+			{
+				_position += ('\\' == myLine[_position]) ? 2 : 1;
+			}
+			int _nameEnd = Math.min(_position, myLineLength);
+			_position = skipWhitespaces(_nameEnd);
+			if (_position < myLineLength && isSeparator(myLine[_position]))
+			{
+				_position = skipWhitespaces(_position + 1);
+			}
+
+			boolean _multipleLine = isHereDocumentStart(_position);
+			CharSequence _name = unescape(_start, _nameEnd);
+			boolean _dispatched = isDispatched(_name, _multipleLine);
+			if (_multipleLine)
+			{
+				int _markerStart = _position + HERE_DOCUMENT_START.length();
+				read__properties__hereDocument(_dispatched ? _name.toString() : null,
+						new String(myLine, _markerStart, myLineLength - _markerStart).trim());
+			}
+			else if (_dispatched)
+			{
+				// the view is reused by the value, the name must be extracted first
+				String _nameValue = _name.toString();
+				dispatch(_nameValue, unescape(_position, myLineLength).toString());
+			}
+		}
+	}
+
+	/**
+	 * Read the lines of a here document until the end marker or the end of the input, and dispatch them.
+	 * 
+	 * @param name
+	 *            property name, <code>null</code> to skip the property.
+	 * @param marker
+	 *            the end marker.
+	 */
+	private void read__properties__hereDocument(String name, String marker)
+	{
+		myLines.clear();
+		while (readLine(false) && !isLine(marker))
+		{
+			if (null != name)
+			{
+				myLines.add(new String(myLine, 0, myLineLength));
+			}
+		}
+		if (null != name)
+		{
+			dispatch(name, myLines.toArray(new String[myLines.size()]));
+		}
+	}
+
+	/**
+	 * Append the continuation lines to the current line, without their leading whitespaces.
+	 */
+	private void read__properties__joinContinuedLines()
+	{
+		while (isContinued())
+		{
+			int _joint = --myLineLength;
+			if (!readLine(true))
+			{
+				return;
+			}
+			int _first = skipWhitespaces(_joint);
+			System.arraycopy(myLine, _first, myLine, _joint, myLineLength - _first);
+			myLineLength -= _first - _joint;
+		}
+	}
+
+	private void read__skipByteOrderMark()
+	{
+		int _position = myInput.position();
+		if (myInput.remaining() >= 3 && (byte) 0xEF == myInput.get(_position) && (byte) 0xBB == myInput.get(_position + 1)
+				&& (byte) 0xBF == myInput.get(_position + 2))
+		{
+			myInput.position(_position + 3);
+		}
+	}
+
+	private int skipWhitespaces(int from)
+	{
+		int _result = from;
+		while (_result < myLineLength && isWhitespace(myLine[_result]))
+		{
+			_result++;
+		}
+		return _result;
+	}
+
+	/**
+	 * Extract a part of the current line, replacing the escaped characters.
+	 * 
+	 * @param from
+	 *            start of the part.
+	 * @param to
+	 *            end of the part (excluded).
+	 * @return a view of the unescaped part, valid until the next call.
+	 */
+	private CharSequence unescape(int from, int to)
+	{
+		int _escape = from;
+		while (_escape < to && '\\' != myLine[_escape])
+		{
+			_escape++;
+		}
+		if (_escape == to)
+		{
+			return myView.reset(myLine, from, to - from);
+		}
+		if (myToken.length < to - from)
+		{
+			myToken = new char[myLine.length];
+		}
+		int _length = _escape - from;
+		System.arraycopy(myLine, from, myToken, 0, _length);
+		for (int _i = _escape; _i < to; _i++)
+		{
+			char _char = myLine[_i];
+			if ('\\' == _char && _i + 1 < to)
+			{
+				_char = myLine[++_i];
+				switch (_char)
+				{
+					case 'f':
+						_char = '\f';
+						break;
+					case 'n':
+						_char = '\n';
+						break;
+					case 'r':
+						_char = '\r';
+						break;
+					case 't':
+						_char = '\t';
+						break;
+					case 'u':
+						if (_i + 4 >= to)
+						{
+							throw new IllegalArgumentException("Malformed \\uXXXX encoding : " + new String(myLine, from, to - from));
+						}
+						_char = (char) unescape__parseHexadecimal(_i + 1, from, to);
+						_i += 4;
+						break;
+				}
+			}
+			myToken[_length++] = _char;
+		}
+		return myView.reset(myToken, 0, _length);
+	}
+
+	private int unescape__parseHexadecimal(int start, int from, int to)
+	{
+		int _result = 0;
+		for (int _i = start; _i < start + 4; _i++)
+		{
+			int _digit = Character.digit(myLine[_i], 16);
+			if (_digit < 0)
+			{
+				throw new IllegalArgumentException("Malformed \\uXXXX encoding : " + new String(myLine, from, to - from));
+			}
+			_result = (_result << 4) | _digit;
+		}
+		return _result;
+	}
+}
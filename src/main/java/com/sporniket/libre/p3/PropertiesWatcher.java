@@ -0,0 +1,567 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.sporniket.libre.io.parser.properties.MultipleLinePropertyParsedEvent;
+import com.sporniket.libre.io.parser.properties.PropertiesParsingListener;
+import com.sporniket.libre.io.parser.properties.SingleLinePropertyParsedEvent;
+
+/**
+ * Watcher of properties files, that feeds a configured {@link P3} with the properties that changed each time a file is saved.
+ * 
+ * <p>
+ * For each watched file, the watcher keeps the fingerprint of the last dispatched state, that is the hash of the value of each
+ * property. When the file changes, it is parsed again, but only the properties that were added or whose value changed are dispatched
+ * to the P3 ; the properties that were removed are reported to the {@link RemovalListener}, if any. Thus the cost of the processing
+ * of a reload depends on the size of the changes, not on the size of the file. The dispatch happens once the file is parsed, and
+ * only the last occurrence of a property defined several times is dispatched, thus the last value wins as with a full load.
+ * 
+ * <p>
+ * The changes are detected using a {@link WatchService} on the directory of each file, and are debounced : a file is reloaded once no
+ * change has been notified for {@link #getDebounceDelay()} milliseconds, thus a file written in several steps is reloaded once. A
+ * missing file (e.g. replaced by an editor) is ignored until it is created again.
+ * 
+ * <p>
+ * The reloads happen in the thread of the watcher, one at a time ; the P3 must not be used by other threads meanwhile. A failed
+ * reload keeps the previous fingerprint, and is reported by {@link #takeFailure()}.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public class PropertiesWatcher implements AutoCloseable
+{
+	/**
+	 * Callback of the properties removed from a watched file.
+	 */
+	public static interface RemovalListener
+	{
+		/**
+		 * Called for each property that has been removed from a file, after the changed properties have been dispatched.
+		 * 
+		 * @param file
+		 *            the watched file.
+		 * @param name
+		 *            the name of the removed property.
+		 */
+		void onPropertyRemoved(Path file, String name);
+	}
+
+	/**
+	 * Listener of the parsing of a reloaded file, that keeps the last value of each property ; once the file is parsed, the changed
+	 * properties are dispatched and the new fingerprint is built.
+	 */
+	private final class Reloading implements PropertiesParsingListener
+	{
+		private int myChangedCount;
+
+		private final Map<String, Long> myFingerprint = new HashMap<String, Long>();
+
+		/**
+		 * Last value of each property, a <code>String</code> or a <code>String[]</code>, in the order of the last occurrences.
+		 */
+		private final Map<String, Object> myLastValues = new LinkedHashMap<String, Object>();
+
+		private final Map<String, Long> myPreviousFingerprint;
+
+		Reloading(Map<String, Long> previousFingerprint)
+		{
+			myPreviousFingerprint = previousFingerprint;
+		}
+
+		@Override
+		public void onMultipleLinePropertyParsed(MultipleLinePropertyParsedEvent event)
+		{
+			setLastValue(event.getName(), event.getValue());
+		}
+
+		@Override
+		public void onSingleLinePropertyParsed(SingleLinePropertyParsedEvent event)
+		{
+			setLastValue(event.getName(), event.getValue());
+		}
+
+		/**
+		 * Dispatch the last value of each property that is new or whose value changed, the previous occurrences being overridden.
+		 */
+		void dispatchChangedProperties()
+		{
+			for (Map.Entry<String, Object> _property : getLastValues().entrySet())
+			{
+				String _name = _property.getKey();
+				Object _value = _property.getValue();
+				Long _hash = Long.valueOf((_value instanceof String[]) ? hash((String[]) _value) : hash((String) _value));
+				getFingerprint().put(_name, _hash);
+				if (_hash.equals(getPreviousFingerprint().get(_name)))
+				{
+					continue;
+				}
+				myChangedCount++;
+				if (_value instanceof String[])
+				{
+					getProgram().dispatchMultipleLineProperty(_name, (String[]) _value);
+				}
+				else
+				{
+					getProgram().dispatchSingleLineProperty(_name, (String) _value);
+				}
+			}
+		}
+
+		int getChangedCount()
+		{
+			return myChangedCount;
+		}
+
+		Map<String, Long> getFingerprint()
+		{
+			return myFingerprint;
+		}
+
+		Map<String, Long> getPreviousFingerprint()
+		{
+			return myPreviousFingerprint;
+		}
+
+		private Map<String, Object> getLastValues()
+		{
+			return myLastValues;
+		}
+
+		private void setLastValue(String name, Object value)
+		{
+			// a later occurrence moves the property at the end, like a full load would leave it
+			getLastValues().remove(name);
+			getLastValues().put(name, value);
+		}
+	}
+
+	/**
+	 * Default delay without change before reloading a file, in milliseconds.
+	 */
+	public static final long DEFAULT_DEBOUNCE_DELAY = 100;
+
+	/**
+	 * Mixed between the lines of a multiple line value, that is not a character.
+	 */
+	private static final int HASH__LINE_SEPARATOR = 0x10000;
+
+	/**
+	 * Mixed before the lines of a multiple line value, that is not a character, thus an empty here document differs from an empty
+	 * value.
+	 */
+	private static final int HASH__MULTIPLE_LINE = 0x10001;
+
+	private static final long HASH__OFFSET_BASIS = 0xcbf29ce484222325L;
+
+	private static final long HASH__PRIME = 0x100000001b3L;
+
+	private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+	private final Charset myCharset;
+
+	private volatile long myDebounceDelay = DEFAULT_DEBOUNCE_DELAY;
+
+	/**
+	 * First failure of a reload since the last call of {@link #takeFailure()}.
+	 */
+	private final AtomicReference<Exception> myFailure = new AtomicReference<Exception>();
+
+	/**
+	 * Fingerprint of the last dispatched state of each watched file.
+	 */
+	private final Map<Path, Map<String, Long>> myFingerprints = new ConcurrentHashMap<Path, Map<String, Long>>();
+
+	private final P3 myProgram;
+
+	private volatile RemovalListener myRemovalListener;
+
+	private final Set<Path> myWatchedDirectories = new HashSet<Path>();
+
+	private final Thread myWatcher;
+
+	private final WatchService myWatchService;
+
+	/**
+	 * Create a watcher of ISO-8859-1 files, the encoding of <code>java.util.Properties</code>.
+	 * 
+	 * @param program
+	 *            the configured P3.
+	 * @throws IOException
+	 *             when the watch service cannot be created.
+	 */
+	public PropertiesWatcher(P3 program) throws IOException
+	{
+		this(program, StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * Create a watcher, with a daemon thread.
+	 * 
+	 * @param program
+	 *            the configured P3.
+	 * @param charset
+	 *            the encoding of the files.
+	 * @throws IOException
+	 *             when the watch service cannot be created.
+	 */
+	public PropertiesWatcher(P3 program, Charset charset) throws IOException
+	{
+		myProgram = program;
+		myCharset = charset;
+		myWatchService = FileSystems.getDefault().newWatchService();
+		myWatcher = new Thread(this::watch, "p3-watcher-" + THREAD_COUNT.incrementAndGet());
+		myWatcher.setDaemon(true);
+		myWatcher.start();
+	}
+
+	/**
+	 * Compute the hash of a single line value.
+	 * 
+	 * @param value
+	 *            the value.
+	 * @return the hash (64 bits FNV-1a of the characters).
+	 */
+	private static long hash(String value)
+	{
+		long _result = HASH__OFFSET_BASIS;
+		for (int _i = 0; _i < value.length(); _i++)
+		{
+			_result = (_result ^ value.charAt(_i)) * HASH__PRIME;
+		}
+		return _result;
+	}
+
+	/**
+	 * Compute the hash of a multiple line value, that differs from the hash of the single line value of the same text.
+	 * 
+	 * @param value
+	 *            the lines of the value.
+	 * @return the hash.
+	 */
+	private static long hash(String[] value)
+	{
+		long _result = (HASH__OFFSET_BASIS ^ HASH__MULTIPLE_LINE) * HASH__PRIME;
+		for (String _line : value)
+		{
+			_result = (_result ^ HASH__LINE_SEPARATOR) * HASH__PRIME;
+			for (int _i = 0; _i < _line.length(); _i++)
+			{
+				_result = (_result ^ _line.charAt(_i)) * HASH__PRIME;
+			}
+		}
+		return _result;
+	}
+
+	/**
+	 * Stop watching the files, and wait for the end of the current reload ; when interrupted meanwhile, the interrupt status is
+	 * restored and the reload may still be running.
+	 * 
+	 * @throws IOException
+	 *             when the watch service cannot be closed.
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		getWatchService().close();
+		try
+		{
+			getWatcher().join();
+		}
+		catch (InterruptedException _exception)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	public Charset getCharset()
+	{
+		return myCharset;
+	}
+
+	/**
+	 * @return the delay without change before reloading a file, in milliseconds.
+	 */
+	public long getDebounceDelay()
+	{
+		return myDebounceDelay;
+	}
+
+	public RemovalListener getRemovalListener()
+	{
+		return myRemovalListener;
+	}
+
+	/**
+	 * Parse a file, dispatch the properties that are new or whose value changed since the last reload, and report the removed
+	 * properties.
+	 * 
+	 * <p>
+	 * The first reload of a file dispatches every property. Nothing happens when the file is missing.
+	 * 
+	 * @param file
+	 *            the properties file.
+	 * @return the count of properties that were added, changed or removed.
+	 * @throws IOException
+	 *             when the file cannot be read, the previous fingerprint is then kept.
+	 */
+	public synchronized int reload(Path file) throws IOException
+	{
+		Path _file = file.toAbsolutePath().normalize();
+		if (!Files.isRegularFile(_file))
+		{
+			return 0;
+		}
+		Map<String, Long> _previousFingerprint = getFingerprints().get(_file);
+		Reloading _reloading = new Reloading((null == _previousFingerprint) ? new HashMap<String, Long>() : _previousFingerprint);
+		getProgram().onStartOfInput();
+		try
+		{
+			new PropertiesReader(_reloading, getCharset()).read(_file);
+			_reloading.dispatchChangedProperties();
+		}
+		finally
+		{
+			getProgram().onEndOfInput();
+		}
+		getFingerprints().put(_file, _reloading.getFingerprint());
+		int _result = _reloading.getChangedCount();
+		RemovalListener _removalListener = getRemovalListener();
+		for (String _name : _reloading.getPreviousFingerprint().keySet())
+		{
+			if (!_reloading.getFingerprint().containsKey(_name))
+			{
+				_result++;
+				if (null != _removalListener)
+				{
+					_removalListener.onPropertyRemoved(_file, _name);
+				}
+			}
+		}
+		return _result;
+	}
+
+	/**
+	 * Set the delay without change before reloading a file.
+	 * 
+	 * @param debounceDelay
+	 *            the delay in milliseconds.
+	 * @see #DEFAULT_DEBOUNCE_DELAY
+	 */
+	public void setDebounceDelay(long debounceDelay)
+	{
+		if (debounceDelay < 0)
+		{
+			throw new IllegalArgumentException("debounceDelay must be positive or zero : " + debounceDelay);
+		}
+		myDebounceDelay = debounceDelay;
+	}
+
+	public void setRemovalListener(RemovalListener removalListener)
+	{
+		myRemovalListener = removalListener;
+	}
+
+	/**
+	 * Get and clear the first failure of a reload done by the thread of the watcher.
+	 * 
+	 * @return the failure, or <code>null</code> if there is none.
+	 */
+	public Exception takeFailure()
+	{
+		return getFailure().getAndSet(null);
+	}
+
+	/**
+	 * Load a file, then reload it each time it changes.
+	 * 
+	 * @param file
+	 *            the properties file, it may not exist yet.
+	 * @throws IOException
+	 *             when the directory of the file cannot be watched, or when the file cannot be read ; in the latter case the file
+	 *             is watched anyway.
+	 */
+	public synchronized void watch(Path file) throws IOException
+	{
+		Path _file = file.toAbsolutePath().normalize();
+		Path _directory = _file.getParent();
+		if (!getWatchedDirectories().contains(_directory))
+		{
+			_directory.register(getWatchService(), ENTRY_CREATE, ENTRY_MODIFY);
+			getWatchedDirectories().add(_directory);
+		}
+		getFingerprints().putIfAbsent(_file, new HashMap<String, Long>());
+		reload(_file);
+	}
+
+	private AtomicReference<Exception> getFailure()
+	{
+		return myFailure;
+	}
+
+	private Map<Path, Map<String, Long>> getFingerprints()
+	{
+		return myFingerprints;
+	}
+
+	private P3 getProgram()
+	{
+		return myProgram;
+	}
+
+	private Set<Path> getWatchedDirectories()
+	{
+		return myWatchedDirectories;
+	}
+
+	private Thread getWatcher()
+	{
+		return myWatcher;
+	}
+
+	private WatchService getWatchService()
+	{
+		return myWatchService;
+	}
+
+	/**
+	 * Loop of the thread of the watcher, until the watch service is closed.
+	 */
+	private void watch()
+	{
+		// file to reload -> deadline, in the order of the first notification
+		Map<Path, Long> _pendingFiles = new LinkedHashMap<Path, Long>();
+		try
+		{
+			while (true)
+			{
+				WatchKey _key = _pendingFiles.isEmpty() ? getWatchService().take() : getWatchService().poll(
+						watch__nextDeadline(_pendingFiles) - System.nanoTime(), TimeUnit.NANOSECONDS);
+				if (null != _key)
+				{
+					watch__collectChanges(_key, _pendingFiles);
+				}
+				watch__reloadDueFiles(_pendingFiles);
+			}
+		}
+		catch (ClosedWatchServiceException | InterruptedException _exception)
+		{
+			// closed
+		}
+	}
+
+	private void watch__collectChanges(WatchKey key, Map<Path, Long> pendingFiles)
+	{
+		Path _directory = (Path) key.watchable();
+		long _deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(getDebounceDelay());
+		for (WatchEvent<?> _event : key.pollEvents())
+		{
+			if (OVERFLOW == _event.kind())
+			{
+				// some events are lost, every file of the directory may have changed
+				for (Path _file : getFingerprints().keySet())
+				{
+					if (_directory.equals(_file.getParent()))
+					{
+						watch__postpone(pendingFiles, _file, _deadline);
+					}
+				}
+				continue;
+			}
+			Path _file = _directory.resolve((Path) _event.context());
+			if (getFingerprints().containsKey(_file))
+			{
+				watch__postpone(pendingFiles, _file, _deadline);
+			}
+		}
+		key.reset();
+	}
+
+	private long watch__nextDeadline(Map<Path, Long> pendingFiles)
+	{
+		long _result = Long.MAX_VALUE;
+		for (Long _deadline : pendingFiles.values())
+		{
+			_result = Math.min(_result, _deadline.longValue());
+		}
+		return _result;
+	}
+
+	private void watch__postpone(Map<Path, Long> pendingFiles, Path file, long deadline)
+	{
+		// a pending file keeps its place, i.e. the order of the first notification
+		pendingFiles.put(file, Long.valueOf(deadline));
+	}
+
+	private void watch__reloadDueFiles(Map<Path, Long> pendingFiles)
+	{
+		long _now = System.nanoTime();
+		for (Iterator<Map.Entry<Path, Long>> _iterator = pendingFiles.entrySet().iterator(); _iterator.hasNext();)
+		{
+			Map.Entry<Path, Long> _pending = _iterator.next();
+			if (_pending.getValue().longValue() - _now > 0)
+			{
+				continue;
+			}
+			_iterator.remove();
+			try
+			{
+				reload(_pending.getKey());
+			}
+			catch (IOException | RuntimeException _exception)
+			{
+				getFailure().compareAndSet(null, _exception);
+			}
+		}
+	}
+}
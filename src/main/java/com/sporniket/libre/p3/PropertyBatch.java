@@ -0,0 +1,64 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+/**
+ * Properties matched by a rule and delivered at once to a <em>batch processor</em>, that is a method accepting a single
+ * <code>PropertyBatch</code> parameter, e.g. <code>public void storeAll(PropertyBatch&lt;String&gt; batch)</code>.
+ * 
+ * <p>
+ * The values are <code>String</code> for single line properties, and <code>String[]</code> for multiple line properties. The batch
+ * is reused by P3, it is only valid during the call of the processor.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @param <V>
+ *            the type of values.
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public interface PropertyBatch<V>
+{
+	/**
+	 * @param index
+	 *            index of the property in the batch.
+	 * @return the property name.
+	 */
+	String getName(int index);
+
+	/**
+	 * @param index
+	 *            index of the property in the batch.
+	 * @return the property value.
+	 */
+	V getValue(int index);
+
+	/**
+	 * @return the count of properties in the batch.
+	 */
+	int size();
+}
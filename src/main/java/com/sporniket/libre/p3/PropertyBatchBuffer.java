@@ -0,0 +1,106 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import java.util.Arrays;
+
+/**
+ * Growable {@link PropertyBatch}, reused from one batch to the next.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+class PropertyBatchBuffer implements PropertyBatch<Object>
+{
+	private static final int INITIAL_CAPACITY = 16;
+
+	private String[] myNames = new String[INITIAL_CAPACITY];
+
+	private int mySize;
+
+	private Object[] myValues = new Object[INITIAL_CAPACITY];
+
+	/**
+	 * Append a property.
+	 * 
+	 * @param name
+	 *            property name.
+	 * @param value
+	 *            property value.
+	 */
+	public void add(String name, Object value)
+	{
+		if (mySize == myNames.length)
+		{
+			myNames = Arrays.copyOf(myNames, mySize * 2);
+			myValues = Arrays.copyOf(myValues, mySize * 2);
+		}
+		myNames[mySize] = name;
+		myValues[mySize] = value;
+		mySize++;
+	}
+
+	/**
+	 * Forget the properties.
+	 */
+	public void clear()
+	{
+		Arrays.fill(myNames, 0, mySize, null);
+		Arrays.fill(myValues, 0, mySize, null);
+		mySize = 0;
+	}
+
+	@Override
+	public String getName(int index)
+	{
+		checkIndex(index);
+		return myNames[index];
+	}
+
+	@Override
+	public Object getValue(int index)
+	{
+		checkIndex(index);
+		return myValues[index];
+	}
+
+	@Override
+	public int size()
+	{
+		return mySize;
+	}
+
+	private void checkIndex(int index)
+	{
+		if (index < 0 || index >= mySize)
+		{
+			throw new IndexOutOfBoundsException("index : " + index + ", size : " + mySize);
+		}
+	}
+}
@@ -0,0 +1,883 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Automaton matching a property name against several regular expressions at once, giving the lowest rule index of the matching
+ * expressions in a single scan of the property name.
+ * 
+ * <p>
+ * The regular expressions are combined into a non deterministic automaton, that is lazily turned into a deterministic automaton :
+ * each state is computed the first time it is reached, then cached. A transition is cached for each ASCII character, and for each
+ * class of non ASCII code points that no expression tells apart, thus a known transition is found without allocation.
+ * 
+ * <p>
+ * Only a subset of the regular expression syntax of {@link java.util.regex.Pattern} is supported : literals, escaped characters,
+ * <code>.</code>, character classes without intersection nor nested classes, the predefined classes <code>\d \D \s \S \w \W</code>,
+ * groups (capturing or <code>(?:...)</code>), alternations and the greedy quantifiers <code>* + ?</code>. Anything else is rejected
+ * by {@link Builder#add(String, int)}, the caller is expected to keep using a {@link java.util.regex.Pattern} for such expressions.
+ * 
+ * <p>
+ * This class is safe for concurrent use : computing a new state is synchronized, reading an already computed transition is not.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+class PropertyNameAutomaton
+{
+	/**
+	 * Collects the regular expressions to combine.
+	 */
+	static class Builder
+	{
+		private final List<NfaState> myStates = new ArrayList<NfaState>();
+
+		private final List<Integer> myStarts = new ArrayList<Integer>();
+
+		/**
+		 * Try to add a regular expression.
+		 * 
+		 * @param regexp
+		 *            the regular expression, must be valid for {@link java.util.regex.Pattern}.
+		 * @param rule
+		 *            the value to return when the expression is matched, the lowest value wins when several expressions matches.
+		 * @return <code>true</code> if the regular expression has been added, <code>false</code> if it uses an unsupported construct.
+		 */
+		public boolean add(String regexp, int rule)
+		{
+			int _rollback = myStates.size();
+			try
+			{
+				RegexpParser _parser = new RegexpParser(regexp, this);
+				Fragment _fragment = _parser.parse();
+				int _accept = newState(NfaState.ACCEPT, null);
+				myStates.get(_accept).myRule = rule;
+				connect(_fragment, _accept);
+				myStarts.add(_fragment.myStart);
+				return true;
+			}
+			catch (UnsupportedPatternException _exception)
+			{
+				while (myStates.size() > _rollback)
+				{
+					myStates.remove(myStates.size() - 1);
+				}
+				return false;
+			}
+		}
+
+		public PropertyNameAutomaton build()
+		{
+			return new PropertyNameAutomaton(this);
+		}
+
+		public boolean isEmpty()
+		{
+			return myStarts.isEmpty();
+		}
+
+		private Fragment alternative(Fragment first, Fragment second)
+		{
+			int _start = newState(NfaState.SPLIT, null);
+			int _end = newState(NfaState.EPSILON, null);
+			myStates.get(_start).myNext = first.myStart;
+			myStates.get(_start).myOtherNext = second.myStart;
+			connect(first, _end);
+			connect(second, _end);
+			return new Fragment(_start, _end);
+		}
+
+		private Fragment characters(int[] ranges)
+		{
+			int _start = newState(NfaState.CHARACTERS, ranges);
+			int _end = newState(NfaState.EPSILON, null);
+			myStates.get(_start).myNext = _end;
+			return new Fragment(_start, _end);
+		}
+
+		private Fragment concatenation(Fragment first, Fragment second)
+		{
+			connect(first, second.myStart);
+			return new Fragment(first.myStart, second.myEnd);
+		}
+
+		private void connect(Fragment fragment, int next)
+		{
+			myStates.get(fragment.myEnd).myNext = next;
+		}
+
+		private Fragment empty()
+		{
+			int _state = newState(NfaState.EPSILON, null);
+			return new Fragment(_state, _state);
+		}
+
+		private int newState(int type, int[] ranges)
+		{
+			myStates.add(new NfaState(type, ranges));
+			return myStates.size() - 1;
+		}
+
+		private Fragment repeat(Fragment fragment, char quantifier)
+		{
+			int _split = newState(NfaState.SPLIT, null);
+			int _end = newState(NfaState.EPSILON, null);
+			myStates.get(_split).myNext = fragment.myStart;
+			myStates.get(_split).myOtherNext = _end;
+			switch (quantifier)
+			{
+				case '*':
+					connect(fragment, _split);
+					return new Fragment(_split, _end);
+				case '+':
+					connect(fragment, _split);
+					return new Fragment(fragment.myStart, _end);
+				default:
+					// '?'
+					connect(fragment, _end);
+					return new Fragment(_split, _end);
+			}
+		}
+	}
+
+	/**
+	 * A state of the deterministic automaton, that is a set of states of the non deterministic automaton.
+	 */
+	private static class DfaState
+	{
+		/**
+		 * Computed transitions for the ASCII characters.
+		 */
+		private final DfaState[] myAsciiTransitions = new DfaState[ASCII_LIMIT];
+
+		/**
+		 * Computed transitions for each class of non ASCII code points, see {@link PropertyNameAutomaton#myClassStarts}.
+		 */
+		private final DfaState[] myClassTransitions;
+
+		/**
+		 * The states of the non deterministic automaton, sorted.
+		 */
+		private final int[] myNfaStates;
+
+		/**
+		 * Lowest rule accepted by this state, or {@link PropertyNameAutomaton#NO_MATCH}.
+		 */
+		private final int myRule;
+
+		public DfaState(int[] nfaStates, int rule, int classCount)
+		{
+			myNfaStates = nfaStates;
+			myRule = rule;
+			myClassTransitions = new DfaState[classCount];
+		}
+
+		public boolean isDead()
+		{
+			return 0 == myNfaStates.length;
+		}
+	}
+
+	/**
+	 * Part of the non deterministic automaton under construction, with an entry state and an exit state.
+	 */
+	private static class Fragment
+	{
+		private final int myEnd;
+
+		private final int myStart;
+
+		public Fragment(int start, int end)
+		{
+			myStart = start;
+			myEnd = end;
+		}
+	}
+
+	/**
+	 * A state of the non deterministic automaton.
+	 */
+	private static class NfaState
+	{
+		static final int ACCEPT = 3;
+
+		static final int CHARACTERS = 0;
+
+		static final int EPSILON = 2;
+
+		static final int SPLIT = 1;
+
+		/**
+		 * Sorted ranges of code points for {@link #CHARACTERS} states, as pairs of inclusive bounds.
+		 */
+		private final int[] myRanges;
+
+		private int myNext = -1;
+
+		private int myOtherNext = -1;
+
+		private int myRule;
+
+		private final int myType;
+
+		public NfaState(int type, int[] ranges)
+		{
+			myType = type;
+			myRanges = ranges;
+		}
+	}
+
+	/**
+	 * Recursive descent parser of the supported regular expression subset.
+	 */
+	private static class RegexpParser
+	{
+		private static final String META_CHARACTERS = "\\[](){}.*+?^$|";
+
+		private final Builder myBuilder;
+
+		private int myPosition;
+
+		private final String mySource;
+
+		public RegexpParser(String source, Builder builder)
+		{
+			mySource = source;
+			myBuilder = builder;
+		}
+
+		public Fragment parse() throws UnsupportedPatternException
+		{
+			Fragment _result = parseAlternatives();
+			if (!isAtEnd())
+			{
+				throw new UnsupportedPatternException();
+			}
+			return _result;
+		}
+
+		private boolean isAtEnd()
+		{
+			return myPosition >= mySource.length();
+		}
+
+		private boolean isNext(char expected)
+		{
+			return !isAtEnd() && mySource.charAt(myPosition) == expected;
+		}
+
+		private Fragment parseAlternatives() throws UnsupportedPatternException
+		{
+			Fragment _result = parseConcatenation();
+			while (isNext('|'))
+			{
+				myPosition++;
+				_result = myBuilder.alternative(_result, parseConcatenation());
+			}
+			return _result;
+		}
+
+		private Fragment parseAtom() throws UnsupportedPatternException
+		{
+			char _next = mySource.charAt(myPosition);
+			switch (_next)
+			{
+				case '(':
+					myPosition++;
+					if (isNext('?'))
+					{
+						if (!mySource.startsWith("?:", myPosition))
+						{
+							throw new UnsupportedPatternException();
+						}
+						myPosition += 2;
+					}
+					Fragment _group = parseAlternatives();
+					if (!isNext(')'))
+					{
+						throw new UnsupportedPatternException();
+					}
+					myPosition++;
+					return _group;
+				case '.':
+					myPosition++;
+					return myBuilder.characters(RANGES__ANY_BUT_LINE_TERMINATORS);
+				case '[':
+					myPosition++;
+					return myBuilder.characters(parseCharacterClass());
+				case '\\':
+					myPosition++;
+					return myBuilder.characters(parseEscape());
+				default:
+					if (META_CHARACTERS.indexOf(_next) >= 0)
+					{
+						throw new UnsupportedPatternException();
+					}
+					return myBuilder.characters(singleton(readCodePoint()));
+			}
+		}
+
+		private int[] parseCharacterClass() throws UnsupportedPatternException
+		{
+			boolean _negated = isNext('^');
+			if (_negated)
+			{
+				myPosition++;
+			}
+			if (isNext(']'))
+			{
+				throw new UnsupportedPatternException();
+			}
+			int[] _result = new int[0];
+			while (!isNext(']'))
+			{
+				if (isAtEnd() || isNext('[') || mySource.startsWith("&&", myPosition))
+				{
+					throw new UnsupportedPatternException();
+				}
+				int[] _item;
+				int _first;
+				if (isNext('\\'))
+				{
+					myPosition++;
+					_item = parseEscape();
+					_first = (2 == _item.length && _item[0] == _item[1]) ? _item[0] : -1;
+				}
+				else
+				{
+					_first = readCodePoint();
+					_item = singleton(_first);
+				}
+				if (isNext('-') && !mySource.startsWith("-]", myPosition))
+				{
+					// range
+					myPosition++;
+					if (_first < 0 || isAtEnd() || isNext('[') || isNext('-'))
+					{
+						throw new UnsupportedPatternException();
+					}
+					int _last;
+					if (isNext('\\'))
+					{
+						myPosition++;
+						int[] _escaped = parseEscape();
+						if (2 != _escaped.length || _escaped[0] != _escaped[1])
+						{
+							throw new UnsupportedPatternException();
+						}
+						_last = _escaped[0];
+					}
+					else
+					{
+						_last = readCodePoint();
+					}
+					if (_last < _first || isNext('-') && !mySource.startsWith("-]", myPosition))
+					{
+						throw new UnsupportedPatternException();
+					}
+					_item = new int[]
+					{
+							_first, _last
+					};
+				}
+				_result = union(_result, _item);
+			}
+			myPosition++;
+			return _negated ? complement(_result) : _result;
+		}
+
+		private Fragment parseConcatenation() throws UnsupportedPatternException
+		{
+			Fragment _result = myBuilder.empty();
+			while (!isAtEnd() && !isNext('|') && !isNext(')'))
+			{
+				_result = myBuilder.concatenation(_result, parseRepetition());
+			}
+			return _result;
+		}
+
+		private int[] parseEscape() throws UnsupportedPatternException
+		{
+			if (isAtEnd())
+			{
+				throw new UnsupportedPatternException();
+			}
+			char _escaped = mySource.charAt(myPosition++);
+			switch (_escaped)
+			{
+				case 'd':
+					return RANGES__DIGITS;
+				case 'D':
+					return complement(RANGES__DIGITS);
+				case 's':
+					return RANGES__SPACES;
+				case 'S':
+					return complement(RANGES__SPACES);
+				case 'w':
+					return RANGES__WORD;
+				case 'W':
+					return complement(RANGES__WORD);
+				case 't':
+					return singleton('\t');
+				case 'n':
+					return singleton('\n');
+				case 'r':
+					return singleton('\r');
+				case 'f':
+					return singleton('\f');
+				case 'a':
+					return singleton('\u0007');
+				case 'e':
+					return singleton('\u001B');
+				default:
+					if (Character.isLetterOrDigit(_escaped) || Character.isSurrogate(_escaped))
+					{
+						throw new UnsupportedPatternException();
+					}
+					return singleton(_escaped);
+			}
+		}
+
+		private Fragment parseRepetition() throws UnsupportedPatternException
+		{
+			Fragment _result = parseAtom();
+			if (isNext('*') || isNext('+') || isNext('?'))
+			{
+				char _quantifier = mySource.charAt(myPosition++);
+				if (isNext('*') || isNext('+') || isNext('?') || isNext('{'))
+				{
+					// lazy, possessive or stacked quantifiers
+					throw new UnsupportedPatternException();
+				}
+				_result = myBuilder.repeat(_result, _quantifier);
+			}
+			else if (isNext('{'))
+			{
+				throw new UnsupportedPatternException();
+			}
+			return _result;
+		}
+
+		private int readCodePoint() throws UnsupportedPatternException
+		{
+			char _next = mySource.charAt(myPosition++);
+			if (Character.isSurrogate(_next))
+			{
+				throw new UnsupportedPatternException();
+			}
+			return _next;
+		}
+	}
+
+	/**
+	 * Signal an unsupported construct in a regular expression.
+	 */
+	private static class UnsupportedPatternException extends Exception
+	{
+		private static final long serialVersionUID = 1L;
+	}
+
+	private static final int ASCII_LIMIT = 128;
+
+	/**
+	 * Maximum number of cached states ; when reached, the cache is cleared and the scans start again from a new initial state.
+	 */
+	private static final int MAX_CACHED_STATES = 4096;
+
+	private static final int MAX_CODE_POINT = Character.MAX_CODE_POINT;
+
+	/**
+	 * Returned when no expression matches.
+	 */
+	static final int NO_MATCH = -1;
+
+	private static final int[] RANGES__ANY_BUT_LINE_TERMINATORS =
+	{
+			0, 0x09, 0x0B, 0x0C, 0x0E, 0x84, 0x86, 0x2027, 0x202A, MAX_CODE_POINT
+	};
+
+	private static final int[] RANGES__DIGITS =
+	{
+			'0', '9'
+	};
+
+	private static final int[] RANGES__SPACES =
+	{
+			'\t', '\r', ' ', ' '
+	};
+
+	private static final int[] RANGES__WORD =
+	{
+			'0', '9', 'A', 'Z', '_', '_', 'a', 'z'
+	};
+
+	private static int[] complement(int[] ranges)
+	{
+		int[] _buffer = new int[ranges.length + 2];
+		int _size = 0;
+		int _next = 0;
+		for (int _index = 0; _index < ranges.length; _index += 2)
+		{
+			if (ranges[_index] > _next)
+			{
+				_buffer[_size++] = _next;
+				_buffer[_size++] = ranges[_index] - 1;
+			}
+			_next = ranges[_index + 1] + 1;
+		}
+		if (_next <= MAX_CODE_POINT)
+		{
+			_buffer[_size++] = _next;
+			_buffer[_size++] = MAX_CODE_POINT;
+		}
+		return Arrays.copyOf(_buffer, _size);
+	}
+
+	/**
+	 * Split the non ASCII code points into classes of code points that no state of the non deterministic automaton tells apart.
+	 * 
+	 * @param ranges
+	 *            the character ranges of each state, <code>null</code> for the states that do not consume a character.
+	 * @return the first code point of each class, sorted.
+	 */
+	private static int[] computeClassStarts(int[][] ranges)
+	{
+		int _count = 1;
+		for (int[] _ranges : ranges)
+		{
+			_count += (null == _ranges) ? 0 : _ranges.length;
+		}
+		int[] _buffer = new int[_count];
+		int _size = 0;
+		_buffer[_size++] = ASCII_LIMIT;
+		for (int[] _ranges : ranges)
+		{
+			for (int _index = 0; null != _ranges && _index < _ranges.length; _index++)
+			{
+				// a class starts at the beginning of a range, and after its end
+				int _start = (0 == _index % 2) ? _ranges[_index] : _ranges[_index] + 1;
+				if (_start > ASCII_LIMIT && _start <= MAX_CODE_POINT)
+				{
+					_buffer[_size++] = _start;
+				}
+			}
+		}
+		Arrays.sort(_buffer, 0, _size);
+		int _distinctCount = 0;
+		for (int _index = 0; _index < _size; _index++)
+		{
+			if (0 == _distinctCount || _buffer[_index] != _buffer[_distinctCount - 1])
+			{
+				_buffer[_distinctCount++] = _buffer[_index];
+			}
+		}
+		return Arrays.copyOf(_buffer, _distinctCount);
+	}
+
+	private static boolean contains(int[] ranges, int codePoint)
+	{
+		int _low = 0;
+		int _high = ranges.length / 2 - 1;
+		while (_low <= _high)
+		{
+			int _middle = (_low + _high) >>> 1;
+			if (codePoint < ranges[2 * _middle])
+			{
+				_high = _middle - 1;
+			}
+			else if (codePoint > ranges[2 * _middle + 1])
+			{
+				_low = _middle + 1;
+			}
+			else
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static int[] singleton(int codePoint)
+	{
+		return new int[]
+		{
+				codePoint, codePoint
+		};
+	}
+
+	private static int[] union(int[] first, int[] second)
+	{
+		int[][] _all = new int[(first.length + second.length) / 2][];
+		int _count = 0;
+		for (int _index = 0; _index < first.length; _index += 2)
+		{
+			_all[_count++] = new int[]
+			{
+					first[_index], first[_index + 1]
+			};
+		}
+		for (int _index = 0; _index < second.length; _index += 2)
+		{
+			_all[_count++] = new int[]
+			{
+					second[_index], second[_index + 1]
+			};
+		}
+		Arrays.sort(_all, (left, right) -> Integer.compare(left[0], right[0]));
+		int[] _buffer = new int[_all.length * 2];
+		int _size = 0;
+		for (int[] _range : _all)
+		{
+			if (_size > 0 && _range[0] <= _buffer[_size - 1] + 1)
+			{
+				_buffer[_size - 1] = Math.max(_buffer[_size - 1], _range[1]);
+			}
+			else
+			{
+				_buffer[_size++] = _range[0];
+				_buffer[_size++] = _range[1];
+			}
+		}
+		return Arrays.copyOf(_buffer, _size);
+	}
+
+	/**
+	 * First code point of each class of non ASCII code points, sorted.
+	 */
+	private final int[] myClassStarts;
+
+	/**
+	 * States of the non deterministic automaton of the initial state.
+	 */
+	private final int[] myInitialNfaStates;
+
+	/**
+	 * Initial state, replaced when the cache of states is cleared.
+	 */
+	private volatile DfaState myInitialState;
+
+	/**
+	 * Next state of each state of the non deterministic automaton.
+	 */
+	private final int[] myNext;
+
+	/**
+	 * Alternative next state of the {@link NfaState#SPLIT} states.
+	 */
+	private final int[] myOtherNext;
+
+	/**
+	 * Character ranges of the {@link NfaState#CHARACTERS} states.
+	 */
+	private final int[][] myRanges;
+
+	/**
+	 * Rule of the {@link NfaState#ACCEPT} states.
+	 */
+	private final int[] myRules;
+
+	/**
+	 * Cached states of the deterministic automaton.
+	 */
+	private final Map<String, DfaState> myStates = new HashMap<String, DfaState>();
+
+	/**
+	 * Types of the states of the non deterministic automaton.
+	 */
+	private final int[] myTypes;
+
+	private PropertyNameAutomaton(Builder builder)
+	{
+		int _size = builder.myStates.size();
+		myTypes = new int[_size];
+		myNext = new int[_size];
+		myOtherNext = new int[_size];
+		myRanges = new int[_size][];
+		myRules = new int[_size];
+		for (int _index = 0; _index < _size; _index++)
+		{
+			NfaState _state = builder.myStates.get(_index);
+			myTypes[_index] = _state.myType;
+			myNext[_index] = _state.myNext;
+			myOtherNext[_index] = _state.myOtherNext;
+			myRanges[_index] = _state.myRanges;
+			myRules[_index] = _state.myRule;
+		}
+		int[] _starts = new int[builder.myStarts.size()];
+		for (int _index = 0; _index < _starts.length; _index++)
+		{
+			_starts[_index] = builder.myStarts.get(_index);
+		}
+		myClassStarts = computeClassStarts(myRanges);
+		myInitialNfaStates = closure(_starts);
+		myInitialState = intern(myInitialNfaStates);
+	}
+
+	/**
+	 * Find the lowest rule whose regular expression matches the whole property name.
+	 * 
+	 * @param propertyName
+	 *            the property name.
+	 * @return the lowest rule, or {@link #NO_MATCH}.
+	 */
+	public int findFirstMatchingRule(CharSequence propertyName)
+	{
+		DfaState _state = myInitialState;
+		int _length = propertyName.length();
+		for (int _index = 0; _index < _length && !_state.isDead();)
+		{
+			int _codePoint = Character.codePointAt(propertyName, _index);
+			_index += Character.charCount(_codePoint);
+			DfaState _next = getTransition(_state, _codePoint);
+			_state = (null != _next) ? _next : computeTransition(_state, _codePoint);
+		}
+		return _state.myRule;
+	}
+
+	/**
+	 * Compute the epsilon closure of a set of states, keeping only the states that consume a character or accept the input.
+	 */
+	private int[] closure(int[] states)
+	{
+		boolean[] _visited = new boolean[myTypes.length];
+		int[] _stack = new int[myTypes.length];
+		int _stackSize = 0;
+		int[] _result = new int[myTypes.length];
+		int _size = 0;
+		for (int _state : states)
+		{
+			_stack[_stackSize++] = _state;
+		}
+		while (_stackSize > 0)
+		{
+			int _state = _stack[--_stackSize];
+			if (_visited[_state])
+			{
+				continue;
+			}
+			_visited[_state] = true;
+			switch (myTypes[_state])
+			{
+				case NfaState.SPLIT:
+					_stack[_stackSize++] = myOtherNext[_state];
+					_stack[_stackSize++] = myNext[_state];
+					break;
+				case NfaState.EPSILON:
+					_stack[_stackSize++] = myNext[_state];
+					break;
+				default:
+					_result[_size++] = _state;
+			}
+		}
+		int[] _sorted = Arrays.copyOf(_result, _size);
+		Arrays.sort(_sorted);
+		return _sorted;
+	}
+
+	private synchronized DfaState computeTransition(DfaState from, int codePoint)
+	{
+		DfaState _known = getTransition(from, codePoint);
+		if (null != _known)
+		{
+			// computed meanwhile by another thread
+			return _known;
+		}
+		int[] _targets = new int[from.myNfaStates.length];
+		int _size = 0;
+		for (int _state : from.myNfaStates)
+		{
+			if (NfaState.CHARACTERS == myTypes[_state] && contains(myRanges[_state], codePoint))
+			{
+				_targets[_size++] = myNext[_state];
+			}
+		}
+		DfaState _result = intern(closure(Arrays.copyOf(_targets, _size)));
+		if (codePoint < ASCII_LIMIT)
+		{
+			from.myAsciiTransitions[codePoint] = _result;
+		}
+		else
+		{
+			from.myClassTransitions[findClass(codePoint)] = _result;
+		}
+		return _result;
+	}
+
+	/**
+	 * @param codePoint
+	 *            a non ASCII code point.
+	 * @return the index of the class of the code point.
+	 */
+	private int findClass(int codePoint)
+	{
+		int _index = Arrays.binarySearch(myClassStarts, codePoint);
+		return (_index >= 0) ? _index : -_index - 2;
+	}
+
+	/**
+	 * @return the cached transition, or <code>null</code> when not computed yet.
+	 */
+	private DfaState getTransition(DfaState from, int codePoint)
+	{
+		return (codePoint < ASCII_LIMIT) ? from.myAsciiTransitions[codePoint] : from.myClassTransitions[findClass(codePoint)];
+	}
+
+	private DfaState intern(int[] nfaStates)
+	{
+		String _key = Arrays.toString(nfaStates);
+		DfaState _result = myStates.get(_key);
+		if (null == _result)
+		{
+			if (myStates.size() >= MAX_CACHED_STATES)
+			{
+				// the previous states are released once no scan uses them anymore
+				myStates.clear();
+				myInitialState = intern(myInitialNfaStates);
+				return intern(nfaStates);
+			}
+			int _rule = NO_MATCH;
+			for (int _state : nfaStates)
+			{
+				if (NfaState.ACCEPT == myTypes[_state] && (NO_MATCH == _rule || myRules[_state] < _rule))
+				{
+					_rule = myRules[_state];
+				}
+			}
+			_result = new DfaState(nfaStates, _rule, myClassStarts.length);
+			myStates.put(_key, _result);
+		}
+		return _result;
+	}
+}
@@ -36,5 +36,12 @@ package com.sporniket.libre.p3;
  */
 interface PropertyNameMatcher
 {
-	boolean isMatching(String propertyName);
+	/**
+	 * Tells whether a property name is matched ; the name may be a view over a reused buffer, it must not be kept.
+	 * 
+	 * @param propertyName
+	 *            the property name.
+	 * @return <code>true</code> when the name is matched.
+	 */
+	boolean isMatching(CharSequence propertyName);
 }
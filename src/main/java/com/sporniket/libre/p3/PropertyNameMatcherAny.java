@@ -35,9 +35,15 @@ class PropertyNameMatcherAny implements PropertyNameMatcher
 {
 
 	@Override
-	public boolean isMatching(String propertyName)
+	public boolean isMatching(CharSequence propertyName)
 	{
 		return true;
 	}
 
+	@Override
+	public String toString()
+	{
+		return "else";
+	}
+
 }
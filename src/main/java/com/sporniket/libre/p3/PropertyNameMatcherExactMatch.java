@@ -46,15 +46,21 @@ class PropertyNameMatcherExactMatch implements PropertyNameMatcher
 	/*
 	 * (non-Javadoc)
 	 * 
-	 * @see com.sporniket.libre.p3.PropertyNameMatcher#isMatching(java.lang.String)
+	 * @see com.sporniket.libre.p3.PropertyNameMatcher#isMatching(java.lang.CharSequence)
 	 */
 	@Override
-	public boolean isMatching(String propertyName)
+	public boolean isMatching(CharSequence propertyName)
 	{
-		return getName().equals(propertyName);
+		return getName().contentEquals(propertyName);
 	}
 
-	private String getName()
+	@Override
+	public String toString()
+	{
+		return "is \"" + getName() + "\"";
+	}
+
+	String getName()
 	{
 		return myName;
 	}
@@ -51,15 +51,21 @@ class PropertyNameMatcherLike implements PropertyNameMatcher
 	/*
 	 * (non-Javadoc)
 	 * 
-	 * @see com.sporniket.libre.p3.PropertyNameMatcher#isMatching(java.lang.String)
+	 * @see com.sporniket.libre.p3.PropertyNameMatcher#isMatching(java.lang.CharSequence)
 	 */
 	@Override
-	public boolean isMatching(String propertyName)
+	public boolean isMatching(CharSequence propertyName)
 	{
 		return getPattern().matcher(propertyName).matches();
 	}
 
-	private Pattern getPattern()
+	@Override
+	public String toString()
+	{
+		return "is like \"" + getPattern().pattern() + "\"";
+	}
+
+	Pattern getPattern()
 	{
 		return myPattern;
 	}
@@ -0,0 +1,237 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+/**
+ * {@link PropertyNameMatcher} for the regular expressions that are a literal, optionally followed by <code>.*</code>, e.g.
+ * <code>foo\.bar\..*</code> ; it gives the same result as a {@link PropertyNameMatcherLike} without using a regular expression engine.
+ * 
+ * <p>
+ * Use {@link #isSupported(String)} to know whether a regular expression can be handled.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+class PropertyNameMatcherPrefix implements PropertyNameMatcher
+{
+	private static final String META_CHARACTERS = "\\[](){}.*+?^$|";
+
+	private static final String SUFFIX__ANY = ".*";
+
+	/**
+	 * Tells whether the given regular expression is a literal optionally followed by <code>.*</code>.
+	 * 
+	 * @param pattern
+	 *            the regular expression.
+	 * @return <code>true</code> when the regular expression can be handled by this matcher.
+	 */
+	public static boolean isSupported(String pattern)
+	{
+		return null != parseLiteral(pattern);
+	}
+
+	/**
+	 * Tells whether the given character is a line terminator, that is not matched by <code>.</code>.
+	 * 
+	 * @param character
+	 *            the character to test.
+	 * @return <code>true</code> for a line terminator.
+	 */
+	static boolean isLineTerminator(char character)
+	{
+		return '\n' == character || '\r' == character || '\u0085' == character || 0x2028 == character || 0x2029 == character;
+	}
+
+	/**
+	 * Tells whether the given portion of a property name would be matched by <code>.*</code>.
+	 * 
+	 * @param propertyName
+	 *            the property name.
+	 * @param start
+	 *            start of the portion to test.
+	 * @return <code>true</code> when there is no line terminator in the portion.
+	 */
+	static boolean isMatchingAny(CharSequence propertyName, int start)
+	{
+		for (int _index = propertyName.length() - 1; _index >= start; _index--)
+		{
+			if (isLineTerminator(propertyName.charAt(_index)))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Extract the literal part of the regular expression.
+	 * 
+	 * @param pattern
+	 *            the regular expression.
+	 * @return the literal, without escaping, or <code>null</code> if the regular expression is not supported.
+	 */
+	private static String parseLiteral(String pattern)
+	{
+		StringBuilder _result = new StringBuilder(pattern.length());
+		int _length = isOpenEnded(pattern) ? pattern.length() - SUFFIX__ANY.length() : pattern.length();
+		for (int _index = 0; _index < _length; _index++)
+		{
+			char _character = pattern.charAt(_index);
+			if ('\\' == _character)
+			{
+				_index++;
+				if (_index >= _length)
+				{
+					return null;
+				}
+				_character = pattern.charAt(_index);
+				if (Character.isLetterOrDigit(_character))
+				{
+					return null;
+				}
+			}
+			else if (META_CHARACTERS.indexOf(_character) >= 0)
+			{
+				return null;
+			}
+			if (Character.isSurrogate(_character))
+			{
+				return null;
+			}
+			_result.append(_character);
+		}
+		return _result.toString();
+	}
+
+	/**
+	 * Tells whether the property name starts with the given prefix, without creating a string.
+	 */
+	private static boolean isStartingWith(CharSequence propertyName, String prefix)
+	{
+		if (propertyName.length() < prefix.length())
+		{
+			return false;
+		}
+		for (int _index = prefix.length() - 1; _index >= 0; _index--)
+		{
+			if (prefix.charAt(_index) != propertyName.charAt(_index))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Tells whether the regular expression ends with an unescaped <code>.*</code>.
+	 */
+	private static boolean isOpenEnded(String pattern)
+	{
+		if (!pattern.endsWith(SUFFIX__ANY))
+		{
+			return false;
+		}
+		// count the backslashes before the suffix, an odd count means that the dot is escaped.
+		int _backslashes = 0;
+		for (int _index = pattern.length() - SUFFIX__ANY.length() - 1; _index >= 0 && '\\' == pattern.charAt(_index); _index--)
+		{
+			_backslashes++;
+		}
+		return 0 == _backslashes % 2;
+	}
+
+	/**
+	 * <code>true</code> when the literal is followed by <code>.*</code>.
+	 */
+	private final boolean myOpenEnded;
+
+	/**
+	 * The regular expression.
+	 */
+	private final String myPattern;
+
+	/**
+	 * The literal to match.
+	 */
+	private final String myPrefix;
+
+	/**
+	 * Create a matcher for a regular expression.
+	 * 
+	 * @param pattern
+	 *            the regular expression, it must be supported.
+	 * @see #isSupported(String)
+	 */
+	public PropertyNameMatcherPrefix(String pattern)
+	{
+		myPrefix = parseLiteral(pattern);
+		if (null == myPrefix)
+		{
+			throw new IllegalArgumentException(pattern);
+		}
+		myOpenEnded = isOpenEnded(pattern);
+		myPattern = pattern;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.sporniket.libre.p3.PropertyNameMatcher#isMatching(java.lang.CharSequence)
+	 */
+	@Override
+	public boolean isMatching(CharSequence propertyName)
+	{
+		if (isOpenEnded())
+		{
+			return isStartingWith(propertyName, getPrefix()) && isMatchingAny(propertyName, getPrefix().length());
+		}
+		return getPrefix().contentEquals(propertyName);
+	}
+
+	@Override
+	public String toString()
+	{
+		return "is like \"" + getPattern() + "\"";
+	}
+
+	String getPattern()
+	{
+		return myPattern;
+	}
+
+	String getPrefix()
+	{
+		return myPrefix;
+	}
+
+	boolean isOpenEnded()
+	{
+		return myOpenEnded;
+	}
+}
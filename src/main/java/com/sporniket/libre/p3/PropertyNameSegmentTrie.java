@@ -0,0 +1,300 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import java.util.Arrays;
+
+/**
+ * Trie of {@link PropertyNameMatcherPrefix}, keyed on the dot-separated segments of the property name, giving the lowest rule index
+ * of the matching prefixes while walking the property name once.
+ * 
+ * <p>
+ * A literal <code>a.b.c</code> is split into segments ; when the literal is followed by <code>.*</code>, the last segment is a
+ * prefix of the segment at the same position in the property name, e.g. <code>a\.b\.c.*</code> is stored in the node
+ * <code>a.b</code> as the segment prefix <code>c</code>, and <code>a\.b\..*</code> as the empty segment prefix. Otherwise, the
+ * literal is stored as an exact match in the node <code>a.b.c</code>.
+ * 
+ * <p>
+ * Looking up a segment in a node does not create any object.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+class PropertyNameSegmentTrie
+{
+	/**
+	 * A node of the trie.
+	 */
+	private static class Node
+	{
+		private Node[] myChildren = new Node[4];
+
+		private int myChildrenCount;
+
+		/**
+		 * Rule matching exactly the path of this node.
+		 */
+		private int myExactRule = NONE;
+
+		/**
+		 * Rules of the segment prefixes, in the same order as {@link #mySegmentPrefixes}.
+		 */
+		private int[] myPrefixRules = new int[0];
+
+		/**
+		 * Segment of the node, relative to its parent.
+		 */
+		private final String mySegment;
+
+		/**
+		 * Segment prefixes of the literals followed by <code>.*</code>.
+		 */
+		private String[] mySegmentPrefixes = new String[0];
+
+		public Node(String segment)
+		{
+			mySegment = segment;
+		}
+
+		public Node findChild(CharSequence propertyName, int start, int end)
+		{
+			int _mask = myChildren.length - 1;
+			for (int _slot = hash(propertyName, start, end) & _mask;; _slot = (_slot + 1) & _mask)
+			{
+				Node _candidate = myChildren[_slot];
+				if (null == _candidate)
+				{
+					return null;
+				}
+				if (isSameSegment(_candidate.mySegment, propertyName, start, end))
+				{
+					return _candidate;
+				}
+			}
+		}
+
+		public Node getOrCreateChild(String segment)
+		{
+			Node _result = findChild(segment, 0, segment.length());
+			if (null == _result)
+			{
+				if (2 * (myChildrenCount + 1) > myChildren.length)
+				{
+					Node[] _previous = myChildren;
+					myChildren = new Node[2 * _previous.length];
+					for (Node _child : _previous)
+					{
+						if (null != _child)
+						{
+							insert(_child);
+						}
+					}
+				}
+				_result = new Node(segment);
+				insert(_result);
+				myChildrenCount++;
+			}
+			return _result;
+		}
+
+		private void insert(Node child)
+		{
+			int _mask = myChildren.length - 1;
+			int _slot = hash(child.mySegment, 0, child.mySegment.length()) & _mask;
+			while (null != myChildren[_slot])
+			{
+				_slot = (_slot + 1) & _mask;
+			}
+			myChildren[_slot] = child;
+		}
+	}
+
+	/**
+	 * Returned when no prefix matches.
+	 */
+	static final int NO_MATCH = -1;
+
+	/**
+	 * Internal value for no rule, greater than any rule.
+	 */
+	private static final int NONE = Integer.MAX_VALUE;
+
+	private static final char SEPARATOR = '.';
+
+	/**
+	 * Same algorithm as {@link String#hashCode()}, on a portion of a char sequence.
+	 */
+	private static int hash(CharSequence value, int start, int end)
+	{
+		int _result = 0;
+		for (int _index = start; _index < end; _index++)
+		{
+			_result = 31 * _result + value.charAt(_index);
+		}
+		// spread the high bits, as the table is indexed by the low bits.
+		return _result ^ (_result >>> 16);
+	}
+
+	private static int indexOfSeparator(CharSequence propertyName, int start)
+	{
+		for (int _index = start; _index < propertyName.length(); _index++)
+		{
+			if (SEPARATOR == propertyName.charAt(_index))
+			{
+				return _index;
+			}
+		}
+		return propertyName.length();
+	}
+
+	private static boolean isSameSegment(String segment, CharSequence propertyName, int start, int end)
+	{
+		if (segment.length() != end - start)
+		{
+			return false;
+		}
+		return isStartingWith(propertyName, start, segment);
+	}
+
+	private static boolean isStartingWith(CharSequence propertyName, int start, String prefix)
+	{
+		if (propertyName.length() - start < prefix.length())
+		{
+			return false;
+		}
+		for (int _index = 0; _index < prefix.length(); _index++)
+		{
+			if (prefix.charAt(_index) != propertyName.charAt(start + _index))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private final Node myRoot = new Node("");
+
+	/**
+	 * <code>true</code> when there is at least one literal followed by <code>.*</code>.
+	 */
+	private boolean myUsingOpenEndedPrefix;
+
+	/**
+	 * Add a prefix matcher.
+	 * 
+	 * @param matcher
+	 *            the matcher.
+	 * @param rule
+	 *            the value to return when the matcher is matched, the lowest value wins when several matchers matches.
+	 */
+	public void add(PropertyNameMatcherPrefix matcher, int rule)
+	{
+		String _literal = matcher.getPrefix();
+		Node _node = myRoot;
+		int _start = 0;
+		for (int _end = indexOfSeparator(_literal, _start); _end < _literal.length(); _end = indexOfSeparator(_literal, _start))
+		{
+			_node = _node.getOrCreateChild(_literal.substring(_start, _end));
+			_start = _end + 1;
+		}
+		String _lastSegment = _literal.substring(_start);
+		if (matcher.isOpenEnded())
+		{
+			int _count = _node.mySegmentPrefixes.length;
+			_node.mySegmentPrefixes = Arrays.copyOf(_node.mySegmentPrefixes, _count + 1);
+			_node.myPrefixRules = Arrays.copyOf(_node.myPrefixRules, _count + 1);
+			_node.mySegmentPrefixes[_count] = _lastSegment;
+			_node.myPrefixRules[_count] = rule;
+			myUsingOpenEndedPrefix = true;
+		}
+		else
+		{
+			_node = _node.getOrCreateChild(_lastSegment);
+			_node.myExactRule = Math.min(_node.myExactRule, rule);
+		}
+	}
+
+	/**
+	 * Find the lowest rule whose prefix matches the property name.
+	 * 
+	 * @param propertyName
+	 *            the property name.
+	 * @return the lowest rule, or {@link #NO_MATCH}.
+	 */
+	public int findFirstMatchingRule(CharSequence propertyName)
+	{
+		// .* does not match line terminators, so open ended prefixes must end after the last line terminator.
+		int _minimalPrefixEnd = 0;
+		if (myUsingOpenEndedPrefix)
+		{
+			for (int _index = propertyName.length() - 1; _index >= 0; _index--)
+			{
+				if (PropertyNameMatcherPrefix.isLineTerminator(propertyName.charAt(_index)))
+				{
+					_minimalPrefixEnd = _index + 1;
+					break;
+				}
+			}
+		}
+
+		int _result = NONE;
+		Node _node = myRoot;
+		int _start = 0;
+		while (true)
+		{
+			for (int _index = 0; _index < _node.mySegmentPrefixes.length; _index++)
+			{
+				String _prefix = _node.mySegmentPrefixes[_index];
+				if (_node.myPrefixRules[_index] < _result && _start + _prefix.length() >= _minimalPrefixEnd
+						&& isStartingWith(propertyName, _start, _prefix))
+				{
+					_result = _node.myPrefixRules[_index];
+				}
+			}
+			int _end = indexOfSeparator(propertyName, _start);
+			_node = _node.findChild(propertyName, _start, _end);
+			if (null == _node)
+			{
+				break;
+			}
+			if (_end == propertyName.length())
+			{
+				_result = Math.min(_result, _node.myExactRule);
+				break;
+			}
+			_start = _end + 1;
+		}
+		return (NONE == _result) ? NO_MATCH : _result;
+	}
+
+	public boolean isEmpty()
+	{
+		return 0 == myRoot.myChildrenCount && 0 == myRoot.mySegmentPrefixes.length;
+	}
+}
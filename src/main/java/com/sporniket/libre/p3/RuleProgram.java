@@ -0,0 +1,280 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compiled form of directives : the definitions and the rules, in declaration order, that {@link P3} executes one after the other.
+ * 
+ * <p>
+ * A rule program does not depend on the parser of directives, it is created by {@link DirectivesCompiler} or read from its binary
+ * form by {@link RuleProgramCodec}. It is immutable, thus it can be shared.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+final class RuleProgram
+{
+	/**
+	 * Call of a processor : <code>call method from holder using name, value</code>.
+	 */
+	static final class Call
+	{
+		private final String myHolderName;
+
+		private final String myMethodName;
+
+		public Call(String holderName, String methodName)
+		{
+			myHolderName = holderName;
+			myMethodName = methodName;
+		}
+
+		public String getHolderName()
+		{
+			return myHolderName;
+		}
+
+		public String getMethodName()
+		{
+			return myMethodName;
+		}
+	}
+
+	/**
+	 * Creation of an object : <code>define identifier as new className</code>.
+	 */
+	static final class Definition extends Instruction
+	{
+		private final String myClassName;
+
+		private final String myIdentifier;
+
+		public Definition(String identifier, String className)
+		{
+			myIdentifier = identifier;
+			myClassName = className;
+		}
+
+		public String getClassName()
+		{
+			return myClassName;
+		}
+
+		public String getIdentifier()
+		{
+			return myIdentifier;
+		}
+	}
+
+	/**
+	 * Kind of property event targeted by a rule, the processors accept a <code>String</code> value or a <code>String[]</code> value.
+	 */
+	static enum Event
+	{
+		MULTIPLE_LINE_PROPERTY,
+		SINGLE_LINE_PROPERTY;
+	}
+
+	/**
+	 * Instruction of a program, either a {@link Definition} or a {@link Rule}.
+	 */
+	abstract static class Instruction
+	{
+		// marker
+	}
+
+	/**
+	 * Kind of property name matcher.
+	 */
+	static enum MatcherKind
+	{
+		/**
+		 * The <code>else</code> alternative.
+		 */
+		ANY,
+
+		/**
+		 * <code>is "name"</code>.
+		 */
+		EXACT,
+
+		/**
+		 * <code>is like "pattern"</code>, for a pattern that is not supported by {@link PropertyNameMatcherPrefix}.
+		 */
+		LIKE,
+
+		/**
+		 * <code>is like "pattern"</code>, for a pattern supported by {@link PropertyNameMatcherPrefix}.
+		 */
+		PREFIX;
+	}
+
+	/**
+	 * Alternative of an <code>if</code> statement, in an <code>on</code> statement.
+	 */
+	static final class Rule extends Instruction
+	{
+		private final List<Call> myCalls;
+
+		private final Event myEvent;
+
+		private final MatcherKind myMatcherKind;
+
+		private final String myPattern;
+
+		/**
+		 * Create a rule.
+		 * 
+		 * @param event
+		 *            the targeted event.
+		 * @param matcherKind
+		 *            the kind of matcher.
+		 * @param pattern
+		 *            the name or the pattern to match, <code>null</code> for {@link MatcherKind#ANY}.
+		 * @param calls
+		 *            the processors to call.
+		 */
+		public Rule(Event event, MatcherKind matcherKind, String pattern, List<Call> calls)
+		{
+			myEvent = event;
+			myMatcherKind = matcherKind;
+			myPattern = pattern;
+			myCalls = Collections.unmodifiableList(new ArrayList<Call>(calls));
+		}
+
+		public List<Call> getCalls()
+		{
+			return myCalls;
+		}
+
+		public Event getEvent()
+		{
+			return myEvent;
+		}
+
+		public MatcherKind getMatcherKind()
+		{
+			return myMatcherKind;
+		}
+
+		public String getPattern()
+		{
+			return myPattern;
+		}
+	}
+
+	private static final String ALGORITHM__SOURCE_HASH = "SHA-256";
+
+	/**
+	 * <code>true</code> when the source has no statement at all.
+	 */
+	private final boolean myEmpty;
+
+	private final List<Instruction> myInstructions;
+
+	private final byte[] mySourceHash;
+
+	/**
+	 * Create a program.
+	 * 
+	 * @param instructions
+	 *            the instructions, in declaration order.
+	 * @param empty
+	 *            <code>true</code> when the source has no statement at all.
+	 * @param sourceHash
+	 *            the hash of the source, see {@link #computeSourceHash(String)}.
+	 */
+	public RuleProgram(List<Instruction> instructions, boolean empty, byte[] sourceHash)
+	{
+		myInstructions = Collections.unmodifiableList(new ArrayList<Instruction>(instructions));
+		myEmpty = empty;
+		mySourceHash = sourceHash.clone();
+	}
+
+	/**
+	 * Compute the hash of a source of directives.
+	 * 
+	 * @param source
+	 *            the source.
+	 * @return the SHA-256 of the source encoded in UTF-8.
+	 */
+	public static byte[] computeSourceHash(String source)
+	{
+		try
+		{
+			return MessageDigest.getInstance(ALGORITHM__SOURCE_HASH).digest(source.getBytes(StandardCharsets.UTF_8));
+		}
+		catch (NoSuchAlgorithmException _exception)
+		{
+			// SHA-256 is required on every Java platform
+			throw new IllegalStateException(_exception);
+		}
+	}
+
+	public List<Instruction> getInstructions()
+	{
+		return myInstructions;
+	}
+
+	/**
+	 * @return a copy of the hash of the source.
+	 */
+	public byte[] getSourceHash()
+	{
+		return mySourceHash.clone();
+	}
+
+	/**
+	 * @return <code>true</code> when the source has no statement at all.
+	 */
+	public boolean isEmpty()
+	{
+		return myEmpty;
+	}
+
+	/**
+	 * Tells whether this program has been compiled from the given source.
+	 * 
+	 * @param source
+	 *            the source.
+	 * @return <code>true</code> if the hash of the source matches.
+	 */
+	public boolean isCompiledFrom(String source)
+	{
+		return Arrays.equals(mySourceHash, computeSourceHash(source));
+	}
+}
@@ -0,0 +1,287 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Binary form of a {@link RuleProgram}, that can be loaded without parsing the directives.
+ * 
+ * <p>
+ * Layout, all numbers are big endian :
+ * 
+ * <pre>
+ * u4     magic number, "P3RP"
+ * u2     version of the format
+ * u1     size of the hash of the source, followed by the hash
+ * u1     1 when the source has no statement at all, 0 otherwise
+ * u4     count of instructions, followed by the instructions
+ * 
+ * definition :
+ * u1     1
+ * string identifier
+ * string class name
+ * 
+ * rule :
+ * u1     2
+ * u1     event (ordinal of RuleProgram.Event)
+ * u1     kind of matcher (ordinal of RuleProgram.MatcherKind)
+ * string pattern, except for RuleProgram.MatcherKind.ANY
+ * u4     count of calls, followed by the calls (string holder name, string method name)
+ * 
+ * string : u4 size of the UTF-8 encoding, followed by the UTF-8 encoding
+ * </pre>
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+final class RuleProgramCodec
+{
+	/**
+	 * "P3RP".
+	 */
+	public static final int MAGIC = 0x50335250;
+
+	/**
+	 * Current version of the format, a binary form of another version is rejected and must be compiled again.
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * The counts read are not trusted for sizing the lists.
+	 */
+	private static final int CAPACITY__INITIAL_MAX = 1024;
+
+	private static final int TAG__DEFINITION = 1;
+
+	private static final int TAG__RULE = 2;
+
+	private RuleProgramCodec()
+	{
+		// static methods only
+	}
+
+	/**
+	 * Read a program.
+	 * 
+	 * @param compiled
+	 *            the binary form, read from its position.
+	 * @return the program.
+	 * @throws IllegalArgumentException
+	 *             when the binary form is not valid, or of another version.
+	 */
+	public static RuleProgram decode(ByteBuffer compiled)
+	{
+		ByteBuffer _input = compiled.slice();
+		try
+		{
+			byte[] _sourceHash = decode__header(_input);
+			boolean _empty = 0 != _input.get();
+			int _count = _input.getInt();
+			List<RuleProgram.Instruction> _instructions = new ArrayList<RuleProgram.Instruction>(Math.max(0, Math.min(_count,
+					CAPACITY__INITIAL_MAX)));
+			for (int _i = 0; _i < _count; _i++)
+			{
+				int _tag = _input.get();
+				switch (_tag)
+				{
+					case TAG__DEFINITION:
+						String _identifier = decode__string(_input);
+						_instructions.add(new RuleProgram.Definition(_identifier, decode__string(_input)));
+						break;
+					case TAG__RULE:
+						_instructions.add(decode__rule(_input));
+						break;
+					default:
+						throw new IllegalArgumentException("Unknown instruction : " + _tag);
+				}
+			}
+			return new RuleProgram(_instructions, _empty, _sourceHash);
+		}
+		catch (BufferUnderflowException _exception)
+		{
+			throw new IllegalArgumentException("Truncated compiled directives", _exception);
+		}
+	}
+
+	/**
+	 * Write a program.
+	 * 
+	 * @param program
+	 *            the program.
+	 * @return the binary form.
+	 */
+	public static byte[] encode(RuleProgram program)
+	{
+		ByteArrayOutputStream _buffer = new ByteArrayOutputStream();
+		try (DataOutputStream _output = new DataOutputStream(_buffer))
+		{
+			byte[] _sourceHash = program.getSourceHash();
+			_output.writeInt(MAGIC);
+			_output.writeShort(VERSION);
+			_output.writeByte(_sourceHash.length);
+			_output.write(_sourceHash);
+			_output.writeByte(program.isEmpty() ? 1 : 0);
+			_output.writeInt(program.getInstructions().size());
+			for (RuleProgram.Instruction _instruction : program.getInstructions())
+			{
+				if (_instruction instanceof RuleProgram.Definition)
+				{
+					RuleProgram.Definition _definition = (RuleProgram.Definition) _instruction;
+					_output.writeByte(TAG__DEFINITION);
+					encode__string(_output, _definition.getIdentifier());
+					encode__string(_output, _definition.getClassName());
+				}
+				else if (_instruction instanceof RuleProgram.Rule)
+				{
+					encode__rule(_output, (RuleProgram.Rule) _instruction);
+				}
+			}
+		}
+		catch (IOException _exception)
+		{
+			// not expected from an in-memory stream
+			throw new IllegalStateException(_exception);
+		}
+		return _buffer.toByteArray();
+	}
+
+	/**
+	 * Tells whether a binary form has been compiled from the given source, with the current version of the format ; only the header
+	 * is read.
+	 * 
+	 * @param compiled
+	 *            the binary form, read from its position.
+	 * @param source
+	 *            the source.
+	 * @return <code>true</code> when the binary form is up to date.
+	 */
+	public static boolean isCompiledFrom(ByteBuffer compiled, String source)
+	{
+		try
+		{
+			return Arrays.equals(decode__header(compiled.slice()), RuleProgram.computeSourceHash(source));
+		}
+		catch (IllegalArgumentException | BufferUnderflowException _exception)
+		{
+			return false;
+		}
+	}
+
+	/**
+	 * Check the magic number and the version.
+	 * 
+	 * @param input
+	 *            the binary form.
+	 * @return the hash of the source.
+	 */
+	private static byte[] decode__header(ByteBuffer input)
+	{
+		if (MAGIC != input.getInt())
+		{
+			throw new IllegalArgumentException("Not compiled directives");
+		}
+		int _version = input.getShort() & 0xffff;
+		if (VERSION != _version)
+		{
+			throw new IllegalArgumentException("Unsupported version of compiled directives : " + _version + ", expected " + VERSION);
+		}
+		byte[] _sourceHash = new byte[input.get() & 0xff];
+		input.get(_sourceHash);
+		return _sourceHash;
+	}
+
+	private static RuleProgram.Rule decode__rule(ByteBuffer input)
+	{
+		RuleProgram.Event _event = decode__value(RuleProgram.Event.values(), input.get());
+		RuleProgram.MatcherKind _kind = decode__value(RuleProgram.MatcherKind.values(), input.get());
+		String _pattern = (RuleProgram.MatcherKind.ANY == _kind) ? null : decode__string(input);
+		int _count = input.getInt();
+		List<RuleProgram.Call> _calls = new ArrayList<RuleProgram.Call>(Math.max(0, Math.min(_count, CAPACITY__INITIAL_MAX)));
+		for (int _i = 0; _i < _count; _i++)
+		{
+			String _holderName = decode__string(input);
+			_calls.add(new RuleProgram.Call(_holderName, decode__string(input)));
+		}
+		return new RuleProgram.Rule(_event, _kind, _pattern, _calls);
+	}
+
+	private static String decode__string(ByteBuffer input)
+	{
+		int _size = input.getInt();
+		if (_size < 0 || _size > input.remaining())
+		{
+			throw new IllegalArgumentException("Invalid string size : " + _size);
+		}
+		byte[] _bytes = new byte[_size];
+		input.get(_bytes);
+		return new String(_bytes, StandardCharsets.UTF_8);
+	}
+
+	private static <T> T decode__value(T[] values, int ordinal)
+	{
+		if (ordinal < 0 || ordinal >= values.length)
+		{
+			throw new IllegalArgumentException("Invalid value : " + ordinal);
+		}
+		return values[ordinal];
+	}
+
+	private static void encode__rule(DataOutputStream output, RuleProgram.Rule rule) throws IOException
+	{
+		output.writeByte(TAG__RULE);
+		output.writeByte(rule.getEvent().ordinal());
+		output.writeByte(rule.getMatcherKind().ordinal());
+		if (RuleProgram.MatcherKind.ANY != rule.getMatcherKind())
+		{
+			encode__string(output, rule.getPattern());
+		}
+		output.writeInt(rule.getCalls().size());
+		for (RuleProgram.Call _call : rule.getCalls())
+		{
+			encode__string(output, _call.getHolderName());
+			encode__string(output, _call.getMethodName());
+		}
+	}
+
+	private static void encode__string(DataOutputStream output, String value) throws IOException
+	{
+		byte[] _bytes = value.getBytes(StandardCharsets.UTF_8);
+		output.writeInt(_bytes.length);
+		output.write(_bytes);
+	}
+}
@@ -0,0 +1,90 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads running processors that do blocking work, see {@link AsyncDispatcher#createForBlockingProcessors(P3, int)}.
+ * 
+ * <p>
+ * This version uses a bounded count of platform threads ; the multi-release part of the artifact provides a version using virtual
+ * threads, for the platforms supporting them.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+final class WorkerThreads
+{
+	/**
+	 * Maximum count of platform threads.
+	 */
+	private static final int PLATFORM_THREADS__MAX = 64;
+
+	/**
+	 * Count of platform threads for each processor.
+	 */
+	private static final int PLATFORM_THREADS__PER_PROCESSOR = 4;
+
+	private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+	private WorkerThreads()
+	{
+		// static methods only
+	}
+
+	/**
+	 * @return the factory of the threads.
+	 */
+	public static ThreadFactory getThreadFactory()
+	{
+		return task -> {
+			Thread _result = new Thread(task, "p3-blocking-" + THREAD_COUNT.incrementAndGet());
+			_result.setDaemon(true);
+			return _result;
+		};
+	}
+
+	/**
+	 * @return the count of threads to use.
+	 */
+	public static int getThreadCount()
+	{
+		return Math.min(PLATFORM_THREADS__MAX, PLATFORM_THREADS__PER_PROCESSOR * Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @return <code>true</code> when the threads are virtual threads.
+	 */
+	public static boolean isVirtual()
+	{
+		return false;
+	}
+}
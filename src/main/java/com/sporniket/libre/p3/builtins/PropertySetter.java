@@ -0,0 +1,83 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3.builtins;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Setter of a property, with the converter selected for its parameter type.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+class PropertySetter
+{
+	private final ValueConverter<?> myConverter;
+
+	private final Method mySetter;
+
+	public PropertySetter(Method setter, ValueConverter<?> converter)
+	{
+		mySetter = setter;
+		myConverter = converter;
+	}
+
+	public ValueConverter<?> getConverter()
+	{
+		return myConverter;
+	}
+
+	public Class<?> getParameterType()
+	{
+		return getSetter().getParameterTypes()[0];
+	}
+
+	public Method getSetter()
+	{
+		return mySetter;
+	}
+
+	/**
+	 * Convert the value and call the setter.
+	 * 
+	 * @param target
+	 *            the object to change.
+	 * @param value
+	 *            the property value.
+	 * @throws IllegalAccessException
+	 *             when there is a problem.
+	 * @throws InvocationTargetException
+	 *             when there is a problem.
+	 */
+	public void set(Object target, String value) throws IllegalAccessException, InvocationTargetException
+	{
+		getSetter().invoke(target, getConverter().convert(value));
+	}
+}
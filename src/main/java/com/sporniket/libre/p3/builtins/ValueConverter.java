@@ -0,0 +1,49 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3.builtins;
+
+/**
+ * Conversion of a property value to the type of a setter parameter, see {@link ValueConverterRegistry}.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public interface ValueConverter<T>
+{
+	/**
+	 * Convert a property value.
+	 * 
+	 * @param value
+	 *            the property value.
+	 * @return the converted value.
+	 * @throws IllegalArgumentException
+	 *             when the value cannot be converted.
+	 */
+	T convert(String value);
+}
@@ -0,0 +1,235 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3.builtins;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registry of the {@link ValueConverter} to use for each type of setter parameter, with an index of the setters of each class.
+ * 
+ * <p>
+ * The following types are supported by default : <code>String</code>, the primitive types and their wrappers (except
+ * <code>char</code>), <code>BigDecimal</code>, <code>BigInteger</code>, <code>Duration</code> (e.g. <code>PT15M</code>),
+ * <code>URL</code>, and any enum (using the name of the constant). Other types are supported by registering a converter, that may
+ * also replace a default converter.
+ * 
+ * <p>
+ * The setters of a class, including the inherited ones, are indexed the first time the class is used ; the index is reset when a
+ * converter is registered.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public class ValueConverterRegistry
+{
+	private static final ValueConverter<String> CONVERTER__NONE = value -> value;
+
+	private static final String PREFIX__SETTER = "set";
+
+	/**
+	 * Converters by type.
+	 */
+	private final Map<Class<?>, ValueConverter<?>> myConverters = new ConcurrentHashMap<Class<?>, ValueConverter<?>>();
+
+	/**
+	 * Incremented by each registration, the setters found before are outdated.
+	 */
+	private final AtomicInteger myModificationCount = new AtomicInteger();
+
+	/**
+	 * Setters by class, then by setter name.
+	 */
+	private final Map<Class<?>, Map<String, PropertySetter>> mySetterIndex = new ConcurrentHashMap<Class<?>, Map<String,
+			PropertySetter>>();
+
+	/**
+	 * Create a registry with the default converters.
+	 */
+	public ValueConverterRegistry()
+	{
+		register(String.class, CONVERTER__NONE);
+		register(Boolean.TYPE, Boolean::valueOf);
+		register(Boolean.class, Boolean::valueOf);
+		register(Byte.TYPE, Byte::valueOf);
+		register(Byte.class, Byte::valueOf);
+		register(Short.TYPE, Short::valueOf);
+		register(Short.class, Short::valueOf);
+		register(Integer.TYPE, Integer::valueOf);
+		register(Integer.class, Integer::valueOf);
+		register(Long.TYPE, Long::valueOf);
+		register(Long.class, Long::valueOf);
+		register(Float.TYPE, Float::valueOf);
+		register(Float.class, Float::valueOf);
+		register(Double.TYPE, Double::valueOf);
+		register(Double.class, Double::valueOf);
+		register(BigDecimal.class, BigDecimal::new);
+		register(BigInteger.class, BigInteger::new);
+		register(Duration.class, Duration::parse);
+		register(URL.class, ValueConverterRegistry::convertToUrl);
+	}
+
+	private static URL convertToUrl(String value)
+	{
+		try
+		{
+			return new URL(value);
+		}
+		catch (MalformedURLException _exception)
+		{
+			throw new IllegalArgumentException(value, _exception);
+		}
+	}
+
+	/**
+	 * Find the converter for the given type.
+	 * 
+	 * @param type
+	 *            the type of the setter parameter.
+	 * @return the converter, or <code>null</code> if the type is not supported.
+	 */
+	@SuppressWarnings(
+	{
+			"unchecked", "rawtypes"
+	})
+	public ValueConverter<?> findConverter(Class<?> type)
+	{
+		ValueConverter<?> _result = getConverters().get(type);
+		if (null == _result && type.isEnum())
+		{
+			final Class<? extends Enum> _enumType = (Class<? extends Enum>) type;
+			_result = value -> Enum.valueOf(_enumType, value);
+		}
+		return _result;
+	}
+
+	/**
+	 * Register the converter for the given type.
+	 * 
+	 * @param type
+	 *            the type of the setter parameter.
+	 * @param converter
+	 *            the converter.
+	 * @return this registry.
+	 */
+	public <T> ValueConverterRegistry register(Class<T> type, ValueConverter<? extends T> converter)
+	{
+		getConverters().put(type, converter);
+		getSetterIndex().clear();
+		getModificationCounter().incrementAndGet();
+		return this;
+	}
+
+	/**
+	 * Find the setter to use for a property of the given class.
+	 * 
+	 * @param type
+	 *            the class of the object to change.
+	 * @param setterName
+	 *            the setter name.
+	 * @return the setter with its converter, or <code>null</code> if there is none.
+	 */
+	PropertySetter findSetter(Class<?> type, String setterName)
+	{
+		Map<String, PropertySetter> _setters = getSetterIndex().get(type);
+		if (null == _setters)
+		{
+			_setters = indexSetters(type);
+			getSetterIndex().put(type, _setters);
+		}
+		return _setters.get(setterName);
+	}
+
+	/**
+	 * @return the count of registrations, to find out whether a setter found before (see
+	 *         {@link #findSetter(Class, String)}) is outdated.
+	 */
+	int getModificationCount()
+	{
+		return getModificationCounter().get();
+	}
+
+	private Map<Class<?>, ValueConverter<?>> getConverters()
+	{
+		return myConverters;
+	}
+
+	private AtomicInteger getModificationCounter()
+	{
+		return myModificationCount;
+	}
+
+	private Map<Class<?>, Map<String, PropertySetter>> getSetterIndex()
+	{
+		return mySetterIndex;
+	}
+
+	/**
+	 * Index the public setters of a class, including the inherited ones ; when a setter is overloaded, the one accepting a
+	 * <code>String</code> is preferred, or else the first one with a supported type.
+	 * 
+	 * @param type
+	 *            the class to index.
+	 * @return the setters by name.
+	 */
+	private Map<String, PropertySetter> indexSetters(Class<?> type)
+	{
+		Map<String, PropertySetter> _result = new HashMap<String, PropertySetter>();
+		for (Method _candidate : type.getMethods())
+		{
+			if (Modifier.isStatic(_candidate.getModifiers()) || 1 != _candidate.getParameterTypes().length
+					|| !_candidate.getName().startsWith(PREFIX__SETTER))
+			{
+				continue;
+			}
+			Class<?> _parameterType = _candidate.getParameterTypes()[0];
+			ValueConverter<?> _converter = findConverter(_parameterType);
+			if (null == _converter)
+			{
+				continue;
+			}
+			PropertySetter _known = _result.get(_candidate.getName());
+			if (null == _known || (String.class == _parameterType && String.class != _known.getParameterType()))
+			{
+				_result.put(_candidate.getName(), new PropertySetter(_candidate, _converter));
+			}
+		}
+		return Collections.unmodifiableMap(_result);
+	}
+}
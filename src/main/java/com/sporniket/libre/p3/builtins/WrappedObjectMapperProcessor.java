@@ -5,6 +5,10 @@ package com.sporniket.libre.p3.builtins;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Base class that translate the property name as a path to a nested field of an internal object using the javabeans convention,
@@ -16,6 +20,13 @@ import java.lang.reflect.Method;
  * <p>
  * Subclasses are expected to implement the #getObject() by returning the internal object to fill with property value.
  * 
+ * <p>
+ * The value is converted to the type of the setter parameter, the setter may be inherited ; see {@link ValueConverterRegistry} for
+ * the supported types, other types may be supported by registering converters to {@link #getConverters()}.
+ * 
+ * <p>
+ * The getters and setter found for a property name are remembered, they are looked up again only when the class of an object
+ * along the path changes.
  * 
  * <p>
  * &copy; Copyright 2016 David Sporn
@@ -47,21 +58,92 @@ import java.lang.reflect.Method;
  */
 public abstract class WrappedObjectMapperProcessor
 {
-	private static class SetterTarget
+	/**
+	 * Resolved access path for a property name : the getters to call from the internal object, and the setter to call on the last
+	 * object ; each method is valid for the class it has been found from, and the setter is valid until another converter is
+	 * registered.
+	 */
+	private static class AccessorChain
 	{
-		private final Object myObjectToChange;
+		private final Class<?>[] myGetterClasses;
+
+		private final String[] myGetterNames;
+
+		private final Method[] myGetters;
+
+		private PropertySetter mySetter;
+
+		private Class<?> mySetterClass;
+
+		private int mySetterModificationCount;
+
+		private Method mySetterForArray;
+
+		private Class<?> mySetterForArrayClass;
 
 		private final String mySetterName;
 
-		public SetterTarget(Object objectToChange, String setterName)
+		public AccessorChain(String[] getterNames, String setterName)
 		{
-			myObjectToChange = objectToChange;
+			myGetterNames = getterNames;
+			myGetters = new Method[getterNames.length];
+			myGetterClasses = new Class<?>[getterNames.length];
 			mySetterName = setterName;
 		}
 
-		public Object getObjectToChange()
+		/**
+		 * Call the getters, looking them up when the class of an object changes.
+		 * 
+		 * @param root
+		 *            the internal object.
+		 * @return the object to change.
+		 * @throws NoSuchMethodException
+		 *             when a getter does not exists.
+		 * @throws IllegalAccessException
+		 *             when there is a problem.
+		 * @throws InvocationTargetException
+		 *             when there is a problem.
+		 */
+		public Object findObjectToChange(Object root) throws NoSuchMethodException, IllegalAccessException,
+				InvocationTargetException
+		{
+			Object _toChange = root;
+			for (int _index = 0; _index < myGetters.length; _index++)
+			{
+				Class<?> _class = _toChange.getClass();
+				if (_class != myGetterClasses[_index])
+				{
+					myGetters[_index] = _class.getMethod(myGetterNames[_index], (Class<?>[]) null);
+					myGetterClasses[_index] = _class;
+				}
+				_toChange = myGetters[_index].invoke(_toChange, (Object[]) null);
+			}
+			return _toChange;
+		}
+
+		public PropertySetter getSetter()
+		{
+			return mySetter;
+		}
+
+		public Class<?> getSetterClass()
+		{
+			return mySetterClass;
+		}
+
+		public int getSetterModificationCount()
+		{
+			return mySetterModificationCount;
+		}
+
+		public Method getSetterForArray()
+		{
+			return mySetterForArray;
+		}
+
+		public Class<?> getSetterForArrayClass()
 		{
-			return myObjectToChange;
+			return mySetterForArrayClass;
 		}
 
 		public String getSetterName()
@@ -69,28 +151,70 @@ public abstract class WrappedObjectMapperProcessor
 			return mySetterName;
 		}
 
+		public void setSetter(Class<?> setterClass, PropertySetter setter, int modificationCount)
+		{
+			mySetterClass = setterClass;
+			mySetter = setter;
+			mySetterModificationCount = modificationCount;
+		}
+
+		public void setSetterForArray(Class<?> setterClass, Method setter)
+		{
+			mySetterForArrayClass = setterClass;
+			mySetterForArray = setter;
+		}
 	}
 
+	private static final char CHAR__DOT = '.';
+
 	private static final String PREFIX__GETTER = "get";
 
 	private static final String PREFIX__SETTER = "set";
 
-	private static final String REGEXP__CHAR_DOT = "\\.";
+	/**
+	 * Resolved access paths, by property name.
+	 */
+	private final Map<String, AccessorChain> myAccessorChains = new HashMap<String, AccessorChain>();
+
+	/**
+	 * Converters of the property values, and index of the setters.
+	 */
+	private final ValueConverterRegistry myConverters = new ValueConverterRegistry();
+
+	/**
+	 * Get the registry of converters, to register converters for other types of setter parameters.
+	 * 
+	 * @return the registry used by this processor.
+	 */
+	public ValueConverterRegistry getConverters()
+	{
+		return myConverters;
+	}
 
 	public void process(String name, String value) throws NoSuchMethodException, SecurityException, IllegalAccessException,
 			IllegalArgumentException, InvocationTargetException
 	{
-		SetterTarget _target = findSetterTarget(name);
-		findAndInvokeCompatibleSetter(_target, value);
+		AccessorChain _chain = findAccessorChain(name);
+		Object _objectToChange = _chain.findObjectToChange(getObject());
+		if (_objectToChange.getClass() != _chain.getSetterClass()
+				|| getConverters().getModificationCount() != _chain.getSetterModificationCount())
+		{
+			findCompatibleSetter(_chain, _objectToChange.getClass());
+		}
+		_chain.getSetter().set(_objectToChange, value);
 	}
 
 	public void process(String name, String value[]) throws NoSuchMethodException, SecurityException, IllegalAccessException,
 			IllegalArgumentException, InvocationTargetException
 	{
-		SetterTarget _target = findSetterTarget(name);
-		Object _objectToChange = _target.getObjectToChange();
-		Method _setter = _objectToChange.getClass().getMethod(_target.getSetterName(), value.getClass());
-		_setter.invoke(_objectToChange, (Object) value);
+		AccessorChain _chain = findAccessorChain(name);
+		Object _objectToChange = _chain.findObjectToChange(getObject());
+		if (_objectToChange.getClass() != _chain.getSetterForArrayClass())
+		{
+			Method _setter = _objectToChange.getClass().getMethod(_chain.getSetterName(), value.getClass());
+			_chain.setSetterForArray(_objectToChange.getClass(), _setter);
+		}
+		_chain.getSetterForArray().invoke(_objectToChange, (Object) value);
 	}
 
 	protected abstract Object getObject();
@@ -124,105 +248,91 @@ public abstract class WrappedObjectMapperProcessor
 	}
 
 	/**
-	 * Find the first compatible setter (conversion from String is supported) and invoke it.
+	 * Find the access path for a property name, it is created the first time.
 	 * 
-	 * @param target
-	 *            the object to change and setter name.
-	 * @param value
-	 *            the value.
-	 * @throws IllegalAccessException
-	 *             when there is a problem.
-	 * @throws InvocationTargetException
-	 *             when there is a problem.
-	 * @throws NoSuchMethodError
-	 *             when there is no compatible setter.
+	 * @param path
+	 *            the path to the object and setter.
+	 * @return the access path.
 	 */
-	private void findAndInvokeCompatibleSetter(SetterTarget target, String value) throws IllegalAccessException,
-			InvocationTargetException, NoSuchMethodError
+	private AccessorChain findAccessorChain(String path)
 	{
-		Object _objectToChange = target.getObjectToChange();
-		Method[] _declaredMethods = _objectToChange.getClass().getDeclaredMethods();
-		String _setterName = target.getSetterName();
-		for (Method _candidate : _declaredMethods)
+		AccessorChain _result = getAccessorChains().get(path);
+		if (null == _result)
 		{
-			if (_candidate.getName().equals(_setterName))
+			String[] _accessStack = splitPath(path);
+			if (0 == _accessStack.length)
 			{
-				Class<?>[] _parameterTypes = _candidate.getParameterTypes();
-				if (_parameterTypes.length != 1)
-				{
-					continue;
-				}
-				Class<?> _class = _parameterTypes[0];
-				if (_class == String.class)
-				{
-					// no conversion
-					_candidate.invoke(_objectToChange, value);
-					return;
-				}
-				else if (_class == Integer.TYPE)
-				{
-					_candidate.invoke(_objectToChange, Integer.parseInt(value));
-					return;
-				}
-				else if (_class == Long.TYPE)
-				{
-					_candidate.invoke(_objectToChange, Long.parseLong(value));
-					return;
-
-				}
-				else if (_class == Float.TYPE)
-				{
-					_candidate.invoke(_objectToChange, Float.parseFloat(value));
-					return;
-
-				}
-				else if (_class == Double.TYPE)
-				{
-					_candidate.invoke(_objectToChange, Double.parseDouble(value));
-					return;
-
-				}
-				else if (_class == Boolean.TYPE)
-				{
-					_candidate.invoke(_objectToChange, Boolean.parseBoolean(value));
-					return;
-				}
+				throw new IllegalArgumentException(path);
+			}
+			int _setterIndex = _accessStack.length - 1;
+			String[] _getterNames = new String[_setterIndex];
+			for (int _index = 0; _index < _setterIndex; _index++)
+			{
+				_getterNames[_index] = computeGetterName(_accessStack[_index]);
 			}
+			_result = new AccessorChain(_getterNames, computeSetterName(_accessStack[_setterIndex]));
+			getAccessorChains().put(path, _result);
 		}
-		throw new NoSuchMethodError(_setterName);
+		return _result;
 	}
 
 	/**
-	 * Find the object to change and the setter method name.
+	 * Find the compatible setter (conversion from String is supported) and remember it in the access path.
+	 * 
+	 * @param chain
+	 *            the access path.
+	 * @param targetClass
+	 *            the class of the object to change.
+	 * @throws NoSuchMethodError
+	 *             when there is no compatible setter.
+	 * @see ValueConverterRegistry
+	 */
+	private void findCompatibleSetter(AccessorChain chain, Class<?> targetClass) throws NoSuchMethodError
+	{
+		// read before the lookup, a registration meanwhile makes the setter outdated
+		int _modificationCount = getConverters().getModificationCount();
+		PropertySetter _setter = getConverters().findSetter(targetClass, chain.getSetterName());
+		if (null == _setter)
+		{
+			throw new NoSuchMethodError(chain.getSetterName());
+		}
+		chain.setSetter(targetClass, _setter, _modificationCount);
+	}
+
+	private Map<String, AccessorChain> getAccessorChains()
+	{
+		return myAccessorChains;
+	}
+
+	/**
+	 * Split a path on dots, like <code>path.split("\\.")</code> without using a regular expression.
 	 * 
 	 * @param path
-	 *            the path to the object and setter.
-	 * @return a {@link SetterTarget} storing the object to change and the setter name.
-	 * @throws NoSuchMethodException
-	 *             when a getter does not exists.
-	 * @throws IllegalAccessException
-	 *             when there is a problem.
-	 * @throws InvocationTargetException
-	 *             when there is a problem.
+	 *            the path.
+	 * @return the parts, trailing empty parts are removed.
 	 */
-	private SetterTarget findSetterTarget(String path) throws NoSuchMethodException, IllegalAccessException,
-			InvocationTargetException
+	private String[] splitPath(String path)
 	{
-		String[] _accessStack = path.split(REGEXP__CHAR_DOT);
-		if (0 == _accessStack.length)
+		if (path.indexOf(CHAR__DOT) < 0)
+		{
+			return new String[]
+			{
+					path
+			};
+		}
+		List<String> _result = new ArrayList<String>();
+		int _start = 0;
+		for (int _end = path.indexOf(CHAR__DOT); _end >= 0; _end = path.indexOf(CHAR__DOT, _start))
 		{
-			throw new IllegalArgumentException(path);
+			_result.add(path.substring(_start, _end));
+			_start = _end + 1;
 		}
-		int _setterIndex = _accessStack.length - 1;
-		Object _toChange = getObject();
-		for (int _index = 0; _index < _setterIndex; _index++)
+		_result.add(path.substring(_start));
+		int _size = _result.size();
+		while (_size > 0 && _result.get(_size - 1).isEmpty())
 		{
-			String _getterName = computeGetterName(_accessStack[_index]);
-			Method _getter = _toChange.getClass().getMethod(_getterName, (Class<?>[]) null);
-			_toChange = _getter.invoke(_toChange, (Object[]) null);
+			_size--;
 		}
-		String _setterName = computeSetterName(_accessStack[_setterIndex]);
-		SetterTarget _target = new SetterTarget(_toChange, _setterName);
-		return _target;
+		return _result.subList(0, _size).toArray(new String[_size]);
 	}
 }
@@ -0,0 +1,303 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * Events of the JDK Flight Recorder emitted by {@link P3} : the execution of directives, the dispatch of properties and the calls of
+ * processors.
+ * 
+ * <p>
+ * This version, from the multi-release part of the artifact for Java 11 and later, emits the events when they are enabled in the
+ * recording ; the dispatch and the calls of processors are only recorded above a threshold, that can be changed in the settings of
+ * the recording, e.g. <code>com.sporniket.libre.p3.ProcessorInvocation#threshold=5 ms</code>.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+final class FlightRecorderEvents
+{
+	/**
+	 * Execution of directives.
+	 */
+	@Name("com.sporniket.libre.p3.DirectivesExecution")
+	@Label("Directives Execution")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	static final class DirectivesExecutionEvent extends Event
+	{
+		@Label("Calls")
+		@Description("Count of processors called by the rules")
+		int calls;
+
+		@Label("Compilation Duration")
+		@Description("Duration of the compilation, or of the decoding of compiled directives")
+		@Timespan(Timespan.NANOSECONDS)
+		long compilationDuration;
+
+		@Label("Defines")
+		@Description("Count of objects created")
+		int defines;
+
+		@Label("Executed")
+		@Description("False when the directives have been ignored, because the directives cannot be overridden")
+		boolean executed;
+
+		@Label("Rules")
+		@Description("Count of rules created")
+		int rules;
+
+		@Label("Source Size")
+		@Description("Size of the source, in characters for directives, in bytes for compiled directives")
+		long sourceSize;
+
+		@Label("Statements")
+		@Description("Count of statements of the directives")
+		int statements;
+	}
+
+	/**
+	 * Dispatch of a property.
+	 */
+	@Name("com.sporniket.libre.p3.Dispatch")
+	@Label("Property Dispatch")
+	@Category(CATEGORY)
+	@Threshold("1 ms")
+	@StackTrace(false)
+	static final class DispatchEvent extends Event
+	{
+		@Label("Multiple Line")
+		boolean multipleLine;
+
+		@Label("Property Name")
+		String name;
+
+		@Label("Rule")
+		@Description("The matching rule, none when the property is ignored")
+		String rule;
+	}
+
+	/**
+	 * Call of a processor.
+	 */
+	@Name("com.sporniket.libre.p3.ProcessorInvocation")
+	@Label("Processor Invocation")
+	@Category(CATEGORY)
+	@Threshold("10 ms")
+	static final class ProcessorInvocationEvent extends Event
+	{
+		@Label("Batch")
+		boolean batch;
+
+		@Label("Holder")
+		@Description("Class of the object holding the processor")
+		Class<?> holder;
+
+		@Label("Method")
+		String method;
+
+		@Label("Property Name")
+		String name;
+	}
+
+	private static final String CATEGORY = "P3";
+
+	private static final EventType DIRECTIVES_EXECUTION_EVENT = EventType.getEventType(DirectivesExecutionEvent.class);
+
+	private static final EventType DISPATCH_EVENT = EventType.getEventType(DispatchEvent.class);
+
+	private static final EventType PROCESSOR_INVOCATION_EVENT = EventType.getEventType(ProcessorInvocationEvent.class);
+
+	private FlightRecorderEvents()
+	{
+		// static methods only
+	}
+
+	/**
+	 * @return an event to commit with {@link #commitDirectivesExecution(Object, long, RuleProgram, boolean, long)}, or
+	 *         <code>null</code> when the event is not recorded.
+	 */
+	public static Object beginDirectivesExecution()
+	{
+		if (!DIRECTIVES_EXECUTION_EVENT.isEnabled())
+		{
+			return null;
+		}
+		DirectivesExecutionEvent _result = new DirectivesExecutionEvent();
+		_result.begin();
+		return _result;
+	}
+
+	/**
+	 * @return an event to commit with {@link #commitDispatch(Object, boolean, String, RuleSpec)}, or <code>null</code> when the event
+	 *         is not recorded.
+	 */
+	public static Object beginDispatch()
+	{
+		if (!DISPATCH_EVENT.isEnabled())
+		{
+			return null;
+		}
+		DispatchEvent _result = new DispatchEvent();
+		_result.begin();
+		return _result;
+	}
+
+	/**
+	 * @return an event to commit with {@link #commitProcessorInvocation(Object, ProcessorSpec, String)}, or <code>null</code> when
+	 *         the event is not recorded.
+	 */
+	public static Object beginProcessorInvocation()
+	{
+		if (!PROCESSOR_INVOCATION_EVENT.isEnabled())
+		{
+			return null;
+		}
+		ProcessorInvocationEvent _result = new ProcessorInvocationEvent();
+		_result.begin();
+		return _result;
+	}
+
+	/**
+	 * Commit the event of the execution of directives.
+	 * 
+	 * @param event
+	 *            the event returned by {@link #beginDirectivesExecution()}.
+	 * @param sourceSize
+	 *            the size of the source, in characters for directives, in bytes for compiled directives.
+	 * @param program
+	 *            the program of the directives.
+	 * @param executed
+	 *            <code>false</code> when the directives have been ignored, see {@link P3#isAllowingOverride()}.
+	 * @param compilationDuration
+	 *            the duration of the compilation, or of the decoding of compiled directives, in nanoseconds.
+	 */
+	public static void commitDirectivesExecution(Object event, long sourceSize, RuleProgram program, boolean executed,
+			long compilationDuration)
+	{
+		DirectivesExecutionEvent _event = (DirectivesExecutionEvent) event;
+		_event.end();
+		if (!_event.shouldCommit())
+		{
+			return;
+		}
+		int _defines = 0;
+		int _rules = 0;
+		int _calls = 0;
+		for (RuleProgram.Instruction _instruction : program.getInstructions())
+		{
+			if (_instruction instanceof RuleProgram.Definition)
+			{
+				_defines++;
+			}
+			else if (_instruction instanceof RuleProgram.Rule)
+			{
+				_rules++;
+				_calls += ((RuleProgram.Rule) _instruction).getCalls().size();
+			}
+		}
+		_event.sourceSize = sourceSize;
+		_event.statements = _defines + _rules + _calls;
+		_event.executed = executed;
+		_event.defines = executed ? _defines : 0;
+		_event.rules = executed ? _rules : 0;
+		_event.calls = executed ? _calls : 0;
+		_event.compilationDuration = compilationDuration;
+		_event.commit();
+	}
+
+	/**
+	 * Commit the event of the dispatch of a property, when it lasted longer than the threshold of the recording.
+	 * 
+	 * @param event
+	 *            the event returned by {@link #beginDispatch()}.
+	 * @param multipleLine
+	 *            <code>true</code> for a multiple line property.
+	 * @param name
+	 *            the name of the property.
+	 * @param rule
+	 *            the matching rule, <code>null</code> if there is none.
+	 */
+	public static void commitDispatch(Object event, boolean multipleLine, String name, RuleSpec rule)
+	{
+		DispatchEvent _event = (DispatchEvent) event;
+		_event.end();
+		if (!_event.shouldCommit())
+		{
+			return;
+		}
+		_event.multipleLine = multipleLine;
+		_event.name = name;
+		_event.rule = (null == rule) ? null : rule.getMatcher().toString();
+		_event.commit();
+	}
+
+	/**
+	 * Commit the event of the call of a processor, when it lasted longer than the threshold of the recording.
+	 * 
+	 * @param event
+	 *            the event returned by {@link #beginProcessorInvocation()}.
+	 * @param processor
+	 *            the processor.
+	 * @param name
+	 *            the name of the processed property.
+	 */
+	public static void commitProcessorInvocation(Object event, ProcessorSpec processor, String name)
+	{
+		ProcessorInvocationEvent _event = (ProcessorInvocationEvent) event;
+		_event.end();
+		if (!_event.shouldCommit())
+		{
+			return;
+		}
+		_event.batch = processor.isBatch();
+		_event.holder = processor.getProcessorHolder().getClass();
+		_event.method = processor.getProcessor().getName();
+		_event.name = name;
+		_event.commit();
+	}
+
+	/**
+	 * @return <code>true</code> when the dispatch of properties or the calls of processors are recorded, the generated dispatcher must
+	 *         not be used.
+	 */
+	public static boolean isRecordingDispatch()
+	{
+		return DISPATCH_EVENT.isEnabled() || PROCESSOR_INVOCATION_EVENT.isEnabled();
+	}
+}
@@ -0,0 +1,78 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Threads running processors that do blocking work, see {@link AsyncDispatcher#createForBlockingProcessors(P3, int)}.
+ * 
+ * <p>
+ * This version, from the multi-release part of the artifact, uses virtual threads : a blocked processor does not hold a platform
+ * thread, thus many more workers can be used.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+final class WorkerThreads
+{
+	/**
+	 * Count of virtual threads, a virtual thread costs little while waiting for properties.
+	 */
+	private static final int VIRTUAL_THREADS = 256;
+
+	private WorkerThreads()
+	{
+		// static methods only
+	}
+
+	/**
+	 * @return the factory of the threads.
+	 */
+	public static ThreadFactory getThreadFactory()
+	{
+		return Thread.ofVirtual().name("p3-blocking-", 1).factory();
+	}
+
+	/**
+	 * @return the count of threads to use.
+	 */
+	public static int getThreadCount()
+	{
+		return VIRTUAL_THREADS;
+	}
+
+	/**
+	 * @return <code>true</code> when the threads are virtual threads.
+	 */
+	public static boolean isVirtual()
+	{
+		return true;
+	}
+}
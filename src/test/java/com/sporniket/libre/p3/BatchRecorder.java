@@ -0,0 +1,92 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Batch processor holder for {@link P3} that records the sizes of the batches, the names of the properties, and the notifications
+ * of the start and the end of the input.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ * @see TestBatchProcessor
+ */
+class BatchRecorder implements BatchProcessorHolder
+{
+	private int myEndCount;
+
+	private final List<String> myNames = new ArrayList<String>();
+
+	private final List<Integer> mySizes = new ArrayList<Integer>();
+
+	private int myStartCount;
+
+	public int getEndCount()
+	{
+		return myEndCount;
+	}
+
+	public List<String> getNames()
+	{
+		return myNames;
+	}
+
+	public List<Integer> getSizes()
+	{
+		return mySizes;
+	}
+
+	public int getStartCount()
+	{
+		return myStartCount;
+	}
+
+	@Override
+	public void onEndOfInput()
+	{
+		myEndCount++;
+	}
+
+	@Override
+	public void onStartOfInput()
+	{
+		myStartCount++;
+	}
+
+	public void recordAll(PropertyBatch<String> batch)
+	{
+		getSizes().add(batch.size());
+		for (int _i = 0; _i < batch.size(); _i++)
+		{
+			getNames().add(batch.getName(_i));
+		}
+	}
+}
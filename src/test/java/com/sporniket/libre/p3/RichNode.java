@@ -0,0 +1,101 @@
+package com.sporniket.libre.p3;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test class, with properties of various types and inherited properties.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ * @see TestValueConverterRegistry
+ */
+public class RichNode extends Node
+{
+	private BigDecimal myAmount;
+
+	private Integer myCount;
+
+	private Duration myDelay;
+
+	private Locale myLocale;
+
+	private TimeUnit myUnit;
+
+	public BigDecimal getAmount()
+	{
+		return myAmount;
+	}
+
+	public Integer getCount()
+	{
+		return myCount;
+	}
+
+	public Duration getDelay()
+	{
+		return myDelay;
+	}
+
+	public Locale getLocale()
+	{
+		return myLocale;
+	}
+
+	public TimeUnit getUnit()
+	{
+		return myUnit;
+	}
+
+	public void setAmount(BigDecimal amount)
+	{
+		myAmount = amount;
+	}
+
+	public void setCount(Integer count)
+	{
+		myCount = count;
+	}
+
+	public void setDelay(Duration delay)
+	{
+		myDelay = delay;
+	}
+
+	public void setLocale(Locale locale)
+	{
+		myLocale = locale;
+	}
+
+	public void setUnit(TimeUnit unit)
+	{
+		myUnit = unit;
+	}
+}
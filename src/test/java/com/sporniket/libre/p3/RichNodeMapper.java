@@ -0,0 +1,58 @@
+package com.sporniket.libre.p3;
+
+import java.util.Locale;
+
+import com.sporniket.libre.p3.builtins.WrappedObjectMapperProcessor;
+
+/**
+ * Test class, registering a converter.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ * @see TestValueConverterRegistry
+ */
+public class RichNodeMapper extends WrappedObjectMapperProcessor
+{
+	private final RichNode myNode = new RichNode();
+
+	public RichNodeMapper()
+	{
+		getConverters().register(Locale.class, Locale::forLanguageTag);
+	}
+
+	public RichNode getNode()
+	{
+		return myNode;
+	}
+
+	@Override
+	protected Object getObject()
+	{
+		return getNode();
+	}
+}
@@ -0,0 +1,72 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Processor holder for {@link P3} that records the values in the order of processing, the value <code>fail</code> is rejected, the
+ * value <code>error</code> throws an {@link Error}, and the value <code>interrupt</code> interrupts the current thread.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+class SequenceRecorder
+{
+	public static final String VALUE__ERROR = "error";
+
+	public static final String VALUE__FAIL = "fail";
+
+	public static final String VALUE__INTERRUPT = "interrupt";
+
+	private final List<String> myValues = new ArrayList<String>();
+
+	public List<String> getValues()
+	{
+		return myValues;
+	}
+
+	public void record(String name, String value)
+	{
+		if (VALUE__FAIL.equals(value))
+		{
+			throw new IllegalArgumentException(value);
+		}
+		if (VALUE__ERROR.equals(value))
+		{
+			throw new AssertionError(value);
+		}
+		if (VALUE__INTERRUPT.equals(value))
+		{
+			Thread.currentThread().interrupt();
+		}
+		getValues().add(value);
+	}
+}
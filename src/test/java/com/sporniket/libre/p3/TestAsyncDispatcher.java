@@ -0,0 +1,273 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.sporniket.libre.io.parser.properties.MultipleLinePropertyParsedEvent;
+import com.sporniket.libre.io.parser.properties.SingleLinePropertyParsedEvent;
+
+/**
+ * Unit testing of the asynchronous dispatch : ordering for each holder, directives found among the properties, backpressure and
+ * report of failures.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public class TestAsyncDispatcher
+{
+	private static final String[] DIRECTIVES =
+	{
+			"define first as new com.sporniket.libre.p3.SequenceRecorder",
+			"define second as new com.sporniket.libre.p3.SequenceRecorder",
+			"on singleLinePropertyParsed with a String named name, a String named value",
+			"    if name is like \"a\\\\..*\"",
+			"        call record from first using name, value",
+			"    else if name is like \"b\\\\..*\"",
+			"        call record from second using name, value",
+			"    endif",
+			"endon"
+	};
+
+	private static final int EVENTS = 10000;
+
+	@Test
+	public void testBlockingProcessors() throws Exception
+	{
+		P3 _p3 = TestUtils.createP3(DIRECTIVES);
+		try (AsyncDispatcher _dispatcher = AsyncDispatcher.createForBlockingProcessors(_p3, 16))
+		{
+			sendEvents(_dispatcher, "a.", 1000);
+			sendEvents(_dispatcher, "b.", 1000);
+			_dispatcher.flush();
+
+			assertThat(((SequenceRecorder) _p3.get("first")).getValues(), is(createValues(1000)));
+			assertThat(((SequenceRecorder) _p3.get("second")).getValues(), is(createValues(1000)));
+		}
+	}
+
+	@Test
+	public void testBackpressureDrop() throws Exception
+	{
+		CountDownLatch _gate = new CountDownLatch(1);
+		P3 _p3 = TestUtils.createP3(DIRECTIVES);
+		try (AsyncDispatcher _dispatcher = new AsyncDispatcher(_p3, 4, 1, BackpressurePolicy.DROP, createGatedThreadFactory(_gate)))
+		{
+			sendEvents(_dispatcher, "a.", 10);
+			_gate.countDown();
+			_dispatcher.flush();
+
+			assertThat(_dispatcher.getDroppedCount(), is(6L));
+			assertThat(((SequenceRecorder) _p3.get("first")).getValues(), is(createValues(4)));
+		}
+	}
+
+	@Test
+	public void testBackpressureSpill() throws Exception
+	{
+		CountDownLatch _gate = new CountDownLatch(1);
+		P3 _p3 = TestUtils.createP3(DIRECTIVES);
+		try (AsyncDispatcher _dispatcher = new AsyncDispatcher(_p3, 4, 1, BackpressurePolicy.SPILL, createGatedThreadFactory(_gate)))
+		{
+			sendEvents(_dispatcher, "a.", 100);
+			_gate.countDown();
+			assertThat(_dispatcher.awaitQuiescence(10, TimeUnit.SECONDS), is(true));
+
+			assertThat(_dispatcher.getDroppedCount(), is(0L));
+			assertThat(((SequenceRecorder) _p3.get("first")).getValues(), is(createValues(100)));
+		}
+	}
+
+	@Test
+	public void testDirectivesAmongProperties() throws Exception
+	{
+		P3 _p3 = new P3();
+		try (AsyncDispatcher _dispatcher = new AsyncDispatcher(_p3, 16, 2, BackpressurePolicy.BLOCK))
+		{
+			_dispatcher.onMultipleLinePropertyParsed(new MultipleLinePropertyParsedEvent(P3.DEFAULT_PROPERTY_NAME_FOR_DIRECTIVES,
+					DIRECTIVES));
+			sendEvents(_dispatcher, "b.", 100);
+			_dispatcher.flush();
+
+			assertThat(((SequenceRecorder) _p3.get("second")).getValues(), is(createValues(100)));
+		}
+	}
+
+	@Test
+	public void testFailure() throws Exception
+	{
+		P3 _p3 = TestUtils.createP3(DIRECTIVES);
+		try (AsyncDispatcher _dispatcher = new AsyncDispatcher(_p3, 16, 1, BackpressurePolicy.BLOCK))
+		{
+			_dispatcher.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("a.0", SequenceRecorder.VALUE__FAIL));
+			_dispatcher.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("a.1", "1"));
+			try
+			{
+				_dispatcher.flush();
+				fail("the failure must be reported");
+			}
+			catch (RuntimeException _exception)
+			{
+				// expected
+			}
+			_dispatcher.flush();
+			assertThat(((SequenceRecorder) _p3.get("first")).getValues().size(), is(1));
+		}
+	}
+
+	@Test
+	public void testFailureError() throws Exception
+	{
+		P3 _p3 = TestUtils.createP3(DIRECTIVES);
+		try (AsyncDispatcher _dispatcher = new AsyncDispatcher(_p3, 16, 1, BackpressurePolicy.BLOCK))
+		{
+			_dispatcher.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("a.0", SequenceRecorder.VALUE__ERROR));
+			_dispatcher.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("a.1", "1"));
+			try
+			{
+				_dispatcher.flush();
+				fail("the failure must be reported");
+			}
+			catch (RuntimeException | Error _exception)
+			{
+				// expected
+			}
+
+			// the worker is still alive
+			_dispatcher.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("a.2", "2"));
+			_dispatcher.flush();
+			assertThat(((SequenceRecorder) _p3.get("first")).getValues(), is(Arrays.asList("1", "2")));
+		}
+	}
+
+	@Test
+	public void testInterruptedWorker() throws Exception
+	{
+		P3 _p3 = TestUtils.createP3(DIRECTIVES);
+		final List<Thread> _workers = new ArrayList<Thread>();
+		try (AsyncDispatcher _dispatcher = new AsyncDispatcher(_p3, 16, 1, BackpressurePolicy.BLOCK, task -> {
+			Thread _result = new Thread(task);
+			_workers.add(_result);
+			return _result;
+		}))
+		{
+			_dispatcher.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("a.0", SequenceRecorder.VALUE__INTERRUPT));
+			// the worker ends when waiting for the next call
+			_workers.get(0).join(10000);
+			assertThat(_workers.get(0).isAlive(), is(false));
+			assertThat(((SequenceRecorder) _p3.get("first")).getValues().size(), is(1));
+
+			// neither the submitter nor the barrier wait for the dead worker
+			try
+			{
+				_dispatcher.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("a.1", "1"));
+				fail("the end of the worker must be reported");
+			}
+			catch (IllegalStateException _exception)
+			{
+				// expected
+			}
+			try
+			{
+				_dispatcher.flush();
+				fail("the end of the worker must be reported");
+			}
+			catch (IllegalStateException _exception)
+			{
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void testOrderingByHolder() throws Exception
+	{
+		P3 _p3 = TestUtils.createP3(DIRECTIVES);
+		try (AsyncDispatcher _dispatcher = new AsyncDispatcher(_p3, 64, 2, BackpressurePolicy.BLOCK))
+		{
+			_dispatcher.setBatchSize(16);
+			for (int _i = 0; _i < EVENTS; _i++)
+			{
+				_dispatcher.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("a." + _i, String.valueOf(_i)));
+				_dispatcher.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("b." + _i, String.valueOf(_i)));
+			}
+			_dispatcher.flush();
+
+			assertThat(((SequenceRecorder) _p3.get("first")).getValues(), is(createValues(EVENTS)));
+			assertThat(((SequenceRecorder) _p3.get("second")).getValues(), is(createValues(EVENTS)));
+		}
+	}
+
+	/**
+	 * Worker threads waiting for the gate to be opened before processing.
+	 */
+	private ThreadFactory createGatedThreadFactory(final CountDownLatch gate)
+	{
+		return task -> new Thread(() -> {
+			try
+			{
+				gate.await();
+			}
+			catch (InterruptedException _exception)
+			{
+				return;
+			}
+			task.run();
+		});
+	}
+
+	private List<String> createValues(int count)
+	{
+		List<String> _result = new ArrayList<String>(count);
+		for (int _i = 0; _i < count; _i++)
+		{
+			_result.add(String.valueOf(_i));
+		}
+		return _result;
+	}
+
+	private void sendEvents(AsyncDispatcher dispatcher, String prefix, int count)
+	{
+		for (int _i = 0; _i < count; _i++)
+		{
+			dispatcher.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent(prefix + _i, String.valueOf(_i)));
+		}
+	}
+}
@@ -0,0 +1,90 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.sporniket.libre.io.parser.properties.SingleLinePropertyParsedEvent;
+
+/**
+ * Unit testing of the batch processors : size of the batches, delivery of the pending batch and notifications at the end of the
+ * input.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public class TestBatchProcessor
+{
+	private static final String[] DIRECTIVES =
+	{
+			"define recorder as new com.sporniket.libre.p3.BatchRecorder",
+			"on singleLinePropertyParsed with a String named name, a String named value",
+			"    if name is like \"a\\\\..*\"",
+			"        call recordAll from recorder using name, value",
+			"    endif",
+			"endon"
+	};
+
+	@Test
+	public void testBatches() throws Exception
+	{
+		P3 _p3 = TestUtils.createP3(DIRECTIVES);
+		_p3.setBatchSize(3);
+		BatchRecorder _recorder = (BatchRecorder) _p3.get("recorder");
+
+		_p3.onStartOfInput();
+		for (int _i = 0; _i < 7; _i++)
+		{
+			_p3.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("a." + _i, String.valueOf(_i)));
+			_p3.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("b." + _i, String.valueOf(_i)));
+		}
+		assertThat(_recorder.getStartCount(), is(1));
+		assertThat(_recorder.getSizes(), is(Arrays.asList(3, 3)));
+		assertThat(_recorder.getEndCount(), is(0));
+
+		_p3.onEndOfInput();
+		assertThat(_recorder.getSizes(), is(Arrays.asList(3, 3, 1)));
+		assertThat(_recorder.getNames(), is(Arrays.asList("a.0", "a.1", "a.2", "a.3", "a.4", "a.5", "a.6")));
+		assertThat(_recorder.getEndCount(), is(1));
+
+		_p3.onEndOfInput();
+		assertThat(_recorder.getSizes(), is(Arrays.asList(3, 3, 1)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidBatchSize() throws Exception
+	{
+		TestUtils.createP3(DIRECTIVES).setBatchSize(0);
+	}
+}
@@ -0,0 +1,116 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import com.sporniket.libre.io.parser.properties.SingleLinePropertyParsedEvent;
+
+/**
+ * Unit testing of the directives compiled ahead of time : loading, detection of stale or unsupported binary forms.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public class TestCompiledDirectives
+{
+	private static final String SOURCE = "define first as new com.sporniket.libre.p3.PropertiesCatcher\n"
+			+ "on singleLinePropertyParsed with a String named name, a String named value\n"
+			+ "    if name is \"a\"\n"
+			+ "        call store from first using name, value\n"
+			+ "    else if name is like \"b\\\\..*\"\n"
+			+ "        call store from first using name, value\n"
+			+ "    endif\n"
+			+ "endon";
+
+	@Test
+	public void testLoadFromBuffer() throws Exception
+	{
+		P3 _p3 = new P3();
+		_p3.executeCompiledDirectives(ByteBuffer.wrap(CompiledDirectives.compile(SOURCE)));
+		checkDispatch(_p3);
+	}
+
+	@Test
+	public void testLoadFromFile() throws Exception
+	{
+		File _file = File.createTempFile("directives", ".p3rp");
+		_file.deleteOnExit();
+		CompiledDirectives.compile(SOURCE, _file.toPath());
+
+		P3 _p3 = new P3();
+		_p3.executeCompiledDirectives(_file.toPath());
+		checkDispatch(_p3);
+	}
+
+	@Test
+	public void testStale() throws Exception
+	{
+		ByteBuffer _compiled = ByteBuffer.wrap(CompiledDirectives.compile(SOURCE));
+		assertThat(CompiledDirectives.isCompiledFrom(_compiled, SOURCE), is(true));
+		assertThat(CompiledDirectives.isCompiledFrom(_compiled, SOURCE + "\n"), is(false));
+	}
+
+	@Test
+	public void testUnsupportedVersion() throws Exception
+	{
+		byte[] _compiled = CompiledDirectives.compile(SOURCE);
+		_compiled[5]++;
+		assertThat(CompiledDirectives.isCompiledFrom(ByteBuffer.wrap(_compiled), SOURCE), is(false));
+		try
+		{
+			new P3().executeCompiledDirectives(ByteBuffer.wrap(_compiled));
+			fail("the version must be rejected");
+		}
+		catch (IllegalArgumentException _exception)
+		{
+			// expected
+		}
+	}
+
+	private void checkDispatch(P3 p3)
+	{
+		p3.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("a", "1"));
+		p3.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("b.c", "2"));
+		p3.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("c", "3"));
+
+		PropertiesCatcher _catcher = (PropertiesCatcher) p3.get("first");
+		assertThat(_catcher.getProperties().get("a"), is("1"));
+		assertThat(_catcher.getProperties().get("b.c"), is("2"));
+		assertThat(_catcher.getProperties().get("c"), nullValue());
+	}
+}
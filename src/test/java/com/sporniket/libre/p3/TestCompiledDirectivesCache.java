@@ -0,0 +1,98 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import com.sporniket.libre.io.parser.properties.SingleLinePropertyParsedEvent;
+
+/**
+ * Unit testing of the cache of compiled directives : eviction, and independence of the P3 sharing the same directives.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public class TestCompiledDirectivesCache
+{
+	private static final String[] DIRECTIVES =
+	{
+			"define first as new com.sporniket.libre.p3.PropertiesCatcher",
+			"on singleLinePropertyParsed with a String named name, a String named value",
+			"    if name is \"a\"",
+			"        call store from first using name, value",
+			"    endif",
+			"endon"
+	};
+
+	@Test
+	public void testEviction()
+	{
+		CompiledDirectivesCache _cache = new CompiledDirectivesCache(2);
+		RuleProgram _a = _cache.put("a", createProgram("a"));
+		_cache.put("b", createProgram("b"));
+		assertThat(_cache.get("a"), sameInstance(_a));
+		_cache.put("c", createProgram("c"));
+
+		// "b" is the least recently used
+		assertThat(_cache.get("b"), nullValue());
+		assertThat(_cache.get("a"), not(nullValue()));
+		assertThat(_cache.get("c"), not(nullValue()));
+
+		_cache.setCapacity(0);
+		assertThat(_cache.get("a"), nullValue());
+		_cache.put("d", createProgram("d"));
+		assertThat(_cache.get("d"), nullValue());
+	}
+
+	@Test
+	public void testSharedDirectives()
+	{
+		P3 _first = TestUtils.createP3(DIRECTIVES);
+		P3 _second = TestUtils.createP3(DIRECTIVES);
+		_first.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("a", "1"));
+		_second.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("a", "2"));
+
+		assertThat(_first.get("first"), not(sameInstance(_second.get("first"))));
+		assertThat(((PropertiesCatcher) _first.get("first")).getProperties().get("a"), is("1"));
+		assertThat(((PropertiesCatcher) _second.get("first")).getProperties().get("a"), is("2"));
+	}
+
+	private RuleProgram createProgram(String source)
+	{
+		return new RuleProgram(new ArrayList<RuleProgram.Instruction>(), true, RuleProgram.computeSourceHash(source));
+	}
+}
@@ -0,0 +1,178 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sporniket.libre.io.parser.properties.MultipleLinePropertyParsedEvent;
+import com.sporniket.libre.io.parser.properties.SingleLinePropertyParsedEvent;
+
+/**
+ * Unit testing of the compiled programs and of their run contexts.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public class TestCompiledP3Program
+{
+	private static final String[] DIRECTIVES =
+	{
+			"define a as new com.sporniket.libre.p3.CountedCatcher",
+			"define b as new com.sporniket.libre.p3.CountedCatcher",
+			"on singleLinePropertyParsed with a String named name, a String named value",
+			"    if name is like \"a\\\\..*\"",
+			"        call store from a using name, value",
+			"    endif",
+			"    if name is like \".*\"",
+			"        call store from b using name, value",
+			"    endif",
+			"endon"
+	};
+
+	private static final String[] DIRECTIVES__OTHER =
+	{
+			"define c as new com.sporniket.libre.p3.CountedCatcher",
+			"on singleLinePropertyParsed with a String named name, a String named value",
+			"    if name is \"c\"",
+			"        call store from c using name, value",
+			"    endif",
+			"endon"
+	};
+
+	private static final int THREADS = 4;
+
+	@Before
+	public void resetInstances()
+	{
+		CountedCatcher.INSTANCES.set(0);
+	}
+
+	@Test
+	public void testConcurrentContexts() throws Exception
+	{
+		final CompiledP3Program _program = createP3(true).compile();
+		ExecutorService _executor = Executors.newFixedThreadPool(THREADS);
+		try
+		{
+			List<Future<P3>> _contexts = new ArrayList<Future<P3>>();
+			for (int _i = 0; _i < 2 * THREADS; _i++)
+			{
+				final String _value = String.valueOf(_i);
+				_contexts.add(_executor.submit(() -> {
+					P3 _context = _program.newContext();
+					_context.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("a.1", _value));
+					return _context;
+				}));
+			}
+			for (int _i = 0; _i < _contexts.size(); _i++)
+			{
+				P3 _context = _contexts.get(_i).get();
+				assertThat(((PropertiesCatcher) _context.get("a")).getProperties().get("a.1"), is(String.valueOf(_i)));
+				assertThat(((PropertiesCatcher) _context.get("b")).getProperties().isEmpty(), is(true));
+			}
+		}
+		finally
+		{
+			_executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testContexts() throws Exception
+	{
+		P3 _p3 = createP3(false);
+		CountedCatcher.INSTANCES.set(0);
+		CompiledP3Program _program = _p3.compile();
+		assertThat(CountedCatcher.INSTANCES.get(), is(0));
+
+		P3 _first = _program.newContext();
+		P3 _second = _program.newContext();
+		assertThat(CountedCatcher.INSTANCES.get(), is(4));
+		_first.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("a.1", "1"));
+		_second.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("b.1", "2"));
+
+		assertThat(_first.get("a"), not(sameInstance(_second.get("a"))));
+		assertThat(((PropertiesCatcher) _first.get("a")).getProperties().get("a.1"), is("1"));
+		assertThat(((PropertiesCatcher) _first.get("b")).getProperties().isEmpty(), is(true));
+		assertThat(((PropertiesCatcher) _second.get("a")).getProperties().isEmpty(), is(true));
+		assertThat(((PropertiesCatcher) _second.get("b")).getProperties().get("b.1"), is("2"));
+		assertThat(((PropertiesCatcher) _p3.get("a")).getProperties().isEmpty(), is(true));
+	}
+
+	@Test
+	public void testLazyContext() throws Exception
+	{
+		P3 _p3 = createP3(false);
+		_p3.setInstantiatingLazily(true);
+		CompiledP3Program _program = _p3.compile();
+		CountedCatcher.INSTANCES.set(0);
+
+		P3 _context = _program.newContext();
+		_context.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("b.1", "1"));
+
+		assertThat(CountedCatcher.INSTANCES.get(), is(1));
+		assertThat(_context.getIfCreated("a"), is((Object) null));
+	}
+
+	@Test
+	public void testProgramIsImmutable() throws Exception
+	{
+		P3 _p3 = createP3(false);
+		_p3.setAllowingOverride(true);
+		CompiledP3Program _program = _p3.compile();
+		_p3.onMultipleLinePropertyParsed(new MultipleLinePropertyParsedEvent(P3.DEFAULT_PROPERTY_NAME_FOR_DIRECTIVES,
+				DIRECTIVES__OTHER));
+
+		P3 _context = _program.newContext();
+
+		assertThat(_p3.containsKey("c"), is(true));
+		assertThat(_context.containsKey("c"), is(false));
+		assertThat(_context.size(), is(2));
+	}
+
+	private P3 createP3(boolean generatingDispatcher)
+	{
+		P3 _result = new P3();
+		_result.setGeneratingDispatcher(generatingDispatcher);
+		_result.onMultipleLinePropertyParsed(new MultipleLinePropertyParsedEvent(P3.DEFAULT_PROPERTY_NAME_FOR_DIRECTIVES, DIRECTIVES));
+		return _result;
+	}
+}
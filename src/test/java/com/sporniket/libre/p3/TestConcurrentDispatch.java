@@ -0,0 +1,154 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import com.sporniket.libre.io.parser.properties.MultipleLinePropertyParsedEvent;
+import com.sporniket.libre.io.parser.properties.SingleLinePropertyParsedEvent;
+
+/**
+ * Unit testing of a P3 shared by several threads : serialized calls of the processors that are not thread safe, and rules added
+ * while dispatching.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public class TestConcurrentDispatch
+{
+	private static final String[] DIRECTIVES =
+	{
+			"define counter as new com.sporniket.libre.p3.Counter",
+			"define safeCounter as new com.sporniket.libre.p3.ThreadSafeCounter",
+			"on singleLinePropertyParsed with a String named name, a String named value",
+			"    if name is like \"a\\\\..*\"",
+			"        call count from counter using name, value",
+			"        call count from safeCounter using name, value",
+			"    endif",
+			"endon"
+	};
+
+	private static final String[] DIRECTIVES__OVERRIDE =
+	{
+			"define otherCounter as new com.sporniket.libre.p3.ThreadSafeCounter",
+			"on singleLinePropertyParsed with a String named name, a String named value",
+			"    if name is like \"b\\\\..*\"",
+			"        call count from otherCounter using name, value",
+			"    endif",
+			"endon"
+	};
+
+	private static final int EVENTS_PER_THREAD = 20000;
+
+	private static final int THREADS = 4;
+
+	@Test
+	public void testAddingRulesWhileDispatching() throws Exception
+	{
+		final P3 _p3 = TestUtils.createP3(DIRECTIVES);
+		_p3.setConcurrentDispatch(true);
+		_p3.setAllowingOverride(true);
+		List<Future<?>> _results = startDispatching(_p3);
+		_p3.onMultipleLinePropertyParsed(new MultipleLinePropertyParsedEvent(P3.DEFAULT_PROPERTY_NAME_FOR_DIRECTIVES,
+				DIRECTIVES__OVERRIDE));
+		for (Future<?> _result : _results)
+		{
+			_result.get();
+		}
+		_p3.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("b.c", "1"));
+
+		assertThat(((Counter) _p3.get("counter")).getCount(), is(THREADS * EVENTS_PER_THREAD));
+		assertThat(((ThreadSafeCounter) _p3.get("otherCounter")).getCount(), is(1));
+	}
+
+	@Test
+	public void testSerializedProcessors() throws Exception
+	{
+		checkSharedP3(false);
+	}
+
+	@Test
+	public void testSerializedProcessorsWithGeneratedDispatcher() throws Exception
+	{
+		checkSharedP3(true);
+	}
+
+	private void checkSharedP3(boolean generatingDispatcher) throws Exception
+	{
+		P3 _p3 = TestUtils.createP3(DIRECTIVES);
+		_p3.setConcurrentDispatch(true);
+		_p3.setGeneratingDispatcher(generatingDispatcher);
+		for (Future<?> _result : startDispatching(_p3))
+		{
+			_result.get();
+		}
+
+		assertThat(((Counter) _p3.get("counter")).getCount(), is(THREADS * EVENTS_PER_THREAD));
+		assertThat(((ThreadSafeCounter) _p3.get("safeCounter")).getCount(), is(THREADS * EVENTS_PER_THREAD));
+	}
+
+	private List<Future<?>> startDispatching(final P3 p3)
+	{
+		ExecutorService _executor = Executors.newFixedThreadPool(THREADS);
+		try
+		{
+			List<Future<?>> _results = new ArrayList<Future<?>>(THREADS);
+			for (int _i = 0; _i < THREADS; _i++)
+			{
+				_results.add(_executor.submit(new Callable<Void>()
+				{
+					@Override
+					public Void call() throws Exception
+					{
+						for (int _event = 0; _event < EVENTS_PER_THREAD; _event++)
+						{
+							p3.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("a." + _event, "x"));
+						}
+						return null;
+					}
+				}));
+			}
+			return _results;
+		}
+		finally
+		{
+			_executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,91 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+/**
+ * Unit testing of the directives compiler : reuse of the parser, and report of syntax errors.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public class TestDirectivesCompiler
+{
+	private static final String SOURCE__INVALID = "this is not a directive";
+
+	private static final String SOURCE__VALID = "define first as new com.sporniket.libre.p3.PropertiesCatcher\n"
+			+ "on singleLinePropertyParsed with a String named name, a String named value\n"
+			+ "    if name is \"a\"\n"
+			+ "        call store from first using name, value\n"
+			+ "    endif\n"
+			+ "endon";
+
+	@Test
+	public void testReuse() throws DirectivesCompilationException
+	{
+		DirectivesCompiler _compiler = DirectivesCompiler.get();
+		RuleProgram _first = _compiler.compile(SOURCE__VALID, false);
+		try
+		{
+			_compiler.compile(SOURCE__INVALID, false);
+			fail("a syntax error was expected");
+		}
+		catch (DirectivesCompilationException _exception)
+		{
+			// the compiler must still be usable
+		}
+		RuleProgram _second = _compiler.compile(SOURCE__VALID, false);
+
+		assertThat(_first.getInstructions().size(), is(2));
+		assertThat(_second.getInstructions().size(), is(2));
+		assertThat(_second.getInstructions().get(0), instanceOf(RuleProgram.Definition.class));
+		assertThat(_second.getInstructions().get(1), instanceOf(RuleProgram.Rule.class));
+	}
+
+	@Test
+	public void testSyntaxError()
+	{
+		try
+		{
+			DirectivesCompiler.get().compile(SOURCE__INVALID, false);
+			fail("a syntax error was expected");
+		}
+		catch (DirectivesCompilationException _exception)
+		{
+			assertThat(_exception.getSource(), is(SOURCE__INVALID));
+			assertThat(_exception.getStartPosition() >= DirectivesCompilationException.POSITION__UNKNOWN, is(true));
+		}
+	}
+}
@@ -0,0 +1,109 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.sporniket.libre.io.parser.properties.MultipleLinePropertyParsedEvent;
+import com.sporniket.libre.io.parser.properties.SingleLinePropertyParsedEvent;
+
+/**
+ * Unit testing of the dispatch cache : counters, eviction and invalidation when new rules are added.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public class TestDispatchCache
+{
+	private static final String[] DIRECTIVES =
+	{
+			"define first as new com.sporniket.libre.p3.PropertiesCatcher",
+			"on singleLinePropertyParsed with a String named name, a String named value",
+			"    if name is \"a\"",
+			"        call store from first using name, value",
+			"    endif",
+			"endon"
+	};
+
+	private static final String[] DIRECTIVES_OVERRIDE =
+	{
+			"define second as new com.sporniket.libre.p3.PropertiesCatcher",
+			"on singleLinePropertyParsed with a String named name, a String named value",
+			"    if name is \"b\"",
+			"        call store from second using name, value",
+			"    endif",
+			"endon"
+	};
+
+	@Test
+	public void testCounters()
+	{
+		P3 _processor = TestUtils.createP3(DIRECTIVES);
+		_processor.setDispatchCacheCapacity(2);
+		_processor.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("a", "1"));
+		_processor.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("a", "2"));
+		_processor.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("x", "3"));
+		_processor.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("x", "4"));
+		_processor.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("y", "5"));
+
+		DispatchCacheStatistics _statistics = _processor.getDispatchCacheStatistics();
+		assertThat(_statistics.getCapacity(), is(2));
+		assertThat(_statistics.getSize(), is(2));
+		assertThat(_statistics.getHitCount(), is(2L));
+		assertThat(_statistics.getMissCount(), is(3L));
+		assertThat(_statistics.getEvictionCount(), is(1L));
+
+		Map<String, String> _first = ((PropertiesCatcher) _processor.get("first")).getProperties();
+		assertThat(_first.get("a"), is("2"));
+		assertThat(_first.keySet(), not(hasItem("x")));
+	}
+
+	@Test
+	public void testInvalidationOnOverride()
+	{
+		P3 _processor = TestUtils.createP3(DIRECTIVES);
+		_processor.setDispatchCacheCapacity(10);
+		_processor.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("b", "not catched"));
+
+		_processor.setAllowingOverride(true);
+		_processor.onMultipleLinePropertyParsed(new MultipleLinePropertyParsedEvent(P3.DEFAULT_PROPERTY_NAME_FOR_DIRECTIVES,
+				DIRECTIVES_OVERRIDE));
+		_processor.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("b", "catched"));
+
+		Map<String, String> _second = ((PropertiesCatcher) _processor.get("second")).getProperties();
+		assertThat(_second.get("b"), is("catched"));
+	}
+}
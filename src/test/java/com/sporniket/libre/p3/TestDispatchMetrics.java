@@ -0,0 +1,133 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.junit.Assert.assertThat;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+import com.sporniket.libre.io.parser.properties.MultipleLinePropertyParsedEvent;
+import com.sporniket.libre.io.parser.properties.SingleLinePropertyParsedEvent;
+
+/**
+ * Unit testing of the metrics of the dispatch : counters, hits of rules, latencies and MBean.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public class TestDispatchMetrics
+{
+	private static final String[] DIRECTIVES =
+	{
+			"define catcher as new com.sporniket.libre.p3.PropertiesCatcher",
+			"on singleLinePropertyParsed with a String named name, a String named value",
+			"    if name is like \"a\\\\..*\"",
+			"        call store from catcher using name, value",
+			"    endif",
+			"endon"
+	};
+
+	/**
+	 * Directives used only by {@link #testCollectingMetrics()}, thus not found in the cache of compiled directives.
+	 */
+	private static final String[] DIRECTIVES__NOT_CACHED =
+	{
+			"define catcher as new com.sporniket.libre.p3.PropertiesCatcher",
+			"define unused as new com.sporniket.libre.p3.PropertiesCatcher",
+			"on singleLinePropertyParsed with a String named name, a String named value",
+			"    if name is like \"a\\\\..*\"",
+			"        call store from catcher using name, value",
+			"    endif",
+			"endon"
+	};
+
+	@Test
+	public void testCollectingMetrics() throws Exception
+	{
+		P3 _p3 = new P3();
+		_p3.setRecordingLatencies(true);
+		_p3.onMultipleLinePropertyParsed(new MultipleLinePropertyParsedEvent(P3.DEFAULT_PROPERTY_NAME_FOR_DIRECTIVES,
+				DIRECTIVES__NOT_CACHED));
+		_p3.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("a.1", "1"));
+		_p3.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("a.2", "2"));
+		_p3.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("b.1", "3"));
+
+		DispatchMetrics _metrics = _p3.getMetrics();
+		assertThat(_p3.isCollectingMetrics(), is(true));
+		assertThat(_metrics.getSingleLinePropertyCount(), is(3L));
+		assertThat(_metrics.getMultipleLinePropertyCount(), is(1L));
+		assertThat(_metrics.getUnmatchedPropertyCount(), is(1L));
+		assertThat(_metrics.getProcessorInvocationCount(), is(3L));
+		assertThat(_metrics.getDirectivesCompilationCount(), is(1L));
+		assertThat(_metrics.getDirectivesCompilationLatency().getCount(), is(1L));
+		assertThat(_metrics.getRuleHitCounts().get("singleLinePropertyParsed[1] is like \"a\\..*\""), is(2L));
+		assertThat(_metrics.getProcessorLatencies().get("catcher.store").getCount(), is(2L));
+	}
+
+	@Test
+	public void testDisabledByDefault() throws Exception
+	{
+		P3 _p3 = TestUtils.createP3(DIRECTIVES);
+		_p3.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("a.1", "1"));
+
+		DispatchMetrics _metrics = _p3.getMetrics();
+		assertThat(_p3.isCollectingMetrics(), is(false));
+		assertThat(_metrics.getSingleLinePropertyCount(), is(0L));
+		assertThat(_metrics.getRuleHitCounts().isEmpty(), is(true));
+		assertThat(((PropertiesCatcher) _p3.get("catcher")).getProperties().get("a.1"), is("1"));
+	}
+
+	@Test
+	public void testMBean() throws Exception
+	{
+		P3 _p3 = TestUtils.createP3(DIRECTIVES);
+		MBeanServer _server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName _name = _p3.registerMetricsMBean("testMBean");
+		try
+		{
+			_server.setAttribute(_name, new Attribute("CollectingMetrics", true));
+			_p3.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("a.1", "1"));
+
+			assertThat(_server.getAttribute(_name, "SingleLinePropertyCount"), is((Object) 1L));
+			assertThat(_server.getAttribute(_name, "RuleHitCounts"), notNullValue());
+		}
+		finally
+		{
+			_server.unregisterMBean(_name);
+		}
+	}
+}
@@ -0,0 +1,77 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import com.sporniket.libre.io.parser.properties.SingleLinePropertyParsedEvent;
+
+/**
+ * Unit testing of the version of {@link FlightRecorderEvents} that does nothing, used when running from the classes directory or on
+ * Java 8 : no event is begun, and the properties are dispatched as usual. The version emitting the events is tested by
+ * <code>ITFlightRecorderEvents</code>, against the multi-release jar.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public class TestFlightRecorderEvents
+{
+	private static final String[] DIRECTIVES =
+	{
+			"define catcher as new com.sporniket.libre.p3.PropertiesCatcher",
+			"on singleLinePropertyParsed with a String named name, a String named value",
+			"    if name is like \"a\\\\..*\"",
+			"        call store from catcher using name, value",
+			"    endif",
+			"endon"
+	};
+
+	@Test
+	public void testDispatch()
+	{
+		P3 _p3 = TestUtils.createP3(DIRECTIVES);
+		_p3.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("a.1", "1"));
+		_p3.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("b.1", "2"));
+
+		assertThat(((PropertiesCatcher) _p3.get("catcher")).getProperties().toString(), is("{a.1=1}"));
+	}
+
+	@Test
+	public void testNoEvent()
+	{
+		assertThat(FlightRecorderEvents.beginDirectivesExecution(), nullValue());
+		assertThat(FlightRecorderEvents.beginDispatch(), nullValue());
+		assertThat(FlightRecorderEvents.beginProcessorInvocation(), nullValue());
+		assertThat(FlightRecorderEvents.isRecordingDispatch(), is(false));
+	}
+}
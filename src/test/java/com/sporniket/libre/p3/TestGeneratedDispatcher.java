@@ -0,0 +1,137 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.sporniket.libre.io.parser.properties.MultipleLinePropertyParsedEvent;
+import com.sporniket.libre.io.parser.properties.SingleLinePropertyParsedEvent;
+
+/**
+ * Unit testing that the generated dispatch behaves like the interpreted dispatch, including when rules are added later.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public class TestGeneratedDispatcher
+{
+	private static final String[] DIRECTIVES =
+	{
+			"define first as new com.sporniket.libre.p3.PropertiesCatcher",
+			"define second as new com.sporniket.libre.p3.PropertiesCatcher",
+			"define third as new com.sporniket.libre.p3.PropertiesCatcher",
+			"on singleLinePropertyParsed with a String named name, a String named value",
+			"    if name is like \"a\\\\..*\"",
+			"        call store from first using name, value",
+			"    else if name is \"a.b\"",
+			"        call store from second using name, value",
+			"    else if name is like \"p\\\\.q.*\"",
+			"        call store from first using name, value",
+			"        call store from second using name, value",
+			"    else if name is like \"[xz]\"",
+			"        call store from second using name, value",
+			"    else if name is \"x\"",
+			"        call store from first using name, value",
+			"    else",
+			"        call store from third using name, value",
+			"    endif",
+			"",
+			"    if name is \"y\"",
+			"        call store from first using name, value",
+			"    endif",
+			"endon"
+	};
+
+	private static final String[] DIRECTIVES_OVERRIDE =
+	{
+			"define fourth as new com.sporniket.libre.p3.PropertiesCatcher",
+			"on multipleLinePropertyParsed with a String named name, a String[] named value",
+			"    if name is \"m\"",
+			"        call store from fourth using name, value",
+			"    endif",
+			"endon"
+	};
+
+	@Test
+	public void testFirstMatchWins()
+	{
+		P3 _processor = TestUtils.createP3(DIRECTIVES);
+		_processor.setGeneratingDispatcher(true);
+		_processor.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("a.b", "1"));
+		_processor.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("x", "2"));
+		_processor.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("y", "3"));
+		_processor.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("p.q.r", "4"));
+		_processor.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("p.q\nr", "5"));
+
+		Map<String, String> _first = ((PropertiesCatcher) _processor.get("first")).getProperties();
+		Map<String, String> _second = ((PropertiesCatcher) _processor.get("second")).getProperties();
+		Map<String, String> _third = ((PropertiesCatcher) _processor.get("third")).getProperties();
+
+		// pattern declared before the exact match
+		assertThat(_first.get("a.b"), is("1"));
+		assertThat(_second.keySet(), not(hasItem("a.b")));
+
+		// pattern declared before the exact match
+		assertThat(_second.get("x"), is("2"));
+		assertThat(_first.keySet(), not(hasItem("x")));
+
+		// the catch all hides the rules declared after it
+		assertThat(_third.get("y"), is("3"));
+		assertThat(_first.keySet(), not(hasItem("y")));
+
+		// every processor of the rule is called, the wildcard does not match line terminators
+		assertThat(_first.get("p.q.r"), is("4"));
+		assertThat(_second.get("p.q.r"), is("4"));
+		assertThat(_third.get("p.q\nr"), is("5"));
+	}
+
+	@Test
+	public void testOverride()
+	{
+		P3 _processor = TestUtils.createP3(DIRECTIVES);
+		_processor.setGeneratingDispatcher(true);
+		_processor.setAllowingOverride(true);
+		_processor.onMultipleLinePropertyParsed(new MultipleLinePropertyParsedEvent(P3.DEFAULT_PROPERTY_NAME_FOR_DIRECTIVES,
+				DIRECTIVES_OVERRIDE));
+		_processor.onMultipleLinePropertyParsed(new MultipleLinePropertyParsedEvent("m", new String[]
+		{
+				"1", "2"
+		}));
+
+		Map<String, String> _fourth = ((PropertiesCatcher) _processor.get("fourth")).getProperties();
+		assertThat(_fourth.get("m"), is("1\n2"));
+	}
+}
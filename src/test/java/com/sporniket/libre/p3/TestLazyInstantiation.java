@@ -0,0 +1,193 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sporniket.libre.io.parser.properties.MultipleLinePropertyParsedEvent;
+import com.sporniket.libre.io.parser.properties.SingleLinePropertyParsedEvent;
+
+/**
+ * Unit testing of the lazy creation of the objects defined by the directives.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public class TestLazyInstantiation
+{
+	private static final String[] DIRECTIVES =
+	{
+			"define a as new com.sporniket.libre.p3.CountedCatcher",
+			"define b as new com.sporniket.libre.p3.CountedCatcher",
+			"on singleLinePropertyParsed with a String named name, a String named value",
+			"    if name is like \"a\\\\..*\"",
+			"        call store from a using name, value",
+			"    endif",
+			"    if name is like \"b\\\\..*\"",
+			"        call store from b using name, value",
+			"    endif",
+			"endon"
+	};
+
+	private static final String[] DIRECTIVES__BATCH =
+	{
+			"define a as new com.sporniket.libre.p3.CountedCatcher",
+			"define recorder as new com.sporniket.libre.p3.BatchRecorder",
+			"on singleLinePropertyParsed with a String named name, a String named value",
+			"    if name is like \"a\\\\..*\"",
+			"        call store from a using name, value",
+			"    endif",
+			"    if name is like \"b\\\\..*\"",
+			"        call recordAll from recorder using name, value",
+			"    endif",
+			"endon"
+	};
+
+	private static final String[] DIRECTIVES__MISSING_PROCESSOR =
+	{
+			"define a as new com.sporniket.libre.p3.CountedCatcher",
+			"on singleLinePropertyParsed with a String named name, a String named value",
+			"    if name is like \".*\"",
+			"        call missing from a using name, value",
+			"    endif",
+			"endon"
+	};
+
+	@Before
+	public void resetInstances()
+	{
+		CountedCatcher.INSTANCES.set(0);
+	}
+
+	@Test
+	public void testBatchHolderCreatedAtStartOfInput() throws Exception
+	{
+		P3 _p3 = createLazyP3(DIRECTIVES__BATCH);
+		assertThat(_p3.getIfCreated("recorder"), is((Object) null));
+
+		// the batch holder is created to be notified, the other objects are still created when needed
+		_p3.onStartOfInput();
+		BatchRecorder _recorder = (BatchRecorder) _p3.getIfCreated("recorder");
+		assertThat(_recorder.getStartCount(), is(1));
+		assertThat(CountedCatcher.INSTANCES.get(), is(0));
+
+		_p3.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("b.1", "1"));
+		_p3.onEndOfInput();
+
+		assertThat(_recorder.getStartCount(), is(1));
+		assertThat(_recorder.getEndCount(), is(1));
+		assertThat(_recorder.getNames(), is(Arrays.asList("b.1")));
+	}
+
+	@Test
+	public void testCreatedByGet() throws Exception
+	{
+		P3 _p3 = createLazyP3(DIRECTIVES);
+		Object _b = _p3.get("b");
+
+		assertThat(_b, instanceOf(CountedCatcher.class));
+		assertThat(_p3.get("b"), sameInstance(_b));
+		assertThat(CountedCatcher.INSTANCES.get(), is(1));
+	}
+
+	@Test
+	public void testCreatedByProcessor() throws Exception
+	{
+		P3 _p3 = createLazyP3(DIRECTIVES);
+		assertThat(CountedCatcher.INSTANCES.get(), is(0));
+
+		_p3.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("a.1", "1"));
+		_p3.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("a.2", "2"));
+
+		assertThat(CountedCatcher.INSTANCES.get(), is(1));
+		assertThat(_p3.getIfCreated("b"), is((Object) null));
+		assertThat(((PropertiesCatcher) _p3.get("a")).getProperties().get("a.2"), is("2"));
+	}
+
+	@Test
+	public void testFork() throws Exception
+	{
+		P3 _p3 = createLazyP3(DIRECTIVES);
+		_p3.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("a.1", "1"));
+		P3 _fork = _p3.fork();
+		assertThat(CountedCatcher.INSTANCES.get(), is(1));
+
+		_fork.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("a.2", "2"));
+
+		assertThat(CountedCatcher.INSTANCES.get(), is(2));
+		assertThat(((PropertiesCatcher) _fork.get("a")).getProperties().containsKey("a.1"), is(false));
+	}
+
+	@Test
+	public void testGeneratedDispatcher() throws Exception
+	{
+		P3 _p3 = new P3();
+		_p3.setGeneratingDispatcher(true);
+		_p3.setInstantiatingLazily(true);
+		_p3.onMultipleLinePropertyParsed(new MultipleLinePropertyParsedEvent(P3.DEFAULT_PROPERTY_NAME_FOR_DIRECTIVES, DIRECTIVES));
+		assertThat(CountedCatcher.INSTANCES.get(), is(0));
+
+		_p3.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("b.1", "1"));
+
+		assertThat(CountedCatcher.INSTANCES.get(), is(1));
+		assertThat(((PropertiesCatcher) _p3.get("b")).getProperties().get("b.1"), is("1"));
+	}
+
+	@Test
+	public void testMissingProcessorIsReported() throws Exception
+	{
+		try
+		{
+			createLazyP3(DIRECTIVES__MISSING_PROCESSOR);
+			fail("the missing processor must be reported");
+		}
+		catch (RuntimeException _exception)
+		{
+			// expected
+		}
+		assertThat(CountedCatcher.INSTANCES.get(), is(0));
+	}
+
+	private P3 createLazyP3(String[] directives)
+	{
+		P3 _result = new P3();
+		_result.setInstantiatingLazily(true);
+		_result.onMultipleLinePropertyParsed(new MultipleLinePropertyParsedEvent(P3.DEFAULT_PROPERTY_NAME_FOR_DIRECTIVES, directives));
+		return _result;
+	}
+}
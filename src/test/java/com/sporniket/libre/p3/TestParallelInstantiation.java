@@ -0,0 +1,190 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sporniket.libre.io.parser.properties.MultipleLinePropertyParsedEvent;
+import com.sporniket.libre.io.parser.properties.SingleLinePropertyParsedEvent;
+
+/**
+ * Unit testing of the creation of the objects defined by the directives at the same time, by an executor.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public class TestParallelInstantiation
+{
+	private static final String[] DIRECTIVES =
+	{
+			"define a as new com.sporniket.libre.p3.CountedCatcher",
+			"define b as new com.sporniket.libre.p3.CountedCatcher",
+			"define c as new com.sporniket.libre.p3.CountedCatcher",
+			"on singleLinePropertyParsed with a String named name, a String named value",
+			"    if name is like \"a\\\\..*\"",
+			"        call store from a using name, value",
+			"    endif",
+			"    if name is like \".*\"",
+			"        call store from c using name, value",
+			"    endif",
+			"endon"
+	};
+
+	private static final String[] DIRECTIVES__FAILING_FIRST =
+	{
+			"define a as new com.sporniket.libre.p3.FailingHolder",
+			"define b as new com.sporniket.libre.p3.NotExisting",
+			"on singleLinePropertyParsed with a String named name, a String named value",
+			"    if name is like \".*\"",
+			"        call store from a using name, value",
+			"    endif",
+			"endon"
+	};
+
+	private static final String[] DIRECTIVES__MISSING_FIRST =
+	{
+			"define b as new com.sporniket.libre.p3.NotExisting",
+			"define a as new com.sporniket.libre.p3.FailingHolder",
+			"on singleLinePropertyParsed with a String named name, a String named value",
+			"    if name is like \".*\"",
+			"        call store from a using name, value",
+			"    endif",
+			"endon"
+	};
+
+	private ExecutorService myExecutor;
+
+	@Before
+	public void createExecutor()
+	{
+		CountedCatcher.INSTANCES.set(0);
+		myExecutor = Executors.newFixedThreadPool(2);
+	}
+
+	@After
+	public void shutdownExecutor()
+	{
+		myExecutor.shutdown();
+	}
+
+	@Test
+	public void testFailuresInDeclarationOrder() throws Exception
+	{
+		assertThat(findRootCause(DIRECTIVES__FAILING_FIRST), instanceOf(IllegalStateException.class));
+		assertThat(findRootCause(DIRECTIVES__MISSING_FIRST), instanceOf(ClassNotFoundException.class));
+	}
+
+	@Test
+	public void testInstantiation() throws Exception
+	{
+		P3 _p3 = createP3(DIRECTIVES);
+		assertThat(CountedCatcher.INSTANCES.get(), is(3));
+
+		_p3.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("a.1", "1"));
+		_p3.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("b.1", "2"));
+
+		assertThat(((PropertiesCatcher) _p3.get("a")).getProperties().get("a.1"), is("1"));
+		assertThat(((PropertiesCatcher) _p3.get("b")).getProperties().isEmpty(), is(true));
+		assertThat(((PropertiesCatcher) _p3.get("c")).getProperties().get("b.1"), is("2"));
+	}
+
+	@Test
+	public void testRejectedInstantiation() throws Exception
+	{
+		// the first creation is accepted but not run, the second one is rejected
+		final List<Runnable> _accepted = new ArrayList<Runnable>();
+		Executor _executor = task -> {
+			if (!_accepted.isEmpty())
+			{
+				throw new RejectedExecutionException("full");
+			}
+			_accepted.add(task);
+		};
+		assertThat(findRootCause(DIRECTIVES, _executor), instanceOf(RejectedExecutionException.class));
+		assertThat(((Future<?>) _accepted.get(0)).isCancelled(), is(true));
+	}
+
+	private P3 createP3(String[] directives)
+	{
+		return createP3(directives, myExecutor);
+	}
+
+	private P3 createP3(String[] directives, Executor executor)
+	{
+		P3 _result = new P3();
+		_result.setInstantiationExecutor(executor);
+		_result.onMultipleLinePropertyParsed(new MultipleLinePropertyParsedEvent(P3.DEFAULT_PROPERTY_NAME_FOR_DIRECTIVES, directives));
+		return _result;
+	}
+
+	/**
+	 * @return the first cause of the failure of the directives.
+	 */
+	private Throwable findRootCause(String[] directives)
+	{
+		return findRootCause(directives, myExecutor);
+	}
+
+	/**
+	 * @return the first cause of the failure of the directives.
+	 */
+	private Throwable findRootCause(String[] directives, Executor executor)
+	{
+		try
+		{
+			createP3(directives, executor);
+			fail("the directives must fail");
+			return null;
+		}
+		catch (RuntimeException _exception)
+		{
+			Throwable _result = _exception;
+			while (null != _result.getCause())
+			{
+				_result = _result.getCause();
+			}
+			return _result;
+		}
+	}
+}
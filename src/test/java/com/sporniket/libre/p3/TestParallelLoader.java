@@ -0,0 +1,145 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import com.sporniket.libre.io.parser.properties.SingleLinePropertyParsedEvent;
+
+/**
+ * Unit testing of the parallel loading of several sources : independence of the forks, merge order, and report of failures.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public class TestParallelLoader
+{
+	private static final String[] DIRECTIVES =
+	{
+			"define catcher as new com.sporniket.libre.p3.MergeablePropertiesCatcher",
+			"on singleLinePropertyParsed with a String named name, a String named value",
+			"    if name is like \".*\"",
+			"        call store from catcher using name, value",
+			"    endif",
+			"endon"
+	};
+
+	private static final int SOURCES = 50;
+
+	/**
+	 * Each source is a list of name and value, the source <code>n</code> defines <code>common=n</code> and <code>key.n=n</code>.
+	 */
+	private static final PropertiesFeeder<Integer> FEEDER = (source, listener) -> {
+		if (source < 0)
+		{
+			throw new IllegalStateException("failure of " + source);
+		}
+		listener.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("common", String.valueOf(source)));
+		listener.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("key." + source, String.valueOf(source)));
+	};
+
+	@Test
+	public void testFork() throws Exception
+	{
+		P3 _p3 = TestUtils.createP3(DIRECTIVES);
+		P3 _fork = _p3.fork();
+		_fork.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("a", "1"));
+
+		assertThat(_fork.get("catcher"), not(sameInstance(_p3.get("catcher"))));
+		assertThat(((PropertiesCatcher) _fork.get("catcher")).getProperties().get("a"), is("1"));
+		assertThat(((PropertiesCatcher) _p3.get("catcher")).getProperties().isEmpty(), is(true));
+	}
+
+	@Test
+	public void testLoad() throws Exception
+	{
+		P3 _p3 = TestUtils.createP3(DIRECTIVES);
+		ExecutorService _executor = Executors.newFixedThreadPool(4);
+		try
+		{
+			P3 _result = new ParallelLoader(_p3, _executor).load(createSources(SOURCES), FEEDER);
+
+			PropertiesCatcher _catcher = (PropertiesCatcher) _result.get("catcher");
+			assertThat(_catcher.getProperties().size(), is(SOURCES + 1));
+			assertThat(_catcher.getProperties().get("common"), is(String.valueOf(SOURCES - 1)));
+			assertThat(_catcher.getProperties().get("key.7"), is("7"));
+			assertThat(((PropertiesCatcher) _p3.get("catcher")).getProperties().isEmpty(), is(true));
+		}
+		finally
+		{
+			_executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testLoadFailure() throws Exception
+	{
+		List<Integer> _sources = createSources(SOURCES);
+		_sources.set(10, -1);
+		_sources.set(20, -2);
+		ExecutorService _executor = Executors.newFixedThreadPool(4);
+		try
+		{
+			new ParallelLoader(TestUtils.createP3(DIRECTIVES), _executor).load(_sources, FEEDER);
+			fail("the failure must be reported");
+		}
+		catch (ExecutionException _exception)
+		{
+			assertThat(_exception.getCause(), instanceOf(IllegalStateException.class));
+			assertThat(_exception.getCause().getMessage(), is("failure of -1"));
+		}
+		finally
+		{
+			_executor.shutdown();
+		}
+	}
+
+	private List<Integer> createSources(int count)
+	{
+		List<Integer> _result = new ArrayList<Integer>(count);
+		for (int _i = 0; _i < count; _i++)
+		{
+			_result.add(_i);
+		}
+		return _result;
+	}
+}
@@ -0,0 +1,81 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.junit.Test;
+
+/**
+ * Unit testing of the direct invocation of processors : the processor is called, and failures are reported like with reflection.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public class TestProcessorInvoker
+{
+	@Test
+	public void testFailureIsWrapped() throws NoSuchMethodException
+	{
+		Method _processor = PropertiesCatcher.class.getMethod("store", String.class, String[].class);
+		ProcessorSpec _spec = new ProcessorSpec(new PropertiesCatcher(), _processor, ProcessorInvokerFactory.create(_processor));
+		try
+		{
+			_spec.process("a", (String[]) null);
+			fail("a NullPointerException was expected");
+		}
+		catch (RuntimeException _exception)
+		{
+			assertThat(_exception.getCause(), instanceOf(InvocationTargetException.class));
+			assertThat(_exception.getCause().getCause(), instanceOf(NullPointerException.class));
+		}
+	}
+
+	@Test
+	public void testInvocation() throws Throwable
+	{
+		Method _processor = PropertiesCatcher.class.getMethod("store", String.class, String[].class);
+		ProcessorInvoker _invoker = ProcessorInvokerFactory.create(_processor);
+		assertThat(_invoker, notNullValue());
+
+		PropertiesCatcher _catcher = new PropertiesCatcher();
+		_invoker.process(_catcher, "a", new String[]
+		{
+				"1", "2"
+		});
+		assertThat(_catcher.getProperties().get("a"), is("1\n2"));
+	}
+}
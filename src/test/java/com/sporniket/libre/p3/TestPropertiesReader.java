@@ -0,0 +1,212 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.sporniket.libre.io.parser.properties.MultipleLinePropertyParsedEvent;
+import com.sporniket.libre.io.parser.properties.PropertiesParsingListener;
+import com.sporniket.libre.io.parser.properties.SingleLinePropertyParsedEvent;
+
+/**
+ * Unit testing of the reader of properties files : syntax, decoding, and dispatch to a P3 or to any listener.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public class TestPropertiesReader
+{
+	private static final String UTF8_VALUE = "\u00e9\u20ac\ud83d\ude00";
+
+	private static final String SOURCE = "# setup\r\n" //
+			+ "__DIRECTIVES__ = <<<END\r\n" //
+			+ "define catcher as new com.sporniket.libre.p3.PropertiesCatcher\r\n" //
+			+ "on singleLinePropertyParsed with a String named name, a String named value\r\n" //
+			+ "    if name is like \"a\\\\..*\"\r\n" //
+			+ "        call store from catcher using name, value\r\n" //
+			+ "    endif\r\n" //
+			+ "endon\r\n" //
+			+ "on multipleLinePropertyParsed with a String named name, a String[] named value\r\n" //
+			+ "    if name is like \"a\\\\..*\"\r\n" //
+			+ "        call store from catcher using name, value\r\n" //
+			+ "    endif\r\n" //
+			+ "endon\r\n" //
+			+ "  END  \r\n" //
+			+ "! comment\n" //
+			+ "a.equal=1\n" //
+			+ "  a.colon : 2\n" //
+			+ "a.space 3\r" //
+			+ "a.continued = first, \\\n" //
+			+ "      second\n" //
+			+ "a.escaped\\=name=tab\\tunicode\\u00e9\\\\\n" //
+			+ "a.text=<<<EOT\n" //
+			+ "  line 1\n" //
+			+ "line 2\\\n" //
+			+ "EOT\n" //
+			+ "b.ignored=4\n" //
+			+ "a.utf8=" + UTF8_VALUE + "\n" //
+			+ "a.last=5";
+
+	@Test
+	public void testListener() throws Exception
+	{
+		final List<String> _names = new ArrayList<String>();
+		PropertiesParsingListener _listener = new PropertiesParsingListener()
+		{
+			@Override
+			public void onMultipleLinePropertyParsed(MultipleLinePropertyParsedEvent event)
+			{
+				_names.add(event.getName() + "[" + event.getValue().length + "]");
+			}
+
+			@Override
+			public void onSingleLinePropertyParsed(SingleLinePropertyParsedEvent event)
+			{
+				_names.add(event.getName());
+			}
+		};
+		new PropertiesReader(_listener).read(ByteBuffer.wrap("a=1\nb=<<<X\n1\n2\nX\nc".getBytes(StandardCharsets.ISO_8859_1)));
+
+		assertThat(_names.toString(), is("[a, b[2], c]"));
+	}
+
+	@Test
+	public void testReadIso88591() throws Exception
+	{
+		P3 _p3 = read(StandardCharsets.ISO_8859_1, 0);
+
+		assertThat(getProperties(_p3).get("a.equal"), is("1"));
+		assertThat(getProperties(_p3).get("a.utf8"),
+				is(new String(UTF8_VALUE.getBytes(StandardCharsets.UTF_8), StandardCharsets.ISO_8859_1)));
+	}
+
+	@Test
+	public void testReadMapped() throws Exception
+	{
+		assertProperties(read(StandardCharsets.UTF_8, 0));
+	}
+
+	@Test
+	public void testReadOtherCharset() throws Exception
+	{
+		assertProperties(read(Charset.forName("UTF-16LE"), PropertiesReader.DEFAULT_MAPPING_THRESHOLD));
+	}
+
+	@Test
+	public void testReadUtf8() throws Exception
+	{
+		assertProperties(read(StandardCharsets.UTF_8, PropertiesReader.DEFAULT_MAPPING_THRESHOLD));
+	}
+
+	@Test
+	public void testReadUtf8Malformed() throws Exception
+	{
+		final List<String> _values = new ArrayList<String>();
+		PropertiesParsingListener _listener = new PropertiesParsingListener()
+		{
+			@Override
+			public void onMultipleLinePropertyParsed(MultipleLinePropertyParsedEvent event)
+			{
+				_values.add(String.join("\n", event.getValue()));
+			}
+
+			@Override
+			public void onSingleLinePropertyParsed(SingleLinePropertyParsedEvent event)
+			{
+				_values.add(event.getValue());
+			}
+		};
+		byte[] _input =
+		{
+				// overlong '/'
+				'a', '=', (byte) 0xC0, (byte) 0xAF, '\n',
+				// encoded surrogate U+D800
+				'b', '=', (byte) 0xED, (byte) 0xA0, (byte) 0x80, '\n',
+				// above U+10FFFF
+				'c', '=', (byte) 0xF7, (byte) 0xBF, (byte) 0xBF, (byte) 0xBF, '\n',
+				// truncated sequence, then a valid one
+				'd', '=', (byte) 0xE2, (byte) 0x82, 'x', (byte) 0xE2, (byte) 0x82, (byte) 0xAC
+		};
+		new PropertiesReader(_listener, StandardCharsets.UTF_8).read(ByteBuffer.wrap(_input));
+
+		assertThat(_values, is(Arrays.asList("\ufffd", "\ufffd", "\ufffd", "\ufffdx\u20ac")));
+	}
+
+	private void assertProperties(P3 p3)
+	{
+		Map<String, String> _properties = getProperties(p3);
+		assertThat(_properties.get("a.equal"), is("1"));
+		assertThat(_properties.get("a.colon"), is("2"));
+		assertThat(_properties.get("a.space"), is("3"));
+		assertThat(_properties.get("a.continued"), is("first, second"));
+		assertThat(_properties.get("a.escaped=name"), is("tab\tunicode\u00e9\\"));
+		assertThat(_properties.get("a.text"), is("  line 1\nline 2\\"));
+		assertThat(_properties.get("a.utf8"), is(UTF8_VALUE));
+		assertThat(_properties.get("a.last"), is("5"));
+		assertThat(_properties.size(), is(8));
+	}
+
+	private Map<String, String> getProperties(P3 p3)
+	{
+		return ((PropertiesCatcher) p3.get("catcher")).getProperties();
+	}
+
+	private P3 read(Charset charset, int mappingThreshold) throws Exception
+	{
+		Path _file = Files.createTempFile("p3-", ".properties");
+		try
+		{
+			// read as ISO-8859-1, each byte of the UTF-8 source is a character
+			Charset _encoding = StandardCharsets.ISO_8859_1.equals(charset) ? StandardCharsets.UTF_8 : charset;
+			Files.write(_file, SOURCE.getBytes(_encoding));
+			P3 _result = new P3();
+			PropertiesReader _reader = new PropertiesReader(_result, charset);
+			_reader.setMappingThreshold(mappingThreshold);
+			_reader.read(_file);
+			return _result;
+		}
+		finally
+		{
+			Files.delete(_file);
+		}
+	}
+}
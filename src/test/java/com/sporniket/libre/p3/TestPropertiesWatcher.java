@@ -0,0 +1,194 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Unit testing of the watcher of properties files : dispatch of the changed properties only, report of the removed properties, and
+ * reload on change.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public class TestPropertiesWatcher
+{
+	private static final String[] DIRECTIVES =
+	{
+			"define recorder as new com.sporniket.libre.p3.SequenceRecorder",
+			"on singleLinePropertyParsed with a String named name, a String named value",
+			"    if name is like \"a\\\\..*\"",
+			"        call record from recorder using name, value",
+			"    endif",
+			"endon"
+	};
+
+	private static final String SOURCE__FIRST = "a.1=1\na.2=2\na.3=3\nb.1=4\n";
+
+	private static final String SOURCE__SECOND = "a.1=1\na.2=two\nb.1=4\na.4=4\n";
+
+	@Test
+	public void testReload() throws Exception
+	{
+		P3 _p3 = TestUtils.createP3(DIRECTIVES);
+		Path _file = Files.createTempFile("p3-", ".properties");
+		try (PropertiesWatcher _watcher = new PropertiesWatcher(_p3))
+		{
+			final List<String> _removed = new ArrayList<String>();
+			_watcher.setRemovalListener((file, name) -> _removed.add(name));
+			Files.write(_file, SOURCE__FIRST.getBytes(StandardCharsets.ISO_8859_1));
+			_watcher.watch(_file);
+			assertThat(getValues(_p3).toString(), is("[1, 2, 3]"));
+
+			Files.write(_file, SOURCE__SECOND.getBytes(StandardCharsets.ISO_8859_1));
+			assertThat(_watcher.reload(_file), is(3));
+			assertThat(getValues(_p3).toString(), is("[1, 2, 3, two, 4]"));
+			assertThat(_removed.toString(), is("[a.3]"));
+
+			assertThat(_watcher.reload(_file), is(0));
+			assertThat(getValues(_p3).size(), is(5));
+		}
+		finally
+		{
+			Files.delete(_file);
+		}
+	}
+
+	@Test
+	public void testReloadDuplicateKeys() throws Exception
+	{
+		P3 _p3 = TestUtils.createP3(DIRECTIVES);
+		Path _file = Files.createTempFile("p3-", ".properties");
+		try (PropertiesWatcher _watcher = new PropertiesWatcher(_p3))
+		{
+			Files.write(_file, "a.1=1\na.1=2\n".getBytes(StandardCharsets.ISO_8859_1));
+			_watcher.watch(_file);
+			assertThat(getValues(_p3).toString(), is("[2]"));
+
+			// the last value wins
+			assertThat(_watcher.reload(_file), is(0));
+			Files.write(_file, "a.1=5\na.1=2\n".getBytes(StandardCharsets.ISO_8859_1));
+			assertThat(_watcher.reload(_file), is(0));
+			Files.write(_file, "a.1=1\na.1=3\n".getBytes(StandardCharsets.ISO_8859_1));
+			assertThat(_watcher.reload(_file), is(1));
+			assertThat(getValues(_p3).toString(), is("[2, 3]"));
+		}
+		finally
+		{
+			Files.delete(_file);
+		}
+	}
+
+	@Test
+	public void testReloadEmptyHereDocument() throws Exception
+	{
+		Path _file = Files.createTempFile("p3-", ".properties");
+		try (PropertiesWatcher _watcher = new PropertiesWatcher(TestUtils.createP3(DIRECTIVES)))
+		{
+			Files.write(_file, "a.1=\n".getBytes(StandardCharsets.ISO_8859_1));
+			_watcher.watch(_file);
+
+			// an empty here document is not an empty value
+			Files.write(_file, "a.1=<<<END\nEND\n".getBytes(StandardCharsets.ISO_8859_1));
+			assertThat(_watcher.reload(_file), is(1));
+			assertThat(_watcher.reload(_file), is(0));
+		}
+		finally
+		{
+			Files.delete(_file);
+		}
+	}
+
+	@Test
+	public void testWatch() throws Exception
+	{
+		P3 _p3 = TestUtils.createP3(DIRECTIVES);
+		Path _directory = Files.createTempDirectory("p3-");
+		Path _file = _directory.resolve("watched.properties");
+		try (PropertiesWatcher _watcher = new PropertiesWatcher(_p3))
+		{
+			_watcher.setDebounceDelay(20);
+			_watcher.watch(_file);
+			assertThat(getValues(_p3).isEmpty(), is(true));
+
+			Files.write(_file, SOURCE__FIRST.getBytes(StandardCharsets.ISO_8859_1));
+			awaitValueCount(_watcher, _p3, 3);
+			Files.write(_file, SOURCE__SECOND.getBytes(StandardCharsets.ISO_8859_1));
+			awaitValueCount(_watcher, _p3, 5);
+
+			synchronized (_watcher)
+			{
+				assertThat(getValues(_p3).subList(3, 5), is(Arrays.asList("two", "4")));
+			}
+			assertThat(_watcher.takeFailure(), nullValue());
+		}
+		finally
+		{
+			Files.deleteIfExists(_file);
+			Files.delete(_directory);
+		}
+	}
+
+	/**
+	 * Wait for the reload of the file, the reloads being synchronized on the watcher.
+	 */
+	private void awaitValueCount(PropertiesWatcher watcher, P3 p3, int count) throws InterruptedException
+	{
+		long _deadline = System.currentTimeMillis() + 30000;
+		while (System.currentTimeMillis() < _deadline)
+		{
+			synchronized (watcher)
+			{
+				if (getValues(p3).size() >= count)
+				{
+					return;
+				}
+			}
+			Thread.sleep(10);
+		}
+		fail("file not reloaded");
+	}
+
+	private List<String> getValues(P3 p3)
+	{
+		return ((SequenceRecorder) p3.get("recorder")).getValues();
+	}
+}
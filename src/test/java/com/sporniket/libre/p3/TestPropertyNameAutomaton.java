@@ -0,0 +1,133 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+/**
+ * Unit testing of {@link PropertyNameAutomaton}, the result must be the same as evaluating each regular expression in order with
+ * {@link Pattern}.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public class TestPropertyNameAutomaton
+{
+	private static final String[] NAMES =
+	{
+			"", "foo", "foo.", "foo.bar", "foo.bar.baz", "foo2.bar", "fooo", "bar", "bar.1", "bar.12", "bar.x", "a b", "a\nb", "a\u2028b",
+			"\u00e9t\u00e9", "\ud83d\ude00", "x\ud83d\ude00y", "[ab]", "a-b", "a_b"
+	};
+
+	private static final String[] PATTERNS =
+	{
+			"foo\\..*", "foo(2)?\\.bar", "fo+", "bar\\.\\d+", "bar\\.[^0-9]", "(?:a|b)[ -_]b", "a.b", "\\w\\W\\w", "\\S*", "x.y",
+			"\\[ab\\]", "[\u00e0-\u00ff]t[^a-z]", ".*"
+	};
+
+	@Test
+	public void testSameResultAsPattern()
+	{
+		PropertyNameAutomaton.Builder _builder = new PropertyNameAutomaton.Builder();
+		for (int _index = 0; _index < PATTERNS.length; _index++)
+		{
+			assertThat(PATTERNS[_index], _builder.add(PATTERNS[_index], _index), is(true));
+		}
+		PropertyNameAutomaton _automaton = _builder.build();
+
+		// the second pass uses the cached transitions
+		for (int _pass = 0; _pass < 2; _pass++)
+		{
+			for (String _name : NAMES)
+			{
+				int _expected = PropertyNameAutomaton.NO_MATCH;
+				for (int _index = 0; _index < PATTERNS.length; _index++)
+				{
+					if (Pattern.compile(PATTERNS[_index]).matcher(_name).matches())
+					{
+						_expected = _index;
+						break;
+					}
+				}
+				assertThat(_name, _automaton.findFirstMatchingRule(_name), is(_expected));
+			}
+		}
+	}
+
+	@Test
+	public void testStateCacheCleared()
+	{
+		// the deterministic automaton of this expression has 2^13 states, more than the cache can keep
+		StringBuilder _pattern = new StringBuilder("[ab\u00e9]*\u00e9");
+		for (int _index = 0; _index < 12; _index++)
+		{
+			_pattern.append("[ab\u00e9]");
+		}
+		PropertyNameAutomaton.Builder _builder = new PropertyNameAutomaton.Builder();
+		assertThat(_builder.add(_pattern.toString(), 0), is(true));
+		PropertyNameAutomaton _automaton = _builder.build();
+		Pattern _expected = Pattern.compile(_pattern.toString());
+		Random _random = new Random(42);
+		char[] _alphabet =
+		{
+				'a', 'b', '\u00e9'
+		};
+		for (int _count = 0; _count < 2000; _count++)
+		{
+			char[] _name = new char[13 + _random.nextInt(20)];
+			for (int _index = 0; _index < _name.length; _index++)
+			{
+				_name[_index] = _alphabet[_random.nextInt(_alphabet.length)];
+			}
+			String _text = new String(_name);
+			assertThat(_text, _automaton.findFirstMatchingRule(_text),
+					is(_expected.matcher(_text).matches() ? 0 : PropertyNameAutomaton.NO_MATCH));
+		}
+	}
+
+	@Test
+	public void testUnsupportedConstructs()
+	{
+		PropertyNameAutomaton.Builder _builder = new PropertyNameAutomaton.Builder();
+		for (String _pattern : new String[]
+		{
+				"a{2}", "a*?", "a++", "(?i)foo", "^foo$", "\\Qfoo\\E", "[a-z&&[^b]]", "(a)\\1", "\\p{L}+", "\\bfoo"
+		})
+		{
+			assertThat(_pattern, _builder.add(_pattern, 0), is(false));
+		}
+		assertThat(_builder.isEmpty(), is(true));
+	}
+}
@@ -0,0 +1,94 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+/**
+ * Unit testing of {@link PropertyNameSegmentTrie}, the result must be the same as evaluating each regular expression in order with
+ * {@link Pattern}.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public class TestPropertyNameSegmentTrie
+{
+	private static final String[] NAMES =
+	{
+			"", "db", "db.", "db.pool", "db.pool.size", "db.poolSize", "dbx.pool", "server", "server.port", "server.port.\nx",
+			"server\n.port", "serverport", "a.b.c", "a.b.cd", "a.b", "x"
+	};
+
+	private static final String[] PATTERNS =
+	{
+			"db\\.pool\\..*", "db\\.pool", "server\\..*", "a\\.b\\.c.*", "db.*", "a\\.b", "server", ".*"
+	};
+
+	@Test
+	public void testSameResultAsPattern()
+	{
+		PropertyNameSegmentTrie _trie = new PropertyNameSegmentTrie();
+		for (int _index = 0; _index < PATTERNS.length; _index++)
+		{
+			assertThat(PATTERNS[_index], PropertyNameMatcherPrefix.isSupported(PATTERNS[_index]), is(true));
+			_trie.add(new PropertyNameMatcherPrefix(PATTERNS[_index]), _index);
+		}
+
+		for (String _name : NAMES)
+		{
+			int _expected = PropertyNameSegmentTrie.NO_MATCH;
+			for (int _index = 0; _index < PATTERNS.length; _index++)
+			{
+				if (Pattern.compile(PATTERNS[_index]).matcher(_name).matches())
+				{
+					_expected = _index;
+					break;
+				}
+			}
+			assertThat(_name, _trie.findFirstMatchingRule(_name), is(_expected));
+		}
+	}
+
+	@Test
+	public void testUnsupportedPatterns()
+	{
+		for (String _pattern : new String[]
+		{
+				"db\\.*", "db\\..+", ".*\\.port", "db\\d", "(db)\\..*", "db.pool"
+		})
+		{
+			assertThat(_pattern, PropertyNameMatcherPrefix.isSupported(_pattern), is(false));
+		}
+	}
+}
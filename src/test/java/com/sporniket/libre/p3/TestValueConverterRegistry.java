@@ -0,0 +1,97 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.sporniket.libre.io.parser.properties.SingleLinePropertyParsedEvent;
+
+/**
+ * Unit testing of the conversion of values by {@link com.sporniket.libre.p3.builtins.WrappedObjectMapperProcessor} : default
+ * converters, registered converters and inherited setters.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public class TestValueConverterRegistry
+{
+	private static final String[] DIRECTIVES =
+	{
+			"define foo as new com.sporniket.libre.p3.RichNodeMapper",
+			"on singleLinePropertyParsed with a String named name, a String named value",
+			"    if name is like \".*\"",
+			"        call process from foo using name, value",
+			"    endif",
+			"endon"
+	};
+
+	@Test
+	public void testConverterRegisteredLater()
+	{
+		P3 _processor = TestUtils.createP3(DIRECTIVES);
+		RichNodeMapper _mapper = (RichNodeMapper) _processor.get("foo");
+		_processor.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("count", "3"));
+		assertThat(_mapper.getNode().getCount(), is(3));
+
+		// the setter already found for the path must use the new converter
+		_mapper.getConverters().register(Integer.class, value -> Integer.valueOf(value) * 10);
+		_processor.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("count", "4"));
+		assertThat(_mapper.getNode().getCount(), is(40));
+	}
+
+	@Test
+	public void testConverters()
+	{
+		P3 _processor = TestUtils.createP3(DIRECTIVES);
+		_processor.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("amount", "12.50"));
+		_processor.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("count", "3"));
+		_processor.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("delay", "PT15M"));
+		_processor.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("unit", "SECONDS"));
+		_processor.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("locale", "fr-FR"));
+		_processor.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("longValue", "42"));
+
+		RichNode _node = ((RichNodeMapper) _processor.get("foo")).getNode();
+		assertThat(_node.getAmount(), is(new BigDecimal("12.50")));
+		assertThat(_node.getCount(), is(3));
+		assertThat(_node.getDelay(), is(Duration.ofMinutes(15)));
+		assertThat(_node.getUnit(), is(TimeUnit.SECONDS));
+		assertThat(_node.getLocale(), is(Locale.FRANCE));
+
+		// inherited setter
+		assertThat(_node.getLongValue(), is(42L));
+	}
+}
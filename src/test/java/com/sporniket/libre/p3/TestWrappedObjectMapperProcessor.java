@@ -88,4 +88,23 @@ public class TestWrappedObjectMapperProcessor
 
 	}
 
+	@Test
+	public void testMapperReusingAccessPath()
+	{
+		P3 _processor = TestUtils.createP3(DIRECTIVES);
+		Root _root = ((RootMapper) _processor.get("foo")).getRoot();
+		_processor.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("child.longValue", "4"));
+		Node _firstChild = _root.getChild();
+
+		// the getters are called again, only their lookup is remembered
+		_root.setChild(new Node());
+		_processor.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("child.longValue", "5"));
+		_processor.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("intValue", "6"));
+		_processor.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("intValue", "7"));
+
+		assertThat(_firstChild.getLongValue(), is(4L));
+		assertThat(_root.getChild().getLongValue(), is(5L));
+		assertThat(_root.getIntValue(), is(7));
+	}
+
 }
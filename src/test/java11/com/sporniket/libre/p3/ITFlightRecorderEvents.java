@@ -0,0 +1,130 @@
+/**
+ * 
+ */
+package com.sporniket.libre.p3;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.sporniket.libre.io.parser.properties.SingleLinePropertyParsedEvent;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Integration testing of the version of {@link FlightRecorderEvents} emitting the events, from the multi-release jar : fields of the
+ * events of the execution of directives and of the dispatch of properties.
+ * 
+ * <p>
+ * &copy; Copyright 2016 David Sporn
+ * </p>
+ * <hr>
+ * 
+ * <p>
+ * This file is part of <i>P3, the Programmable Properties Processor</i>.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version.
+ * 
+ * <p>
+ * <i>P3, the Programmable Properties Processor</i> is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ * 
+ * <p>
+ * You should have received a copy of the GNU General Public License along with <i>P3, the Programmable Properties Processor</i>. If
+ * not, see <a href="http://www.gnu.org/licenses/">http://www.gnu.org/licenses/</a>.
+ * 
+ * <hr>
+ * 
+ * @author David SPORN
+ * @version 6
+ * @since 6
+ */
+public class ITFlightRecorderEvents
+{
+	/**
+	 * Directives used only by this test, thus compiled when executed.
+	 */
+	private static final String[] DIRECTIVES =
+	{
+			"define catcher as new com.sporniket.libre.p3.PropertiesCatcher",
+			"define recorder as new com.sporniket.libre.p3.SequenceRecorder",
+			"on singleLinePropertyParsed with a String named name, a String named value",
+			"    if name is like \"jfr\\\\..*\"",
+			"        call store from catcher using name, value",
+			"        call record from recorder using name, value",
+			"    endif",
+			"endon"
+	};
+
+	private static final String EVENT__DIRECTIVES_EXECUTION = "com.sporniket.libre.p3.DirectivesExecution";
+
+	private static final String EVENT__DISPATCH = "com.sporniket.libre.p3.Dispatch";
+
+	@Test
+	public void testDirectivesExecution() throws Exception
+	{
+		List<RecordedEvent> _events = record(EVENT__DIRECTIVES_EXECUTION, () -> TestUtils.createP3(DIRECTIVES));
+
+		assertThat(_events.size(), is(1));
+		RecordedEvent _event = _events.get(0);
+		assertThat(_event.getBoolean("executed"), is(true));
+		assertThat(_event.getInt("defines"), is(2));
+		assertThat(_event.getInt("rules"), is(1));
+		assertThat(_event.getInt("calls"), is(2));
+		assertThat(_event.getInt("statements"), is(5));
+	}
+
+	@Test
+	public void testDispatch() throws Exception
+	{
+		final P3 _p3 = TestUtils.createP3(DIRECTIVES);
+		List<RecordedEvent> _events = record(EVENT__DISPATCH, () -> {
+			_p3.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("jfr.1", "1"));
+			_p3.onSingleLinePropertyParsed(new SingleLinePropertyParsedEvent("other", "2"));
+		});
+
+		assertThat(_events.size(), is(2));
+		assertThat(_events.get(0).getString("name"), is("jfr.1"));
+		assertThat(_events.get(0).getString("rule"), is(_p3.findMatchingRuleForSingleLineProperty("jfr.1").getMatcher().toString()));
+		assertThat(_events.get(1).getString("rule"), is((String) null));
+		assertThat(((PropertiesCatcher) _p3.get("catcher")).getProperties().get("jfr.1"), is("1"));
+	}
+
+	/**
+	 * Record the events of the given type while running an action, whatever their duration.
+	 */
+	private List<RecordedEvent> record(String eventName, Runnable action) throws Exception
+	{
+		Path _file = Files.createTempFile("p3-", ".jfr");
+		try
+		{
+			try (Recording _recording = new Recording())
+			{
+				_recording.enable(eventName).withThreshold(Duration.ZERO);
+				_recording.start();
+				action.run();
+				_recording.stop();
+				_recording.dump(_file);
+			}
+			return RecordingFile.readAllEvents(_file).stream()
+					.filter(_event -> eventName.equals(_event.getEventType().getName())).collect(Collectors.toList());
+		}
+		finally
+		{
+			Files.delete(_file);
+		}
+	}
+}